@@ -0,0 +1,85 @@
+-- Admin directory queries (CompanyRepo.findDirectory / searchDirectory) over many tenants, against a
+-- database migrated to V11 (run the app once, or flyway migrate, first).
+--
+--   psql -d finaldb -v tenants=50000 -v items=20 -f company_directory_bench.sql
+--
+-- Creates tenants companies with items inventory rows and items / 2 employees each (the triggers fill
+-- company_stats as the rows go in), then explains the first and a deep page, a sort by an aggregate and
+-- a name search. Everything it created is deleted at the end; the target is well under 100 ms per query.
+
+\if :{?tenants}
+\else
+\set tenants 50000
+\endif
+\if :{?items}
+\else
+\set items 20
+\endif
+\timing on
+
+CREATE TEMP TABLE bench_tenant AS
+WITH new_users AS (
+    INSERT INTO users (username, password, role)
+    SELECT 'directory-bench-' || g, 'x', 'USER' FROM generate_series(1, :tenants) g
+    RETURNING id, username)
+SELECT id AS user_id, username FROM new_users;
+
+INSERT INTO company (company_name, user_id, plan)
+SELECT 'Bench ' || md5(username), user_id, CASE WHEN random() < 0.1 THEN 'premium' ELSE 'standard' END
+FROM bench_tenant;
+
+INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock, receipts,
+                       issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+SELECT 'sku-' || g, 10, 5, round((random() * 1000)::numeric, 2), 0, 0, 0, 0, 10, 5, 5, 'False', c.id
+FROM company c JOIN bench_tenant t ON t.user_id = c.user_id CROSS JOIN generate_series(1, :items) g;
+
+INSERT INTO employee (name, dept, grade, salary, company_id)
+SELECT 'employee-' || g, 'Ops', 'B', 1000, c.id
+FROM company c JOIN bench_tenant t ON t.user_id = c.user_id CROSS JOIN generate_series(1, :items / 2) g;
+
+VACUUM ANALYZE company;
+VACUUM ANALYZE company_stats;
+
+-- First page in name order: walks ix_company_name_id and stops after 50 rows
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT c.id, c.company_name, c.capacity, c.location, c.plan, COALESCE(s.inventory_count, 0),
+       COALESCE(s.employee_count, 0), COALESCE(s.total_stock_value, 0)::float8
+FROM company c LEFT JOIN company_stats s ON s.company_id = c.id
+ORDER BY c.company_name, c.id
+LIMIT 50;
+
+-- A deep page: the offset is skipped in the index
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT c.id, c.company_name, c.capacity, c.location, c.plan, COALESCE(s.inventory_count, 0),
+       COALESCE(s.employee_count, 0), COALESCE(s.total_stock_value, 0)::float8
+FROM company c LEFT JOIN company_stats s ON s.company_id = c.id
+ORDER BY c.company_name, c.id
+LIMIT 50 OFFSET 40000;
+
+-- Largest tenants first: a top-N sort over the rollup rows, never over inventory
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT c.id, c.company_name, c.capacity, c.location, c.plan, COALESCE(s.inventory_count, 0) AS inventory_count,
+       COALESCE(s.employee_count, 0), COALESCE(s.total_stock_value, 0)::float8
+FROM company c LEFT JOIN company_stats s ON s.company_id = c.id
+WHERE c.plan = 'premium'
+ORDER BY inventory_count DESC, c.id
+LIMIT 50;
+
+-- Name search through ix_company_name_trgm, with its count
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT c.id, c.company_name, COALESCE(s.inventory_count, 0)
+FROM company c LEFT JOIN company_stats s ON s.company_id = c.id
+WHERE c.company_name ILIKE '%abc%'
+ORDER BY c.company_name, c.id
+LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM company c WHERE c.company_name ILIKE '%abc%';
+
+-- The unpaged count every directory request also runs
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM company c;
+
+DELETE FROM employee WHERE company_id IN (SELECT c.id FROM company c JOIN bench_tenant t ON t.user_id = c.user_id);
+DELETE FROM inventory WHERE company_id IN (SELECT c.id FROM company c JOIN bench_tenant t ON t.user_id = c.user_id);
+DELETE FROM company WHERE user_id IN (SELECT user_id FROM bench_tenant);
+DELETE FROM users WHERE id IN (SELECT user_id FROM bench_tenant);
@@ -0,0 +1,73 @@
+-- Capacity-utilization and rollup reads for one company with many items and locations, against a
+-- database migrated to V7 (run the app once, or flyway migrate, first).
+--
+--   psql -d finaldb -v skus=100000 -v locations=50 -f locations_bench.sql
+--
+-- Creates a throwaway company, loads skus x locations stock rows in one statement (the statement-level
+-- triggers build the rollups as it goes), then compares reading the rollups with aggregating on read.
+-- Everything it created is deleted at the end.
+
+\if :{?skus}
+\else
+\set skus 100000
+\endif
+\if :{?locations}
+\else
+\set locations 50
+\endif
+\timing on
+
+INSERT INTO users (username, password, role) VALUES ('locations-bench', 'x', 'USER') RETURNING id AS bench_user \gset
+INSERT INTO company (company_name, user_id, plan) VALUES ('Locations bench', :bench_user, 'standard') RETURNING id AS bench_company \gset
+
+INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock, receipts,
+                       issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+SELECT 'sku-' || g, 0, round((random() * 500)::numeric, 2), 0, 0, 0, 0, 0, 0, 5, 5, 'False', :bench_company
+FROM generate_series(1, :skus) g;
+
+INSERT INTO location (company_id, name, capacity)
+SELECT :bench_company, 'warehouse-' || g, (:skus * 60)
+FROM generate_series(1, :locations) g;
+
+-- skus x locations rows; about a fifth of the pairs hold no stock
+INSERT INTO stock_level (inventory_id, location_id, company_id, quantity)
+SELECT i.id, l.id, :bench_company, CASE WHEN random() < 0.2 THEN 0 ELSE (random() * 100)::int END
+FROM inventory i CROSS JOIN location l
+WHERE i.company_id = :bench_company AND l.company_id = :bench_company;
+
+VACUUM ANALYZE location;
+VACUUM ANALYZE location_stock;
+VACUUM ANALYZE stock_level;
+
+-- LocationRepo.findStockByCompanyId: reads the rollups
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.id, l.name, l.capacity, COALESCE(s.total_quantity, 0), COALESCE(s.sku_count, 0)
+FROM location l LEFT JOIN location_stock s ON s.location_id = l.id
+WHERE l.company_id = :bench_company
+ORDER BY l.name;
+
+-- The same numbers aggregated on read, for comparison
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.id, l.name, l.capacity, COALESCE(sum(sl.quantity), 0), count(*) FILTER (WHERE sl.quantity > 0)
+FROM location l LEFT JOIN stock_level sl ON sl.location_id = l.id
+WHERE l.company_id = :bench_company
+GROUP BY l.id, l.name, l.capacity
+ORDER BY l.name;
+
+-- LocationRepo.findStockSummaryByCompanyId
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*), COALESCE(sum(l.capacity), 0), COALESCE(sum(s.total_quantity), 0), COALESCE(sum(s.sku_count), 0)
+FROM location l LEFT JOIN location_stock s ON s.location_id = l.id
+WHERE l.company_id = :bench_company;
+
+-- The rollups must agree with the detail rows
+SELECT bool_and(s.total_quantity = d.quantity AND s.sku_count = d.skus) AS rollups_consistent
+FROM location_stock s
+JOIN (SELECT location_id, sum(quantity) AS quantity, count(*) FILTER (WHERE quantity > 0) AS skus
+      FROM stock_level WHERE company_id = :bench_company GROUP BY location_id) d ON d.location_id = s.location_id;
+
+-- Locations cascade to stock_level and location_stock
+DELETE FROM location WHERE company_id = :bench_company;
+DELETE FROM inventory WHERE company_id = :bench_company;
+DELETE FROM company WHERE id = :bench_company;
+DELETE FROM users WHERE id = :bench_user;
@@ -0,0 +1,81 @@
+-- Per-tenant read latency vs. total table size, with and without hash partitioning by company_id.
+--
+--   psql -d bench -v rows=5000000 -v companies=5000 -v partitions=16 -f partitioning_bench.sql
+--
+-- Runs in a scratch schema and drops it at the end. Tenant sizes are skewed: a handful of "whale"
+-- companies own a large share of the rows. Repeat with several values of rows to get the curve;
+-- the interesting numbers are the "Execution Time" lines of each EXPLAIN ANALYZE.
+
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+\if :{?companies}
+\else
+\set companies 1000
+\endif
+\if :{?partitions}
+\else
+\set partitions 16
+\endif
+
+DROP SCHEMA IF EXISTS partition_bench CASCADE;
+CREATE SCHEMA partition_bench;
+SET search_path = partition_bench;
+
+CREATE TABLE inventory_plain (
+    id            bigint NOT NULL,
+    company_id    bigint NOT NULL,
+    product_name  varchar(255),
+    qty_in_stock  integer,
+    price         float(53) NOT NULL,
+    stock_value   float(53),
+    is_reorder    varchar(255),
+    PRIMARY KEY (id)
+);
+CREATE INDEX ON inventory_plain (company_id);
+
+CREATE TABLE inventory_hashed (LIKE inventory_plain INCLUDING DEFAULTS) PARTITION BY HASH (company_id);
+ALTER TABLE inventory_hashed ADD PRIMARY KEY (id, company_id);
+SELECT format('CREATE TABLE inventory_hashed_p%s PARTITION OF inventory_hashed FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+              r, :partitions, r)
+FROM generate_series(0, :partitions - 1) r
+\gexec
+CREATE INDEX ON inventory_hashed (company_id);
+
+-- Company 1..5 are whales holding ~40% of the rows; the rest is spread uniformly
+INSERT INTO inventory_plain
+SELECT g,
+       CASE WHEN random() < 0.4 THEN 1 + (g % 5) ELSE 6 + (g % (:companies - 5)) END,
+       'product-' || g,
+       (random() * 100)::int,
+       round((random() * 500)::numeric, 2),
+       0,
+       CASE WHEN random() < 0.1 THEN 'True' ELSE 'False' END
+FROM generate_series(1, :rows) g;
+INSERT INTO inventory_hashed SELECT * FROM inventory_plain;
+
+VACUUM ANALYZE inventory_plain;
+VACUUM ANALYZE inventory_hashed;
+
+SELECT pg_size_pretty(pg_total_relation_size('inventory_plain')) AS plain_size,
+       (SELECT pg_size_pretty(sum(pg_total_relation_size(inhrelid)))
+        FROM pg_inherits WHERE inhparent = 'inventory_hashed'::regclass) AS hashed_size;
+
+\echo '--- small tenant, plain'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_plain WHERE company_id = 500;
+\echo '--- small tenant, hash partitioned'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_hashed WHERE company_id = 500;
+
+\echo '--- whale tenant, plain'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_plain WHERE company_id = 1;
+\echo '--- whale tenant, hash partitioned'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_hashed WHERE company_id = 1;
+
+\echo '--- reorder list, plain'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_plain WHERE company_id = 500 AND is_reorder = 'True';
+\echo '--- reorder list, hash partitioned'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM inventory_hashed WHERE company_id = 500 AND is_reorder = 'True';
+
+RESET search_path;
+DROP SCHEMA partition_bench CASCADE;
@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Time to first request of the backend in each start-up mode, against a migrated database.
+#
+#   export SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/finaldb SPRING_DATASOURCE_USERNAME=... SPRING_DATASOURCE_PASSWORD=...
+#   ./mvnw -Pfast-startup package            # target/*.jar and target/fast-startup/
+#   bench/startup_bench.sh [runs]            # default 5 runs per mode
+#
+# Modes: the plain fat jar, the extracted AOT jar, and the extracted AOT jar with the AppCDS archive; plus
+# target/SecurityEx when a native executable was built (./mvnw -Pnative native:compile). A run starts the
+# process and polls /actuator/health on the management port until it answers; the time from launch to that first answer is the
+# number an autoscaler cares about. Prints min and median per mode, in milliseconds.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+MANAGEMENT_PORT=${BENCH_MANAGEMENT_PORT:-18081}
+JAR=$(ls target/SecurityEx-*.jar | grep -v original | head -n 1)
+FAST=target/fast-startup
+FAST_JAR="$FAST/$(basename "$JAR")"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the command, waits for the first healthy answer, stops it; prints the elapsed milliseconds
+time_to_first_request() {
+    local start pid elapsed
+    start=$(now_ms)
+    SERVER_PORT=$PORT MANAGEMENT_SERVER_PORT=$MANAGEMENT_PORT "$@" >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health" >/dev/null 2>&1; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "process exited before answering: $*" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+bench() {
+    local name=$1
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk -v name="$name" '
+        { t[NR] = $1 }
+        END { printf "%-22s min %6d ms   median %6d ms   (%d runs)\n", name, t[1], t[int((NR + 1) / 2)], NR }'
+}
+
+bench "jar" java -jar "$JAR"
+if [[ -f "$FAST_JAR" ]]; then
+    bench "aot" java -Dspring.aot.enabled=true -jar "$FAST_JAR"
+fi
+if [[ -f "$FAST/application.jsa" ]]; then
+    bench "aot + cds" java -XX:SharedArchiveFile="$FAST/application.jsa" -Dspring.aot.enabled=true -jar "$FAST_JAR"
+fi
+if [[ -x target/SecurityEx ]]; then
+    bench "native" target/SecurityEx
+fi
@@ -0,0 +1,47 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.service.JWTService;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static JWTService jwtService() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return new JWTService("bench:" + Base64.getEncoder().encodeToString(secret), "bench", 15, 7);
+    }
+
+    /** Deterministic inventory rows shaped like real ones, without a company attached. **/
+    static List<Inventory> inventories(int size) {
+        Random random = new Random(42);
+        List<Inventory> inventories = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Inventory inventory = new Inventory();
+            inventory.setId((long) i + 1);
+            inventory.setProductName("Product " + i);
+            inventory.setDescription("Description of product " + i);
+            inventory.setPrice(Math.round(random.nextDouble() * 50_000) / 100.0);
+            inventory.setOpeningStock(random.nextInt(500));
+            inventory.setReceipts(random.nextInt(100));
+            inventory.setIssues(random.nextInt(100));
+            inventory.setMinimumStock(random.nextInt(50));
+            inventory.setBufferStock(random.nextInt(20));
+            inventory.setClosingStock(0);
+            inventory.setQtyInStock(0);
+            inventory.setReorderPoint(0);
+            inventory.setStockValue(0D);
+            inventory.setIsReorder("False");
+            inventories.add(inventory);
+        }
+        return inventories;
+    }
+}
@@ -0,0 +1,89 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.telusko.SecurityEx.dto.AbcAnalysisDto;
+import com.telusko.SecurityEx.dto.SlowMoversDto;
+import com.telusko.SecurityEx.dto.ValuationDto;
+import com.telusko.SecurityEx.repo.InventoryColumns;
+import com.telusko.SecurityEx.service.InventoryAnalytics;
+
+/** The InventoryAnalytics computations over a 1M item company, without the database load. **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryAnalyticsBenchmark {
+
+    @Param({"1000000"})
+    private int items;
+
+    // 1 measures the sequential cost, 0 one worker per core
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private InventoryAnalytics analytics;
+    private InventoryColumns columns;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        analytics = new InventoryAnalytics(pool);
+
+        Random random = new Random(42);
+        long[] ids = new long[items];
+        double[] price = new double[items];
+        int[] qtyInStock = new int[items];
+        double[] stockValue = new double[items];
+        int[] issues = new int[items];
+        int[] reorderPoint = new int[items];
+        for (int i = 0; i < items; i++) {
+            ids[i] = i + 1;
+            price[i] = Math.round(Math.exp(random.nextGaussian() * 1.5 + 3) * 100) / 100.0;
+            qtyInStock[i] = random.nextInt(500);
+            stockValue[i] = price[i] * qtyInStock[i];
+            // Skewed demand, with a tail of items that never move
+            issues[i] = random.nextInt(10) == 0 ? 0 : (int) Math.round(Math.exp(random.nextGaussian() * 2 + 2));
+            reorderPoint[i] = random.nextInt(50);
+        }
+        columns = new InventoryColumns(items, ids, price, qtyInStock, stockValue, issues, reorderPoint);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public AbcAnalysisDto abc() {
+        return analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.8, 0.95, null, 0, 20);
+    }
+
+    @Benchmark
+    public SlowMoversDto slowMovers() {
+        return analytics.slowMovers(columns, 6, 20);
+    }
+
+    @Benchmark
+    public ValuationDto valuation() {
+        return analytics.valuation(columns);
+    }
+}
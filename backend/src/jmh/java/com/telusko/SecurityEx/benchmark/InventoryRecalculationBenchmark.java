@@ -0,0 +1,43 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.service.InventoryService;
+
+/** The stock recomputation done by InventoryService.updateInventory, over a 10k item refresh. **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryRecalculationBenchmark {
+
+    private List<Inventory> inventories;
+
+    @Setup
+    public void setUp() {
+        inventories = BenchmarkFixtures.inventories(10_000);
+    }
+
+    @Benchmark
+    public List<Inventory> recalculateStock() {
+        for (Inventory inventory : inventories) {
+            InventoryService.recalculateStock(inventory);
+        }
+        return inventories;
+    }
+}
@@ -0,0 +1,100 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.telusko.SecurityEx.config.ColumnarJsonHttpMessageConverter;
+import com.telusko.SecurityEx.model.Inventory;
+
+/**
+ * Jackson cost of the inventory list endpoints per response format, as a function of tenant size.
+ * The *Gzip variants include compression as done by the server; payload sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventorySerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private ColumnarJsonHttpMessageConverter columnarConverter;
+    private List<Inventory> inventories;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        smileMapper = new ObjectMapper(new SmileFactory());
+        cborMapper = new ObjectMapper(new CBORFactory());
+        columnarConverter = new ColumnarJsonHttpMessageConverter(objectMapper);
+        inventories = BenchmarkFixtures.inventories(size);
+
+        System.out.printf("%n[size=%d] bytes: json=%d json.gz=%d columnar=%d columnar.gz=%d smile=%d cbor=%d%n", size,
+                serializeList().length, serializeListGzip().length, serializeColumnar().length,
+                serializeColumnarGzip().length, serializeSmile().length, serializeCbor().length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return objectMapper.writeValueAsBytes(inventories);
+    }
+
+    @Benchmark
+    public byte[] serializeListGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, inventories);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeColumnar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        columnarConverter.writeColumnar(inventories, Inventory.class, bytes);
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeColumnarGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            columnarConverter.writeColumnar(inventories, Inventory.class, gzip);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(inventories);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(inventories);
+    }
+}
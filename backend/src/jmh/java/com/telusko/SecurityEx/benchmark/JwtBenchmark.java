@@ -0,0 +1,47 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+import io.jsonwebtoken.Claims;
+
+/** Token issue and verify cost, paid on every login/refresh and on every authenticated request. **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService();
+        token = jwtService.generateToken("bench-user", "USER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("bench-user", "USER");
+    }
+
+    @Benchmark
+    public Claims verifyToken() {
+        return jwtService.parseToken(token);
+    }
+}
@@ -0,0 +1,113 @@
+package com.telusko.SecurityEx.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telusko.SecurityEx.SecurityExApplication;
+import com.telusko.SecurityEx.model.Company;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.repo.CompanyRepo;
+import com.telusko.SecurityEx.repo.InventoryRepo;
+import com.telusko.SecurityEx.repo.LikePatterns;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Repository reads against an embedded Postgres migrated by Flyway, through the real JPA stack.
+ * One tenant of the given size is measured while a larger noise tenant shares the table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryReadBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tenantSize;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private InventoryRepo inventoryRepo;
+    private TransactionTemplate readOnly;
+    private Company company;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(SecurityExApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command line arguments, so they win over application.properties
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long tenantId = seedCompany(jdbc, "bench-tenant", tenantSize);
+        seedCompany(jdbc, "noise-tenant", 100_000);
+        jdbc.execute("ANALYZE");
+
+        inventoryRepo = context.getBean(InventoryRepo.class);
+        company = context.getBean(CompanyRepo.class).findById(tenantId).orElseThrow();
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    private static long seedCompany(JdbcTemplate jdbc, String name, int items) {
+        Long userId = jdbc.queryForObject(
+                "INSERT INTO users (username, password, role) VALUES (?, 'x', 'USER') RETURNING id", Long.class, name);
+        Long companyId = jdbc.queryForObject(
+                "INSERT INTO company (company_name, user_id) VALUES (?, ?) RETURNING id", Long.class, name, userId);
+        jdbc.update("""
+                INSERT INTO inventory (product_name, description, qty_in_stock, price, stock_value, reorder_point,
+                                       opening_stock, receipts, issues, closing_stock, minimum_stock, buffer_stock,
+                                       is_reorder, company_id)
+                SELECT 'Product ' || g, 'Description ' || g, g % 50, (g % 1000) / 10.0, 0, 10,
+                       g % 50, 0, 0, g % 50, 5, 5, CASE WHEN g % 10 = 0 THEN 'True' ELSE 'False' END, ?
+                FROM generate_series(1, ?) g""", companyId, items);
+        return companyId;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<Inventory> findByCompany() {
+        return readOnly.execute(status -> inventoryRepo.findActiveByCompanyId(company.getId()));
+    }
+
+    @Benchmark
+    public List<Inventory> findReorderList() {
+        return readOnly.execute(status -> inventoryRepo.findActiveByIsReorder(company.getId(), "True"));
+    }
+
+    @Benchmark
+    public List<Inventory> searchByProductName() {
+        return readOnly.execute(status -> inventoryRepo.searchActiveByProductName(company.getId(),
+                LikePatterns.contains("Product 12")));
+    }
+}
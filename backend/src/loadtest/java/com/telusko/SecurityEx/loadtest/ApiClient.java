@@ -0,0 +1,92 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Thin JSON client over java.net.http; one instance is shared by all workers. **/
+class ApiClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /** An access token and the single-use refresh token issued with it. **/
+    record Tokens(String token, String refreshToken) {
+    }
+
+    record Response(int status, JsonNode body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    Response get(String path, String token) throws IOException, InterruptedException {
+        return send(request(path, token).GET());
+    }
+
+    Response delete(String path, String token) throws IOException, InterruptedException {
+        return send(request(path, token).DELETE());
+    }
+
+    Response post(String path, String token, Object body) throws IOException, InterruptedException {
+        return send(request(path, token).POST(json(body)));
+    }
+
+    Response put(String path, String token, Object body) throws IOException, InterruptedException {
+        return send(request(path, token).PUT(json(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+    }
+
+    private Response send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        byte[] body = response.body();
+        JsonNode json = body == null || body.length == 0 ? null : mapper.readTree(body);
+        return new Response(response.statusCode(), json);
+    }
+
+    Tokens login(String username, String password) throws IOException, InterruptedException {
+        Response response = post("/login", null, Map.of("username", username, "password", password));
+        if (!response.ok()) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + response.status());
+        }
+        return tokens(response);
+    }
+
+    /** Exchanges a refresh token for a new pair, or returns null if the server no longer accepts it. **/
+    Tokens refresh(String refreshToken) throws IOException, InterruptedException {
+        Response response = post("/refresh", null, Map.of("refreshToken", refreshToken));
+        return response.ok() ? tokens(response) : null;
+    }
+
+    private static Tokens tokens(Response response) {
+        return new Tokens(response.body().get("token").asText(), response.body().get("refreshToken").asText());
+    }
+}
@@ -0,0 +1,120 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Creates tenants through the public API: /register, /login, then inventory and employee POSTs.
+ * The first {@code whales} companies get {@code skusPerWhale} items; the rest get a log-normal spread
+ * around {@code skusPerCompany}, which is roughly what a real multi-tenant population looks like.
+ */
+class DatasetSeeder {
+
+    private static final String[] WORDS = {"bolt", "nut", "washer", "cable", "filter", "pump", "valve", "sensor",
+            "bearing", "gasket", "hose", "switch", "relay", "fuse", "motor", "belt"};
+    private static final String[] DEPTS = {"Sales", "Warehouse", "Finance", "Purchasing", "Logistics"};
+    private static final String[] GRADES = {"A", "B", "C", "D"};
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+    // Bounds in-flight seeding requests so the server pool is not the bottleneck being measured here
+    private final Semaphore inFlight = new Semaphore(32);
+
+    DatasetSeeder(ApiClient api, LoadTestConfig config) {
+        this.api = api;
+        this.config = config;
+    }
+
+    List<Tenant> seed() throws Exception {
+        Random random = new Random(config.seed());
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<Tenant>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.companies(); i++) {
+                int skus = i < config.whales()
+                        ? config.skusPerWhale()
+                        : (int) Math.max(1, Math.round(config.skusPerCompany() * Math.exp(random.nextGaussian() * 0.75)));
+                int employees = i < config.whales() ? config.employeesPerCompany() * 20 : config.employeesPerCompany();
+                String username = "lt-" + run + "-" + i;
+                long tenantSeed = random.nextLong();
+                futures.add(executor.submit(() -> seedTenant(username, skus, employees, new Random(tenantSeed))));
+            }
+            List<Tenant> tenants = new ArrayList<>();
+            for (Future<Tenant> future : futures) {
+                tenants.add(future.get());
+            }
+            return tenants;
+        }
+    }
+
+    private Tenant seedTenant(String username, int skus, int employees, Random random) throws Exception {
+        String password = "pw-" + username;
+        call(() -> api.post("/register", null, Map.of(
+                "username", username,
+                "password", password,
+                "companyName", "Company " + username,
+                "capacity", "1000",
+                "location", "Warehouse " + random.nextInt(20))));
+        ApiClient.Tokens tokens = api.login(username, password);
+        String token = tokens.token();
+        long companyId = call(() -> api.get("/companies/user-company-id", token)).body().asLong();
+
+        long[] inventoryIds = new long[skus];
+        String[] productNames = new String[skus];
+        for (int i = 0; i < skus; i++) {
+            String productName = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            Map<String, Object> item = new HashMap<>();
+            item.put("productName", productName);
+            item.put("description", "Seeded item " + i);
+            item.put("price", Math.round(random.nextDouble() * 50_000) / 100.0);
+            item.put("minimumStock", random.nextInt(20));
+            item.put("bufferStock", random.nextInt(10));
+            long id = call(() -> api.post("/inventories/" + companyId, token, item)).body().get("id").asLong();
+
+            // Give stock levels a spread so out-of-stock and reorder lists are non-trivial
+            Map<String, Object> stock = new HashMap<>();
+            stock.put("openingStock", random.nextInt(10) == 0 ? 0 : random.nextInt(200));
+            stock.put("receipts", 0);
+            stock.put("issues", 0);
+            call(() -> api.put("/inventories/" + id, token, stock));
+
+            inventoryIds[i] = id;
+            productNames[i] = productName;
+        }
+
+        for (int i = 0; i < employees; i++) {
+            Map<String, Object> employee = Map.of(
+                    "name", "Employee " + i,
+                    "dept", DEPTS[random.nextInt(DEPTS.length)],
+                    "grade", GRADES[random.nextInt(GRADES.length)],
+                    "salary", 30_000 + random.nextInt(90_000));
+            call(() -> api.post("/employees/" + companyId, token, employee));
+        }
+        return new Tenant(username, password, companyId, inventoryIds, productNames, tokens);
+    }
+
+    private ApiClient.Response call(ApiCall call) throws Exception {
+        inFlight.acquire();
+        try {
+            ApiClient.Response response = call.execute();
+            if (!response.ok()) {
+                throw new IllegalStateException("Seeding request failed: HTTP " + response.status());
+            }
+            return response;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @FunctionalInterface
+    interface ApiCall {
+        ApiClient.Response execute() throws Exception;
+    }
+}
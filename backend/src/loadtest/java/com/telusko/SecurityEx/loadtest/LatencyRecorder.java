@@ -0,0 +1,39 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.util.Arrays;
+
+/** Unsynchronized growable array of latencies; each worker owns its own and they are merged at the end. **/
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int size;
+    long errors;
+
+    void record(long latencyNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = latencyNanos;
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.nanos[i]);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    /** Sorts in place; call once all workers have finished. **/
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(nanos, 0, size);
+        int index = (int) Math.min(size - 1, Math.ceil(percentile / 100.0 * size) - 1);
+        return nanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
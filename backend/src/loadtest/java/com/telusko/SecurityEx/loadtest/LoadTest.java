@@ -0,0 +1,119 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Offline multi-tenant load test against a locally running backend (profiles dev,loadtest).
+ *
+ *   ./mvnw -Ploadtest compile exec:java -Dloadtest.companies=100 -Dloadtest.durationSeconds=120
+ *
+ * Seeds tenants through the API, replays a weighted request mix from {@code loadtest.concurrency}
+ * virtual-thread clients, and reports throughput, p50/p99/p999 latency and SQL statements per request
+ * for every operation. The JSON report can be diffed between builds to gate performance changes.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ApiClient api = new ApiClient(config.baseUrl());
+
+        System.out.printf("Seeding %d companies (%d whales) against %s%n", config.companies(), config.whales(), config.baseUrl());
+        long seedStart = System.nanoTime();
+        List<Tenant> tenants = new DatasetSeeder(api, config).seed();
+        System.out.printf("Seeded in %.1f s%n", (System.nanoTime() - seedStart) / 1e9);
+
+        Workload workload = new Workload(api, tenants);
+
+        System.out.printf("Warming up for %d s%n", config.warmup().toSeconds());
+        run(workload, config, config.warmup().toNanos());
+
+        String statsToken = tenants.get(0).token();
+        boolean sqlStatsAvailable = api.delete("/internal/sql-stats", statsToken).ok();
+
+        System.out.printf("Measuring for %d s with %d clients%n", config.duration().toSeconds(), config.concurrency());
+        Map<Operation, LatencyRecorder> results = run(workload, config, config.duration().toNanos());
+
+        JsonNode sqlStats = sqlStatsAvailable ? api.get("/internal/sql-stats", statsToken).body() : null;
+        report(config, results, sqlStats);
+    }
+
+    private static Map<Operation, LatencyRecorder> run(Workload workload, LoadTestConfig config, long durationNanos)
+            throws Exception {
+        long deadline = System.nanoTime() + durationNanos;
+        List<Future<Map<Operation, LatencyRecorder>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.concurrency(); i++) {
+                Random random = new Random(config.seed() * 31 + i);
+                workers.add(executor.submit(() -> workload.runUntil(deadline, random)));
+            }
+            Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, LatencyRecorder>> worker : workers) {
+                worker.get().forEach((operation, recorder) ->
+                        merged.computeIfAbsent(operation, key -> new LatencyRecorder()).merge(recorder));
+            }
+            return merged;
+        }
+    }
+
+    private static void report(LoadTestConfig config, Map<Operation, LatencyRecorder> results, JsonNode sqlStats)
+            throws Exception {
+        double seconds = config.duration().toNanos() / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        Map<String, Object> operations = new LinkedHashMap<>();
+
+        System.out.printf("%n%-14s %9s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "sql/req");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder recorder = results.get(operation);
+            if (recorder == null) {
+                continue;
+            }
+            total += recorder.count();
+            JsonNode routeStats = sqlStats == null ? null : sqlStats.get(operation.route);
+            Double sqlPerRequest = routeStats == null ? null : routeStats.get("avgPerRequest").asDouble();
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("route", operation.route);
+            row.put("requests", recorder.count());
+            row.put("errors", recorder.errors);
+            row.put("throughputPerSecond", recorder.count() / seconds);
+            row.put("p50Millis", recorder.percentileMillis(50));
+            row.put("p99Millis", recorder.percentileMillis(99));
+            row.put("p999Millis", recorder.percentileMillis(99.9));
+            row.put("sqlPerRequest", sqlPerRequest);
+            operations.put(operation.name(), row);
+
+            System.out.printf("%-14s %9d %8d %10.1f %9.2f %9.2f %9.2f %9s%n",
+                    operation.name(), recorder.count(), recorder.errors, recorder.count() / seconds,
+                    row.get("p50Millis"), row.get("p99Millis"), row.get("p999Millis"),
+                    sqlPerRequest == null ? "n/a" : String.format("%.1f", sqlPerRequest));
+        }
+        System.out.printf("%nTotal throughput: %.1f req/s%n", total / seconds);
+
+        report.put("operations", operations);
+        report.put("totalThroughputPerSecond", total / seconds);
+        report.put("sqlStats", sqlStats);
+
+        File file = new File(config.reportFile());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+}
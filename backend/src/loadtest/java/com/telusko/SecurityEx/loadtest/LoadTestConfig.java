@@ -0,0 +1,33 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.time.Duration;
+
+/** Harness settings, read from -Dloadtest.* system properties. **/
+record LoadTestConfig(
+        String baseUrl,
+        int companies,
+        int whales,
+        int skusPerCompany,
+        int skusPerWhale,
+        int employeesPerCompany,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        long seed,
+        String reportFile) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("loadtest.baseUrl", "http://localhost:8080"),
+                Integer.getInteger("loadtest.companies", 50),
+                Integer.getInteger("loadtest.whales", 2),
+                Integer.getInteger("loadtest.skusPerCompany", 200),
+                Integer.getInteger("loadtest.skusPerWhale", 20_000),
+                Integer.getInteger("loadtest.employeesPerCompany", 20),
+                Integer.getInteger("loadtest.concurrency", 64),
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 15)),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 60)),
+                Long.getLong("loadtest.seed", 42),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"));
+    }
+}
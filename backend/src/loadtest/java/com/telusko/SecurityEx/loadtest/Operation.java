@@ -0,0 +1,22 @@
+package com.telusko.SecurityEx.loadtest;
+
+/** The request mix, with relative weights and the server route each operation hits. **/
+enum Operation {
+
+    LOGIN(2, "POST /login"),
+    LIST(30, "GET /inventories/{companyId}"),
+    SEARCH(18, "GET /inventories/{companyId}/search"),
+    OUT_OF_STOCK(14, "GET /inventories/{companyId}/out-of-stock"),
+    REORDER(14, "GET /inventories/{companyId}/reorder-point"),
+    BULK_EDIT(10, "PUT /inventories/{inventoryId}"),
+    COMPANY(7, "GET /companies/{companyId}"),
+    EMPLOYEES(5, "GET /employees/{companyId}");
+
+    final int weight;
+    final String route;
+
+    Operation(int weight, String route) {
+        this.weight = weight;
+        this.route = route;
+    }
+}
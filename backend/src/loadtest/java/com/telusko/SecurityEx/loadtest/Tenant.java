@@ -0,0 +1,53 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/** A seeded company with the credentials and ids the workload needs. **/
+final class Tenant {
+
+    final String username;
+    final String password;
+    final long companyId;
+    final long[] inventoryIds;
+    final String[] productNames;
+    // Shared by every client thread that picks this tenant
+    private volatile ApiClient.Tokens tokens;
+    // Not synchronized: renewing blocks on HTTP, which would pin the carrier of a virtual thread
+    private final ReentrantLock renewLock = new ReentrantLock();
+
+    Tenant(String username, String password, long companyId, long[] inventoryIds, String[] productNames,
+            ApiClient.Tokens tokens) {
+        this.username = username;
+        this.password = password;
+        this.companyId = companyId;
+        this.inventoryIds = inventoryIds;
+        this.productNames = productNames;
+        this.tokens = tokens;
+    }
+
+    String token() {
+        return tokens.token();
+    }
+
+    /**
+     * Replaces a token the server rejected. Threads that were rejected with the same token renew once
+     * between them, through /refresh, and the others pick up the new one; a full login is only the fallback
+     * when the refresh token is no longer accepted.
+     */
+    void renewToken(String rejected, ApiClient api) throws Exception {
+        renewLock.lock();
+        try {
+            ApiClient.Tokens current = tokens;
+            if (rejected.equals(current.token())) {
+                ApiClient.Tokens renewed = api.refresh(current.refreshToken());
+                tokens = renewed != null ? renewed : api.login(username, password);
+            }
+        } finally {
+            renewLock.unlock();
+        }
+    }
+
+    int size() {
+        return inventoryIds.length;
+    }
+}
@@ -0,0 +1,127 @@
+package com.telusko.SecurityEx.loadtest;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Replays the weighted operation mix; busier tenants (by catalogue size) are picked more often. **/
+class Workload {
+
+    private static final int BULK_EDIT_SIZE = 10;
+
+    private final ApiClient api;
+    private final List<Tenant> tenants;
+    private final double[] tenantCumulativeWeights;
+    private final int[] operationCumulativeWeights;
+    private final Operation[] operations = Operation.values();
+
+    Workload(ApiClient api, List<Tenant> tenants) {
+        this.api = api;
+        this.tenants = tenants;
+
+        tenantCumulativeWeights = new double[tenants.size()];
+        double sum = 0;
+        for (int i = 0; i < tenants.size(); i++) {
+            sum += Math.sqrt(tenants.get(i).size());
+            tenantCumulativeWeights[i] = sum;
+        }
+
+        operationCumulativeWeights = new int[operations.length];
+        int weights = 0;
+        for (int i = 0; i < operations.length; i++) {
+            weights += operations[i].weight;
+            operationCumulativeWeights[i] = weights;
+        }
+    }
+
+    Map<Operation, LatencyRecorder> runUntil(long deadlineNanos, Random random) {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        while (System.nanoTime() < deadlineNanos) {
+            Operation operation = pickOperation(random);
+            Tenant tenant = pickTenant(random);
+            LatencyRecorder recorder = recorders.computeIfAbsent(operation, key -> new LatencyRecorder());
+
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(operation, tenant, random);
+            } catch (Exception e) {
+                ok = false;
+            }
+            recorder.record(System.nanoTime() - start);
+            if (!ok) {
+                recorder.errors++;
+            }
+        }
+        return recorders;
+    }
+
+    private boolean execute(Operation operation, Tenant tenant, Random random) throws Exception {
+        String token = tenant.token();
+        ApiClient.Response response = switch (operation) {
+            case LOGIN -> api.post("/login", null, Map.of("username", tenant.username, "password", tenant.password));
+            case LIST -> api.get("/inventories/" + tenant.companyId, token);
+            case SEARCH -> api.get("/inventories/" + tenant.companyId + "/search?productName="
+                    + searchTerm(tenant, random), token);
+            case OUT_OF_STOCK -> api.get("/inventories/" + tenant.companyId + "/out-of-stock", token);
+            case REORDER -> api.get("/inventories/" + tenant.companyId + "/reorder-point", token);
+            case COMPANY -> api.get("/companies/" + tenant.companyId, token);
+            case EMPLOYEES -> api.get("/employees/" + tenant.companyId, token);
+            case BULK_EDIT -> bulkEdit(tenant, token, random);
+        };
+        if (response.status() == 401) {
+            // Access tokens are short-lived; renew and count this request as an error
+            tenant.renewToken(token, api);
+            return false;
+        }
+        return response.ok();
+    }
+
+    private ApiClient.Response bulkEdit(Tenant tenant, String token, Random random) throws Exception {
+        ApiClient.Response last = null;
+        for (int i = 0; i < BULK_EDIT_SIZE; i++) {
+            long id = tenant.inventoryIds[random.nextInt(tenant.size())];
+            Map<String, Object> change = new HashMap<>();
+            change.put("receipts", random.nextInt(50));
+            change.put("issues", random.nextInt(50));
+            last = api.put("/inventories/" + id, token, change);
+            if (!last.ok()) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    private static String searchTerm(Tenant tenant, Random random) {
+        // First word of a random existing product name, so searches match a realistic share of the catalogue
+        String name = tenant.productNames[random.nextInt(tenant.size())];
+        return name.substring(0, name.indexOf(' '));
+    }
+
+    private Operation pickOperation(Random random) {
+        int target = random.nextInt(operationCumulativeWeights[operationCumulativeWeights.length - 1]);
+        for (int i = 0; i < operationCumulativeWeights.length; i++) {
+            if (target < operationCumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private Tenant pickTenant(Random random) {
+        double target = random.nextDouble() * tenantCumulativeWeights[tenantCumulativeWeights.length - 1];
+        int low = 0;
+        int high = tenantCumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tenantCumulativeWeights[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return tenants.get(low);
+    }
+}
@@ -0,0 +1,108 @@
+package com.telusko.SecurityEx.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.AnnotationIntrospector.ReferenceProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+/**
+ * Writes a list as one array per property instead of one object per row, so field names appear once:
+ * {"count":2,"columns":{"id":[1,2],"productName":["a","b"]}}. Selected with
+ * Accept: application/vnd.securityex.columnar+json; properties follow the entity's Jackson mapping.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Collection<?>> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.valueOf("application/vnd.securityex.columnar+json");
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, List<BeanPropertyDefinition>> columnsByType = new ConcurrentHashMap<>();
+
+    public ColumnarJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(COLUMNAR_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Collection<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only", inputMessage);
+    }
+
+    @Override
+    protected Collection<?> readInternal(Class<? extends Collection<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Collection<?> rows, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Class<?> elementType = type == null ? null : ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        // The servlet container owns the response stream
+        writeColumnar(rows, elementType, StreamUtils.nonClosing(outputMessage.getBody()));
+    }
+
+    public void writeColumnar(Collection<?> rows, Class<?> elementType, OutputStream out) throws IOException {
+        if ((elementType == null || elementType == Object.class) && !rows.isEmpty()) {
+            elementType = rows.iterator().next().getClass();
+        }
+        List<BeanPropertyDefinition> columns = elementType == null ? List.of()
+                : columnsByType.computeIfAbsent(elementType, this::columnsOf);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("count", rows.size());
+            generator.writeObjectFieldStart("columns");
+            for (BeanPropertyDefinition column : columns) {
+                generator.writeArrayFieldStart(column.getName());
+                for (Object row : rows) {
+                    generator.writeObject(column.getAccessor().getValue(row));
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private List<BeanPropertyDefinition> columnsOf(Class<?> type) {
+        return objectMapper.getSerializationConfig().introspect(objectMapper.constructType(type)).findProperties()
+                .stream()
+                .filter(property -> property.couldSerialize() && property.getAccessor() != null)
+                // Back references (e.g. Inventory.company) are skipped, as in regular JSON
+                .filter(property -> {
+                    ReferenceProperty reference = property.findReferenceType();
+                    return reference == null || !reference.isBackReference();
+                })
+                .toList();
+    }
+}
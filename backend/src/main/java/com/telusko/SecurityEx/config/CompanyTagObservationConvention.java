@@ -0,0 +1,94 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adds a company tag to http.server.requests so hot tenants stand out. Only the maxValues companies with
+ * the most successful requests get their own series, re-ranked every rotation with the older counts
+ * halved; the rest are reported as "other" to bound cardinality. Refused requests (4xx and 5xx) are not
+ * counted, so calling with other companies' ids cannot take a slot, and the series of a company that
+ * drops out of the ranking are removed.
+ */
+public class CompanyTagObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final KeyValue NONE = KeyValue.of("company", "none");
+    private static final KeyValue OTHER = KeyValue.of("company", "other");
+
+    private final MeterRegistry meterRegistry;
+    private final int maxValues;
+    // Companies counted per window; the busiest newcomers still get in once earlier ones decay out
+    private final int maxCandidates;
+    private final Map<String, LongAdder> traffic = new ConcurrentHashMap<>();
+    private volatile Set<String> tracked = Set.of();
+
+    public CompanyTagObservationConvention(MeterRegistry meterRegistry, int maxValues) {
+        this.meterRegistry = meterRegistry;
+        this.maxValues = maxValues;
+        this.maxCandidates = maxValues * 20;
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(company(context));
+    }
+
+    private KeyValue company(ServerRequestObservationContext context) {
+        Object variables = context.getCarrier().getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map) || !(map.get("companyId") instanceof String companyId)) {
+            return NONE;
+        }
+        if (context.getResponse() == null || context.getResponse().getStatus() >= 400) {
+            return OTHER;
+        }
+        LongAdder requests = traffic.get(companyId);
+        if (requests == null && traffic.size() < maxCandidates) {
+            requests = traffic.computeIfAbsent(companyId, key -> new LongAdder());
+        }
+        if (requests != null) {
+            requests.increment();
+        }
+        return tracked.contains(companyId) ? KeyValue.of("company", companyId) : OTHER;
+    }
+
+    /** Tags the busiest companies from here on, and halves the counts so the ranking follows the traffic. **/
+    @Scheduled(fixedDelayString = "${app.metrics.company-tag.rotate-interval-ms:60000}")
+    public void rotate() {
+        Map<String, Long> counts = new HashMap<>();
+        traffic.forEach((companyId, requests) -> {
+            long count = requests.sumThenReset();
+            counts.put(companyId, count);
+            requests.add(count / 2);
+        });
+        traffic.values().removeIf(requests -> requests.sum() == 0);
+
+        Set<String> busiest = counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(maxValues)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        Set<String> dropped = tracked;
+        tracked = busiest;
+        for (String companyId : dropped) {
+            if (!busiest.contains(companyId)) {
+                meterRegistry.find("http.server.requests").tag("company", companyId).meters()
+                        .forEach(meterRegistry::remove);
+            }
+        }
+    }
+}
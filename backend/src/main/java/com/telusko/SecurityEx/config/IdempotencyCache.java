@@ -0,0 +1,59 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Per-node store of completed responses. Every entry lives for the same ttl, so insertion order is also
+ * expiry order: one FIFO queue serves both the ttl and the size bound, and a hit is a single map lookup.
+ */
+public class IdempotencyCache {
+
+    private record Entry(String key, IdempotentResponse response, long storedAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    public IdempotencyCache(int maxEntries, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+    }
+
+    public IdempotentResponse get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null || System.nanoTime() - entry.storedAt() > ttlNanos ? null : entry.response();
+    }
+
+    public void put(String key, IdempotentResponse response) {
+        Entry entry = new Entry(key, response, System.nanoTime());
+        entries.put(key, entry);
+        order.add(entry);
+        evict(entry.storedAt());
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        evict(System.nanoTime());
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && (entries.size() > maxEntries || now - head.storedAt() > ttlNanos)) {
+            if (order.remove(head)) {
+                // A key stored again since has a newer entry further back in the queue
+                entries.remove(head.key(), head);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
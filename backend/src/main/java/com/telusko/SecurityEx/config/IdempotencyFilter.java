@@ -0,0 +1,345 @@
+package com.telusko.SecurityEx.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.telusko.SecurityEx.config.JdbcIdempotencyStore.Claim;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Honours the Idempotency-Key header on mutating requests, placed after RateLimitFilter. Keys are scoped
+ * to the user. A retry of a completed request is answered from IdempotencyCache (or the table, after a
+ * restart or from another node) without running it again; a duplicate arriving while the first is still
+ * running waits for its result on this node, or gets 409 if it runs on another. Reusing a key for a
+ * different request gets 422. Only 2xx responses are kept, so a failed request can simply be retried.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int COMPLETE_ATTEMPTS = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    /** Result of a request whose key is held by a request on another node, or that we stopped waiting for. **/
+    private static final IdempotentResponse IN_PROGRESS = new IdempotentResponse(new byte[0], 0, null, new byte[0]);
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private IdempotencyCache cache;
+
+    @Autowired(required = false)
+    private JdbcIdempotencyStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // scoped key -> result of the request running it on this node; null when it did not complete with a 2xx
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER);
+        Claims claims = (Claims) request.getAttribute(JwtFilter.CLAIMS_ATTRIBUTE);
+        // Unauthenticated requests are left for the security chain to answer 401
+        if (!properties.isEnabled() || key == null || claims == null || !applies(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        int maxBodyBytes = properties.getMaxBodyBytes();
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body exceeds " + maxBodyBytes + " bytes");
+            return;
+        }
+        // Bounded for bodies sent without a Content-Length (chunked) as well
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body exceeds " + maxBodyBytes + " bytes");
+            return;
+        }
+
+        String scopedKey = claims.getSubject() + ":" + key;
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        byte[] fingerprint = fingerprint(request, body);
+
+        while (true) {
+            IdempotentResponse stored = cache.get(scopedKey);
+            if (stored != null) {
+                replay(response, stored, fingerprint, "replayed");
+                return;
+            }
+            CompletableFuture<IdempotentResponse> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(scopedKey, mine);
+            if (running == null) {
+                try {
+                    execute(cachedRequest, response, filterChain, scopedKey, fingerprint, mine);
+                } finally {
+                    inFlight.remove(scopedKey, mine);
+                }
+                return;
+            }
+            IdempotentResponse result = await(running);
+            if (result == IN_PROGRESS) {
+                reject(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            }
+            if (result != null) {
+                replay(response, result, fingerprint, "coalesced");
+                return;
+            }
+            // The request we waited on failed; go round and run this one
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scopedKey, byte[] fingerprint, CompletableFuture<IdempotentResponse> mine)
+            throws ServletException, IOException {
+        IdempotentResponse result = null;
+        boolean claimed = false;
+        try {
+            // Completed by a request that left inFlight between our cache miss and our claim
+            result = cache.get(scopedKey);
+            if (result == null && store != null) {
+                Claim claim = store.claim(scopedKey, fingerprint, properties.getTtl());
+                if (claim.inProgress()) {
+                    result = IN_PROGRESS;
+                    reject(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                    return;
+                }
+                result = claim.response();
+                if (result != null) {
+                    cache.put(scopedKey, result);
+                }
+                claimed = claim.claimed();
+            }
+            if (result != null) {
+                replay(response, result, fingerprint, "replayed");
+                return;
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() >= 200 && wrapper.getStatus() < 300) {
+                IdempotentResponse completed = new IdempotentResponse(fingerprint, wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray());
+                // The service's own transaction has committed, so from here on the claim is never given back
+                result = completed;
+                cache.put(scopedKey, completed);
+                if (store != null) {
+                    record(scopedKey, completed);
+                }
+            }
+            count("executed");
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (claimed && result == null) {
+                store.release(scopedKey);
+            }
+            mine.complete(result);
+        }
+    }
+
+    /**
+     * Stores the response of a committed request. If that keeps failing the key stays claimed without being
+     * renewed: retries get 409 elsewhere (and the replay here) until lock-timeout, and only then run again.
+     **/
+    private void record(String scopedKey, IdempotentResponse completed) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                store.complete(scopedKey, completed);
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == COMPLETE_ATTEMPTS) {
+                    log.warn("Could not record the response for idempotency key {}", scopedKey, e);
+                    count("unrecorded");
+                    return;
+                }
+            }
+        }
+    }
+
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> running) {
+        try {
+            return running.get(properties.getLockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return IN_PROGRESS;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IN_PROGRESS;
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; treated like a failed request
+            return null;
+        }
+    }
+
+    private boolean applies(HttpServletRequest request) {
+        if (properties.getMethods().stream().noneMatch(m -> m.equalsIgnoreCase(request.getMethod()))) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getPatterns().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private void replay(HttpServletResponse response, IdempotentResponse stored, byte[] fingerprint, String outcome)
+            throws IOException {
+        if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+            return;
+        }
+        count(outcome);
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        count(switch (status) {
+            case CONFLICT -> "conflict";
+            case UNPROCESSABLE_ENTITY -> "mismatch";
+            case PAYLOAD_TOO_LARGE -> "too_large";
+            default -> "invalid";
+        });
+        response.setStatus(status.value());
+        if (status == HttpStatus.CONFLICT) {
+            response.setHeader("Retry-After", "1");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("http.server.requests.idempotent", "outcome", outcome).increment();
+    }
+
+    /** The same key must come with the same method, path, query and body to be replayed. **/
+    private static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + Objects.toString(request.getQueryString(), "") + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Serves the body read once for the fingerprint again to the controller. **/
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The body is already buffered: all of it is available now, and isReady never turns false
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
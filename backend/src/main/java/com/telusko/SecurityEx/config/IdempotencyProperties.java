@@ -0,0 +1,42 @@
+package com.telusko.SecurityEx.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /** How long a completed response is replayed for its key. **/
+    private Duration ttl = Duration.ofHours(24);
+
+    /** Completed responses kept in memory on each node; older ones are served by the table. **/
+    private int maxEntries = 10_000;
+
+    /**
+     * How long a duplicate waits for the request it coalesced onto, and how long a key claimed in the table
+     * stays locked without being renewed before another node may take it over (the owner died mid-request).
+     * The owner renews it every app.idempotency.renew-interval-ms while the request runs.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Largest body a request with an Idempotency-Key may carry. The body is buffered for the fingerprint
+     * before any controller limit applies, so larger ones get 413 without being read.
+     */
+    private int maxBodyBytes = 4 * 1024 * 1024;
+
+    /** Also record keys in the idempotency_key table, so replays survive restarts and span nodes. **/
+    private boolean persistent = true;
+
+    /** Mutating requests on these patterns honour the Idempotency-Key header. **/
+    private List<String> methods = new ArrayList<>(List.of("POST", "PUT", "PATCH", "DELETE"));
+    private List<String> patterns = new ArrayList<>();
+}
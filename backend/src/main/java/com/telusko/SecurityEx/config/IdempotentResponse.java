@@ -0,0 +1,5 @@
+package com.telusko.SecurityEx.config;
+
+/** A completed response stored under an Idempotency-Key, with the fingerprint of the request that made it. **/
+public record IdempotentResponse(byte[] fingerprint, int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,52 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/** Per-node buckets. Each bucket is an immutable state swapped with compareAndSet, so callers never block. **/
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private record Bucket(double tokens, long refilledAt) {
+    }
+
+    private final Map<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryConsume(String key, double ratePerSecond, int burst, int cost) {
+        AtomicReference<Bucket> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicReference<>(new Bucket(burst, System.nanoTime())));
+        }
+        // A request heavier than the whole bucket could never pass otherwise
+        int needed = Math.min(cost, burst);
+
+        while (true) {
+            Bucket current = bucket.get();
+            long now = System.nanoTime();
+            double tokens = Math.min(burst, current.tokens() + (now - current.refilledAt()) / 1e9 * ratePerSecond);
+            if (tokens < needed) {
+                return (long) Math.ceil((needed - tokens) / ratePerSecond * 1000);
+            }
+            if (bucket.compareAndSet(current, new Bucket(tokens - needed, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /** A bucket untouched for this long has refilled completely, so dropping it changes nothing. **/
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.get().refilledAt() > IDLE_NANOS);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
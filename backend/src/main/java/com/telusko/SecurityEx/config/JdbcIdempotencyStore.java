@@ -0,0 +1,103 @@
+package com.telusko.SecurityEx.config;
+
+import java.sql.Array;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keys shared by every node through the idempotency_key table (V13 migration). A key is claimed by
+ * inserting it before the request runs; the row then holds the response, or is deleted if the request
+ * failed, so the claim doubles as a cross-node lock. The node running the request keeps pushing
+ * locked_until forward while it runs, so only the claim of a node that died expires and is taken over.
+ */
+public class JdbcIdempotencyStore {
+
+    /** Outcome of {@link #claim}: exactly one of claimed, a stored response, or in progress elsewhere. **/
+    public record Claim(boolean claimed, IdempotentResponse response) {
+
+        public boolean inProgress() {
+            return !claimed && response == null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration lockTimeout;
+    // Keys claimed by requests still running on this node
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockTimeout = lockTimeout;
+    }
+
+    public Claim claim(String key, byte[] fingerprint, Duration ttl) {
+        // An expired key, or one whose node died and so stopped renewing its lock, is taken over in place
+        List<String> claimed = jdbcTemplate.queryForList("""
+                INSERT INTO idempotency_key AS k (idempotency_key, fingerprint, locked_until, expires_at)
+                VALUES (?, ?, now() + ? * interval '1 millisecond', now() + ? * interval '1 millisecond')
+                ON CONFLICT (idempotency_key) DO UPDATE
+                    SET fingerprint = EXCLUDED.fingerprint, locked_until = EXCLUDED.locked_until,
+                        expires_at = EXCLUDED.expires_at, status_code = NULL, content_type = NULL, body = NULL
+                    WHERE k.expires_at <= now() OR (k.status_code IS NULL AND k.locked_until <= now())
+                RETURNING idempotency_key""", String.class,
+                key, fingerprint, lockTimeout.toMillis(), ttl.toMillis());
+        if (!claimed.isEmpty()) {
+            running.add(key);
+            return new Claim(true, null);
+        }
+        List<IdempotentResponse> stored = jdbcTemplate.query("""
+                SELECT fingerprint, status_code, content_type, body FROM idempotency_key
+                WHERE idempotency_key = ? AND status_code IS NOT NULL""",
+                (rs, rowNum) -> new IdempotentResponse(rs.getBytes(1), rs.getInt(2), rs.getString(3), rs.getBytes(4)),
+                key);
+        return new Claim(false, stored.isEmpty() ? null : stored.get(0));
+    }
+
+    public void complete(String key, IdempotentResponse response) {
+        // No longer renewed even if the update fails, so the claim then runs out at lock-timeout
+        running.remove(key);
+        jdbcTemplate.update("""
+                UPDATE idempotency_key SET status_code = ?, content_type = ?, body = ?, locked_until = now()
+                WHERE idempotency_key = ?""",
+                response.status(), response.contentType(), response.body(), key);
+    }
+
+    /** Gives the key back after a failed request, so a retry runs it again. **/
+    public void release(String key) {
+        running.remove(key);
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND status_code IS NULL", key);
+    }
+
+    /** Extends the lock of every key still running here; renew-interval-ms must stay well below lock-timeout. **/
+    @Scheduled(fixedDelayString = "${app.idempotency.renew-interval-ms:10000}")
+    public void renewLocks() {
+        if (running.isEmpty()) {
+            return;
+        }
+        String[] keys = running.toArray(String[]::new);
+        jdbcTemplate.update("""
+                UPDATE idempotency_key SET locked_until = now() + ? * interval '1 millisecond'
+                WHERE idempotency_key = ANY (?) AND status_code IS NULL""",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("text", keys);
+                    ps.setLong(1, lockTimeout.toMillis());
+                    ps.setArray(2, array);
+                });
+    }
+
+    @Scheduled(fixedDelay = 600_000)
+    public void purgeExpired() {
+        // Bounded batches, so a large backlog never holds one long delete
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    DELETE FROM idempotency_key WHERE idempotency_key IN (
+                        SELECT idempotency_key FROM idempotency_key WHERE expires_at < now() LIMIT 5000)""");
+        } while (deleted > 0);
+    }
+}
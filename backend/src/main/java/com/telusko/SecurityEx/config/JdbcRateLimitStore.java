@@ -0,0 +1,26 @@
+package com.telusko.SecurityEx.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/** Buckets shared by every node through rate_limit_take (V5 migration); costs one round trip per check. **/
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long tryConsume(String key, double ratePerSecond, int burst, int cost) {
+        Long retryAfterMillis = jdbcTemplate.queryForObject("SELECT rate_limit_take(?, ?, ?, ?)", Long.class,
+                key, ratePerSecond, (double) burst, (double) Math.min(cost, burst));
+        return retryAfterMillis == null ? 0 : retryAfterMillis;
+    }
+
+    @Scheduled(fixedDelay = 600_000)
+    public void purgeIdle() {
+        jdbcTemplate.update("DELETE FROM rate_limit_bucket WHERE updated_at < now() - interval '1 hour'");
+    }
+}
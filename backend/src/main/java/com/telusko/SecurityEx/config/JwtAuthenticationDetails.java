@@ -0,0 +1,24 @@
+package com.telusko.SecurityEx.config;
+
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Details of an access-token authentication: the verified claims travel with the SecurityContext, so code
+ * running off the request thread (the dashboard's fan-out) sees the same company as the request.
+ */
+public class JwtAuthenticationDetails extends WebAuthenticationDetails {
+
+    private final transient Claims claims;
+
+    public JwtAuthenticationDetails(HttpServletRequest request, Claims claims) {
+        super(request);
+        this.claims = claims;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+}
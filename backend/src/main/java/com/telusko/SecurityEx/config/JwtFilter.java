@@ -1,18 +1,24 @@
 package com.telusko.SecurityEx.config;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import com.telusko.SecurityEx.service.JWTService;
-import com.telusko.SecurityEx.service.MyUserDetailsService;
+import com.telusko.SecurityEx.service.TokenRevocationList;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,37 +29,58 @@ public class JwtFilter extends OncePerRequestFilter{
 
     //VALIDATING TOKEN
 
+    /** Request attribute holding the verified claims of the access token. **/
+    public static final String CLAIMS_ATTRIBUTE = JwtFilter.class.getName() + ".claims";
+
     @Autowired
     private JWTService jwtService;
 
     @Autowired
-    ApplicationContext context;
+    private TokenRevocationList revocationList;
+
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    /** jwt.verify is both the verification timer and, with tracing on, a span inside the filter chain. **/
+    @Autowired
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
 
     @SuppressWarnings("null")
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        Claims claims = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
+            Observation observation = Observation.start("jwt.verify", observationRegistry);
+            try {
+                claims = jwtService.parseToken(authHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired token: continue unauthenticated and let the entry point answer 401
+                claims = null;
+            } finally {
+                observation.lowCardinalityKeyValue("outcome", claims != null ? "valid" : "invalid").stop();
+            }
         }
 
-        if(username!= null && SecurityContextHolder.getContext().getAuthentication() == null){
+        // Refresh tokens are only accepted by /refresh, never as API credentials
+        if(claims != null && jwtService.isAccessToken(claims) && !revocationList.isRevoked(claims.getId())
+                && SecurityContextHolder.getContext().getAuthentication() == null){
 
-            UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
-            
-            if(jwtService.validateToken(token, userDetails)){
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            // Everything needed is in the signed token, so no user lookup is done per request
+            String role = claims.get("role", String.class);
+            UserDetails userDetails = new User(claims.getSubject(), "",
+                    role == null ? Collections.emptyList() : Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role)));
+
+            UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new JwtAuthenticationDetails(request, claims));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
         }
         filterChain.doFilter(request, response);
     }
-    
+
 }
@@ -0,0 +1,20 @@
+package com.telusko.SecurityEx.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.beans.factory.annotation.Value;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsConfig {
+
+    /** Opt-in: each tracked company multiplies the number of http.server.requests series. **/
+    @Bean
+    @ConditionalOnProperty(prefix = "app.metrics.company-tag", name = "enabled", havingValue = "true")
+    public CompanyTagObservationConvention companyTagObservationConvention(MeterRegistry meterRegistry,
+            @Value("${app.metrics.company-tag.max-values:50}") int maxValues) {
+        return new CompanyTagObservationConvention(meterRegistry, maxValues);
+    }
+}
@@ -0,0 +1,24 @@
+package com.telusko.SecurityEx.config;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * What a native image (the native profile) must keep that AOT processing cannot discover by itself.
+ * Controllers, repositories and entities are covered by Spring's own hints.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Flyway's hints cover db/migration only; the partitioned profile adds this location
+            hints.resources().registerPattern("db/partitioned/*");
+        }
+    }
+}
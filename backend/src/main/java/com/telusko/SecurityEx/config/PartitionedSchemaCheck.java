@@ -0,0 +1,38 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Refuses to start the "partitioned" profile on tables that are not partitioned, e.g. when Flyway was told
+ * to skip db/partitioned/V22_1 or the database was migrated by hand. Runs after the migrations, since
+ * JdbcTemplate waits for Flyway.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.partitioning", name = "enabled", havingValue = "true")
+public class PartitionedSchemaCheck {
+
+    private static final String[] PARTITIONED_TABLES = { "inventory", "employee" };
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @PostConstruct
+    void check() {
+        List<String> unpartitioned = jdbc.queryForList("""
+                SELECT t FROM unnest(?::text[]) t
+                 WHERE (SELECT relkind FROM pg_class WHERE oid = to_regclass(t)) IS DISTINCT FROM 'p'""",
+                String.class, (Object) PARTITIONED_TABLES);
+        if (!unpartitioned.isEmpty()) {
+            throw new IllegalStateException("The partitioned profile is on but " + String.join(", ", unpartitioned)
+                    + " is not partitioned; run db/partitioned/V22_1__partition_existing_tenant_tables.sql"
+                    + " or start without the profile");
+        }
+    }
+}
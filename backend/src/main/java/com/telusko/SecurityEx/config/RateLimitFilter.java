@@ -0,0 +1,123 @@
+package com.telusko.SecurityEx.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.telusko.SecurityEx.config.RateLimitProperties.EndpointWeight;
+import com.telusko.SecurityEx.config.RateLimitProperties.Plan;
+import com.telusko.SecurityEx.service.JWTService;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control for authenticated requests, placed after JwtFilter. Each request pays its endpoint
+ * weight from the user's and then the company's token buckets and holds that weight against the company's
+ * concurrency quota until it completes. Rejections get 429 with Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private RateLimitStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // company key -> weight of its requests in flight on this node; companies with none have no entry
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Claims claims = (Claims) request.getAttribute(JwtFilter.CLAIMS_ATTRIBUTE);
+        if (!properties.isEnabled() || claims == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String planName = claims.get(JWTService.PLAN_CLAIM, String.class);
+        String plan = planName == null ? properties.getDefaultPlan() : planName;
+        Plan limits = properties.planFor(planName);
+        Object companyId = claims.get(JWTService.COMPANY_CLAIM);
+        // Tokens issued before the company claim existed are limited as a company of one
+        String companyKey = "company:" + (companyId != null ? companyId : "user-" + claims.getSubject());
+        int weight = weightOf(request);
+
+        // The user's bucket first: a user retrying past their own limit must not spend the company's tokens
+        long retryAfterMillis = store.tryConsume("user:" + claims.getSubject(), limits.getUserRequestsPerSecond(),
+                limits.getUserBurst(), weight);
+        if (retryAfterMillis > 0) {
+            reject(response, "user_rate", plan, retryAfterMillis);
+            return;
+        }
+        retryAfterMillis = store.tryConsume(companyKey, limits.getCompanyRequestsPerSecond(),
+                limits.getCompanyBurst(), weight);
+        if (retryAfterMillis > 0) {
+            reject(response, "company_rate", plan, retryAfterMillis);
+            return;
+        }
+
+        if (!tryAcquire(companyKey, weight, limits.getMaxConcurrentWeight())) {
+            reject(response, "concurrency", plan, 1000);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // The last request out removes the entry, so the map holds only companies with requests in flight
+            inFlight.computeIfPresent(companyKey, (k, current) -> current == weight ? null : current - weight);
+        }
+    }
+
+    /** Both this and the release run under the entry's lock, so a removal never loses a concurrent acquire. **/
+    private boolean tryAcquire(String companyKey, int weight, int max) {
+        boolean[] admitted = new boolean[1];
+        inFlight.compute(companyKey, (k, current) -> {
+            // An idle company is always admitted, even for a request heavier than its quota
+            if (current != null && current + weight > max) {
+                return current;
+            }
+            admitted[0] = true;
+            return current == null ? weight : current + weight;
+        });
+        return admitted[0];
+    }
+
+    private int weightOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (EndpointWeight endpoint : properties.getEndpoints()) {
+            if ((endpoint.getMethod() == null || endpoint.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(endpoint.getPattern(), path)) {
+                return endpoint.getWeight();
+            }
+        }
+        return 1;
+    }
+
+    private void reject(HttpServletResponse response, String reason, String plan, long retryAfterMillis)
+            throws IOException {
+        meterRegistry.counter("http.server.requests.rejected", "reason", reason, "plan", plan).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests\"}");
+    }
+}
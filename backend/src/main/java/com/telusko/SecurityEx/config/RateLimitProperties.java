@@ -0,0 +1,54 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+
+    /** memory keeps buckets per node; jdbc shares them through the rate_limit_bucket table. **/
+    private String store = "memory";
+
+    /** Used for tokens without a plan claim and for plans missing from {@link #plans}. **/
+    private String defaultPlan = "standard";
+
+    private Map<String, Plan> plans = new HashMap<>();
+
+    /** First match wins; unmatched requests weigh 1. **/
+    private List<EndpointWeight> endpoints = new ArrayList<>();
+
+    public Plan planFor(String plan) {
+        Plan limits = plan == null ? null : plans.get(plan);
+        if (limits == null) {
+            limits = plans.get(defaultPlan);
+        }
+        return limits == null ? new Plan() : limits;
+    }
+
+    @Data
+    public static class Plan {
+        private double companyRequestsPerSecond = 20;
+        private int companyBurst = 40;
+        private double userRequestsPerSecond = 10;
+        private int userBurst = 20;
+
+        /** Sum of the weights of one company's requests in flight on this node. **/
+        private int maxConcurrentWeight = 16;
+    }
+
+    @Data
+    public static class EndpointWeight {
+        private String method;
+        private String pattern;
+        private int weight = 1;
+    }
+}
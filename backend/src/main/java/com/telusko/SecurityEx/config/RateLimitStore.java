@@ -0,0 +1,11 @@
+package com.telusko.SecurityEx.config;
+
+/** Token buckets keyed by tenant or user. **/
+public interface RateLimitStore {
+
+    /**
+     * Refills the bucket at {@code ratePerSecond} up to {@code burst} and takes {@code cost} tokens.
+     * Returns 0 when the tokens were taken, otherwise the milliseconds until they will be available.
+     */
+    long tryConsume(String key, double ratePerSecond, int burst, int cost);
+}
@@ -0,0 +1,38 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReadReplicaProperties {
+
+    private boolean enabled;
+
+    /** Replicas are taken out of rotation while they lag the primary by more than this. **/
+    private long maxLagMs = 5000;
+
+    /**
+     * After a write commits, the same tenant reads only from replicas that have replayed it (or from the
+     * primary) for this long, on the node that did the write only; see RoutingDataSource for what this does
+     * not cover. Never shorter than max-lag-ms plus lag-check-interval-ms, the longest a replica still in
+     * rotation can be behind.
+     */
+    private long stickyWindowMs = 6000;
+
+    private long lagCheckIntervalMs = 1000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,71 @@
+package com.telusko.SecurityEx.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Periodically measures replication lag and takes lagging or unreachable replicas out of rotation. The
+ * measurement also tells RoutingDataSource which replicas have replayed a tenant's recent write.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // A server that is not in recovery is the primary itself (local stand-in setup) and has no lag. A replica
+    // whose WAL receiver is not streaming has replayed all it received but no longer receives anything: NULL,
+    // whatever its replay position says. Without pg_read_all_stats the row is there but its status is hidden.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                       WHERE COALESCE(status, 'streaming') = 'streaming') THEN NULL
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END""";
+
+    private final RoutingDataSource routingDataSource;
+    private final long maxLagMs;
+
+    public ReplicaLagMonitor(RoutingDataSource routingDataSource, long maxLagMs) {
+        this.routingDataSource = routingDataSource;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        routingDataSource.getReplicaDataSources().forEach((key, dataSource) -> {
+            // Taken before the query, so the replica has replayed at least up to this time minus its lag
+            long measuredAt = System.currentTimeMillis();
+            boolean healthy;
+            long replayedUpTo;
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lagMs = rs.getDouble(1);
+                if (rs.wasNull()) {
+                    log.warn("Replica {} is not streaming from the primary, routing its reads to the primary", key);
+                    healthy = false;
+                    replayedUpTo = Long.MIN_VALUE;
+                } else {
+                    healthy = lagMs <= maxLagMs;
+                    replayedUpTo = measuredAt - (long) Math.ceil(lagMs);
+                    if (!healthy) {
+                        log.warn("Replica {} lags by {} ms, routing its reads to the primary", key, (long) lagMs);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Replica {} is unreachable, routing its reads to the primary: {}", key, e.getMessage());
+                healthy = false;
+                replayedUpTo = Long.MIN_VALUE;
+            }
+            routingDataSource.setReplicaLag(key, healthy, replayedUpTo);
+        });
+        routingDataSource.purgeStickyEntries();
+    }
+}
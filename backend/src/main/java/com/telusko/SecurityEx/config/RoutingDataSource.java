@@ -0,0 +1,140 @@
+package com.telusko.SecurityEx.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens after the
+ * transaction's read-only flag has been set.
+ *
+ * Read-your-writes: for sticky-window-ms after a tenant's write commits, its reads only go to replicas
+ * that ReplicaLagMonitor last saw replaying past the time of that write, and to the primary if none has.
+ * The tenant is the company of the access token, or the user for tokens without one (admins). This is
+ * best effort: write times are kept in this node's memory, so a read that lands on another node (or
+ * follows a restart) is not covered. Callers that must see their write should read inside a read-write
+ * transaction.
+ */
+public final class RoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Map<String, Boolean> replicaHealthy = new ConcurrentHashMap<>();
+    // Replica -> primary commit time it had replayed up to when last measured; absent until the first check
+    private final Map<String, Long> replayedUpTo = new ConcurrentHashMap<>();
+    // Tenant -> time of its last committed write, for read-your-writes
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long stickyWindowMs;
+
+    public RoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long stickyWindowMs) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicas = replicas;
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.replicaKeys.forEach(key -> replicaHealthy.put(key, true));
+        this.stickyWindowMs = stickyWindowMs;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String tenant = currentTenant();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(tenant);
+            return PRIMARY;
+        }
+        Long writtenAt = recentWrite(tenant);
+        // Round-robin over replicas that are within the lag budget and, after a recent write, have replayed
+        // it; fall back to the primary
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (replicaHealthy.getOrDefault(key, false)
+                    && (writtenAt == null || replayedUpTo.getOrDefault(key, Long.MIN_VALUE) > writtenAt)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private void rememberWriteOnCommit(String tenant) {
+        if (tenant == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteAt.put(tenant, System.currentTimeMillis());
+            }
+        });
+    }
+
+    private Long recentWrite(String tenant) {
+        if (tenant == null) {
+            return null;
+        }
+        Long writtenAt = lastWriteAt.get(tenant);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < stickyWindowMs ? writtenAt : null;
+    }
+
+    // The company claim JwtFilter verified, taken from the authentication so that threads the request's
+    // SecurityContext is handed to resolve the same tenant as the request itself
+    private static String currentTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getDetails() instanceof JwtAuthenticationDetails details) {
+            Object companyId = details.getClaims().get(JWTService.COMPANY_CLAIM);
+            if (companyId != null) {
+                return "company:" + companyId;
+            }
+        }
+        return "user:" + authentication.getName();
+    }
+
+    public Map<String, DataSource> getReplicaDataSources() {
+        return replicas;
+    }
+
+    /** Records a lag measurement: whether the replica is within the lag budget, and how far it has replayed. **/
+    public void setReplicaLag(String key, boolean healthy, long replayedUpToMillis) {
+        replicaHealthy.put(key, healthy);
+        replayedUpTo.put(key, replayedUpToMillis);
+    }
+
+    public void purgeStickyEntries() {
+        long cutoff = System.currentTimeMillis() - stickyWindowMs;
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+
+    /** Replica pools are not beans of their own, so they are closed together with the router. **/
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
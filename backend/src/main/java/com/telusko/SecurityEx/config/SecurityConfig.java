@@ -16,10 +16,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,8 +36,19 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
     @Value("${cors.allowed.origins:http://localhost:4200}")
     private String allowedOrigins;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception{
@@ -42,13 +56,24 @@ public class SecurityConfig {
                 .csrf(csrf->csrf.disable())
                 .cors(Customizer.withDefaults()) // Enable CORS with default configuration
                 .authorizeHttpRequests(request->request
-                    .requestMatchers("/login","/register")
+                    .requestMatchers("/login","/register","/refresh")
+                    .permitAll()
+                    // Scraped by Prometheus and probed by the platform, on the management port only; were
+                    // management.server.port set to the API port, these would need a token like the rest
+                    .requestMatchers(req -> req.getLocalPort() == managementPort
+                            && pathMatcher.match("/actuator/{endpoint:health|prometheus}/**", req.getRequestURI()))
                     .permitAll()
                     .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults())
+                // The default LogoutFilter would swallow POST /logout before it reaches UserController
+                .logout(logout->logout.disable())
                 .sessionManagement(session->
                     session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                // Runs once the token is verified, so limits apply per company and user
+                .addFilterAfter(rateLimitFilter, JwtFilter.class)
+                // Retries still pay their rate limit, but a replay costs no database work
+                .addFilterAfter(idempotencyFilter, RateLimitFilter.class)
                 .build();
     }
 
@@ -60,6 +85,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(IdempotencyFilter.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -68,9 +94,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(MeterRegistry meterRegistry){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(new BCryptPasswordEncoder());
+        provider.setPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry));
         provider.setUserDetailsService(userDetailsService);
         return provider;
     }
@@ -0,0 +1,161 @@
+package com.telusko.SecurityEx.config;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.telusko.SecurityEx.config.SqlStatementCounter.RequestSqlStats;
+import com.telusko.SecurityEx.config.SqlStatsConfig.SqlStats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Counts and times the JDBC statements of each request and publishes them as the http.server.requests.sql
+ * metrics. With app.sql.budget.enabled it also enforces a per-request statement budget and reports
+ * repeated statements (N+1) with the application frames that issued them. The counting filter runs
+ * before the security chain, so the lookups of JwtFilter, RateLimitFilter and IdempotencyFilter count.
+ */
+@Configuration
+public class SqlStatementConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementConfig.class);
+
+    public static final String SQL_COUNT_HEADER = "X-Sql-Count";
+    public static final String SQL_TIME_HEADER = "X-Sql-Time-Ms";
+
+    public enum BudgetMode { LOG, FAIL }
+
+    @Value("${app.sql.budget.enabled:false}")
+    private boolean budgetEnabled;
+
+    @Value("${app.sql.budget.max-statements:20}")
+    private int maxStatements;
+
+    @Value("${app.sql.budget.mode:LOG}")
+    private BudgetMode budgetMode;
+
+    @Value("${app.sql.budget.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Value("${app.sql.budget.response-header:false}")
+    private boolean responseHeader;
+
+    /** Wraps the application DataSource (the one Hibernate and JdbcTemplate share) with the counter. **/
+    @Bean
+    public static BeanPostProcessor sqlStatementCounterPostProcessor(Environment environment) {
+        boolean enabled = environment.getProperty("app.sql.budget.enabled", Boolean.class, false);
+        boolean fail = enabled
+                && environment.getProperty("app.sql.budget.mode", BudgetMode.class, BudgetMode.LOG) == BudgetMode.FAIL;
+        int maxStatements = environment.getProperty("app.sql.budget.max-statements", Integer.class, 20);
+        SqlStatementCounter counter = new SqlStatementCounter(enabled, fail ? maxStatements : Integer.MAX_VALUE);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource).name("sqlStatementCounter").listener(counter).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlStatementFilter(MeterRegistry meterRegistry,
+                                                                           ObjectProvider<SqlStats> sqlStats) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                RequestSqlStats stats = SqlStatementCounter.begin();
+                // Headers must be set before the body is committed, so in that mode the body is buffered
+                ContentCachingResponseWrapper buffered = responseHeader ? new ContentCachingResponseWrapper(response) : null;
+                try {
+                    filterChain.doFilter(request, buffered != null ? buffered : response);
+                } finally {
+                    SqlStatementCounter.end();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    if (pattern != null) {
+                        record(meterRegistry, sqlStats, request.getMethod(), pattern.toString(), stats);
+                    }
+                    if (budgetEnabled) {
+                        checkBudget(request, stats);
+                    }
+                    if (buffered != null) {
+                        buffered.setHeader(SQL_COUNT_HEADER, Integer.toString(stats.getCount()));
+                        buffered.setHeader(SQL_TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getNanos())));
+                        buffered.copyBodyToResponse();
+                    }
+                }
+            }
+        });
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    private static void record(MeterRegistry meterRegistry, ObjectProvider<SqlStats> sqlStats, String method, String uri,
+                               RequestSqlStats stats) {
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCount());
+        Timer.builder("http.server.requests.sql.time")
+                .description("JDBC execution time per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        sqlStats.ifAvailable(s -> s.record(method + " " + uri, stats.getCount()));
+    }
+
+    private void checkBudget(HttpServletRequest request, RequestSqlStats stats) {
+        Map<String, Integer> repeated = stats.getStatements().entrySet().stream()
+                .filter(e -> e.getValue() >= repeatThreshold)
+                .collect(Collectors.toMap(e -> abbreviate(e.getKey()), Map.Entry::getValue));
+        if (stats.getCount() <= maxStatements && repeated.isEmpty()) {
+            return;
+        }
+        log.warn("{} {} ran {} SQL statements in {} ms (budget {}); repeated statements {}; top call sites {}",
+                request.getMethod(), request.getRequestURI(), stats.getCount(),
+                TimeUnit.NANOSECONDS.toMillis(stats.getNanos()), maxStatements, repeated, topCallSites(stats));
+    }
+
+    private static String topCallSites(RequestSqlStats stats) {
+        return stats.getCallSites().entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(5)
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= 160 ? sql : sql.substring(0, 157) + "...";
+    }
+}
@@ -0,0 +1,153 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import com.telusko.SecurityEx.exception.SqlBudgetExceededException;
+
+import io.micrometer.context.ContextRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts and times the SQL statements executed on the current thread while a request scope is open,
+ * i.e. between the SQL filter's begin() and end(). It listens on the application DataSource, so
+ * Hibernate, JdbcTemplate and filter lookups are all charged; a JDBC batch is one round trip and counts
+ * once. Scheduler, outbox, archiver and other background threads never open a scope, so they are
+ * neither counted nor held to the budget. The scope is registered with the context-propagation
+ * ContextRegistry, so work the request hands to other threads through a ContextSnapshot (the dashboard's
+ * parallel reads) is charged to the request as well. With call-site capture on (the SQL budget),
+ * it also records which statements repeat and which application frames issued them, which is what an
+ * N+1 looks like from here.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final String APP_PACKAGE = "com.telusko.SecurityEx.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    // The scope last opened on this thread; it stays readable after end() until the next begin()
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+    private static final String STARTED_AT = "sqlStatementCounter.startedAt";
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor("sql.statement.stats", CURRENT::get, CURRENT::set,
+                CURRENT::remove);
+    }
+
+    private final boolean captureCallSites;
+    private final int failAbove;
+
+    public SqlStatementCounter() {
+        this(false, Integer.MAX_VALUE);
+    }
+
+    /** failAbove: throw SqlBudgetExceededException on the statement that goes over this count. **/
+    public SqlStatementCounter(boolean captureCallSites, int failAbove) {
+        this.captureCallSites = captureCallSites;
+        this.failAbove = failAbove;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats == null || !stats.active) {
+            return;
+        }
+        int count = stats.count.incrementAndGet();
+        if (captureCallSites || count > failAbove) {
+            String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            if (captureCallSites) {
+                stats.statements.merge(sql, 1, Integer::sum);
+                stats.callSites.merge(callSite(), 1, Integer::sum);
+            }
+            if (count > failAbove) {
+                throw new SqlBudgetExceededException("Request exceeded its SQL budget of " + failAbove
+                        + " statements; last statement: " + sql);
+            }
+        }
+        // Kept on the execution, as several threads may be running statements for the same request
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats stats = CURRENT.get();
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (stats != null && stats.active && startedAt != null) {
+            stats.nanos.addAndGet(System.nanoTime() - startedAt);
+        }
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().equals(SqlStatementCounter.class.getName()))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(APP_PACKAGE.length()) + "." + f.getMethodName()
+                + ":" + f.getLineNumber()).orElse("(framework)");
+    }
+
+    /** Opens a request scope on this thread, counting from zero; pair it with end() in a finally block. **/
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        stats.active = true;
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** Stops counting on this thread; the closed scope's stats remain readable through stats(). **/
+    public static void end() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.active = false;
+        }
+    }
+
+    /** Forgets the last scope, so stats() is empty until the next begin(). **/
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static int current() {
+        return stats().getCount();
+    }
+
+    /** The open or last closed scope of this thread, or empty stats if there was none. **/
+    public static RequestSqlStats stats() {
+        RequestSqlStats stats = CURRENT.get();
+        return stats != null ? stats : new RequestSqlStats();
+    }
+
+    /**
+     * Statistics of one request. Shared by the threads its work runs on, so they may be updated
+     * concurrently; nanos sums the time of statements that ran side by side.
+     */
+    public static class RequestSqlStats {
+        private volatile boolean active;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong nanos = new AtomicLong();
+        private final Map<String, Integer> statements = new ConcurrentHashMap<>();
+        private final Map<String, Integer> callSites = new ConcurrentHashMap<>();
+
+        public int getCount() {
+            return count.get();
+        }
+
+        public long getNanos() {
+            return nanos.get();
+        }
+
+        public Map<String, Integer> getStatements() {
+            return statements;
+        }
+
+        public Map<String, Integer> getCallSites() {
+            return callSites;
+        }
+    }
+}
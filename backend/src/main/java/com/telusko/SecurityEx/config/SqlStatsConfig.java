@@ -0,0 +1,61 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resettable per-route SQL statement counts, enabled with app.sql-stats.enabled=true (load tests, local
+ * profiling). Read them from GET /internal/sql-stats. Production uses the http.server.requests.sql metric.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-stats", name = "enabled", havingValue = "true")
+public class SqlStatsConfig {
+
+    @Bean
+    public SqlStats sqlStats() {
+        return new SqlStats();
+    }
+
+    public static class SqlStats {
+
+        private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+        void record(String route, int statements) {
+            RouteStats stats = routes.computeIfAbsent(route, key -> new RouteStats());
+            stats.requests.increment();
+            stats.statements.add(statements);
+            stats.max.accumulate(statements);
+        }
+
+        public Map<String, Map<String, Number>> snapshot() {
+            Map<String, Map<String, Number>> snapshot = new TreeMap<>();
+            routes.forEach((route, stats) -> {
+                long requests = stats.requests.sum();
+                long statements = stats.statements.sum();
+                snapshot.put(route, Map.of(
+                        "requests", requests,
+                        "statements", statements,
+                        "avgPerRequest", requests == 0 ? 0.0 : (double) statements / requests,
+                        "maxPerRequest", stats.max.get()));
+            });
+            return snapshot;
+        }
+
+        public void reset() {
+            routes.clear();
+        }
+    }
+
+    private static class RouteStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    }
+}
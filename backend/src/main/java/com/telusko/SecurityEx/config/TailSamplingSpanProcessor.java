@@ -0,0 +1,144 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+/**
+ * Tail-based sampling. Ended spans are held per trace until the local root span ends; the whole trace is
+ * then passed to the delegate if the root was slow, any span was slow or any span recorded an error, and
+ * dropped otherwise. Requires every span to be recorded, i.e. a head sampling probability of 1.0.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final int MAX_SPANS_PER_TRACE = 2048;
+    // Traces whose root never ends here (e.g. spans finishing after the response) are swept after this
+    private static final long MAX_PENDING_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SpanProcessor delegate;
+    private final long latencyThresholdNanos;
+    private final long spanThresholdNanos;
+    private final int maxPendingTraces;
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+
+    private final Counter kept;
+    private final Counter dropped;
+    private final Counter overflow;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, long latencyThresholdMs, long spanThresholdMs,
+                                     int maxPendingTraces, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.spanThresholdNanos = TimeUnit.MILLISECONDS.toNanos(spanThresholdMs);
+        this.maxPendingTraces = maxPendingTraces;
+        this.kept = decisionCounter(meterRegistry, "kept");
+        this.dropped = decisionCounter(meterRegistry, "dropped");
+        this.overflow = decisionCounter(meterRegistry, "overflow");
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String decision) {
+        return Counter.builder("tracing.tail.traces")
+                .description("Traces seen by the tail sampler, by decision")
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+
+        if (parent.isValid() && !parent.isRemote()) {
+            PendingTrace trace = pending.get(traceId);
+            if (trace == null) {
+                if (pending.size() >= maxPendingTraces) {
+                    overflow.increment();
+                    return;
+                }
+                trace = pending.computeIfAbsent(traceId, id -> new PendingTrace());
+            }
+            trace.add(span, isNotable(span));
+            return;
+        }
+
+        // Local root: decide for the whole trace
+        PendingTrace trace = pending.remove(traceId);
+        boolean keep = span.getLatencyNanos() >= latencyThresholdNanos || isNotable(span)
+                || (trace != null && trace.notable);
+        if (keep) {
+            if (trace != null) {
+                trace.spans.forEach(delegate::onEnd);
+            }
+            delegate.onEnd(span);
+            kept.increment();
+        } else {
+            dropped.increment();
+        }
+
+        if (pending.size() > maxPendingTraces / 2) {
+            long now = System.nanoTime();
+            pending.values().removeIf(stale -> now - stale.createdNanos > MAX_PENDING_NANOS);
+        }
+    }
+
+    private boolean isNotable(ReadableSpan span) {
+        return span.getLatencyNanos() >= spanThresholdNanos
+                || span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    private static final class PendingTrace {
+
+        private final long createdNanos = System.nanoTime();
+        private final Queue<ReadableSpan> spans = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile boolean notable;
+
+        void add(ReadableSpan span, boolean notableSpan) {
+            if (notableSpan) {
+                notable = true;
+            }
+            // An N+1 can produce thousands of JDBC spans; the first ones are enough to see the pattern
+            if (size.incrementAndGet() <= MAX_SPANS_PER_TRACE) {
+                spans.add(span);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.telusko.SecurityEx.config;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.ConditionalOnEnabledTracing;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanExporters;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Tracing is off unless management.tracing.enabled=true (see application-tracing.properties). Service
+ * methods (@Observed), JWT verification, JDBC statements and JSON serialization become spans; the tail
+ * sampler exports only slow or failed traces to the trace file and, if configured, the OTLP endpoint.
+ */
+@Configuration
+@ConditionalOnEnabledTracing
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing.file", name = "enabled", havingValue = "true")
+    public JsonFileSpanExporter jsonFileSpanExporter(@Value("${app.tracing.file.path:logs/traces.jsonl}") String path,
+                                                     ObjectMapper objectMapper) {
+        return new JsonFileSpanExporter(Path.of(path), objectMapper);
+    }
+
+    /** Replaces the default processor list so nothing reaches the exporters without a tail decision. **/
+    @Bean
+    public SpanProcessors tailSamplingSpanProcessors(SpanExporters spanExporters, MeterRegistry meterRegistry,
+            @Value("${app.tracing.tail.latency-threshold-ms:500}") long latencyThresholdMs,
+            @Value("${app.tracing.tail.span-threshold-ms:100}") long spanThresholdMs,
+            @Value("${app.tracing.tail.max-pending-traces:10000}") int maxPendingTraces) {
+        BatchSpanProcessor batch = BatchSpanProcessor.builder(SpanExporter.composite(spanExporters.list())).build();
+        return SpanProcessors.of(new TailSamplingSpanProcessor(batch, latencyThresholdMs, spanThresholdMs,
+                maxPendingTraces, meterRegistry));
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   ObservationRegistry observationRegistry) {
+        return new ObservedJacksonHttpMessageConverter(objectMapper, observationRegistry);
+    }
+}
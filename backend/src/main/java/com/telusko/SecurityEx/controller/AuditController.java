@@ -0,0 +1,40 @@
+package com.telusko.SecurityEx.controller;
+
+import java.time.Instant;
+
+import org.springframework.web.bind.annotation.*;
+
+import com.telusko.SecurityEx.dto.AuditEntryDto;
+import com.telusko.SecurityEx.dto.PageDto;
+import com.telusko.SecurityEx.service.AuditService;
+
+@RestController
+@RequestMapping("/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    public AuditController(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    // e.g. /audit/{companyId}/entities/inventory/{inventoryId}?from=2025-01-01T00:00:00Z&page=0&size=50
+    @GetMapping("/{companyId}/entities/{entityType}/{entityId}")
+    public PageDto<AuditEntryDto> getEntityHistory(@PathVariable Long companyId, @PathVariable String entityType,
+                                                   @PathVariable Long entityId,
+                                                   @RequestParam(required = false) Instant from,
+                                                   @RequestParam(required = false) Instant to,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return auditService.getEntityHistory(companyId, entityType, entityId, from, to, page, size);
+    }
+
+    @GetMapping("/{companyId}/users/{username}")
+    public PageDto<AuditEntryDto> getUserHistory(@PathVariable Long companyId, @PathVariable String username,
+                                                 @RequestParam(required = false) Instant from,
+                                                 @RequestParam(required = false) Instant to,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        return auditService.getUserHistory(companyId, username, from, to, page, size);
+    }
+}
@@ -0,0 +1,57 @@
+package com.telusko.SecurityEx.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import com.telusko.SecurityEx.dto.CategoryDto;
+import com.telusko.SecurityEx.dto.CategoryItemsDto;
+import com.telusko.SecurityEx.dto.CategorySummaryDto;
+import com.telusko.SecurityEx.model.Category;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.service.CategoryService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/categories")
+public class CategoryController {
+
+    private final CategoryService categoryService;
+
+    public CategoryController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    @PostMapping("/{companyId}")
+    public Category addCategory(@PathVariable Long companyId, @RequestBody CategoryDto categoryDto) {
+        return categoryService.addCategory(companyId, categoryDto);
+    }
+
+    @GetMapping("/{companyId}")
+    public List<CategorySummaryDto> getCategories(@PathVariable Long companyId) {
+        return categoryService.getCategories(companyId);
+    }
+
+    @DeleteMapping("/{categoryId}")
+    public void deleteCategory(@PathVariable Long categoryId) {
+        categoryService.deleteCategory(categoryId);
+    }
+
+    @GetMapping("/{categoryId}/items")
+    public List<Inventory> getItems(@PathVariable Long categoryId,
+                                    @RequestParam(required = false) Long after,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        return categoryService.getItems(categoryId, after, limit);
+    }
+
+    // Returns the number of items added
+    @PostMapping("/{categoryId}/items")
+    public int addItems(@PathVariable Long categoryId, @RequestBody CategoryItemsDto itemsDto) {
+        return categoryService.addItems(categoryId, itemsDto);
+    }
+
+    // Returns the number of items removed; a body, since the id list can be long
+    @PostMapping("/{categoryId}/items/remove")
+    public int removeItems(@PathVariable Long categoryId, @RequestBody CategoryItemsDto itemsDto) {
+        return categoryService.removeItems(categoryId, itemsDto);
+    }
+}
@@ -1,11 +1,17 @@
 package com.telusko.SecurityEx.controller;
 
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.telusko.SecurityEx.dto.CompanyDashboardDto;
+import com.telusko.SecurityEx.dto.CompanyDirectoryEntryDto;
+import com.telusko.SecurityEx.dto.PageDto;
 import com.telusko.SecurityEx.model.Company;
+import com.telusko.SecurityEx.model.CompanyDeletionJob;
+import com.telusko.SecurityEx.service.CompanyDashboardService;
 import com.telusko.SecurityEx.service.CompanyService;
 
 @RestController
@@ -13,9 +19,11 @@ import com.telusko.SecurityEx.service.CompanyService;
 public class CompanyController {
 
     private final CompanyService companyService;
+    private final CompanyDashboardService dashboardService;
 
-    public CompanyController(CompanyService companyService) {
+    public CompanyController(CompanyService companyService, CompanyDashboardService dashboardService) {
         this.companyService = companyService;
+        this.dashboardService = dashboardService;
     }
 
     @GetMapping("/user-company-id")
@@ -28,14 +36,49 @@ public class CompanyController {
         return companyService.getCompanyDetails(companyId);
     }
 
+    // Company header plus the first items of each inventory list, e.g. /companies/{companyId}/dashboard?reorderLimit=50
+    @GetMapping("/{companyId}/dashboard")
+    public CompanyDashboardDto getDashboard(@PathVariable Long companyId,
+                                            @RequestParam(defaultValue = "20") int inventoryLimit,
+                                            @RequestParam(defaultValue = "20") int outOfStockLimit,
+                                            @RequestParam(defaultValue = "20") int reorderLimit) {
+        return dashboardService.getDashboard(companyId, inventoryLimit, outOfStockLimit, reorderLimit);
+    }
+
+    // The same for the caller's own company, saving the user-company-id round trip
+    @GetMapping("/dashboard")
+    public CompanyDashboardDto getOwnDashboard(@RequestParam(defaultValue = "20") int inventoryLimit,
+                                               @RequestParam(defaultValue = "20") int outOfStockLimit,
+                                               @RequestParam(defaultValue = "20") int reorderLimit) {
+        return dashboardService.getDashboard(null, inventoryLimit, outOfStockLimit, reorderLimit);
+    }
+
     @PutMapping("/{companyId}")
     public Company updateCompanyDetails(@PathVariable Long companyId, @RequestBody Company updatedCompany) {
         return companyService.updateCompanyDetails(companyId, updatedCompany);
     }
 
+    // 202: the company is deleted in the background; the job URL reports progress
     @DeleteMapping("/{companyId}")
-    public void deleteCompany(@PathVariable Long companyId) {
-        companyService.deleteCompany(companyId);
+    public ResponseEntity<CompanyDeletionJob> deleteCompany(@PathVariable Long companyId) {
+        CompanyDeletionJob job = companyService.deleteCompany(companyId);
+        return ResponseEntity.accepted().location(URI.create("/companies/deletion-jobs/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/deletion-jobs/{jobId}")
+    public CompanyDeletionJob getDeletionJob(@PathVariable Long jobId) {
+        return companyService.getDeletionJob(jobId);
+    }
+
+    // Paged admin directory, e.g. /companies/directory?q=acme&sort=inventoryCount&direction=desc
+    @GetMapping("/directory")
+    public PageDto<CompanyDirectoryEntryDto> getCompanyDirectory(@RequestParam(required = false) String q,
+                                                                 @RequestParam(required = false) String plan,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "50") int size,
+                                                                 @RequestParam(defaultValue = "companyName") String sort,
+                                                                 @RequestParam(defaultValue = "asc") String direction) {
+        return companyService.getCompanyDirectory(q, plan, page, size, sort, direction);
     }
 
     @GetMapping("/all")
@@ -2,6 +2,8 @@ package com.telusko.SecurityEx.controller;
 
 import org.springframework.web.bind.annotation.*;
 
+import com.telusko.SecurityEx.dto.EmployeeStatsDto;
+import com.telusko.SecurityEx.dto.PageDto;
 import com.telusko.SecurityEx.model.Employee;
 import com.telusko.SecurityEx.service.EmployeeService;
 
@@ -22,6 +24,35 @@ public class EmployeeController {
         return employeeService.getEmployees(companyId);
     }
 
+    // e.g. /employees/{companyId}/page?q=ann&dept=Ops&sort=salary&direction=desc
+    @GetMapping("/{companyId}/page")
+    public PageDto<Employee> getEmployeePage(@PathVariable Long companyId,
+                                             @RequestParam(required = false) String q,
+                                             @RequestParam(required = false) String dept,
+                                             @RequestParam(required = false) String grade,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             @RequestParam(defaultValue = "name") String sort,
+                                             @RequestParam(defaultValue = "asc") String direction) {
+        return employeeService.getEmployeePage(companyId, q, dept, grade, page, size, sort, direction);
+    }
+
+    @GetMapping("/{companyId}/stats")
+    public List<EmployeeStatsDto> getEmployeeStats(@PathVariable Long companyId) {
+        return employeeService.getEmployeeStats(companyId);
+    }
+
+    @PostMapping("/{companyId}/bulk")
+    public List<Employee> addEmployees(@PathVariable Long companyId, @RequestBody List<Employee> employees) {
+        return employeeService.addEmployees(companyId, employees);
+    }
+
+    // Returns the number of employees updated
+    @PutMapping("/{companyId}/bulk")
+    public int updateEmployees(@PathVariable Long companyId, @RequestBody List<Employee> employees) {
+        return employeeService.updateEmployees(companyId, employees);
+    }
+
     @PostMapping("/{companyId}")
     public Employee addEmployee(@PathVariable Long companyId, @RequestBody Employee employee) {
         return employeeService.addEmployee(companyId, employee);
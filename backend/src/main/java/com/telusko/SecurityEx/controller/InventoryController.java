@@ -2,10 +2,20 @@ package com.telusko.SecurityEx.controller;
 
 import org.springframework.web.bind.annotation.*;
 
+import com.telusko.SecurityEx.dto.AbcAnalysisDto;
 import com.telusko.SecurityEx.dto.InventoryDto;
+import com.telusko.SecurityEx.dto.PriceDto;
+import com.telusko.SecurityEx.dto.RepriceDto;
+import com.telusko.SecurityEx.dto.RepriceResultDto;
+import com.telusko.SecurityEx.dto.SlowMoversDto;
+import com.telusko.SecurityEx.dto.ValuationDto;
 import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.repo.ArchivedInventory;
+import com.telusko.SecurityEx.service.InventoryArchiveService;
+import com.telusko.SecurityEx.service.InventoryAnalyticsService;
 import com.telusko.SecurityEx.service.InventoryService;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -13,9 +23,14 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryAnalyticsService analyticsService;
+    private final InventoryArchiveService archiveService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, InventoryAnalyticsService analyticsService,
+                               InventoryArchiveService archiveService) {
         this.inventoryService = inventoryService;
+        this.analyticsService = analyticsService;
+        this.archiveService = archiveService;
     }
 
     @PostMapping("/{companyId}")
@@ -28,11 +43,45 @@ public class InventoryController {
         return inventoryService.updateInventory(inventoryId, updatedInventory);
     }
 
+    // Discontinues the item; it is archived later unless reactivated
     @DeleteMapping("/{inventoryId}")
     public void deleteInventory(@PathVariable Long inventoryId) {
         inventoryService.deleteInventory(inventoryId);
     }
 
+    @PutMapping("/{inventoryId}/reactivate")
+    public Inventory reactivateInventory(@PathVariable Long inventoryId) {
+        return inventoryService.reactivateInventory(inventoryId);
+    }
+
+    @GetMapping("/{companyId}/discontinued")
+    public List<Inventory> getDiscontinuedInventories(@PathVariable Long companyId) {
+        return inventoryService.getDiscontinuedInventories(companyId);
+    }
+
+    @GetMapping("/{companyId}/archive")
+    public List<YearMonth> getArchiveMonths(@PathVariable Long companyId) {
+        return archiveService.getArchiveMonths(companyId);
+    }
+
+    // e.g. /inventories/{companyId}/archive/2024-03/items?after=1200&limit=100
+    @GetMapping("/{companyId}/archive/{month}/items")
+    public List<ArchivedInventory> getArchivedItems(@PathVariable Long companyId, @PathVariable String month,
+                                                    @RequestParam(required = false) Long after,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return archiveService.getArchivedItems(companyId, month, after, limit);
+    }
+
+    @GetMapping("/{companyId}/archive/items/{inventoryId}")
+    public ArchivedInventory getArchivedItem(@PathVariable Long companyId, @PathVariable Long inventoryId) {
+        return archiveService.getArchivedItem(companyId, inventoryId);
+    }
+
+    @PostMapping("/{companyId}/archive/items/{inventoryId}/restore")
+    public Inventory restoreInventory(@PathVariable Long companyId, @PathVariable Long inventoryId) {
+        return archiveService.restore(companyId, inventoryId);
+    }
+
     @GetMapping("/{companyId}")
     public List<Inventory> getInventories(@PathVariable Long companyId) {
         return inventoryService.getInventories(companyId);
@@ -53,4 +102,39 @@ public class InventoryController {
     public List<Inventory> getInventoryWithReorderPoint(@PathVariable Long companyId) {
         return inventoryService.getInventoryWithReorderPoint(companyId);
     }
+
+    // e.g. {"categoryId": 7, "percent": 4} or {"inventoryIds": [1, 2, 3], "amount": -0.5}
+    @PostMapping("/{companyId}/reprice")
+    public RepriceResultDto repriceInventory(@PathVariable Long companyId, @RequestBody RepriceDto repriceDto) {
+        return inventoryService.repriceInventory(companyId, repriceDto);
+    }
+
+    @PutMapping("/{companyId}/prices")
+    public RepriceResultDto setPrices(@PathVariable Long companyId, @RequestBody List<PriceDto> prices) {
+        return inventoryService.setPrices(companyId, prices);
+    }
+
+    // e.g. /inventories/{companyId}/analytics/abc?basis=value&a=70&b=90&abcClass=A&limit=50
+    @GetMapping("/{companyId}/analytics/abc")
+    public AbcAnalysisDto getAbcAnalysis(@PathVariable Long companyId,
+                                         @RequestParam(defaultValue = "usage") String basis,
+                                         @RequestParam(defaultValue = "80") double a,
+                                         @RequestParam(defaultValue = "95") double b,
+                                         @RequestParam(required = false) String abcClass,
+                                         @RequestParam(defaultValue = "0") int offset,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        return analyticsService.getAbcAnalysis(companyId, basis, a, b, abcClass, offset, limit);
+    }
+
+    @GetMapping("/{companyId}/analytics/slow-movers")
+    public SlowMoversDto getSlowMovers(@PathVariable Long companyId,
+                                       @RequestParam(defaultValue = "6") double maxCover,
+                                       @RequestParam(defaultValue = "20") int limit) {
+        return analyticsService.getSlowMovers(companyId, maxCover, limit);
+    }
+
+    @GetMapping("/{companyId}/analytics/valuation")
+    public ValuationDto getValuation(@PathVariable Long companyId) {
+        return analyticsService.getValuation(companyId);
+    }
 }
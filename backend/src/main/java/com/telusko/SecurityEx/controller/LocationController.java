@@ -0,0 +1,58 @@
+package com.telusko.SecurityEx.controller;
+
+import org.springframework.web.bind.annotation.*;
+
+import com.telusko.SecurityEx.dto.CompanyStockSummaryDto;
+import com.telusko.SecurityEx.dto.LocationDto;
+import com.telusko.SecurityEx.dto.LocationStockDto;
+import com.telusko.SecurityEx.dto.StockLevelDto;
+import com.telusko.SecurityEx.dto.StockTransferDto;
+import com.telusko.SecurityEx.model.Location;
+import com.telusko.SecurityEx.model.StockLevel;
+import com.telusko.SecurityEx.model.StockTransfer;
+import com.telusko.SecurityEx.service.LocationService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/locations")
+public class LocationController {
+
+    private final LocationService locationService;
+
+    public LocationController(LocationService locationService) {
+        this.locationService = locationService;
+    }
+
+    @PostMapping("/{companyId}")
+    public Location addLocation(@PathVariable Long companyId, @RequestBody LocationDto locationDto) {
+        return locationService.addLocation(companyId, locationDto);
+    }
+
+    @GetMapping("/{companyId}")
+    public List<LocationStockDto> getLocationStock(@PathVariable Long companyId) {
+        return locationService.getLocationStock(companyId);
+    }
+
+    @GetMapping("/{companyId}/summary")
+    public CompanyStockSummaryDto getStockSummary(@PathVariable Long companyId) {
+        return locationService.getStockSummary(companyId);
+    }
+
+    @GetMapping("/{locationId}/stock")
+    public List<StockLevel> getStockLevels(@PathVariable Long locationId,
+                                           @RequestParam(required = false) Long after,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        return locationService.getStockLevels(locationId, after, limit);
+    }
+
+    @PutMapping("/{locationId}/stock")
+    public StockLevel setStockLevel(@PathVariable Long locationId, @RequestBody StockLevelDto stockLevelDto) {
+        return locationService.setStockLevel(locationId, stockLevelDto);
+    }
+
+    @PostMapping("/transfers")
+    public StockTransfer transferStock(@RequestBody StockTransferDto transferDto) {
+        return locationService.transferStock(transferDto);
+    }
+}
@@ -0,0 +1,33 @@
+package com.telusko.SecurityEx.controller;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.telusko.SecurityEx.config.SqlStatsConfig.SqlStats;
+
+@RestController
+@RequestMapping("/internal/sql-stats")
+@ConditionalOnProperty(prefix = "app.sql-stats", name = "enabled", havingValue = "true")
+public class SqlStatsController {
+
+    private final SqlStats sqlStats;
+
+    public SqlStatsController(SqlStats sqlStats) {
+        this.sqlStats = sqlStats;
+    }
+
+    @GetMapping
+    public Map<String, Map<String, Number>> getSqlStats() {
+        return sqlStats.snapshot();
+    }
+
+    @DeleteMapping
+    public void resetSqlStats() {
+        sqlStats.reset();
+    }
+}
@@ -1,6 +1,8 @@
 package com.telusko.SecurityEx.controller;
 
+import com.telusko.SecurityEx.config.JwtFilter;
 import com.telusko.SecurityEx.dto.LoginDto;
+import com.telusko.SecurityEx.dto.RefreshTokenDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +12,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+
 import com.telusko.SecurityEx.dto.RegistrationDto;
 import com.telusko.SecurityEx.model.Users;
 import com.telusko.SecurityEx.repo.UserRepo;
@@ -44,7 +49,23 @@ public class UserController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        Map<String, String> response = userService.refresh(refreshTokenDto.getRefreshToken());
 
+        if (response.containsKey("token")) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request, @RequestBody(required = false) RefreshTokenDto refreshTokenDto) {
+        Claims claims = (Claims) request.getAttribute(JwtFilter.CLAIMS_ATTRIBUTE);
+        userService.logout(claims, refreshTokenDto == null ? null : refreshTokenDto.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
 
     @GetMapping("/viewUser")
     public Users viewUser(){
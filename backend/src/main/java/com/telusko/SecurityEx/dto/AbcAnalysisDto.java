@@ -0,0 +1,20 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AbcAnalysisDto {
+    private String basis; // USAGE (issues x price) or VALUE (stock value)
+    private long totalItems;
+    private double totalValue;
+    private double thresholdA; // A holds the top items up to this share of the total value, B up to thresholdB
+    private double thresholdB;
+    private List<AnalyticsGroupDto> classes;
+    private List<AnalyticsItemDto> items; // the requested slice of the ranking
+}
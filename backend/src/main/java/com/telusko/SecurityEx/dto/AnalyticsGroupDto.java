@@ -0,0 +1,17 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsGroupDto {
+    private String key; // ABC class, stock status or price band
+    private long items;
+    private double quantity;
+    private double value; // in the analysis' own measure (usage or stock value)
+    private double itemShare; // fraction of all items
+    private double valueShare; // fraction of the total value
+}
@@ -0,0 +1,21 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsItemDto {
+    private Long id;
+    private String productName;
+    private int rank; // 1-based position in the analysis' order
+    private double metric; // the value the items are ranked by
+    private Double cumulativeShare; // ABC only: share of the total up to and including this item
+    private String abcClass;
+    private int qtyInStock;
+    private int issues;
+    private double stockValue;
+    private Double cover; // periods of issues the stock on hand covers; null when nothing was issued
+}
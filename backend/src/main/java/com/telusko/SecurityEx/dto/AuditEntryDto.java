@@ -0,0 +1,23 @@
+package com.telusko.SecurityEx.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditEntryDto {
+    private Long id;
+    private Instant changedAt;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private String username;
+    @JsonRawValue
+    private String changes; // stored jsonb, passed through as is: {"field": [old, new], ...}
+}
@@ -0,0 +1,14 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryItemsDto {
+    private List<Long> inventoryIds;
+}
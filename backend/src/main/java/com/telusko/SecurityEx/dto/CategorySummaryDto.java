@@ -0,0 +1,14 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategorySummaryDto {
+    private Long id;
+    private String name;
+    private Long itemCount;
+}
@@ -0,0 +1,19 @@
+package com.telusko.SecurityEx.dto;
+
+import com.telusko.SecurityEx.model.Inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** What the home and inventory pages need on load, in one response. **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyDashboardDto {
+    private CompanyDirectoryEntryDto company; // includes the company_stats counts and stock value of active items
+    private String ownerUsername;
+    private DashboardSectionDto<Inventory> inventories;
+    private DashboardSectionDto<Inventory> outOfStock;
+    private DashboardSectionDto<Inventory> reorder;
+}
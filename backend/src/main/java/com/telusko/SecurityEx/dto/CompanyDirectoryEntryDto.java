@@ -0,0 +1,19 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyDirectoryEntryDto {
+    private Long id;
+    private String companyName;
+    private String capacity;
+    private String location;
+    private String plan;
+    private Long inventoryCount; // active items; discontinued ones wait for the archive and are not counted
+    private Long employeeCount;
+    private Double totalStockValue; // sum of the active items' stock_value
+}
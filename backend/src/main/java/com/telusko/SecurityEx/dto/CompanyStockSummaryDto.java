@@ -0,0 +1,16 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyStockSummaryDto {
+    private Long locations;
+    private Long totalCapacity;
+    private Long totalQuantity;
+    private Long skuLocations; // (item, location) pairs holding stock
+    private Double utilization;
+}
@@ -0,0 +1,16 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The first items of a dashboard list, in id order; hasMore tells the client to page through the full list. **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardSectionDto<T> {
+    private List<T> items;
+    private boolean hasMore;
+}
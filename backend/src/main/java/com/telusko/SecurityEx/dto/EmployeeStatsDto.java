@@ -0,0 +1,21 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeStatsDto {
+    private String scope; // GRADE (a dept and grade), DEPT (all grades of a dept) or COMPANY
+    private String dept;
+    private String grade;
+    private Long headcount;
+    private Double salarySum;
+    private Double salaryAvg;
+    private Double salaryP25;
+    private Double salaryMedian;
+    private Double salaryP75;
+    private Double salaryP90;
+}
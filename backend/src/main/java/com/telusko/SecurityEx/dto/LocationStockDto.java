@@ -0,0 +1,17 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LocationStockDto {
+    private Long id;
+    private String name;
+    private Integer capacity;
+    private Long totalQuantity;
+    private Integer skuCount;
+    private Double utilization; // totalQuantity / capacity, null when no capacity is set
+}
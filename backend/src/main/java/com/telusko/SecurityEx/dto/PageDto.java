@@ -0,0 +1,19 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One page of a sorted list; a stable shape instead of serializing Spring Data's Page. **/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,21 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A relative price change for the items of a category or for listed items: new price =
+ * price * (1 + percent / 100) + amount, rounded to cents. e.g. {"categoryId": 7, "percent": 4}
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepriceDto {
+    private Long categoryId;
+    private List<Long> inventoryIds;
+    private Double percent;
+    private Double amount;
+}
@@ -0,0 +1,16 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepriceResultDto {
+    private long matched; // items targeted
+    private long updated; // items whose price or stock value changed
+    private double changedValueBefore; // stock value of the updated items only, not of all matched ones
+    private double changedValueAfter;
+    private double valuationDelta; // change in the company's total stock value
+}
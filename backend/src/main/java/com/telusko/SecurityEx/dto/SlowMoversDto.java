@@ -0,0 +1,20 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowMoversDto {
+    private double maxCover; // items with more periods of cover than this, or with stock but no issues
+    private long items;
+    private double tiedUpValue;
+    private double valueShare; // of the company's total stock value
+    private long deadStockItems; // stock on hand, nothing issued
+    private double deadStockValue;
+    private List<AnalyticsItemDto> topItems; // by stock value tied up
+}
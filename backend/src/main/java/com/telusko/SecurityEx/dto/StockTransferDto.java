@@ -0,0 +1,15 @@
+package com.telusko.SecurityEx.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockTransferDto {
+    private Long inventoryId;
+    private Long fromLocationId;
+    private Long toLocationId;
+    private Integer quantity;
+}
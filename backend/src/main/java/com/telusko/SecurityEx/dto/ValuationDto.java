@@ -0,0 +1,18 @@
+package com.telusko.SecurityEx.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValuationDto {
+    private long totalItems;
+    private long totalQuantity;
+    private double totalValue;
+    private List<AnalyticsGroupDto> byStockStatus;
+    private List<AnalyticsGroupDto> byPriceBand;
+}
@@ -1,6 +1,9 @@
 package com.telusko.SecurityEx.exception;
 
 public class ResourceNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
     public ResourceNotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,20 @@
+package com.telusko.SecurityEx.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A named group of a company's items; membership lives in inventory_category (see CategoryRepo). **/
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+public class Category {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long companyId;
+    private String name;
+}
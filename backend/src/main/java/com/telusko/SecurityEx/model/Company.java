@@ -21,6 +21,9 @@ public class Company {
     private String capacity;
     private String location;
 
+    // Not copied by updateCompanyDetails: plans change through billing, not the tenant's own edits
+    private String plan = "standard";
+
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     @JsonManagedReference
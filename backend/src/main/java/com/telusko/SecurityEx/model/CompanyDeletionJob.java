@@ -0,0 +1,40 @@
+package com.telusko.SecurityEx.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "company_deletion_job")
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyDeletionJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    /** Children first, in an order where no phase leaves rows that still reference an earlier one. **/
+    public enum Phase { INVENTORY, EMPLOYEE, STOCK_TRANSFER, LOCATION, COMPANY }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+
+    private long lastId; // Keyset cursor: the next batch of the phase starts after this id
+    private long deletedRows;
+    private String requestedBy;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
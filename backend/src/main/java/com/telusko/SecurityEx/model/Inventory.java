@@ -6,12 +6,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
 public class Inventory {
 
+    /** ARCHIVED items have left the table for a segment file (see InventoryArchiver); rows are never ARCHIVED. **/
+    public enum Status { ACTIVE, DISCONTINUED, ARCHIVED }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,6 +37,10 @@ public class Inventory {
     private Integer bufferStock; // Stock maintained to prevent stockouts due to demand fluctuations or delays in supply.
     private String isReorder; // Calculated from reorderPoint: 1 if qtyInStock < reorderPoint else 0
 
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.ACTIVE;
+    private Instant statusChangedAt = Instant.now();
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", referencedColumnName = "id", nullable = false)
     @JsonBackReference
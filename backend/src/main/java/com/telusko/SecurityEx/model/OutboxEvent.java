@@ -0,0 +1,34 @@
+package com.telusko.SecurityEx.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "outbox_event")
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String aggregateType; // e.g. Inventory; events of one aggregate are relayed in id order
+    private Long aggregateId;
+    private String eventType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String payload;
+
+    private Instant createdAt;
+    private int attempts;
+    private String lastError;
+    private Instant failedAt;
+}
@@ -0,0 +1,37 @@
+package com.telusko.SecurityEx.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Quantity of one inventory item at one location. Changes roll up into location_stock via triggers. **/
+@Data
+@Entity
+@Table(name = "stock_level")
+@IdClass(StockLevel.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevel {
+
+    @Id
+    private Long inventoryId;
+
+    @Id
+    private Long locationId;
+
+    private Long companyId;
+    private Integer quantity;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long inventoryId;
+        private Long locationId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.telusko.SecurityEx.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "stock_transfer")
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long companyId;
+    private Long inventoryId;
+    private Long fromLocationId;
+    private Long toLocationId;
+    private Integer quantity;
+    private String createdBy;
+    private Instant createdAt;
+}
@@ -29,6 +29,8 @@ import lombok.ToString;
 @ToString
 public class Users implements UserDetails{
 
+    private static final long serialVersionUID = 1L;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,6 +38,7 @@ public class Users implements UserDetails{
     private String password;
     private String role;
 
+    @SuppressWarnings("serial")
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = true)
     @JsonBackReference
     private Company company;
@@ -0,0 +1,26 @@
+package com.telusko.SecurityEx.repo;
+
+import java.time.Instant;
+import java.util.List;
+
+/** An inventory row as InventoryArchiver wrote it to a segment file, with its category memberships. **/
+public record ArchivedInventory(
+        Long id,
+        Long companyId,
+        String productName,
+        String description,
+        Integer qtyInStock,
+        double price,
+        Double stockValue,
+        Integer reorderPoint,
+        Integer openingStock,
+        Integer receipts,
+        Integer issues,
+        Integer closingStock,
+        Integer minimumStock,
+        Integer bufferStock,
+        String isReorder,
+        Instant discontinuedAt,
+        Instant archivedAt,
+        List<Long> categoryIds) {
+}
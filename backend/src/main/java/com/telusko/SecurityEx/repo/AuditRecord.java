@@ -0,0 +1,9 @@
+package com.telusko.SecurityEx.repo;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** One captured change, as queued for AuditWriter. changes maps each changed field to [old, new]. **/
+public record AuditRecord(Instant changedAt, Long companyId, String entityType, Long entityId, String action,
+                          String username, Map<String, Object[]> changes) {
+}
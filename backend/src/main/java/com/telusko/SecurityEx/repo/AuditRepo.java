@@ -0,0 +1,170 @@
+package com.telusko.SecurityEx.repo;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telusko.SecurityEx.dto.AuditEntryDto;
+
+/**
+ * Writes and reads audit_log (V14 migration). Batches go in with COPY, one round trip and no per-row
+ * statement; connections that cannot be unwrapped to the Postgres driver fall back to a batched insert.
+ */
+@Repository
+public class AuditRepo {
+
+    private static final String COPY_SQL = """
+            COPY audit_log (changed_at, company_id, entity_type, entity_id, action, username, changes)
+            FROM STDIN (FORMAT csv)""";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_log (changed_at, company_id, entity_type, entity_id, action, username, changes)
+            VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb))""";
+
+    private static final String SELECT = "SELECT id, changed_at, entity_type, entity_id, action, username, changes FROM audit_log ";
+
+    private static final RowMapper<AuditEntryDto> ENTRY = (rs, rowNum) -> new AuditEntryDto(rs.getLong(1),
+            rs.getTimestamp(2).toInstant(), rs.getString(3), rs.getLong(4), rs.getString(5), rs.getString(6),
+            rs.getString(7));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AuditRepo(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void insert(List<AuditRecord> records) {
+        Boolean copied = jdbcTemplate.execute((Connection connection) -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            copy(connection.unwrap(PGConnection.class), records);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(copied)) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+                ps.setTimestamp(1, Timestamp.from(record.changedAt()));
+                ps.setObject(2, record.companyId());
+                ps.setString(3, record.entityType());
+                ps.setLong(4, record.entityId());
+                ps.setString(5, record.action());
+                ps.setString(6, record.username());
+                ps.setString(7, json(record));
+            });
+        }
+    }
+
+    private void copy(PGConnection connection, List<AuditRecord> records) throws SQLException {
+        StringBuilder csv = new StringBuilder(records.size() * 128);
+        for (AuditRecord record : records) {
+            csv.append(record.changedAt()).append(',');
+            if (record.companyId() != null) {
+                csv.append(record.companyId());
+            }
+            csv.append(',');
+            quote(csv, record.entityType()).append(',').append(record.entityId()).append(',');
+            quote(csv, record.action()).append(',');
+            if (record.username() != null) {
+                quote(csv, record.username());
+            }
+            csv.append(',');
+            quote(csv, json(record)).append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into audit_log failed", e);
+        }
+    }
+
+    /** CSV quoting; an unquoted empty field is what COPY reads as NULL. **/
+    private static StringBuilder quote(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private String json(AuditRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record.changes());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit changes are not serializable", e);
+        }
+    }
+
+    // Both lists walk one of the V14 indexes newest first; from/to, when given, also prune the months read.
+
+    public List<AuditEntryDto> findByEntity(Long companyId, String entityType, Long entityId, Instant from, Instant to,
+                                            int offset, int limit) {
+        List<Object> args = new ArrayList<>(List.of(companyId, entityType, entityId));
+        return jdbcTemplate.query(SELECT + "WHERE company_id = ? AND entity_type = ? AND entity_id = ?"
+                + window(from, to, args) + " ORDER BY changed_at DESC, id DESC OFFSET ? LIMIT ?", ENTRY,
+                page(args, offset, limit));
+    }
+
+    public long countByEntity(Long companyId, String entityType, Long entityId, Instant from, Instant to) {
+        List<Object> args = new ArrayList<>(List.of(companyId, entityType, entityId));
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM audit_log "
+                + "WHERE company_id = ? AND entity_type = ? AND entity_id = ?" + window(from, to, args), Long.class,
+                args.toArray());
+    }
+
+    public List<AuditEntryDto> findByUser(Long companyId, String username, Instant from, Instant to,
+                                          int offset, int limit) {
+        List<Object> args = new ArrayList<>(List.of(companyId, username));
+        return jdbcTemplate.query(SELECT + "WHERE company_id = ? AND username = ?"
+                + window(from, to, args) + " ORDER BY changed_at DESC, id DESC OFFSET ? LIMIT ?", ENTRY,
+                page(args, offset, limit));
+    }
+
+    public long countByUser(Long companyId, String username, Instant from, Instant to) {
+        List<Object> args = new ArrayList<>(List.of(companyId, username));
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM audit_log WHERE company_id = ? AND username = ?"
+                + window(from, to, args), Long.class, args.toArray());
+    }
+
+    public int ensurePartitions(int monthsAhead) {
+        Integer created = jdbcTemplate.queryForObject("SELECT audit_log_ensure_partitions(?)", Integer.class,
+                monthsAhead);
+        return created == null ? 0 : created;
+    }
+
+    private static String window(Instant from, Instant to, List<Object> args) {
+        StringBuilder sql = new StringBuilder();
+        if (from != null) {
+            sql.append(" AND changed_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND changed_at < ?");
+            args.add(Timestamp.from(to));
+        }
+        return sql.toString();
+    }
+
+    private static Object[] page(List<Object> args, int offset, int limit) {
+        args.add(offset);
+        args.add(limit);
+        return args.toArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.Category;
+
+import java.util.List;
+
+@Repository
+public interface CategoryRepo extends JpaRepository<Category, Long> {
+
+    boolean existsByCompanyIdAndName(Long companyId, String name);
+
+    // Counts walk the membership primary key (category_id, inventory_id), one index range per category, and
+    // count active items only; discontinued members stay in the category but are not listed or repriced
+    @Query(value = """
+            SELECT c.id AS id, c.name AS name, count(i.id) AS itemCount
+            FROM category c
+            LEFT JOIN inventory_category ic ON ic.category_id = c.id
+            LEFT JOIN inventory i ON i.id = ic.inventory_id AND i.company_id = ic.company_id AND i.status = 'ACTIVE'
+            WHERE c.company_id = :companyId
+            GROUP BY c.id, c.name
+            ORDER BY c.name""", nativeQuery = true)
+    List<CategorySummaryView> findSummaryByCompanyId(@Param("companyId") Long companyId);
+
+    // Ids that are not items of the category's company are skipped, as are existing members
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory_category (category_id, inventory_id, company_id)
+            SELECT :categoryId, i.id, i.company_id
+            FROM inventory i
+            WHERE i.id = ANY(CAST(:inventoryIds AS bigint[])) AND i.company_id = :companyId
+            ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int addItems(@Param("categoryId") Long categoryId, @Param("companyId") Long companyId,
+                 @Param("inventoryIds") Long[] inventoryIds);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM inventory_category
+            WHERE category_id = :categoryId AND inventory_id = ANY(CAST(:inventoryIds AS bigint[]))""", nativeQuery = true)
+    int removeItems(@Param("categoryId") Long categoryId, @Param("inventoryIds") Long[] inventoryIds);
+
+    @Query(value = """
+            SELECT ic.inventory_id FROM inventory_category ic
+            JOIN inventory i ON i.id = ic.inventory_id AND i.company_id = ic.company_id AND i.status = 'ACTIVE'
+            WHERE ic.category_id = :categoryId AND ic.inventory_id > :afterId
+            ORDER BY ic.inventory_id
+            LIMIT :limit""", nativeQuery = true)
+    List<Long> findItemIds(@Param("categoryId") Long categoryId, @Param("afterId") Long afterId,
+                           @Param("limit") int limit);
+
+    interface CategorySummaryView {
+        Long getId();
+        String getName();
+        Long getItemCount();
+    }
+}
@@ -0,0 +1,107 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.CompanyDeletionJob;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The deletion job and the bulk statements it runs. Each batch statement picks the next ids of the
+ * company after the cursor from a (company_id, id) index, deletes exactly those rows and returns how many
+ * went and the highest id, which becomes the next cursor.
+ */
+@Repository
+public interface CompanyDeletionJobRepo extends JpaRepository<CompanyDeletionJob, Long> {
+
+    // The unfinished job of a company, if any: a repeated DELETE returns it, or resumes it when it failed
+    Optional<CompanyDeletionJob> findFirstByCompanyIdAndStatusNotOrderByIdDesc(Long companyId, CompanyDeletionJob.Status status);
+
+    // Serializes batches of one job, should a stale-looking job be reclaimed while its old worker still runs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from CompanyDeletionJob j where j.id = :id")
+    Optional<CompanyDeletionJob> lockById(@Param("id") Long id);
+
+    // SKIP LOCKED (lock timeout -2): a job another node is claiming right now is passed over
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select j from CompanyDeletionJob j
+            where j.status = com.telusko.SecurityEx.model.CompanyDeletionJob.Status.PENDING
+               or (j.status = com.telusko.SecurityEx.model.CompanyDeletionJob.Status.RUNNING and j.updatedAt < :staleBefore)
+            order by j.id""")
+    List<CompanyDeletionJob> lockClaimable(@Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+    /** Result of one batch: rows deleted and the highest id among them (null when nothing was left). **/
+    interface BatchResult {
+        long getDeleted();
+        Long getLastId();
+    }
+
+    // Stock rows of the batch go in one statement, so the rollup trigger fires once rather than per item
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM inventory WHERE company_id = :companyId AND id > :afterId ORDER BY id LIMIT :limit),
+            stock AS (
+                DELETE FROM stock_level s USING batch WHERE s.inventory_id = batch.id),
+            deleted AS (
+                DELETE FROM inventory i USING batch WHERE i.company_id = :companyId AND i.id = batch.id RETURNING i.id)
+            SELECT count(*) AS deleted, max(id) AS lastId FROM deleted""", nativeQuery = true)
+    BatchResult deleteInventoryBatch(@Param("companyId") Long companyId, @Param("afterId") long afterId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM employee WHERE company_id = :companyId AND id > :afterId ORDER BY id LIMIT :limit),
+            deleted AS (
+                DELETE FROM employee e USING batch WHERE e.company_id = :companyId AND e.id = batch.id RETURNING e.id)
+            SELECT count(*) AS deleted, max(id) AS lastId FROM deleted""", nativeQuery = true)
+    BatchResult deleteEmployeeBatch(@Param("companyId") Long companyId, @Param("afterId") long afterId,
+                                    @Param("limit") int limit);
+
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM stock_transfer WHERE company_id = :companyId AND id > :afterId ORDER BY id LIMIT :limit),
+            deleted AS (
+                DELETE FROM stock_transfer t USING batch WHERE t.id = batch.id RETURNING t.id)
+            SELECT count(*) AS deleted, max(id) AS lastId FROM deleted""", nativeQuery = true)
+    BatchResult deleteStockTransferBatch(@Param("companyId") Long companyId, @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+
+    // A company has a handful of locations and their stock rows are gone by now, so this is one small statement
+    @Modifying
+    @Query(value = "DELETE FROM location WHERE company_id = :companyId", nativeQuery = true)
+    int deleteLocations(@Param("companyId") Long companyId);
+
+    // Blocks new children until commit: inserting one takes a key-share lock on the company row
+    @Query(value = "SELECT user_id FROM company WHERE id = :companyId FOR UPDATE", nativeQuery = true)
+    Long lockCompanyReturningUserId(@Param("companyId") Long companyId);
+
+    @Query(value = """
+            SELECT EXISTS (SELECT 1 FROM inventory WHERE company_id = :companyId)
+                OR EXISTS (SELECT 1 FROM employee WHERE company_id = :companyId)
+                OR EXISTS (SELECT 1 FROM stock_transfer WHERE company_id = :companyId)
+                OR EXISTS (SELECT 1 FROM location WHERE company_id = :companyId)""", nativeQuery = true)
+    boolean hasChildren(@Param("companyId") Long companyId);
+
+    @Modifying
+    @Query(value = "DELETE FROM company WHERE id = :companyId", nativeQuery = true)
+    int deleteCompanyRow(@Param("companyId") Long companyId);
+
+    // The company owned its user (cascade ALL on Company.user), so the user goes with it
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :userId", nativeQuery = true)
+    int deleteUserRow(@Param("userId") Long userId);
+}
@@ -1,10 +1,74 @@
 package com.telusko.SecurityEx.repo;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.telusko.SecurityEx.model.Company;
 
+import java.util.Optional;
+
 @Repository
 public interface CompanyRepo extends JpaRepository<Company, Long> {
-}
\ No newline at end of file
+
+    // Admin directory: one row per company with its company_stats rollup, summed over its slots by the
+    // company_totals view, so no child row is read. The page's sort is appended by Spring Data and must
+    // name a select alias (CompanyService whitelists them).
+    @Query(value = """
+            SELECT c.id AS id, c.company_name AS companyName, c.capacity AS capacity, c.location AS location,
+                   c.plan AS plan, COALESCE(s.inventory_count, 0) AS inventoryCount,
+                   COALESCE(s.employee_count, 0) AS employeeCount,
+                   COALESCE(s.total_stock_value, 0)::float8 AS totalStockValue
+            FROM company c
+            LEFT JOIN company_totals s ON s.company_id = c.id
+            WHERE (CAST(:plan AS varchar) IS NULL OR c.plan = :plan)""",
+            countQuery = "SELECT count(*) FROM company c WHERE (CAST(:plan AS varchar) IS NULL OR c.plan = :plan)",
+            nativeQuery = true)
+    Page<CompanyDirectoryView> findDirectory(@Param("plan") String plan, Pageable pageable);
+
+    // Separate from findDirectory so its plan can use ix_company_name_trgm; pattern is '%term%', escaped
+    @Query(value = """
+            SELECT c.id AS id, c.company_name AS companyName, c.capacity AS capacity, c.location AS location,
+                   c.plan AS plan, COALESCE(s.inventory_count, 0) AS inventoryCount,
+                   COALESCE(s.employee_count, 0) AS employeeCount,
+                   COALESCE(s.total_stock_value, 0)::float8 AS totalStockValue
+            FROM company c
+            LEFT JOIN company_totals s ON s.company_id = c.id
+            WHERE c.company_name ILIKE :pattern AND (CAST(:plan AS varchar) IS NULL OR c.plan = :plan)""",
+            countQuery = """
+            SELECT count(*) FROM company c
+            WHERE c.company_name ILIKE :pattern AND (CAST(:plan AS varchar) IS NULL OR c.plan = :plan)""",
+            nativeQuery = true)
+    Page<CompanyDirectoryView> searchDirectory(@Param("pattern") String pattern, @Param("plan") String plan,
+                                               Pageable pageable);
+
+    // Header of the company dashboard: the directory row plus the owner's username
+    @Query(value = """
+            SELECT c.id AS id, c.company_name AS companyName, c.capacity AS capacity, c.location AS location,
+                   c.plan AS plan, COALESCE(s.inventory_count, 0) AS inventoryCount,
+                   COALESCE(s.employee_count, 0) AS employeeCount,
+                   COALESCE(s.total_stock_value, 0)::float8 AS totalStockValue, u.username AS ownerUsername
+            FROM company c
+            JOIN users u ON u.id = c.user_id
+            LEFT JOIN company_totals s ON s.company_id = c.id
+            WHERE c.id = :companyId""", nativeQuery = true)
+    Optional<CompanyDashboardView> findDashboardHeader(@Param("companyId") Long companyId);
+
+    interface CompanyDashboardView extends CompanyDirectoryView {
+        String getOwnerUsername();
+    }
+
+    interface CompanyDirectoryView {
+        Long getId();
+        String getCompanyName();
+        String getCapacity();
+        String getLocation();
+        String getPlan();
+        Long getInventoryCount();
+        Long getEmployeeCount();
+        Double getTotalStockValue();
+    }
+}
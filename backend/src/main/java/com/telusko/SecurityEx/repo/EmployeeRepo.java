@@ -1,12 +1,111 @@
 package com.telusko.SecurityEx.repo;
 
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.telusko.SecurityEx.model.Company;
 import com.telusko.SecurityEx.model.Employee;
 
 import java.util.List;
 
-public interface EmployeeRepo extends JpaRepository<Employee, Long> {
+public interface EmployeeRepo extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
     List<Employee> findByCompany(Company company);
+
+    // Filters of the paged directory. Each is added only when given, so the SQL carries only the predicates
+    // in use and the planner can pick the matching index (V12) rather than plan around "? is null or ...".
+
+    static Specification<Employee> inCompany(Long companyId) {
+        return (root, query, cb) -> cb.equal(root.get("company").get("id"), companyId);
+    }
+
+    /** pattern: an already escaped, lower-case '%term%'; served by ix_employee_name_trgm. **/
+    static Specification<Employee> nameLike(String pattern) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    static Specification<Employee> inDept(String dept) {
+        return (root, query, cb) -> cb.equal(root.get("dept"), dept);
+    }
+
+    static Specification<Employee> inGrade(String grade) {
+        return (root, query, cb) -> cb.equal(root.get("grade"), grade);
+    }
+
+    // One grouped pass over ix_employee_company_dept_grade (index-only). ROLLUP adds a row per dept and
+    // one for the whole company; scope says which level a row is, since dept and grade may be null themselves.
+    @Query(value = """
+            SELECT CASE grouping(dept, grade) WHEN 0 THEN 'GRADE' WHEN 1 THEN 'DEPT' ELSE 'COMPANY' END AS scope,
+                   dept AS dept, grade AS grade, count(*) AS headcount,
+                   sum(salary) AS salarySum, avg(salary) AS salaryAvg,
+                   percentile_cont(0.25) WITHIN GROUP (ORDER BY salary) AS salaryP25,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY salary) AS salaryMedian,
+                   percentile_cont(0.75) WITHIN GROUP (ORDER BY salary) AS salaryP75,
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY salary) AS salaryP90
+            FROM employee
+            WHERE company_id = :companyId
+            GROUP BY ROLLUP (dept, grade)
+            ORDER BY grouping(dept, grade) DESC, dept, grade""", nativeQuery = true)
+    List<EmployeeStatsView> findStatsByCompanyId(@Param("companyId") Long companyId);
+
+    // One statement per chunk instead of one insert per employee (identity ids rule out JDBC batching).
+    // Ids are assigned in ordinality order, so the ascending ids line up with the input rows.
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO employee (name, grade, dept, salary, company_id)
+                SELECT u.name, u.grade, u.dept, u.salary, :companyId
+                FROM unnest(CAST(:names AS text[]), CAST(:grades AS text[]), CAST(:depts AS text[]),
+                            CAST(:salaries AS float8[])) WITH ORDINALITY AS u(name, grade, dept, salary, ord)
+                ORDER BY u.ord
+                RETURNING id)
+            SELECT id FROM inserted ORDER BY id""", nativeQuery = true)
+    List<Long> insertBatch(@Param("companyId") Long companyId, @Param("names") String[] names,
+                           @Param("grades") String[] grades, @Param("depts") String[] depts,
+                           @Param("salaries") Double[] salaries);
+
+    // Same rules as EmployeeService.updateEmployee: null fields and a zero salary leave the value as is.
+    // company_id in the join keeps ids of other companies from matching. The second reference to employee (o)
+    // is read from the statement's snapshot, so RETURNING can hand back each row's old values for the audit trail.
+    @Query(value = """
+            WITH updated AS (
+                UPDATE employee e
+                SET name = COALESCE(u.name, e.name), grade = COALESCE(u.grade, e.grade),
+                    dept = COALESCE(u.dept, e.dept), salary = CASE WHEN u.salary <> 0 THEN u.salary ELSE e.salary END
+                FROM unnest(CAST(:ids AS bigint[]), CAST(:names AS text[]), CAST(:grades AS text[]),
+                            CAST(:depts AS text[]), CAST(:salaries AS float8[])) AS u(id, name, grade, dept, salary),
+                     employee o
+                WHERE e.company_id = :companyId AND e.id = u.id AND o.id = e.id AND o.company_id = e.company_id
+                RETURNING e.id AS id, o.name AS oldName, e.name AS name, o.grade AS oldGrade, e.grade AS grade,
+                          o.dept AS oldDept, e.dept AS dept, o.salary AS oldSalary, e.salary AS salary)
+            SELECT * FROM updated""", nativeQuery = true)
+    List<EmployeeChangeView> updateBatch(@Param("companyId") Long companyId, @Param("ids") Long[] ids,
+                                         @Param("names") String[] names, @Param("grades") String[] grades,
+                                         @Param("depts") String[] depts, @Param("salaries") Double[] salaries);
+
+    interface EmployeeChangeView {
+        Long getId();
+        String getOldName();
+        String getName();
+        String getOldGrade();
+        String getGrade();
+        String getOldDept();
+        String getDept();
+        Double getOldSalary();
+        Double getSalary();
+    }
+
+    interface EmployeeStatsView {
+        String getScope();
+        String getDept();
+        String getGrade();
+        Long getHeadcount();
+        Double getSalarySum();
+        Double getSalaryAvg();
+        Double getSalaryP25();
+        Double getSalaryMedian();
+        Double getSalaryP75();
+        Double getSalaryP90();
+    }
 }
@@ -0,0 +1,101 @@
+package com.telusko.SecurityEx.repo;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The table side of inventory archiving (InventorySegmentStore is the file side): picks and deletes the
+ * rows InventoryArchiver moves out, and puts a restored item back under its original id.
+ */
+@Repository
+public class InventoryArchiveRepo {
+
+    // Key of the transaction-level advisory lock that lets one node archive at a time
+    private static final long ARCHIVE_LOCK = 0x0A4C_0001L;
+
+    // Items with stock left, on hand or at a location, are kept: archiving them would drop stock from the books
+    private static final String LOCK_DISCONTINUED = """
+            SELECT i.id, i.company_id, i.product_name, i.description, i.qty_in_stock, i.price, i.stock_value,
+                   i.reorder_point, i.opening_stock, i.receipts, i.issues, i.closing_stock, i.minimum_stock,
+                   i.buffer_stock, i.is_reorder, i.status_changed_at,
+                   ARRAY(SELECT ic.category_id FROM inventory_category ic
+                         WHERE ic.inventory_id = i.id AND ic.company_id = i.company_id
+                         ORDER BY ic.category_id) AS category_ids
+            FROM inventory i
+            WHERE i.status = 'DISCONTINUED' AND i.status_changed_at < ?
+              AND COALESCE(i.closing_stock, 0) = 0
+              AND NOT EXISTS (SELECT 1 FROM stock_level s
+                              WHERE s.inventory_id = i.id AND s.company_id = i.company_id AND s.quantity > 0)
+            ORDER BY i.status_changed_at
+            LIMIT ?
+            FOR UPDATE OF i SKIP LOCKED""";
+
+    private static final String RESTORE = """
+            INSERT INTO inventory (id, company_id, product_name, description, qty_in_stock, price, stock_value,
+                                   reorder_point, opening_stock, receipts, issues, closing_stock, minimum_stock,
+                                   buffer_stock, is_reorder, status, status_changed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', now())
+            ON CONFLICT DO NOTHING""";
+
+    // Categories deleted since the item was archived are skipped
+    private static final String RESTORE_CATEGORIES = """
+            INSERT INTO inventory_category (category_id, inventory_id, company_id)
+            SELECT c.id, ?, c.company_id FROM category c
+            WHERE c.id = ANY(?) AND c.company_id = ?
+            ON CONFLICT DO NOTHING""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryArchiveRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** False while another node holds the lock; released when the caller's transaction ends. **/
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                ARCHIVE_LOCK));
+    }
+
+    /** Locks up to limit items discontinued before the cutoff, oldest first, skipping rows locked by requests. **/
+    public List<ArchivedInventory> lockDiscontinued(Instant cutoff, int limit, Instant archivedAt) {
+        RowMapper<ArchivedInventory> mapper = (rs, rowNum) -> {
+            Array categories = rs.getArray(17);
+            return new ArchivedInventory(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    (Integer) rs.getObject(5), rs.getDouble(6), (Double) rs.getObject(7), (Integer) rs.getObject(8),
+                    (Integer) rs.getObject(9), (Integer) rs.getObject(10), (Integer) rs.getObject(11),
+                    (Integer) rs.getObject(12), (Integer) rs.getObject(13), (Integer) rs.getObject(14),
+                    rs.getString(15), rs.getTimestamp(16).toInstant(), archivedAt,
+                    Arrays.asList((Long[]) categories.getArray()));
+        };
+        return jdbcTemplate.query(LOCK_DISCONTINUED, mapper, Timestamp.from(cutoff), limit);
+    }
+
+    /** Deletes archived rows; stock_level and inventory_category rows go with them by cascade. **/
+    public int delete(Long[] ids) {
+        return jdbcTemplate.update("DELETE FROM inventory WHERE id = ANY(?) AND status = 'DISCONTINUED'",
+                (Object) ids);
+    }
+
+    /** Puts the item back as active. False when a row with its id exists, e.g. it was restored already. **/
+    public boolean restore(ArchivedInventory item) {
+        int inserted = jdbcTemplate.update(RESTORE, item.id(), item.companyId(), item.productName(),
+                item.description(), item.qtyInStock(), item.price(), item.stockValue(), item.reorderPoint(),
+                item.openingStock(), item.receipts(), item.issues(), item.closingStock(), item.minimumStock(),
+                item.bufferStock(), item.isReorder());
+        if (inserted == 0) {
+            return false;
+        }
+        if (!item.categoryIds().isEmpty()) {
+            jdbcTemplate.update(RESTORE_CATEGORIES, item.id(), item.categoryIds().toArray(Long[]::new),
+                    item.companyId());
+        }
+        return true;
+    }
+}
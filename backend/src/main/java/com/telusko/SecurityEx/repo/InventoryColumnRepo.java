@@ -0,0 +1,118 @@
+package com.telusko.SecurityEx.repo;
+
+import java.sql.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the active inventory straight into InventoryColumns: keyset pages over ix_inventory_company_active,
+ * each row written into the arrays as it comes off the result set, so no entity or row object is ever built.
+ * Discontinued items are left out, as they are of company_stats.inventory_count, which sizes the arrays.
+ * Call it inside a REPEATABLE READ transaction to have every page read the same snapshot.
+ */
+@Repository
+public class InventoryColumnRepo {
+
+    private static final String PAGE_SQL = """
+            SELECT id, price, COALESCE(qty_in_stock, 0), COALESCE(stock_value, 0), COALESCE(issues, 0),
+                   COALESCE(reorder_point, 0)
+            FROM inventory
+            WHERE company_id = ? AND status = 'ACTIVE' AND id > ?
+            ORDER BY id
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+
+    public InventoryColumnRepo(JdbcTemplate jdbcTemplate, @Value("${app.analytics.page-size:50000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+    }
+
+    public InventoryColumns load(Long companyId) {
+        // The rollup's count sizes the arrays up front, so they normally never grow
+        List<Long> counted = jdbcTemplate.queryForList(
+                "SELECT inventory_count FROM company_totals WHERE company_id = ?", Long.class, companyId);
+        Columns columns = new Columns(counted.isEmpty() ? 1024 : (int) Math.max(counted.get(0), 16));
+
+        long afterId = 0;
+        while (true) {
+            int before = columns.size;
+            jdbcTemplate.query(PAGE_SQL, rs -> {
+                columns.add(rs.getLong(1), rs.getDouble(2), rs.getInt(3), rs.getDouble(4), rs.getInt(5), rs.getInt(6));
+            }, companyId, afterId, pageSize);
+            if (columns.size - before < pageSize) {
+                return columns.toColumns();
+            }
+            afterId = columns.ids[columns.size - 1];
+        }
+    }
+
+    /** Product names of a handful of items (the ones an analysis lists), by id. **/
+    public Map<Long, String> loadNames(Long companyId, long[] ids) {
+        Map<Long, String> names = new HashMap<>();
+        if (ids.length == 0) {
+            return names;
+        }
+        jdbcTemplate.query("SELECT id, product_name FROM inventory WHERE company_id = ? AND id = ANY (?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("bigint",
+                            Arrays.stream(ids).boxed().toArray(Long[]::new));
+                    ps.setLong(1, companyId);
+                    ps.setArray(2, array);
+                },
+                rs -> {
+                    names.put(rs.getLong(1), rs.getString(2));
+                });
+        return names;
+    }
+
+    private static final class Columns {
+        private int size;
+        private long[] ids;
+        private double[] price;
+        private int[] qtyInStock;
+        private double[] stockValue;
+        private int[] issues;
+        private int[] reorderPoint;
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            price = new double[capacity];
+            qtyInStock = new int[capacity];
+            stockValue = new double[capacity];
+            issues = new int[capacity];
+            reorderPoint = new int[capacity];
+        }
+
+        void add(long id, double itemPrice, int qty, double value, int itemIssues, int itemReorderPoint) {
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                price = Arrays.copyOf(price, capacity);
+                qtyInStock = Arrays.copyOf(qtyInStock, capacity);
+                stockValue = Arrays.copyOf(stockValue, capacity);
+                issues = Arrays.copyOf(issues, capacity);
+                reorderPoint = Arrays.copyOf(reorderPoint, capacity);
+            }
+            ids[size] = id;
+            price[size] = itemPrice;
+            qtyInStock[size] = qty;
+            stockValue[size] = value;
+            issues[size] = itemIssues;
+            reorderPoint[size] = itemReorderPoint;
+            size++;
+        }
+
+        // Spare capacity is left in place; every consumer reads only the first size rows
+        InventoryColumns toColumns() {
+            return new InventoryColumns(size, ids, price, qtyInStock, stockValue, issues, reorderPoint);
+        }
+    }
+}
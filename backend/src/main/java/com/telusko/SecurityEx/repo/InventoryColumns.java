@@ -0,0 +1,10 @@
+package com.telusko.SecurityEx.repo;
+
+/**
+ * A company's inventory as parallel primitive arrays, row i of every array being the same item, in id
+ * order. About 36 bytes per item, against well over a kilobyte for a managed Inventory entity.
+ * Nulls in the table are read as zero.
+ */
+public record InventoryColumns(int size, long[] ids, double[] price, int[] qtyInStock, double[] stockValue,
+                               int[] issues, int[] reorderPoint) {
+}
@@ -1,21 +1,156 @@
 package com.telusko.SecurityEx.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-// import org.springframework.data.jpa.repository.Query;
-// import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.telusko.SecurityEx.model.Company;
 import com.telusko.SecurityEx.model.Inventory;
 
+import jakarta.persistence.LockModeType;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface InventoryRepo extends JpaRepository<Inventory, Long> {
-    List<Inventory> findByCompany(Company company);
-    List<Inventory> findByCompanyAndProductNameContaining(Company company, String productName);
-    List<Inventory> findByCompanyAndQtyInStock(Company company, int qtyInStock);
+    // The lists the pages read see active items only. Each query carries status = 'ACTIVE' as a literal, not a
+    // parameter, so its plan can use the partial indexes of V17 even when Postgres switches to a generic plan.
+
+    // Held while an item's stock or its location counts change, so each checks against the other's committed value
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.id = :id")
+    Optional<Inventory> findByIdForUpdate(@Param("id") Long id);
+
+    @Query(value = "SELECT * FROM inventory WHERE company_id = :companyId AND status = 'ACTIVE'", nativeQuery = true)
+    List<Inventory> findActiveByCompanyId(@Param("companyId") Long companyId);
+
+    // pattern is '%term%' with LIKE wildcards escaped; served by ix_inventory_product_name_trgm
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE' AND product_name LIKE :pattern""",
+            nativeQuery = true)
+    List<Inventory> searchActiveByProductName(@Param("companyId") Long companyId, @Param("pattern") String pattern);
+
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE' AND qty_in_stock = :qtyInStock""", nativeQuery = true)
+    List<Inventory> findActiveByQtyInStock(@Param("companyId") Long companyId, @Param("qtyInStock") int qtyInStock);
+
+    // Equality so ix_inventory_company_reorder_active applies
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE' AND is_reorder = :isReorder""", nativeQuery = true)
+    List<Inventory> findActiveByIsReorder(@Param("companyId") Long companyId, @Param("isReorder") String isReorder);
+
+    // Capped sections of the company dashboard, in id order. Callers ask for one row more than they show
+    // to learn whether there are more.
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE'
+            ORDER BY id LIMIT :limit""", nativeQuery = true)
+    List<Inventory> findFirstActive(@Param("companyId") Long companyId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE' AND qty_in_stock = :qtyInStock
+            ORDER BY id LIMIT :limit""", nativeQuery = true)
+    List<Inventory> findFirstActiveByQtyInStock(@Param("companyId") Long companyId, @Param("qtyInStock") int qtyInStock,
+                                                @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'ACTIVE' AND is_reorder = :isReorder
+            ORDER BY id LIMIT :limit""", nativeQuery = true)
+    List<Inventory> findFirstActiveByIsReorder(@Param("companyId") Long companyId, @Param("isReorder") String isReorder,
+                                               @Param("limit") int limit);
+
+    // Discontinued items, most recently discontinued first, for the page that reactivates them
+    @Query(value = """
+            SELECT * FROM inventory
+            WHERE company_id = :companyId AND status = 'DISCONTINUED'
+            ORDER BY status_changed_at DESC, id""", nativeQuery = true)
+    List<Inventory> findDiscontinuedByCompanyId(@Param("companyId") Long companyId);
+
+    // Bulk repricing, one statement per request. Each variant selects its target rows among the active
+    // items (a discontinued item keeps its price) as (id, old_price, old_value, new_price) and locks them
+    // in id order, so two repricings that overlap cannot deadlock; REPRICE_TAIL then updates the rows whose price or value actually changes,
+    // recomputing stock_value in SQL as InventoryService.recalculateStock would, writes their audit_log
+    // rows when :audit is set, and sums the stock value of the changed rows only, before and after (the
+    // other target rows keep theirs, so the difference is the change in the company's valuation).
+    // company_stats is kept in step by its statement-level trigger, once for the whole statement.
+
+    String REPRICE_TAIL = """
+            , updated AS (
+                UPDATE inventory i
+                SET price = t.new_price, stock_value = i.closing_stock * t.new_price
+                FROM target t
+                WHERE i.company_id = :companyId AND i.id = t.id
+                  AND (i.price IS DISTINCT FROM t.new_price OR i.stock_value IS DISTINCT FROM i.closing_stock * t.new_price)
+                RETURNING i.id, t.old_price, i.price, t.old_value, i.stock_value
+            ), audited AS (
+                INSERT INTO audit_log (changed_at, company_id, entity_type, entity_id, action, username, changes)
+                SELECT now(), :companyId, 'INVENTORY', u.id, 'UPDATE', :username,
+                       jsonb_build_object('price', jsonb_build_array(u.old_price, u.price),
+                                          'stockValue', jsonb_build_array(u.old_value, u.stock_value))
+                FROM updated u
+                WHERE :audit
+            )
+            SELECT (SELECT count(*) FROM target) AS matched, count(*) AS updated,
+                   CAST(COALESCE(sum(CAST(u.old_value AS numeric)), 0) AS float8) AS changedValueBefore,
+                   CAST(COALESCE(sum(CAST(u.stock_value AS numeric)), 0) AS float8) AS changedValueAfter
+            FROM updated u""";
+
+    // new price = round(price * factor + amount, 2), never below zero
+    String ADJUSTED_PRICE = "CAST(GREATEST(round(CAST(i.price * :factor + :amount AS numeric), 2), 0) AS float8)";
+
+    @Query(value = """
+            WITH target AS (
+                SELECT i.id, i.price AS old_price, i.stock_value AS old_value,
+            """ + ADJUSTED_PRICE + """
+             AS new_price
+                FROM inventory_category ic
+                JOIN inventory i ON i.id = ic.inventory_id AND i.company_id = ic.company_id
+                WHERE ic.category_id = :categoryId AND ic.company_id = :companyId AND i.status = 'ACTIVE'
+                ORDER BY i.id
+                FOR UPDATE OF i)
+            """ + REPRICE_TAIL, nativeQuery = true)
+    RepriceView adjustCategoryPrices(@Param("companyId") Long companyId, @Param("categoryId") Long categoryId,
+                                     @Param("factor") double factor, @Param("amount") double amount,
+                                     @Param("username") String username, @Param("audit") boolean audit);
+
+    @Query(value = """
+            WITH target AS (
+                SELECT i.id, i.price AS old_price, i.stock_value AS old_value,
+            """ + ADJUSTED_PRICE + """
+             AS new_price
+                FROM inventory i
+                WHERE i.company_id = :companyId AND i.status = 'ACTIVE' AND i.id = ANY(CAST(:ids AS bigint[]))
+                ORDER BY i.id
+                FOR UPDATE OF i)
+            """ + REPRICE_TAIL, nativeQuery = true)
+    RepriceView adjustItemPrices(@Param("companyId") Long companyId, @Param("ids") Long[] ids,
+                                 @Param("factor") double factor, @Param("amount") double amount,
+                                 @Param("username") String username, @Param("audit") boolean audit);
+
+    // Ids that are not active items of the company are skipped and show up as matched < requested
+    @Query(value = """
+            WITH target AS (
+                SELECT i.id, i.price AS old_price, i.stock_value AS old_value, u.price AS new_price
+                FROM unnest(CAST(:ids AS bigint[]), CAST(:prices AS float8[])) AS u(id, price)
+                JOIN inventory i ON i.id = u.id AND i.company_id = :companyId AND i.status = 'ACTIVE'
+                ORDER BY i.id
+                FOR UPDATE OF i)
+            """ + REPRICE_TAIL, nativeQuery = true)
+    RepriceView setItemPrices(@Param("companyId") Long companyId, @Param("ids") Long[] ids,
+                              @Param("prices") Double[] prices, @Param("username") String username,
+                              @Param("audit") boolean audit);
 
-    // Custom query for inventories with reorder point threshold
-    List<Inventory> findByCompanyAndIsReorderContaining(Company company, String isReorder);
+    interface RepriceView {
+        Long getMatched();
+        Long getUpdated();
+        Double getChangedValueBefore();
+        Double getChangedValueAfter();
+    }
 }
@@ -0,0 +1,248 @@
+package com.telusko.SecurityEx.repo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only segment files of archived inventory, one pair per company and month of discontinuation:
+ * {dir}/{companyId}/{yyyy-MM}.seg holds gzip blocks of up to block-size items (a JSON array each, sorted
+ * by id), and the .idx next to it is the sparse index, one 32-byte entry per block: first id, last id,
+ * offset and length in the .seg, item count. A lookup reads the index and inflates only the blocks whose
+ * id range covers the item.
+ *
+ * A block is forced to disk before its index entry is written, so an entry never points at a partial
+ * block; a crash between the two leaves unreferenced bytes at the end of the .seg, and a torn entry is
+ * cut off before the next append. An item archived again after a restore is appended again, and the
+ * latest block wins.
+ */
+@Repository
+public class InventorySegmentStore {
+
+    private static final int ENTRY_BYTES = 32;
+    private static final TypeReference<List<ArchivedInventory>> BLOCK = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private final int blockSize;
+
+    // Appends are rare and short, and must not interleave with a reader's pass over an index
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InventorySegmentStore(ObjectMapper objectMapper, @Value("${app.archive.dir}") Path dir,
+                                 @Value("${app.archive.block-size:512}") int blockSize) {
+        this.objectMapper = objectMapper;
+        this.dir = dir;
+        this.blockSize = blockSize;
+    }
+
+    private record Entry(long firstId, long lastId, long offset, int length, int count) {
+    }
+
+    /** Appends the items to the company's segment of the month and returns once they are on disk. **/
+    public void append(long companyId, YearMonth month, List<ArchivedInventory> items) {
+        List<ArchivedInventory> sorted = items.stream().sorted(Comparator.comparing(ArchivedInventory::id)).toList();
+        lock.writeLock().lock();
+        try {
+            Path seg = segmentPath(companyId, month);
+            Files.createDirectories(seg.getParent());
+            List<Entry> entries = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(seg, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long offset = channel.size();
+                for (int from = 0; from < sorted.size(); from += blockSize) {
+                    List<ArchivedInventory> block = sorted.subList(from, Math.min(from + blockSize, sorted.size()));
+                    byte[] bytes = compress(block);
+                    writeFully(channel, ByteBuffer.wrap(bytes), offset);
+                    entries.add(new Entry(block.get(0).id(), block.get(block.size() - 1).id(), offset, bytes.length,
+                            block.size()));
+                    offset += bytes.length;
+                }
+                channel.force(false);
+            }
+            try (FileChannel channel = FileChannel.open(indexPath(companyId, month), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                long end = channel.size() - channel.size() % ENTRY_BYTES;
+                channel.truncate(end);
+                ByteBuffer buffer = ByteBuffer.allocate(entries.size() * ENTRY_BYTES);
+                for (Entry entry : entries) {
+                    buffer.putLong(entry.firstId()).putLong(entry.lastId()).putLong(entry.offset())
+                            .putInt(entry.length()).putInt(entry.count());
+                }
+                writeFully(channel, buffer.flip(), end);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the archive of company " + companyId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** The latest archived copy of the item, newest month first. **/
+    public Optional<ArchivedInventory> find(long companyId, long inventoryId) {
+        lock.readLock().lock();
+        try {
+            for (YearMonth month : months(companyId).reversed()) {
+                List<Entry> entries = readIndex(companyId, month);
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    Entry entry = entries.get(i);
+                    if (entry.firstId() <= inventoryId && inventoryId <= entry.lastId()) {
+                        Optional<ArchivedInventory> item = readBlock(companyId, month, entry).stream()
+                                .filter(archived -> archived.id() == inventoryId)
+                                .findFirst();
+                        if (item.isPresent()) {
+                            return item;
+                        }
+                    }
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the archive of company " + companyId, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Items of one month in id order after afterId, the latest copy of each. Blocks entirely at or below
+     * afterId are skipped, and no more than limit items are held while the others are read.
+     */
+    public List<ArchivedInventory> list(long companyId, YearMonth month, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Long, ArchivedInventory> page = new TreeMap<>();
+            for (Entry entry : readIndex(companyId, month)) {
+                if (entry.lastId() <= afterId) {
+                    continue;
+                }
+                for (ArchivedInventory item : readBlock(companyId, month, entry)) {
+                    if (item.id() > afterId) {
+                        // Later blocks hold later copies
+                        page.put(item.id(), item);
+                        if (page.size() > limit) {
+                            page.pollLastEntry();
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(page.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the archive of company " + companyId, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Months with a segment, oldest first. **/
+    public List<YearMonth> months(long companyId) {
+        try (Stream<Path> files = Files.list(dir.resolve(Long.toString(companyId)))) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".idx"))
+                    .map(name -> YearMonth.parse(name.substring(0, name.length() - 4)))
+                    .sorted()
+                    .toList();
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the archive of company " + companyId, e);
+        }
+    }
+
+    /** Removes every segment of the company, once the company itself is deleted. **/
+    public void deleteCompany(long companyId) {
+        Path companyDir = dir.resolve(Long.toString(companyId));
+        lock.writeLock().lock();
+        try (Stream<Path> files = Files.list(companyDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+            Files.delete(companyDir);
+        } catch (NoSuchFileException e) {
+            // Nothing was archived
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete the archive of company " + companyId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Entry> readIndex(long companyId, YearMonth month) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(indexPath(companyId, month));
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<Entry> entries = new ArrayList<>(bytes.length / ENTRY_BYTES);
+        while (buffer.remaining() >= ENTRY_BYTES) {
+            entries.add(new Entry(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt(),
+                    buffer.getInt()));
+        }
+        return entries;
+    }
+
+    private List<ArchivedInventory> readBlock(long companyId, YearMonth month, Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(companyId, month), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.offset() + buffer.position()) < 0) {
+                    throw new IOException("Segment of " + month + " ends inside a block");
+                }
+            }
+        }
+        // GZIP checks the block's CRC, so a damaged block fails here instead of yielding wrong items
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(buffer.array()))) {
+            return objectMapper.readValue(in, BLOCK);
+        }
+    }
+
+    private byte[] compress(List<ArchivedInventory> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, block);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private Path segmentPath(long companyId, YearMonth month) {
+        return dir.resolve(Long.toString(companyId)).resolve(month + ".seg");
+    }
+
+    private Path indexPath(long companyId, YearMonth month) {
+        return dir.resolve(Long.toString(companyId)).resolve(month + ".idx");
+    }
+}
@@ -0,0 +1,13 @@
+package com.telusko.SecurityEx.repo;
+
+/** LIKE patterns built from user input, for the queries that match with the default backslash escape. **/
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /** Matches values containing term, with any %, _ or backslash in it taken literally. **/
+    public static String contains(String term) {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,51 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.Location;
+
+import java.util.List;
+
+@Repository
+public interface LocationRepo extends JpaRepository<Location, Long> {
+
+    boolean existsByCompanyIdAndName(Long companyId, String name);
+
+    // Reads the incrementally maintained rollups: one index-only scan of ux_location_company_name plus the
+    // company's slots of location_stock (V22), however many items each location holds. The company filter on
+    // location_totals is what lets Postgres push it below the view's grouping.
+    @Query(value = """
+            SELECT l.id AS id, l.name AS name, l.capacity AS capacity,
+                   COALESCE(s.total_quantity, 0) AS totalQuantity, COALESCE(s.sku_count, 0) AS skuCount
+            FROM location l
+            LEFT JOIN location_totals s ON s.location_id = l.id AND s.company_id = :companyId
+            WHERE l.company_id = :companyId
+            ORDER BY l.name""", nativeQuery = true)
+    List<LocationStockView> findStockByCompanyId(@Param("companyId") Long companyId);
+
+    @Query(value = """
+            SELECT count(*) AS locations, COALESCE(sum(l.capacity), 0) AS totalCapacity,
+                   COALESCE(sum(s.total_quantity), 0)::bigint AS totalQuantity, COALESCE(sum(s.sku_count), 0) AS skuLocations
+            FROM location l
+            LEFT JOIN location_totals s ON s.location_id = l.id AND s.company_id = :companyId
+            WHERE l.company_id = :companyId""", nativeQuery = true)
+    CompanyStockView findStockSummaryByCompanyId(@Param("companyId") Long companyId);
+
+    interface LocationStockView {
+        Long getId();
+        String getName();
+        Integer getCapacity();
+        Long getTotalQuantity();
+        Integer getSkuCount();
+    }
+
+    interface CompanyStockView {
+        Long getLocations();
+        Long getTotalCapacity();
+        Long getTotalQuantity();
+        Long getSkuLocations();
+    }
+}
@@ -0,0 +1,50 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepo extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2): rows another relay transaction holds are passed over, not waited on.
+    // Events behind a parked event of their aggregate are left out (ix_outbox_event_parked)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from OutboxEvent e
+            where e.failedAt is null and mod(e.aggregateId, :shards) = :shard
+              and not exists (select p.id from OutboxEvent p
+                                  where p.failedAt is not null and p.aggregateType = e.aggregateType
+                                    and p.aggregateId = e.aggregateId and p.id < e.id)
+            order by e.id""")
+    List<OutboxEvent> lockPendingBatch(@Param("shards") int shards, @Param("shard") int shard, Pageable pageable);
+
+    // Transaction-scoped, so the shard is released on commit or rollback
+    @Query(value = "select pg_try_advisory_xact_lock(:lockClass, :shard)", nativeQuery = true)
+    boolean tryLockShard(@Param("lockClass") int lockClass, @Param("shard") int shard);
+
+    // Waits for the aggregate's lock and holds it until the caller's transaction ends. The single-key form,
+    // whose key space is apart from the two-key shard locks
+    @Query(value = "select 1 from pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int lockAggregate(@Param("key") long key);
+
+    // A bulk update, so it holds after the relay drops a failed event's entities from the persistence context
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = :attempts, e.lastError = :lastError, e.failedAt = :failedAt where e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("attempts") int attempts, @Param("lastError") String lastError,
+                      @Param("failedAt") Instant failedAt);
+}
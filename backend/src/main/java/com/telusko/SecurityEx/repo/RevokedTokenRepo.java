@@ -0,0 +1,54 @@
+package com.telusko.SecurityEx.repo;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** The revoked_token table (V18 and V21 migrations), the cluster-wide side of TokenRevocationList. **/
+@Repository
+public class RevokedTokenRepo {
+
+    /** A revoked id with its token's expiry. **/
+    public record RevokedToken(String tokenId, Instant expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevokedTokenRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** False when the id was revoked already, by this node or another. **/
+    public boolean insert(String tokenId, Instant expiresAt) {
+        return jdbcTemplate.update("""
+                INSERT INTO revoked_token (token_id, expires_at) VALUES (?, ?)
+                ON CONFLICT (token_id) DO NOTHING""", tokenId, Timestamp.from(expiresAt)) > 0;
+    }
+
+    /** Every transaction id below this one has committed or rolled back, so its rows are all visible. **/
+    public long finishedBelow() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    /** Unexpired ids revoked by transactions from sinceXactId on, committed by now. **/
+    public List<RevokedToken> findRevokedSince(long sinceXactId) {
+        return jdbcTemplate.query("""
+                SELECT token_id, expires_at FROM revoked_token
+                WHERE xact_id >= ?::text::xid8 AND expires_at > now()""",
+                (rs, rowNum) -> new RevokedToken(rs.getString(1), rs.getTimestamp(2).toInstant()),
+                sinceXactId);
+    }
+
+    public void purgeExpired() {
+        // Bounded batches, so a large backlog never holds one long delete
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("""
+                    DELETE FROM revoked_token WHERE token_id IN (
+                        SELECT token_id FROM revoked_token WHERE expires_at < now() LIMIT 5000)""");
+        } while (deleted > 0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.StockLevel;
+
+import jakarta.persistence.LockModeType;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockLevelRepo extends JpaRepository<StockLevel, StockLevel.Key> {
+
+    // Keyset page over ix_stock_level_location (index-only)
+    List<StockLevel> findByLocationIdAndInventoryIdGreaterThanOrderByInventoryId(Long locationId, Long afterInventoryId, Limit limit);
+
+    // Always in location order, so two transfers between the same pair of locations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockLevel> findByInventoryIdAndLocationIdInOrderByLocationId(Long inventoryId, Collection<Long> locationIds);
+
+    // Quantity of the item placed at locations other than exceptLocationId; a range of the primary key
+    @Query(value = """
+            SELECT COALESCE(sum(quantity), 0) FROM stock_level
+            WHERE inventory_id = :inventoryId AND location_id <> :exceptLocationId""", nativeQuery = true)
+    long sumQuantityOutside(@Param("inventoryId") Long inventoryId, @Param("exceptLocationId") Long exceptLocationId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO stock_level (inventory_id, location_id, company_id, quantity)
+            VALUES (:inventoryId, :locationId, :companyId, :quantity)
+            ON CONFLICT (inventory_id, location_id) DO UPDATE SET quantity = EXCLUDED.quantity""", nativeQuery = true)
+    int upsertQuantity(@Param("inventoryId") Long inventoryId, @Param("locationId") Long locationId,
+                       @Param("companyId") Long companyId, @Param("quantity") int quantity);
+
+    // One statement for all the locations, in location order: a transfer creating its rows takes their
+    // locks, and the insert trigger its rollup locks, in the same order as every other transfer
+    @Modifying
+    @Query(value = """
+            INSERT INTO stock_level (inventory_id, location_id, company_id, quantity)
+            SELECT :inventoryId, l.location_id, :companyId, 0
+            FROM unnest(CAST(:locationIds AS bigint[])) AS l(location_id)
+            ORDER BY l.location_id
+            ON CONFLICT (inventory_id, location_id) DO NOTHING""", nativeQuery = true)
+    int ensureExists(@Param("inventoryId") Long inventoryId, @Param("companyId") Long companyId,
+                     @Param("locationIds") Long[] locationIds);
+}
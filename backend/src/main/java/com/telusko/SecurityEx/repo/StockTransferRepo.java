@@ -0,0 +1,10 @@
+package com.telusko.SecurityEx.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.telusko.SecurityEx.model.StockTransfer;
+
+@Repository
+public interface StockTransferRepo extends JpaRepository<StockTransfer, Long> {
+}
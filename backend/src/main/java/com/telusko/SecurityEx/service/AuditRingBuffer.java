@@ -0,0 +1,81 @@
+package com.telusko.SecurityEx.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded queue between the request threads that capture audit records and the single AuditWriter thread.
+ * Producers claim a slot with one compareAndSet on the tail and publish it through the slot's sequence
+ * number (the bounded MPMC ring of D. Vyukov, with one consumer), so offering never blocks or allocates.
+ */
+class AuditRingBuffer<T> {
+
+    private final Object[] slots;
+    // Per slot: equal to a position when a producer may write it, position + 1 once it holds that position's item
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer moves it; volatile so size() can read it from other threads
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        slots = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    /** Returns false when the buffer is full. Safe for any number of threads. **/
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = item;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                // The slot still holds the item from one lap ago
+                return false;
+            }
+            // Another producer took this position; try the next one
+        }
+    }
+
+    /** Moves up to max items into target and returns how many. Only the consumer thread may call it. **/
+    @SuppressWarnings("unchecked")
+    int drainTo(List<T> target, int max) {
+        int drained = 0;
+        long position = head;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add((T) slots[index]);
+            slots[index] = null;
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,154 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.dto.AuditEntryDto;
+import com.telusko.SecurityEx.dto.PageDto;
+import com.telusko.SecurityEx.repo.AuditRecord;
+import com.telusko.SecurityEx.repo.AuditRepo;
+
+import io.micrometer.observation.annotation.Observed;
+
+/**
+ * Field-level audit trail of the tenant services. The services pass before/after snapshots of what they
+ * changed; the diff is queued for AuditWriter once the transaction commits, so a write pays for a map
+ * comparison and a ring buffer slot, and rolled back changes are never recorded.
+ */
+@Service
+public class AuditService {
+
+    public static final String INVENTORY = "INVENTORY";
+    public static final String EMPLOYEE = "EMPLOYEE";
+    public static final String COMPANY = "COMPANY";
+
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+    public static final String ARCHIVE = "ARCHIVE";
+    public static final String RESTORE = "RESTORE";
+
+    private static final Set<String> ENTITY_TYPES = Set.of(INVENTORY, EMPLOYEE, COMPANY);
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private AuditRepo auditRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    /** False when app.audit.enabled is off; set-based writers check it before writing audit rows themselves. **/
+    public boolean isEnabled() {
+        return auditWriter.isEnabled();
+    }
+
+    public void recordCreate(String entityType, Long entityId, Long companyId, Map<String, Object> after) {
+        record(entityType, entityId, companyId, CREATE, Map.of(), after);
+    }
+
+    /** Records nothing when no field changed. **/
+    public void recordUpdate(String entityType, Long entityId, Long companyId, Map<String, Object> before,
+                             Map<String, Object> after) {
+        record(entityType, entityId, companyId, UPDATE, before, after);
+    }
+
+    public void recordDelete(String entityType, Long entityId, Long companyId, Map<String, Object> before) {
+        record(entityType, entityId, companyId, DELETE, before, Map.of());
+    }
+
+    /** Any other action; before and after may be empty. **/
+    public void record(String entityType, Long entityId, Long companyId, String action, Map<String, Object> before,
+                       Map<String, Object> after) {
+        if (!auditWriter.isEnabled()) {
+            return;
+        }
+        Map<String, Object[]> changes = diff(before, after);
+        if (changes.isEmpty() && UPDATE.equals(action)) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(Instant.now(), companyId, entityType, entityId, action,
+                currentUsername(), changes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditWriter.enqueue(record);
+                }
+            });
+        } else {
+            auditWriter.enqueue(record);
+        }
+    }
+
+    /** Fields whose values differ, as field -> [old, new]; a field missing on one side counts as null. **/
+    static Map<String, Object[]> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        before.forEach((field, old) -> {
+            Object value = after.get(field);
+            if (!Objects.equals(old, value)) {
+                changes.put(field, new Object[] {old, value});
+            }
+        });
+        after.forEach((field, value) -> {
+            if (!before.containsKey(field) && value != null) {
+                changes.put(field, new Object[] {null, value});
+            }
+        });
+        return changes;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    /** History of one inventory item, employee or company, newest first; from/to are optional bounds. **/
+    @Observed
+    @Transactional(readOnly = true)
+    public PageDto<AuditEntryDto> getEntityHistory(Long companyId, String entityType, Long entityId, Instant from,
+                                                   Instant to, int page, int size) {
+        companyAccessService.checkCompanyAccess(companyId);
+        String type = entityType.toUpperCase();
+        if (!ENTITY_TYPES.contains(type)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported entity type: " + entityType);
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int offset = Math.max(page, 0) * pageSize;
+        List<AuditEntryDto> content = auditRepo.findByEntity(companyId, type, entityId, from, to, offset, pageSize);
+        return toPage(content, page, pageSize, auditRepo.countByEntity(companyId, type, entityId, from, to));
+    }
+
+    /** Changes one user made to the company's data, newest first; from/to are optional bounds. **/
+    @Observed
+    @Transactional(readOnly = true)
+    public PageDto<AuditEntryDto> getUserHistory(Long companyId, String username, Instant from, Instant to,
+                                                 int page, int size) {
+        companyAccessService.checkCompanyAccess(companyId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int offset = Math.max(page, 0) * pageSize;
+        List<AuditEntryDto> content = auditRepo.findByUser(companyId, username, from, to, offset, pageSize);
+        return toPage(content, page, pageSize, auditRepo.countByUser(companyId, username, from, to));
+    }
+
+    private static PageDto<AuditEntryDto> toPage(List<AuditEntryDto> content, int page, int size, long total) {
+        return new PageDto<>(content, Math.max(page, 0), size, total, (int) ((total + size - 1) / size));
+    }
+}
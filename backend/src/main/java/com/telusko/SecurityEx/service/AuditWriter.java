@@ -0,0 +1,200 @@
+package com.telusko.SecurityEx.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telusko.SecurityEx.repo.AuditRecord;
+import com.telusko.SecurityEx.repo.AuditRepo;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves captured audit records from an AuditRingBuffer into audit_log on one background thread, a COPY
+ * per batch. The thread sleeps while the buffer is quiet and is woken once a full batch is waiting, so a
+ * burst is written in a few large batches and a trickle within flush-interval-ms. What happens when the
+ * buffer is full is set by app.audit.overflow.
+ */
+@Service
+public class AuditWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    /** DROP: lose the record. BLOCK: wait up to block-timeout-ms for room, then drop. CALLER_WRITES: insert it on the calling thread. **/
+    public enum OverflowPolicy { DROP, BLOCK, CALLER_WRITES }
+
+    @Autowired
+    private AuditRepo auditRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${app.audit.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${app.audit.overflow:BLOCK}")
+    private OverflowPolicy overflow;
+
+    @Value("${app.audit.block-timeout-ms:50}")
+    private long blockTimeoutMillis;
+
+    @Value("${app.audit.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${app.audit.partition-months-ahead:3}")
+    private int partitionMonthsAhead;
+
+    private AuditRingBuffer<AuditRecord> buffer;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void init() {
+        buffer = new AuditRingBuffer<>(Integer.highestOneBit(Math.max(bufferCapacity, 2)));
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Queues a record; never blocks longer than the overflow policy allows. **/
+    public void enqueue(AuditRecord record) {
+        if (buffer.offer(record)) {
+            if (buffer.size() >= batchSize) {
+                wakeWriter();
+            }
+            return;
+        }
+        switch (overflow) {
+            case DROP -> dropped("overflow", 1);
+            case BLOCK -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                while (!buffer.offer(record)) {
+                    if (System.nanoTime() > deadline) {
+                        dropped("overflow", 1);
+                        return;
+                    }
+                    wakeWriter();
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+            case CALLER_WRITES -> write(List.of(record));
+        }
+    }
+
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        // After stop() the buffer is drained before the thread exits
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.size() < batchSize && running) {
+                // Give a partial batch one interval to fill up; enqueue() wakes us once a full one is waiting
+                LockSupport.parkNanos(flushIntervalNanos);
+                buffer.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditRecord> records) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                auditRepo.insert(records);
+                meterRegistry.counter("audit.records.written").increment(records.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt > maxRetries) {
+                    log.error("Dropping {} audit records after {} attempts", records.size(), attempt, e);
+                    dropped("write_failed", records.size());
+                    return;
+                }
+                log.warn("Writing {} audit records failed (attempt {}), retrying", records.size(), attempt, e);
+                // Backs off 100ms, 200ms, 400ms ... while the buffer absorbs new records
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L << Math.min(attempt - 1, 6)));
+            }
+        }
+    }
+
+    private void dropped(String reason, int count) {
+        meterRegistry.counter("audit.records.dropped", "reason", reason).increment(count);
+    }
+
+    private void wakeWriter() {
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Keeps a partition ready for each of the coming months (see audit_log_ensure_partitions). **/
+    @Scheduled(cron = "${app.audit.partition-cron:0 15 0 * * *}")
+    public void ensurePartitions() {
+        int created = auditRepo.ensurePartitions(partitionMonthsAhead);
+        if (created > 0) {
+            log.info("Created {} audit_log partitions", created);
+        }
+    }
+
+    @Override
+    public void start() {
+        ensurePartitions();
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below the web server's phases, so it stops (and drains its requests) before the last flush
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,105 @@
+package com.telusko.SecurityEx.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.dto.CategoryDto;
+import com.telusko.SecurityEx.dto.CategoryItemsDto;
+import com.telusko.SecurityEx.dto.CategorySummaryDto;
+import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.model.Category;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.repo.CategoryRepo;
+import com.telusko.SecurityEx.repo.InventoryRepo;
+
+import io.micrometer.observation.annotation.Observed;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@Observed
+public class CategoryService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Most ids one membership request may carry
+    private static final int MAX_ITEMS = 10_000;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Transactional
+    public Category addCategory(Long companyId, CategoryDto categoryDto) {
+        companyAccessService.checkCompanyAccess(companyId);
+        if (categoryDto.getName() == null || categoryDto.getName().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category name is required");
+        }
+        if (categoryRepo.existsByCompanyIdAndName(companyId, categoryDto.getName())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category name is already taken");
+        }
+        return categoryRepo.save(new Category(null, companyId, categoryDto.getName()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategorySummaryDto> getCategories(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        return categoryRepo.findSummaryByCompanyId(companyId).stream()
+                .map(view -> new CategorySummaryDto(view.getId(), view.getName(), view.getItemCount()))
+                .toList();
+    }
+
+    @Transactional
+    public void deleteCategory(Long categoryId) {
+        categoryRepo.delete(getAccessibleCategory(categoryId));
+    }
+
+    /** Adds items of the category's company; returns how many were not members yet. **/
+    @Transactional
+    public int addItems(Long categoryId, CategoryItemsDto itemsDto) {
+        Category category = getAccessibleCategory(categoryId);
+        return categoryRepo.addItems(category.getId(), category.getCompanyId(), itemIds(itemsDto));
+    }
+
+    /** Returns how many of the items were members. **/
+    @Transactional
+    public int removeItems(Long categoryId, CategoryItemsDto itemsDto) {
+        Category category = getAccessibleCategory(categoryId);
+        return categoryRepo.removeItems(category.getId(), itemIds(itemsDto));
+    }
+
+    /** Keyset-paged items of a category: pass the last id of a page to get the next one. **/
+    @Transactional(readOnly = true)
+    public List<Inventory> getItems(Long categoryId, Long afterId, int limit) {
+        Category category = getAccessibleCategory(categoryId);
+        List<Long> ids = categoryRepo.findItemIds(category.getId(), afterId == null ? 0L : afterId,
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        return inventoryRepo.findAllById(ids).stream().sorted(Comparator.comparing(Inventory::getId)).toList();
+    }
+
+    private static Long[] itemIds(CategoryItemsDto itemsDto) {
+        if (itemsDto == null || itemsDto.getInventoryIds() == null || itemsDto.getInventoryIds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No inventory ids given");
+        }
+        if (itemsDto.getInventoryIds().size() > MAX_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + MAX_ITEMS + " items per request");
+        }
+        return itemsDto.getInventoryIds().toArray(Long[]::new);
+    }
+
+    private Category getAccessibleCategory(Long categoryId) {
+        Category category = categoryRepo.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+        companyAccessService.checkCompanyAccess(category.getCompanyId());
+        return category;
+    }
+}
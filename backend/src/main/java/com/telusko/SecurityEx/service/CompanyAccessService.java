@@ -0,0 +1,29 @@
+package com.telusko.SecurityEx.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.telusko.SecurityEx.model.Users;
+import com.telusko.SecurityEx.repo.UserRepo;
+
+/** Company scoping for the services: admins reach every company, everyone else only their own. **/
+@Service
+public class CompanyAccessService {
+
+    @Autowired
+    private UserRepo userRepo;
+
+    /** The authenticated user, once allowed into the company; AccessDeniedException otherwise. **/
+    public Users checkCompanyAccess(Long companyId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users user = userRepo.findByUsername(username);
+
+        if (!user.getRole().equals("ADMIN")
+                && (user.getCompany() == null || !user.getCompany().getId().equals(companyId))) {
+            throw new AccessDeniedException("Unauthorized access");
+        }
+        return user;
+    }
+}
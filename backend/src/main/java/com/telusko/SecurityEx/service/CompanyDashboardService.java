@@ -0,0 +1,244 @@
+package com.telusko.SecurityEx.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.dto.CompanyDashboardDto;
+import com.telusko.SecurityEx.dto.CompanyDirectoryEntryDto;
+import com.telusko.SecurityEx.dto.DashboardSectionDto;
+import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.model.Users;
+import com.telusko.SecurityEx.repo.CompanyRepo;
+import com.telusko.SecurityEx.repo.CompanyRepo.CompanyDashboardView;
+import com.telusko.SecurityEx.repo.InventoryRepo;
+import com.telusko.SecurityEx.repo.UserRepo;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The company dashboard in one call. The user is authorized once; the header and the three inventory
+ * sections are independent reads, so each runs on its own virtual thread in its own read-only transaction
+ * (and so on its own connection, a replica one when routing is enabled) and the response takes about as
+ * long as the slowest of them. The first failure or the timeout cancels the others.
+ * <p>
+ * Nothing touches the database on the request thread, where open-in-view would keep the connection until
+ * the response is written: a dashboard holds at most four connections, and only while its reads run.
+ * At most (pool size - app.dashboard.pool-headroom) / 4 load at once on a node, unless
+ * app.dashboard.max-concurrent sets the number, so they cannot drain the pool; and each company may only
+ * have app.dashboard.max-per-company of them, so one tenant's refreshes cannot hold every permit.
+ */
+@Service
+@Observed
+public class CompanyDashboardService {
+
+    private static final int MAX_SECTION_SIZE = 200;
+
+    @Autowired
+    private CompanyRepo companyRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Value("${app.dashboard.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    // 0: derived from the pool
+    @Value("${app.dashboard.max-concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    // Connections left to the rest of the traffic when the cap is derived
+    @Value("${app.dashboard.pool-headroom:8}")
+    private int poolHeadroom;
+
+    @Value("${app.dashboard.max-per-company:2}")
+    private int maxPerCompany;
+
+    private ExecutorService executor;
+    private TransactionTemplate readOnly;
+    private Semaphore permits;
+    // company id -> its dashboards loading on this node; removed at zero
+    private final Map<Long, Integer> loading = new ConcurrentHashMap<>();
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-", 0).factory());
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        permits = new Semaphore(maxConcurrent > 0 ? maxConcurrent : Math.max(1, (poolSize - poolHeadroom) / 4), true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** companyId null means the caller's own company. **/
+    public CompanyDashboardDto getDashboard(Long companyId, int inventoryLimit, int outOfStockLimit,
+                                            int reorderLimit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        // One connection, like any other request, so it needs no permit
+        Long[] resolved = new Long[1];
+        runConcurrently(List.of(() -> resolved[0] = authorize(companyId)), deadline);
+        Long id = resolved[0];
+
+        // Not waited for: a permit held while waiting here would block other companies' dashboards
+        if (!startLoading(id)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "This company's dashboard is already loading");
+        }
+        try {
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Dashboards are busy, try again shortly");
+            }
+            try {
+                return load(id, inventoryLimit, outOfStockLimit, reorderLimit, deadline);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } finally {
+            loading.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private boolean startLoading(Long id) {
+        boolean[] started = new boolean[1];
+        loading.compute(id, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxPerCompany) {
+                return count;
+            }
+            started[0] = true;
+            return current + 1;
+        });
+        return started[0];
+    }
+
+    /** The company to show, once the user may see it. **/
+    private Long authorize(Long companyId) {
+        if (companyId != null) {
+            companyAccessService.checkCompanyAccess(companyId);
+            return companyId;
+        }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users user = userRepo.findByUsername(username);
+        if (user.getCompany() == null) {
+            throw new ResourceNotFoundException("Company not associated with user");
+        }
+        return user.getCompany().getId();
+    }
+
+    private CompanyDashboardDto load(Long id, int inventoryLimit, int outOfStockLimit, int reorderLimit,
+                                     long deadline) {
+        CompanyDashboardDto dashboard = new CompanyDashboardDto();
+        runConcurrently(List.of(
+                () -> {
+                    CompanyDashboardView view = companyRepo.findDashboardHeader(id)
+                            .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
+                    dashboard.setCompany(new CompanyDirectoryEntryDto(view.getId(), view.getCompanyName(),
+                            view.getCapacity(), view.getLocation(), view.getPlan(), view.getInventoryCount(),
+                            view.getEmployeeCount(), view.getTotalStockValue()));
+                    dashboard.setOwnerUsername(view.getOwnerUsername());
+                },
+                () -> dashboard.setInventories(section(inventoryLimit,
+                        limit -> inventoryRepo.findFirstActive(id, limit))),
+                () -> dashboard.setOutOfStock(section(outOfStockLimit,
+                        limit -> inventoryRepo.findFirstActiveByQtyInStock(id, 0, limit))),
+                () -> dashboard.setReorder(section(reorderLimit,
+                        limit -> inventoryRepo.findFirstActiveByIsReorder(id, "True", limit)))), deadline);
+        return dashboard;
+    }
+
+    /** Reads one row past the limit to tell whether the section is complete. **/
+    private static DashboardSectionDto<Inventory> section(int limit, IntFunction<List<Inventory>> query) {
+        int size = Math.min(Math.max(limit, 0), MAX_SECTION_SIZE);
+        if (size == 0) {
+            return new DashboardSectionDto<>(List.of(), false);
+        }
+        List<Inventory> items = query.apply(size + 1);
+        return items.size() > size
+                ? new DashboardSectionDto<>(new ArrayList<>(items.subList(0, size)), true)
+                : new DashboardSectionDto<>(items, false);
+    }
+
+    /**
+     * Runs the queries side by side and returns once all succeeded, in the manner of a ShutdownOnFailure
+     * structured task scope (a preview API in Java 21): the first failure is rethrown and, like a timeout,
+     * cancels the queries still running. Each query sees the caller's security and observation context.
+     */
+    private void runConcurrently(List<Runnable> queries, long deadline) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        ContextSnapshot snapshot = snapshots.captureAll();
+        ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> running = new ArrayList<>(queries.size());
+        for (Runnable query : queries) {
+            running.add(completion.submit(snapshot.wrap(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    readOnly.executeWithoutResult(status -> query.run());
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }), null));
+        }
+        try {
+            for (int i = 0; i < running.size(); i++) {
+                Future<Void> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Dashboard timed out");
+                }
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } finally {
+            // No-op for the queries that completed
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telusko.SecurityEx.model.CompanyDeletionJob;
+import com.telusko.SecurityEx.model.CompanyDeletionJob.Phase;
+import com.telusko.SecurityEx.model.CompanyDeletionJob.Status;
+import com.telusko.SecurityEx.repo.CompanyDeletionJobRepo;
+import com.telusko.SecurityEx.repo.CompanyDeletionJobRepo.BatchResult;
+import com.telusko.SecurityEx.repo.InventorySegmentStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs company deletion jobs (CompanyService.deleteCompany only queues them). Children are deleted in
+ * bounded keyset batches, each a short transaction that also moves the job's cursor, so locks are held
+ * briefly, no tenant is ever loaded into memory and a job interrupted by a restart resumes where it stopped.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.company-deletion", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompanyDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompanyDeletionService.class);
+
+    @Autowired
+    private CompanyDeletionJobRepo jobRepo;
+
+    @Autowired
+    private InventorySegmentStore segmentStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.company-deletion.batch-size:1000}")
+    private int batchSize;
+
+    // Pause between batches, to leave room for tenant traffic and replicas to keep up
+    @Value("${app.company-deletion.batch-pause-ms:0}")
+    private long batchPauseMillis;
+
+    // A RUNNING job whose heartbeat is older than this lost its node and is picked up again
+    @Value("${app.company-deletion.stale-after-ms:60000}")
+    private long staleAfterMillis;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.company-deletion.poll-interval-ms:1000}")
+    public void runJobs() {
+        Long jobId;
+        while (!Thread.currentThread().isInterrupted() && (jobId = claimNext()) != null) {
+            run(jobId);
+        }
+    }
+
+    private Long claimNext() {
+        return transactionTemplate.execute(status -> {
+            List<CompanyDeletionJob> jobs = jobRepo.lockClaimable(Instant.now().minusMillis(staleAfterMillis),
+                    PageRequest.of(0, 1));
+            if (jobs.isEmpty()) {
+                return null;
+            }
+            CompanyDeletionJob job = jobs.get(0);
+            if (job.getStatus() == Status.RUNNING) {
+                log.info("Resuming deletion job {} of company {} at {} after id {}", job.getId(), job.getCompanyId(),
+                        job.getPhase(), job.getLastId());
+            }
+            job.setStatus(Status.RUNNING);
+            job.setUpdatedAt(Instant.now());
+            return job.getId();
+        });
+    }
+
+    private void run(Long jobId) {
+        try {
+            Boolean more;
+            do {
+                more = transactionTemplate.execute(status -> runBatch(jobId));
+                if (Boolean.TRUE.equals(more) && batchPauseMillis > 0) {
+                    Thread.sleep(batchPauseMillis);
+                }
+            } while (Boolean.TRUE.equals(more));
+        } catch (InterruptedException e) {
+            // Shutting down: the job stays RUNNING and is resumed from its cursor once it goes stale
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Deletion job {} failed", jobId, e);
+            transactionTemplate.executeWithoutResult(status -> jobRepo.findById(jobId).ifPresent(job -> {
+                String message = String.valueOf(e.getMessage());
+                job.setStatus(Status.FAILED);
+                job.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                job.setUpdatedAt(Instant.now());
+            }));
+        }
+    }
+
+    /** Deletes one batch and records it on the job. Returns true while the job has work left. **/
+    private boolean runBatch(Long jobId) {
+        CompanyDeletionJob job = jobRepo.lockById(jobId).orElse(null);
+        if (job == null || job.getStatus() != Status.RUNNING) {
+            return false;
+        }
+        Long companyId = job.getCompanyId();
+        switch (job.getPhase()) {
+            case INVENTORY -> advance(job, jobRepo.deleteInventoryBatch(companyId, job.getLastId(), batchSize),
+                    Phase.EMPLOYEE);
+            case EMPLOYEE -> advance(job, jobRepo.deleteEmployeeBatch(companyId, job.getLastId(), batchSize),
+                    Phase.STOCK_TRANSFER);
+            case STOCK_TRANSFER -> advance(job, jobRepo.deleteStockTransferBatch(companyId, job.getLastId(), batchSize),
+                    Phase.LOCATION);
+            case LOCATION -> {
+                recordDeleted(job, jobRepo.deleteLocations(companyId));
+                moveTo(job, Phase.COMPANY);
+            }
+            case COMPANY -> deleteCompanyRow(job);
+        }
+        job.setUpdatedAt(Instant.now());
+        return job.getStatus() == Status.RUNNING;
+    }
+
+    private void advance(CompanyDeletionJob job, BatchResult result, Phase next) {
+        if (result.getDeleted() == 0) {
+            moveTo(job, next);
+            return;
+        }
+        recordDeleted(job, result.getDeleted());
+        job.setLastId(result.getLastId());
+    }
+
+    private void deleteCompanyRow(CompanyDeletionJob job) {
+        Long companyId = job.getCompanyId();
+        Long userId = jobRepo.lockCompanyReturningUserId(companyId);
+        if (userId != null) {
+            // Rows a request added behind the cursors; with the company row locked no more can follow
+            if (jobRepo.hasChildren(companyId)) {
+                log.info("Company {} gained rows during deletion job {}, going round again", companyId, job.getId());
+                moveTo(job, Phase.INVENTORY);
+                return;
+            }
+            recordDeleted(job, jobRepo.deleteCompanyRow(companyId));
+            recordDeleted(job, jobRepo.deleteUserRow(userId));
+        }
+        // Archived items go too; a failure here fails the job before the company row delete commits
+        segmentStore.deleteCompany(companyId);
+        job.setStatus(Status.COMPLETED);
+        job.setCompletedAt(Instant.now());
+        log.info("Deletion job {} removed company {} ({} rows)", job.getId(), companyId, job.getDeletedRows());
+    }
+
+    private void moveTo(CompanyDeletionJob job, Phase phase) {
+        job.setPhase(phase);
+        job.setLastId(0);
+    }
+
+    private void recordDeleted(CompanyDeletionJob job, long rows) {
+        job.setDeletedRows(job.getDeletedRows() + rows);
+        meterRegistry.counter("company.deletion.rows", "phase", job.getPhase().name()).increment(rows);
+    }
+}
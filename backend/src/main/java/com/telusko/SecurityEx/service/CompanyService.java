@@ -1,29 +1,61 @@
 package com.telusko.SecurityEx.service;
 
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+
+import com.telusko.SecurityEx.dto.CompanyDirectoryEntryDto;
+import com.telusko.SecurityEx.dto.PageDto;
 import com.telusko.SecurityEx.exception.ResourceNotFoundException;
 import com.telusko.SecurityEx.model.Company;
+import com.telusko.SecurityEx.model.CompanyDeletionJob;
 import com.telusko.SecurityEx.model.Users;
+import com.telusko.SecurityEx.repo.CompanyDeletionJobRepo;
 import com.telusko.SecurityEx.repo.CompanyRepo;
+import com.telusko.SecurityEx.repo.CompanyRepo.CompanyDirectoryView;
+import com.telusko.SecurityEx.repo.LikePatterns;
 import com.telusko.SecurityEx.repo.UserRepo;
 
+import io.micrometer.observation.annotation.Observed;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 @Service
+@Observed
 public class CompanyService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Select aliases of CompanyRepo.findDirectory; the sort is spliced into SQL, so nothing else is accepted
+    private static final Set<String> DIRECTORY_SORTS = Set.of("companyName", "id", "plan", "inventoryCount",
+            "employeeCount", "totalStockValue");
+
     @Autowired
     private CompanyRepo companyRepo;
 
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private CompanyDeletionJobRepo deletionJobRepo;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Transactional(readOnly = true)
     public Long getCompanyIdByUsername() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -35,7 +67,7 @@ public class CompanyService {
     }
 
     /** Only accessible to users associated with the company or to admins. **/
-    @Transactional
+    @Transactional(readOnly = true)
     public Company getCompanyDetails(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -57,6 +89,7 @@ public class CompanyService {
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
 
         if (user.getRole().equals("ADMIN") || (user.getCompany().getId().equals(companyId))) {
+            Map<String, Object> before = auditFields(company);
             if (updatedCompany.getCompanyName() != null) {
                 company.setCompanyName(updatedCompany.getCompanyName());
             }
@@ -66,13 +99,16 @@ public class CompanyService {
             if (updatedCompany.getLocation() != null) {
                 company.setLocation(updatedCompany.getLocation());
             }
-            return companyRepo.save(company);
+            Company saved = companyRepo.save(company);
+            auditService.recordUpdate(AuditService.COMPANY, companyId, companyId, before, auditFields(saved));
+            return saved;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
     /** Only accessible to Admin **/
+    @Transactional(readOnly = true)
     public List<Company> getAllCompanies() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -83,17 +119,96 @@ public class CompanyService {
         return companyRepo.findAll();
     }
 
-    public void deleteCompany(Long companyId) {
-        Company company = companyRepo.findById(companyId)
-                .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
+    /**
+     * Only accessible to Admin. A page of the company directory with per-company counts and stock value,
+     * optionally filtered by plan and by a case-insensitive "name contains" search.
+     **/
+    @Transactional(readOnly = true)
+    public PageDto<CompanyDirectoryEntryDto> getCompanyDirectory(String search, String plan, int page, int size,
+                                                                 String sort, String direction) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users user = userRepo.findByUsername(username);
 
+        if (!"ADMIN".equals(user.getRole())) {
+            throw new AccessDeniedException("Only admin can access all companies");
+        }
+        if (!DIRECTORY_SORTS.contains(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+        }
+        Sort.Direction order = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id breaks ties, so rows with equal sort values keep their place from one page to the next
+        Sort by = sort.equals("id") ? Sort.by(order, "id") : Sort.by(order, sort).and(Sort.by("id"));
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), by);
+        String planFilter = plan == null || plan.isBlank() ? null : plan;
+
+        Page<CompanyDirectoryView> result = search == null || search.isBlank()
+                ? companyRepo.findDirectory(planFilter, pageable)
+                : companyRepo.searchDirectory(LikePatterns.contains(search.trim()), planFilter, pageable);
+        List<CompanyDirectoryEntryDto> content = result.getContent().stream()
+                .map(view -> new CompanyDirectoryEntryDto(view.getId(), view.getCompanyName(), view.getCapacity(),
+                        view.getLocation(), view.getPlan(), view.getInventoryCount(), view.getEmployeeCount(),
+                        view.getTotalStockValue()))
+                .toList();
+        return new PageDto<>(content, result.getNumber(), result.getSize(), result.getTotalElements(),
+                result.getTotalPages());
+    }
+
+    /**
+     * Only accessible to Admin. Queues the deletion for CompanyDeletionService and returns its job right
+     * away; asking again returns the unfinished job, and resumes it if it failed.
+     **/
+    @Transactional
+    public CompanyDeletionJob deleteCompany(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
 
-        if (user.getRole().equals("ADMIN")) {
-            companyRepo.delete(company);
-        } else {
+        if (!user.getRole().equals("ADMIN")) {
+            throw new AccessDeniedException("Unauthorized access");
+        }
+        if (!companyRepo.existsById(companyId)) {
+            throw new ResourceNotFoundException("Company not found");
+        }
+
+        Instant now = Instant.now();
+        CompanyDeletionJob job = deletionJobRepo
+                .findFirstByCompanyIdAndStatusNotOrderByIdDesc(companyId, CompanyDeletionJob.Status.COMPLETED)
+                .orElse(null);
+        if (job != null) {
+            if (job.getStatus() == CompanyDeletionJob.Status.FAILED) {
+                job.setStatus(CompanyDeletionJob.Status.PENDING);
+                job.setError(null);
+                job.setUpdatedAt(now);
+            }
+            return job;
+        }
+        CompanyDeletionJob queued = deletionJobRepo.save(new CompanyDeletionJob(null, companyId,
+                CompanyDeletionJob.Status.PENDING, CompanyDeletionJob.Phase.INVENTORY, 0, 0, username, null, now, now,
+                null));
+        // The rows themselves go in the background; the trail records who asked for it
+        auditService.record(AuditService.COMPANY, companyId, companyId, AuditService.DELETE, Map.of(),
+                Map.of("deletionJobId", queued.getId()));
+        return queued;
+    }
+
+    private static Map<String, Object> auditFields(Company company) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("companyName", company.getCompanyName());
+        fields.put("capacity", company.getCapacity());
+        fields.put("location", company.getLocation());
+        fields.put("plan", company.getPlan());
+        return fields;
+    }
+
+    /** Only accessible to Admin **/
+    @Transactional(readOnly = true)
+    public CompanyDeletionJob getDeletionJob(Long jobId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users user = userRepo.findByUsername(username);
+
+        if (!user.getRole().equals("ADMIN")) {
             throw new AccessDeniedException("Unauthorized access");
         }
+        return deletionJobRepo.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deletion job not found"));
     }
 }
@@ -1,23 +1,56 @@
 package com.telusko.SecurityEx.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.telusko.SecurityEx.dto.EmployeeStatsDto;
+import com.telusko.SecurityEx.dto.PageDto;
 import com.telusko.SecurityEx.exception.ResourceNotFoundException;
 import com.telusko.SecurityEx.model.Company;
 import com.telusko.SecurityEx.model.Employee;
 import com.telusko.SecurityEx.model.Users;
 import com.telusko.SecurityEx.repo.CompanyRepo;
 import com.telusko.SecurityEx.repo.EmployeeRepo;
+import com.telusko.SecurityEx.repo.EmployeeRepo.EmployeeChangeView;
+import com.telusko.SecurityEx.repo.LikePatterns;
 import com.telusko.SecurityEx.repo.UserRepo;
 
+import io.micrometer.observation.annotation.Observed;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
+@Observed
 public class EmployeeService{
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Set<String> PAGE_SORTS = Set.of("name", "dept", "grade", "salary", "id");
+
+    // Rows per insert/update statement of a bulk request, and the most rows one request may carry
+    @Value("${app.employees.bulk-batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Value("${app.employees.bulk-max-rows:10000}")
+    private int bulkMaxRows;
+
     @Autowired
     private EmployeeRepo employeeRepo;
 
@@ -27,6 +60,13 @@ public class EmployeeService{
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Transactional(readOnly = true)
     public List<Employee> getEmployees(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -40,6 +80,47 @@ public class EmployeeService{
         }
     }
 
+    /** A sorted page of a company's employees, optionally narrowed by name (contains), dept and grade. **/
+    @Transactional(readOnly = true)
+    public PageDto<Employee> getEmployeePage(Long companyId, String search, String dept, String grade,
+                                             int page, int size, String sort, String direction) {
+        companyAccessService.checkCompanyAccess(companyId);
+        if (!PAGE_SORTS.contains(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+        }
+        Sort.Direction order = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id breaks ties, so rows with equal sort values keep their place from one page to the next
+        Sort by = sort.equals("id") ? Sort.by(order, "id") : Sort.by(order, sort).and(Sort.by("id"));
+
+        Specification<Employee> spec = EmployeeRepo.inCompany(companyId);
+        if (search != null && !search.isBlank()) {
+            spec = spec.and(EmployeeRepo.nameLike(LikePatterns.contains(search.trim().toLowerCase(Locale.ROOT))));
+        }
+        if (dept != null && !dept.isBlank()) {
+            spec = spec.and(EmployeeRepo.inDept(dept));
+        }
+        if (grade != null && !grade.isBlank()) {
+            spec = spec.and(EmployeeRepo.inGrade(grade));
+        }
+
+        Page<Employee> result = employeeRepo.findAll(spec,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), by));
+        return new PageDto<>(result.getContent(), result.getNumber(), result.getSize(), result.getTotalElements(),
+                result.getTotalPages());
+    }
+
+    /** Headcount and salary figures per dept and grade, per dept, and for the whole company. **/
+    @Transactional(readOnly = true)
+    public List<EmployeeStatsDto> getEmployeeStats(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        return employeeRepo.findStatsByCompanyId(companyId).stream()
+                .map(view -> new EmployeeStatsDto(view.getScope(), view.getDept(), view.getGrade(), view.getHeadcount(),
+                        view.getSalarySum(), view.getSalaryAvg(), view.getSalaryP25(), view.getSalaryMedian(),
+                        view.getSalaryP75(), view.getSalaryP90()))
+                .toList();
+    }
+
+    @Transactional
     public Employee addEmployee(Long companyId, Employee employee) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -49,12 +130,74 @@ public class EmployeeService{
 
         if (user.getRole().equals("ADMIN") || user.getCompany().getId().equals(companyId)) {
             employee.setCompany(company);
-            return employeeRepo.save(employee);
+            Employee saved = employeeRepo.save(employee);
+            auditService.recordCreate(AuditService.EMPLOYEE, saved.getId(), companyId, auditFields(saved));
+            return saved;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    /** Adds all employees in one transaction, a statement per bulk-batch-size rows. Returns them with ids. **/
+    @Transactional
+    public List<Employee> addEmployees(Long companyId, List<Employee> employees) {
+        companyAccessService.checkCompanyAccess(companyId);
+        checkBulkSize(employees);
+        if (!companyRepo.existsById(companyId)) {
+            throw new ResourceNotFoundException("Company not found");
+        }
+
+        List<Employee> added = new ArrayList<>(employees.size());
+        for (int from = 0; from < employees.size(); from += bulkBatchSize) {
+            List<Employee> chunk = employees.subList(from, Math.min(from + bulkBatchSize, employees.size()));
+            List<Long> ids = employeeRepo.insertBatch(companyId, column(chunk, Employee::getName),
+                    column(chunk, Employee::getGrade), column(chunk, Employee::getDept), salaries(chunk));
+            for (int i = 0; i < chunk.size(); i++) {
+                Employee employee = chunk.get(i);
+                Employee saved = new Employee(ids.get(i), employee.getGrade(), employee.getName(), employee.getDept(),
+                        employee.getSalary(), null);
+                auditService.recordCreate(AuditService.EMPLOYEE, saved.getId(), companyId, auditFields(saved));
+                added.add(saved);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Applies updateEmployee's rules to many employees of one company, a statement per bulk-batch-size rows.
+     * All or nothing: an id that is not an employee of the company fails the whole request.
+     **/
+    @Transactional
+    public int updateEmployees(Long companyId, List<Employee> employees) {
+        companyAccessService.checkCompanyAccess(companyId);
+        checkBulkSize(employees);
+        Set<Long> seen = new HashSet<>();
+        for (Employee employee : employees) {
+            if (employee.getId() == null || !seen.add(employee.getId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every employee needs a distinct id");
+            }
+        }
+
+        int updated = 0;
+        for (int from = 0; from < employees.size(); from += bulkBatchSize) {
+            List<Employee> chunk = employees.subList(from, Math.min(from + bulkBatchSize, employees.size()));
+            List<EmployeeChangeView> changes = employeeRepo.updateBatch(companyId,
+                    chunk.stream().map(Employee::getId).toArray(Long[]::new), column(chunk, Employee::getName),
+                    column(chunk, Employee::getGrade), column(chunk, Employee::getDept), salaries(chunk));
+            for (EmployeeChangeView change : changes) {
+                auditService.recordUpdate(AuditService.EMPLOYEE, change.getId(), companyId,
+                        auditFields(change.getOldName(), change.getOldGrade(), change.getOldDept(), change.getOldSalary()),
+                        auditFields(change.getName(), change.getGrade(), change.getDept(), change.getSalary()));
+            }
+            updated += changes.size();
+        }
+        if (updated != employees.size()) {
+            throw new ResourceNotFoundException("Employee not found");
+        }
+        return updated;
+    }
+
+    @Transactional
     public Employee updateEmployee(Long employeeId, Employee updatedEmployee) {
         Employee employee = employeeRepo.findById(employeeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
@@ -63,7 +206,7 @@ public class EmployeeService{
         Users user = userRepo.findByUsername(username);
 
         if (user.getRole().equals("ADMIN") || employee.getCompany().getId().equals(user.getCompany().getId())) {
-
+            Map<String, Object> before = auditFields(employee);
             if (updatedEmployee.getName() != null) {
                 employee.setName(updatedEmployee.getName());
             }
@@ -76,12 +219,16 @@ public class EmployeeService{
             if (updatedEmployee.getSalary() != 0) {
                 employee.setSalary(updatedEmployee.getSalary());
             }
-            return employeeRepo.save(employee);
+            Employee saved = employeeRepo.save(employee);
+            auditService.recordUpdate(AuditService.EMPLOYEE, saved.getId(), saved.getCompany().getId(), before,
+                    auditFields(saved));
+            return saved;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    @Transactional
     public void deleteEmployee(Long employeeId) {
         Employee employee = employeeRepo.findById(employeeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
@@ -91,8 +238,41 @@ public class EmployeeService{
 
         if (user.getRole().equals("ADMIN") || employee.getCompany().getId().equals(user.getCompany().getId())) {
             employeeRepo.delete(employee);
+            auditService.recordDelete(AuditService.EMPLOYEE, employeeId, employee.getCompany().getId(),
+                    auditFields(employee));
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
+
+    private void checkBulkSize(List<Employee> employees) {
+        if (employees == null || employees.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No employees given");
+        }
+        if (employees.size() > bulkMaxRows) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + bulkMaxRows + " employees per request");
+        }
+    }
+
+    private static Map<String, Object> auditFields(Employee employee) {
+        return auditFields(employee.getName(), employee.getGrade(), employee.getDept(), employee.getSalary());
+    }
+
+    private static Map<String, Object> auditFields(String name, String grade, String dept, Double salary) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", name);
+        fields.put("grade", grade);
+        fields.put("dept", dept);
+        fields.put("salary", salary);
+        return fields;
+    }
+
+    private static String[] column(List<Employee> employees, Function<Employee, String> getter) {
+        return employees.stream().map(getter).toArray(String[]::new);
+    }
+
+    private static Double[] salaries(List<Employee> employees) {
+        return employees.stream().map(Employee::getSalary).toArray(Double[]::new);
+    }
 }
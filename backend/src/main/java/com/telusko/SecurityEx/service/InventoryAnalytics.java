@@ -0,0 +1,405 @@
+package com.telusko.SecurityEx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+import com.telusko.SecurityEx.dto.AbcAnalysisDto;
+import com.telusko.SecurityEx.dto.AnalyticsGroupDto;
+import com.telusko.SecurityEx.dto.AnalyticsItemDto;
+import com.telusko.SecurityEx.dto.SlowMoversDto;
+import com.telusko.SecurityEx.dto.ValuationDto;
+import com.telusko.SecurityEx.repo.InventoryColumns;
+
+/**
+ * Inventory analyses over InventoryColumns, split into fork-join tasks on the given pool: a parallel merge
+ * sort of row indexes for rankings, a parallel prefix sum for cumulative shares, and per-range partial
+ * aggregates merged up the task tree for group-bys. Works on primitive arrays only; the results name no
+ * products, InventoryAnalyticsService adds the names of the few items it returns.
+ */
+public class InventoryAnalytics {
+
+    public enum AbcBasis { USAGE, VALUE }
+
+    // Rows a task handles on its own before splitting stops
+    private static final int LEAF = 1 << 13;
+    private static final int INSERTION_SORT = 32;
+
+    private static final String[] ABC_CLASSES = { "A", "B", "C" };
+    private static final String[] STOCK_STATUSES = { "OUT_OF_STOCK", "BELOW_REORDER_POINT", "IN_STOCK" };
+    private static final String[] PRICE_BANDS = { "<1", "1-10", "10-100", "100-1000", "1000-10000", ">=10000" };
+
+    private final ForkJoinPool pool;
+
+    public InventoryAnalytics(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Ranks items by basis, then A is the top items up to thresholdA of the total (the item crossing the
+     * line included), B up to thresholdB, C the rest. Returns limit items of the ranking from offset,
+     * within abcClass when it is given.
+     */
+    public AbcAnalysisDto abc(InventoryColumns columns, AbcBasis basis, double thresholdA, double thresholdB,
+                              String abcClass, int offset, int limit) {
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            int n = columns.size();
+            double[] metric = new double[n];
+            parallelFor(n, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    double value = basis == AbcBasis.USAGE ? columns.issues()[i] * columns.price()[i]
+                            : columns.stockValue()[i];
+                    metric[i] = value > 0 ? value : 0; // also maps NaN to 0
+                }
+            });
+            int[] order = sortDescending(metric, identity(n));
+
+            double[] cumulative = new double[n];
+            parallelFor(n, (from, to) -> {
+                for (int p = from; p < to; p++) {
+                    cumulative[p] = metric[order[p]];
+                }
+            });
+            Arrays.parallelPrefix(cumulative, Double::sum);
+            double total = n == 0 ? 0 : cumulative[n - 1];
+
+            int endA = total > 0 ? classEnd(cumulative, thresholdA * total) : 0;
+            int endB = total > 0 ? Math.max(endA, classEnd(cumulative, thresholdB * total)) : 0;
+            int[] bounds = { 0, endA, endB, n };
+
+            double[] sums = groupSums(n, ABC_CLASSES.length, p -> p < endA ? 0 : p < endB ? 1 : 2,
+                    p -> columns.qtyInStock()[order[p]], p -> metric[order[p]]);
+            List<AnalyticsGroupDto> classes = groups(ABC_CLASSES, sums, n, total);
+
+            int from = 0;
+            int to = n;
+            if (abcClass != null) {
+                int c = Arrays.asList(ABC_CLASSES).indexOf(abcClass);
+                from = bounds[c];
+                to = bounds[c + 1];
+            }
+            List<AnalyticsItemDto> items = new ArrayList<>();
+            for (int p = from + offset; p < to && items.size() < limit; p++) {
+                int i = order[p];
+                String cls = p < endA ? "A" : p < endB ? "B" : "C";
+                items.add(item(columns, i, p + 1, metric[i], total > 0 ? cumulative[p] / total : 0.0, cls));
+            }
+            return new AbcAnalysisDto(basis.name(), n, total, thresholdA, thresholdB, classes, items);
+        }));
+    }
+
+    /** Items with stock on hand but nothing issued, or with more than maxCover periods of cover. **/
+    public SlowMoversDto slowMovers(InventoryColumns columns, double maxCover, int limit) {
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            int[] qty = columns.qtyInStock();
+            int[] issues = columns.issues();
+            double[] stockValue = columns.stockValue();
+            int[] slow = filter(columns.size(), i -> qty[i] > 0 && (issues[i] <= 0 || (double) qty[i] / issues[i] > maxCover));
+            int[] order = sortDescending(stockValue, slow);
+
+            // Group 0: dead stock (nothing issued), group 1: slow but moving
+            double[] sums = groupSums(order.length, 2, p -> issues[order[p]] <= 0 ? 0 : 1, p -> qty[order[p]],
+                    p -> stockValue[order[p]]);
+            double totalValue = sum(columns.size(), i -> stockValue[i]);
+
+            List<AnalyticsItemDto> items = new ArrayList<>();
+            for (int p = 0; p < order.length && items.size() < limit; p++) {
+                int i = order[p];
+                items.add(item(columns, i, p + 1, stockValue[i], null, null));
+            }
+            double tiedUp = sums[2] + sums[5];
+            return new SlowMoversDto(maxCover, order.length, tiedUp, totalValue > 0 ? tiedUp / totalValue : 0,
+                    (long) sums[0], sums[2], items);
+        }));
+    }
+
+    /** Stock value broken down by stock status and by price band, in one pass each. **/
+    public ValuationDto valuation(InventoryColumns columns) {
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            int n = columns.size();
+            int[] qty = columns.qtyInStock();
+            int[] reorderPoint = columns.reorderPoint();
+            double[] price = columns.price();
+            double[] stockValue = columns.stockValue();
+
+            double[] byStatus = groupSums(n, STOCK_STATUSES.length,
+                    i -> qty[i] <= 0 ? 0 : qty[i] < reorderPoint[i] ? 1 : 2, i -> qty[i], i -> stockValue[i]);
+            double[] byBand = groupSums(n, PRICE_BANDS.length, i -> priceBand(price[i]), i -> qty[i],
+                    i -> stockValue[i]);
+
+            double totalQuantity = 0;
+            double totalValue = 0;
+            for (int g = 0; g < STOCK_STATUSES.length; g++) {
+                totalQuantity += byStatus[g * 3 + 1];
+                totalValue += byStatus[g * 3 + 2];
+            }
+            return new ValuationDto(n, (long) totalQuantity, totalValue, groups(STOCK_STATUSES, byStatus, n, totalValue),
+                    groups(PRICE_BANDS, byBand, n, totalValue));
+        }));
+    }
+
+    private static int priceBand(double price) {
+        if (!(price >= 1)) {
+            return 0;
+        }
+        return Math.min((int) Math.log10(price) + 1, PRICE_BANDS.length - 1);
+    }
+
+    /** Number of leading positions whose cumulative value before them is still below limit. **/
+    private static int classEnd(double[] cumulative, double limit) {
+        int lo = 0;
+        int hi = cumulative.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double before = mid == 0 ? 0 : cumulative[mid - 1];
+            if (before < limit) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static AnalyticsItemDto item(InventoryColumns columns, int i, int rank, double metric,
+                                         Double cumulativeShare, String abcClass) {
+        int qty = columns.qtyInStock()[i];
+        int issues = columns.issues()[i];
+        return new AnalyticsItemDto(columns.ids()[i], null, rank, metric, cumulativeShare, abcClass, qty, issues,
+                columns.stockValue()[i], issues > 0 ? (double) qty / issues : null);
+    }
+
+    private static List<AnalyticsGroupDto> groups(String[] keys, double[] sums, long items, double total) {
+        List<AnalyticsGroupDto> groups = new ArrayList<>(keys.length);
+        for (int g = 0; g < keys.length; g++) {
+            double count = sums[g * 3];
+            double value = sums[g * 3 + 2];
+            groups.add(new AnalyticsGroupDto(keys[g], (long) count, sums[g * 3 + 1], value,
+                    items > 0 ? count / items : 0, total > 0 ? value / total : 0));
+        }
+        return groups;
+    }
+
+    private static int[] identity(int n) {
+        int[] indexes = new int[n];
+        parallelFor(n, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                indexes[i] = i;
+            }
+        });
+        return indexes;
+    }
+
+    // The helpers below fork from the calling worker, so they must run inside the pool (see pool.invoke above)
+
+    @FunctionalInterface
+    interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    static void parallelFor(int n, RangeAction action) {
+        new ForTask(action, 0, n).invoke();
+    }
+
+    /** Per group: count, sum of quantity and sum of value, as [g * 3], [g * 3 + 1], [g * 3 + 2]. **/
+    static double[] groupSums(int n, int groups, IntUnaryOperator group, IntToDoubleFunction quantity,
+                              IntToDoubleFunction value) {
+        return new GroupTask(groups, group, quantity, value, 0, n).invoke();
+    }
+
+    static double sum(int n, IntToDoubleFunction value) {
+        return groupSums(n, 1, i -> 0, i -> 0, value)[2];
+    }
+
+    /** Row indexes in [0, n) that match, in ascending order. **/
+    static int[] filter(int n, IntPredicate predicate) {
+        return new FilterTask(predicate, 0, n).invoke();
+    }
+
+    /**
+     * Sorts indexes (in place, also returned) by keys[index] descending; equal keys keep ascending index
+     * order, so the result is deterministic. A parallel merge sort: halves are sorted as separate tasks.
+     */
+    static int[] sortDescending(double[] keys, int[] indexes) {
+        if (indexes.length > 1) {
+            new SortTask(keys, indexes, new int[indexes.length], 0, indexes.length).invoke();
+        }
+        return indexes;
+    }
+
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, these are never serialized
+    private static final class ForTask extends RecursiveAction {
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+
+        ForTask(RangeAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                action.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ForTask(action, from, mid), new ForTask(action, mid, to));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class GroupTask extends RecursiveTask<double[]> {
+        private final int groups;
+        private final IntUnaryOperator group;
+        private final IntToDoubleFunction quantity;
+        private final IntToDoubleFunction value;
+        private final int from;
+        private final int to;
+
+        GroupTask(int groups, IntUnaryOperator group, IntToDoubleFunction quantity, IntToDoubleFunction value,
+                  int from, int to) {
+            this.groups = groups;
+            this.group = group;
+            this.quantity = quantity;
+            this.value = value;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= LEAF) {
+                double[] sums = new double[groups * 3];
+                for (int i = from; i < to; i++) {
+                    int g = group.applyAsInt(i) * 3;
+                    sums[g]++;
+                    sums[g + 1] += quantity.applyAsDouble(i);
+                    sums[g + 2] += value.applyAsDouble(i);
+                }
+                return sums;
+            }
+            int mid = (from + to) >>> 1;
+            GroupTask right = new GroupTask(groups, group, quantity, value, mid, to);
+            right.fork();
+            double[] sums = new GroupTask(groups, group, quantity, value, from, mid).compute();
+            double[] rightSums = right.join();
+            for (int k = 0; k < sums.length; k++) {
+                sums[k] += rightSums[k];
+            }
+            return sums;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FilterTask extends RecursiveTask<int[]> {
+        private final IntPredicate predicate;
+        private final int from;
+        private final int to;
+
+        FilterTask(IntPredicate predicate, int from, int to) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= LEAF) {
+                int[] matches = new int[to - from];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (predicate.test(i)) {
+                        matches[count++] = i;
+                    }
+                }
+                return Arrays.copyOf(matches, count);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask right = new FilterTask(predicate, mid, to);
+            right.fork();
+            int[] left = new FilterTask(predicate, from, mid).compute();
+            int[] rightMatches = right.join();
+            int[] matches = Arrays.copyOf(left, left.length + rightMatches.length);
+            System.arraycopy(rightMatches, 0, matches, left.length, rightMatches.length);
+            return matches;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SortTask extends RecursiveAction {
+        private final double[] keys;
+        private final int[] indexes;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        SortTask(double[] keys, int[] indexes, int[] buffer, int from, int to) {
+            this.keys = keys;
+            this.indexes = indexes;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                sequentialSort(keys, indexes, buffer, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(keys, indexes, buffer, from, mid), new SortTask(keys, indexes, buffer, mid, to));
+            merge(keys, indexes, buffer, from, mid, to);
+        }
+    }
+
+    private static void sequentialSort(double[] keys, int[] indexes, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT) {
+            for (int i = from + 1; i < to; i++) {
+                int index = indexes[i];
+                int j = i - 1;
+                while (j >= from && before(keys, index, indexes[j])) {
+                    indexes[j + 1] = indexes[j];
+                    j--;
+                }
+                indexes[j + 1] = index;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sequentialSort(keys, indexes, buffer, from, mid);
+        sequentialSort(keys, indexes, buffer, mid, to);
+        merge(keys, indexes, buffer, from, mid, to);
+    }
+
+    private static void merge(double[] keys, int[] indexes, int[] buffer, int from, int mid, int to) {
+        if (!before(keys, indexes[mid], indexes[mid - 1])) {
+            return; // Already in order, common for long runs of zero-value items
+        }
+        System.arraycopy(indexes, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && !before(keys, buffer[j], buffer[i]))) {
+                indexes[k] = buffer[i++];
+            } else {
+                indexes[k] = buffer[j++];
+            }
+        }
+    }
+
+    /** Whether index x ranks ahead of index y: higher key first, then lower index. **/
+    private static boolean before(double[] keys, int x, int y) {
+        return keys[x] > keys[y] || (keys[x] == keys[y] && x < y);
+    }
+}
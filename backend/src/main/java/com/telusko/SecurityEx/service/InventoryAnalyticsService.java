@@ -0,0 +1,148 @@
+package com.telusko.SecurityEx.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.dto.AbcAnalysisDto;
+import com.telusko.SecurityEx.dto.AnalyticsItemDto;
+import com.telusko.SecurityEx.dto.SlowMoversDto;
+import com.telusko.SecurityEx.dto.ValuationDto;
+import com.telusko.SecurityEx.repo.InventoryColumnRepo;
+import com.telusko.SecurityEx.repo.InventoryColumns;
+
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * ABC, slow-mover and valuation analyses of a company's inventory. Each request loads the company into
+ * InventoryColumns (REPEATABLE READ, so every keyset page sees one snapshot) and computes on a dedicated
+ * fork-join pool, which keeps the analyses from competing with the common pool used elsewhere.
+ * A semaphore bounds how many companies are held in memory at once; a request takes its permit before
+ * the transaction, so the requests waiting for one hold no connection.
+ */
+@Service
+@Observed
+public class InventoryAnalyticsService {
+
+    private static final int MAX_ITEMS = 1000;
+
+    @Autowired
+    private InventoryColumnRepo columnRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.analytics.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.analytics.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.analytics.wait-ms:5000}")
+    private long waitMillis;
+
+    private ForkJoinPool pool;
+    private InventoryAnalytics analytics;
+    private Semaphore permits;
+    private TransactionTemplate snapshot;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        analytics = new InventoryAnalytics(pool);
+        permits = new Semaphore(maxConcurrent, true);
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** thresholds are percentages of the total value; abcClass (A, B or C) narrows the listed items. **/
+    public AbcAnalysisDto getAbcAnalysis(Long companyId, String basis, double thresholdA, double thresholdB,
+                                         String abcClass, int offset, int limit) {
+        InventoryAnalytics.AbcBasis abcBasis;
+        try {
+            abcBasis = InventoryAnalytics.AbcBasis.valueOf(basis.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Basis must be usage or value");
+        }
+        if (!(thresholdA > 0 && thresholdA < thresholdB && thresholdB <= 100)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Thresholds must satisfy 0 < a < b <= 100");
+        }
+        if (abcClass != null && !List.of("A", "B", "C").contains(abcClass)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Class must be A, B or C");
+        }
+        return analyze(companyId, columns -> {
+            AbcAnalysisDto result = analytics.abc(columns, abcBasis, thresholdA / 100, thresholdB / 100, abcClass,
+                    Math.max(offset, 0), clampLimit(limit));
+            addNames(companyId, result.getItems());
+            return result;
+        });
+    }
+
+    public SlowMoversDto getSlowMovers(Long companyId, double maxCover, int limit) {
+        if (!(maxCover >= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cover must be zero or more");
+        }
+        return analyze(companyId, columns -> {
+            SlowMoversDto result = analytics.slowMovers(columns, maxCover, clampLimit(limit));
+            addNames(companyId, result.getTopItems());
+            return result;
+        });
+    }
+
+    public ValuationDto getValuation(Long companyId) {
+        return analyze(companyId, analytics::valuation);
+    }
+
+    /** Waits for a permit, then checks access and runs the analysis in one read-only REPEATABLE READ transaction. **/
+    private <T> T analyze(Long companyId, Function<InventoryColumns, T> analysis) {
+        try {
+            if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analytics are busy, try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+        try {
+            return snapshot.execute(status -> {
+                companyAccessService.checkCompanyAccess(companyId);
+                return analysis.apply(columnRepo.load(companyId));
+            });
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void addNames(Long companyId, List<AnalyticsItemDto> items) {
+        Map<Long, String> names = columnRepo.loadNames(companyId,
+                items.stream().mapToLong(AnalyticsItemDto::getId).toArray());
+        items.forEach(item -> item.setProductName(names.get(item.getId())));
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.min(Math.max(limit, 0), MAX_ITEMS);
+    }
+}
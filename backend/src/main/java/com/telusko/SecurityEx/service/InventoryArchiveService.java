@@ -0,0 +1,128 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.repo.ArchivedInventory;
+import com.telusko.SecurityEx.repo.InventoryArchiveRepo;
+import com.telusko.SecurityEx.repo.InventoryRepo;
+import com.telusko.SecurityEx.repo.InventorySegmentStore;
+
+import io.micrometer.observation.annotation.Observed;
+
+/** Browsing and restoring the items InventoryArchiver moved into segment files. **/
+@Service
+@Observed
+public class InventoryArchiveService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private InventorySegmentStore segmentStore;
+
+    @Autowired
+    private InventoryArchiveRepo archiveRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AuditService auditService;
+
+    /** Months the company has archived items for, oldest first. **/
+    public List<YearMonth> getArchiveMonths(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        return segmentStore.months(companyId);
+    }
+
+    /**
+     * Archived items of a month (of discontinuation) in id order; pass the last id of a page to get the next.
+     * A page shorter than limit is the last one.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedInventory> getArchivedItems(Long companyId, String month, Long afterId, int limit) {
+        companyAccessService.checkCompanyAccess(companyId);
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Month must look like 2024-03");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Restored items keep their copy in the append-only segment; their row is what counts now. They are
+        // dropped before the page is cut, reading on from the segment until the page is full or the month
+        // ends, so a short page always means the end of the month
+        List<ArchivedInventory> page = new ArrayList<>(pageSize);
+        long cursor = afterId == null ? 0L : afterId;
+        while (page.size() < pageSize) {
+            List<ArchivedInventory> items = segmentStore.list(companyId, yearMonth, cursor, pageSize);
+            Set<Long> restored = inventoryRepo.findAllById(items.stream().map(ArchivedInventory::id).toList())
+                    .stream()
+                    .map(Inventory::getId)
+                    .collect(Collectors.toSet());
+            items.stream()
+                    .filter(item -> !restored.contains(item.id()))
+                    .limit(pageSize - page.size())
+                    .forEach(page::add);
+            if (items.size() < pageSize) {
+                break;
+            }
+            cursor = items.get(items.size() - 1).id();
+        }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedInventory getArchivedItem(Long companyId, Long inventoryId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        // A restored item is back in the table, as in getArchivedItems
+        if (inventoryRepo.existsById(inventoryId)) {
+            throw new ResourceNotFoundException("Archived inventory not found");
+        }
+        return findArchived(companyId, inventoryId);
+    }
+
+    /** Puts an archived item back into the inventory table as active, under its original id. **/
+    @Transactional
+    public Inventory restore(Long companyId, Long inventoryId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        if (inventoryRepo.existsById(inventoryId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Item is not archived");
+        }
+        ArchivedInventory item = findArchived(companyId, inventoryId);
+        if (!archiveRepo.restore(item)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Item was restored concurrently");
+        }
+        Inventory restored = inventoryRepo.findById(inventoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        outboxService.publish(InventoryService.INVENTORY_AGGREGATE, inventoryId, InventoryService.INVENTORY_RESTORED,
+                Map.of("id", inventoryId, "companyId", companyId));
+        auditService.record(AuditService.INVENTORY, inventoryId, companyId, AuditService.RESTORE, Map.of(),
+                Map.of());
+        return restored;
+    }
+
+    private ArchivedInventory findArchived(Long companyId, Long inventoryId) {
+        return segmentStore.find(companyId, inventoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived inventory not found"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telusko.SecurityEx.repo.ArchivedInventory;
+import com.telusko.SecurityEx.repo.InventoryArchiveRepo;
+import com.telusko.SecurityEx.repo.InventorySegmentStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves items discontinued longer than app.archive.after out of the inventory table into
+ * InventorySegmentStore, in batches of one transaction each: lock the rows, append them to their
+ * company's segment of the month they were discontinued, delete them. The segment is on disk before
+ * the delete commits, so a failure can leave a copy in a segment but never lose an item; restoring skips
+ * items that still have a row. An advisory lock keeps nodes from archiving at the same time, and
+ * app.archive.dir must be shared by the nodes for every node to restore.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryArchiver.class);
+
+    @Autowired
+    private InventoryArchiveRepo archiveRepo;
+
+    @Autowired
+    private InventorySegmentStore segmentStore;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.archive.after:P90D}")
+    private Duration after;
+
+    @Value("${app.archive.batch-size:2000}")
+    private int batchSize;
+
+    // Most batches per run, so a large backlog is worked off over several nights
+    @Value("${app.archive.max-batches:500}")
+    private int maxBatches;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        Instant cutoff = Instant.now().minus(after);
+        long archived = 0;
+        for (int batch = 0; batch < maxBatches && !Thread.currentThread().isInterrupted(); batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} inventory items discontinued before {}", archived, cutoff);
+        }
+    }
+
+    private int archiveBatch(Instant cutoff) {
+        if (!archiveRepo.tryLock()) {
+            return 0;
+        }
+        List<ArchivedInventory> items = archiveRepo.lockDiscontinued(cutoff, batchSize, Instant.now());
+        if (items.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Map<YearMonth, List<ArchivedInventory>>> segments = items.stream()
+                .collect(Collectors.groupingBy(ArchivedInventory::companyId,
+                        Collectors.groupingBy(item -> YearMonth.from(item.discontinuedAt().atOffset(ZoneOffset.UTC)))));
+        segments.forEach((companyId, months) -> months.forEach(
+                (month, monthItems) -> segmentStore.append(companyId, month, monthItems)));
+
+        int deleted = archiveRepo.delete(items.stream().map(ArchivedInventory::id).toArray(Long[]::new));
+        for (ArchivedInventory item : items) {
+            auditService.record(AuditService.INVENTORY, item.id(), item.companyId(), AuditService.ARCHIVE, Map.of(),
+                    Map.of());
+        }
+        meterRegistry.counter("inventory.archived").increment(deleted);
+        return items.size();
+    }
+}
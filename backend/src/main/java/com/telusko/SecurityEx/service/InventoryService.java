@@ -1,34 +1,83 @@
 package com.telusko.SecurityEx.service;
 
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.telusko.SecurityEx.dto.InventoryDto;
+import com.telusko.SecurityEx.dto.PriceDto;
+import com.telusko.SecurityEx.dto.RepriceDto;
+import com.telusko.SecurityEx.dto.RepriceResultDto;
 import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.model.Category;
 import com.telusko.SecurityEx.model.Company;
 import com.telusko.SecurityEx.model.Inventory;
 import com.telusko.SecurityEx.model.Users;
+import com.telusko.SecurityEx.repo.CategoryRepo;
 import com.telusko.SecurityEx.repo.CompanyRepo;
 import com.telusko.SecurityEx.repo.InventoryRepo;
+import com.telusko.SecurityEx.repo.InventoryRepo.RepriceView;
+import com.telusko.SecurityEx.repo.LikePatterns;
+import com.telusko.SecurityEx.repo.StockLevelRepo;
 import com.telusko.SecurityEx.repo.UserRepo;
 
+import io.micrometer.observation.annotation.Observed;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
+@Observed
 public class InventoryService{
 
+    public static final String INVENTORY_AGGREGATE = "Inventory";
+    public static final String INVENTORY_CREATED = "InventoryCreated";
+    public static final String INVENTORY_UPDATED = "InventoryUpdated";
+    public static final String INVENTORY_DISCONTINUED = "InventoryDiscontinued";
+    public static final String INVENTORY_REACTIVATED = "InventoryReactivated";
+    public static final String INVENTORY_RESTORED = "InventoryRestored";
+
+    // One summary event per repricing, keyed by company: repriced items get no InventoryUpdated of their own,
+    // so subscribers keeping per-item state re-read the company's items on it (the audit_log rows written
+    // by the same statement list every changed price)
+    public static final String COMPANY_AGGREGATE = "Company";
+    public static final String INVENTORY_REPRICED = "InventoryRepriced";
+
+    // Most items one price list may carry
+    private static final int MAX_PRICES = 100_000;
+
     @Autowired
     private InventoryRepo inventoryRepo;
 
     @Autowired
     private CompanyRepo companyRepo;
 
+    @Autowired
+    private CategoryRepo categoryRepo;
+
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private StockLevelRepo stockLevelRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AuditService auditService;
+
 
     @Transactional
     public Inventory addInventory(Long companyId, InventoryDto inventoryDto) {
@@ -58,22 +107,27 @@ public class InventoryService{
             inventory.setIsReorder("True");
 
             inventory.setCompany(company);
-            return inventoryRepo.save(inventory);
+            Inventory saved = inventoryRepo.save(inventory);
+            outboxService.publish(INVENTORY_AGGREGATE, saved.getId(), INVENTORY_CREATED, inventoryEvent(saved));
+            auditService.recordCreate(AuditService.INVENTORY, saved.getId(), companyId, auditFields(saved));
+            return saved;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
-
     @Transactional
     public Inventory updateInventory(Long inventoryId, InventoryDto updatedInventory) {
-        Inventory inventory = inventoryRepo.findById(inventoryId)
+        // Locked, like LocationService.setStockLevel, so the stock and the location counts are checked in turn
+        Inventory inventory = inventoryRepo.findByIdForUpdate(inventoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
     
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
     
         if (user.getRole().equals("ADMIN") || inventory.getCompany().getId().equals(user.getCompany().getId())) {
+            checkActive(inventory);
+            Map<String, Object> before = auditFields(inventory);
             if (updatedInventory.getProductName() != null) {
                 inventory.setProductName(updatedInventory.getProductName());
             }
@@ -100,30 +154,163 @@ public class InventoryService{
             if (updatedInventory.getOpeningStock() != null) {
                 inventory.setOpeningStock(updatedInventory.getOpeningStock());
             }
-            
-            // Recalculate closing stock
-            inventory.setClosingStock(inventory.getOpeningStock() + inventory.getReceipts() - inventory.getIssues());
 
-            // Mapping qtyInStock to closingStock
-            inventory.setQtyInStock(inventory.getClosingStock());
-    
-            // Recalculate reorder point and stock valuation and reorder
-            inventory.setReorderPoint(inventory.getMinimumStock() + inventory.getBufferStock());
-            inventory.setStockValue(inventory.getClosingStock() * inventory.getPrice());
-
-            if(inventory.getQtyInStock() < inventory.getReorderPoint() && inventory.getQtyInStock() > 0){
-                inventory.setIsReorder("True");
-            } else {
-                inventory.setIsReorder("False");
+            int stockBefore = inventory.getQtyInStock();
+            recalculateStock(inventory);
+            // qtyInStock is the total that stock_level breaks down by location; it can't drop below what is placed
+            if (inventory.getQtyInStock() < stockBefore
+                    && inventory.getQtyInStock() < stockLevelRepo.sumQuantityOutside(inventoryId, -1L)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Stock would drop below the quantity held at locations");
             }
-            
-    
-            return inventoryRepo.save(inventory);
+
+            Inventory saved = inventoryRepo.save(inventory);
+            outboxService.publish(INVENTORY_AGGREGATE, saved.getId(), INVENTORY_UPDATED, inventoryEvent(saved));
+            auditService.recordUpdate(AuditService.INVENTORY, saved.getId(), saved.getCompany().getId(), before,
+                    auditFields(saved));
+            return saved;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    /**
+     * Adjusts the prices of a category's items, or of the listed items, in one statement (see
+     * InventoryRepo.adjustCategoryPrices); items are never loaded into the persistence context.
+     */
+    @Transactional
+    public RepriceResultDto repriceInventory(Long companyId, RepriceDto repriceDto) {
+        companyAccessService.checkCompanyAccess(companyId);
+        boolean byCategory = repriceDto.getCategoryId() != null;
+        boolean byItems = repriceDto.getInventoryIds() != null && !repriceDto.getInventoryIds().isEmpty();
+        if (byCategory == byItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give either a categoryId or inventoryIds");
+        }
+        if (repriceDto.getPercent() == null && repriceDto.getAmount() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give a percent, an amount or both");
+        }
+        if (byItems && repriceDto.getInventoryIds().size() > MAX_PRICES) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + MAX_PRICES + " items per request");
+        }
+        double factor = 1 + Objects.requireNonNullElse(repriceDto.getPercent(), 0D) / 100;
+        double amount = Objects.requireNonNullElse(repriceDto.getAmount(), 0D);
+        if (!Double.isFinite(factor) || !Double.isFinite(amount) || factor < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Percent must be -100 or more");
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        RepriceView view;
+        if (byCategory) {
+            Category category = categoryRepo.findById(repriceDto.getCategoryId())
+                    .filter(c -> c.getCompanyId().equals(companyId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+            view = inventoryRepo.adjustCategoryPrices(companyId, category.getId(), factor, amount, username,
+                    auditService.isEnabled());
+        } else {
+            view = inventoryRepo.adjustItemPrices(companyId, repriceDto.getInventoryIds().toArray(Long[]::new),
+                    factor, amount, username, auditService.isEnabled());
+        }
+        return repriced(companyId, view);
+    }
+
+    /** Sets absolute prices, one statement for the whole list; ids of other companies are skipped. **/
+    @Transactional
+    public RepriceResultDto setPrices(Long companyId, List<PriceDto> prices) {
+        companyAccessService.checkCompanyAccess(companyId);
+        if (prices == null || prices.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No prices given");
+        }
+        if (prices.size() > MAX_PRICES) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "At most " + MAX_PRICES + " items per request");
+        }
+        Long[] ids = new Long[prices.size()];
+        Double[] values = new Double[prices.size()];
+        for (int i = 0; i < ids.length; i++) {
+            PriceDto price = prices.get(i);
+            if (price.getInventoryId() == null || price.getPrice() == null
+                    || !(price.getPrice() >= 0) || Double.isInfinite(price.getPrice())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each entry needs an inventoryId and a price of 0 or more");
+            }
+            ids[i] = price.getInventoryId();
+            values[i] = price.getPrice();
+        }
+        if (Arrays.stream(ids).distinct().count() != ids.length) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "An inventoryId is listed twice");
+        }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return repriced(companyId, inventoryRepo.setItemPrices(companyId, ids, values, username,
+                auditService.isEnabled()));
+    }
+
+    private RepriceResultDto repriced(Long companyId, RepriceView view) {
+        RepriceResultDto result = new RepriceResultDto(view.getMatched(), view.getUpdated(),
+                view.getChangedValueBefore(), view.getChangedValueAfter(),
+                view.getChangedValueAfter() - view.getChangedValueBefore());
+        if (result.getUpdated() > 0) {
+            outboxService.publish(COMPANY_AGGREGATE, companyId, INVENTORY_REPRICED, Map.of("companyId", companyId,
+                    "updated", result.getUpdated(), "valuationDelta", result.getValuationDelta()));
+        }
+        return result;
+    }
+
+    /** Snapshot carried by inventory events, so subscribers don't have to read the row back. **/
+    private static Map<String, Object> inventoryEvent(Inventory inventory) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("id", inventory.getId());
+        event.put("companyId", inventory.getCompany().getId());
+        event.put("productName", inventory.getProductName());
+        event.put("qtyInStock", inventory.getQtyInStock());
+        event.put("closingStock", inventory.getClosingStock());
+        event.put("reorderPoint", inventory.getReorderPoint());
+        event.put("stockValue", inventory.getStockValue());
+        event.put("isReorder", inventory.getIsReorder());
+        return event;
+    }
+
+    /** The fields the audit trail compares; derived ones are included since a write can move them. **/
+    private static Map<String, Object> auditFields(Inventory inventory) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("productName", inventory.getProductName());
+        fields.put("description", inventory.getDescription());
+        fields.put("price", inventory.getPrice());
+        fields.put("openingStock", inventory.getOpeningStock());
+        fields.put("receipts", inventory.getReceipts());
+        fields.put("issues", inventory.getIssues());
+        fields.put("closingStock", inventory.getClosingStock());
+        fields.put("qtyInStock", inventory.getQtyInStock());
+        fields.put("minimumStock", inventory.getMinimumStock());
+        fields.put("bufferStock", inventory.getBufferStock());
+        fields.put("reorderPoint", inventory.getReorderPoint());
+        fields.put("stockValue", inventory.getStockValue());
+        fields.put("isReorder", inventory.getIsReorder());
+        fields.put("status", inventory.getStatus().name());
+        return fields;
+    }
+
+    /** Derives closing stock, quantity, reorder point, stock value and reorder flag from the stock movements. **/
+    public static void recalculateStock(Inventory inventory) {
+        // Recalculate closing stock
+        inventory.setClosingStock(inventory.getOpeningStock() + inventory.getReceipts() - inventory.getIssues());
+
+        // Mapping qtyInStock to closingStock
+        inventory.setQtyInStock(inventory.getClosingStock());
+
+        // Recalculate reorder point and stock valuation and reorder
+        inventory.setReorderPoint(inventory.getMinimumStock() + inventory.getBufferStock());
+        inventory.setStockValue(inventory.getClosingStock() * inventory.getPrice());
+
+        if(inventory.getQtyInStock() < inventory.getReorderPoint() && inventory.getQtyInStock() > 0){
+            inventory.setIsReorder("True");
+        } else {
+            inventory.setIsReorder("False");
+        }
+    }
+
+    /**
+     * Soft delete: the item is discontinued and drops out of the inventory lists. InventoryArchiver moves it
+     * to the archive once app.archive.after has passed, unless it is reactivated first.
+     */
+    @Transactional
     public void deleteInventory(Long inventoryId) {
         Inventory inventory = inventoryRepo.findById(inventoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
@@ -132,12 +319,61 @@ public class InventoryService{
         Users user = userRepo.findByUsername(username);
 
         if (user.getRole().equals("ADMIN") || inventory.getCompany().getId().equals(user.getCompany().getId())) {
-            inventoryRepo.delete(inventory);
+            if (inventory.getStatus() == Inventory.Status.DISCONTINUED) {
+                return;
+            }
+            changeStatus(inventory, Inventory.Status.DISCONTINUED, INVENTORY_DISCONTINUED);
+        } else {
+            throw new AccessDeniedException("Unauthorized access");
+        }
+    }
+
+    @Transactional
+    public Inventory reactivateInventory(Long inventoryId) {
+        Inventory inventory = inventoryRepo.findById(inventoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Users user = userRepo.findByUsername(username);
+
+        if (user.getRole().equals("ADMIN") || inventory.getCompany().getId().equals(user.getCompany().getId())) {
+            if (inventory.getStatus() == Inventory.Status.DISCONTINUED) {
+                changeStatus(inventory, Inventory.Status.ACTIVE, INVENTORY_REACTIVATED);
+            }
+            return inventory;
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    /**
+     * Discontinued items are left out of every listing, repricing and dashboard, and may be locked by the
+     * archiver at any time: they only change again once reactivated.
+     */
+    static void checkActive(Inventory inventory) {
+        if (inventory.getStatus() != Inventory.Status.ACTIVE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Item is discontinued; reactivate it to change it");
+        }
+    }
+
+    private void changeStatus(Inventory inventory, Inventory.Status status, String eventType) {
+        Map<String, Object> before = auditFields(inventory);
+        inventory.setStatus(status);
+        inventory.setStatusChangedAt(Instant.now());
+        outboxService.publish(INVENTORY_AGGREGATE, inventory.getId(), eventType,
+                Map.of("id", inventory.getId(), "companyId", inventory.getCompany().getId()));
+        auditService.recordUpdate(AuditService.INVENTORY, inventory.getId(), inventory.getCompany().getId(), before,
+                auditFields(inventory));
+    }
+
+    /** Discontinued items not archived yet, most recently discontinued first. **/
+    @Transactional(readOnly = true)
+    public List<Inventory> getDiscontinuedInventories(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        return inventoryRepo.findDiscontinuedByCompanyId(companyId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Inventory> getInventories(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -145,12 +381,13 @@ public class InventoryService{
         if (user.getRole().equals("ADMIN") || user.getCompany().getId().equals(companyId)) {
             Company company = companyRepo.findById(companyId)
                     .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-            return inventoryRepo.findByCompany(company);
+            return inventoryRepo.findActiveByCompanyId(company.getId());
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Inventory> searchInventoryByProductName(Long companyId, String productName) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -158,12 +395,13 @@ public class InventoryService{
         if (user.getRole().equals("ADMIN") || user.getCompany().getId().equals(companyId)) {
             Company company = companyRepo.findById(companyId)
                     .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-            return inventoryRepo.findByCompanyAndProductNameContaining(company, productName);
+            return inventoryRepo.searchActiveByProductName(company.getId(), LikePatterns.contains(productName));
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Inventory> getOutOfStockInventories(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -171,13 +409,14 @@ public class InventoryService{
         if (user.getRole().equals("ADMIN") || user.getCompany().getId().equals(companyId)) {
             Company company = companyRepo.findById(companyId)
                     .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-            return inventoryRepo.findByCompanyAndQtyInStock(company, 0);
+            return inventoryRepo.findActiveByQtyInStock(company.getId(), 0);
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
     }
 
     // Method to fetch inventories with reorder point
+    @Transactional(readOnly = true)
     public List<Inventory> getInventoryWithReorderPoint(Long companyId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Users user = userRepo.findByUsername(username);
@@ -185,7 +424,7 @@ public class InventoryService{
         if (user.getRole().equals("ADMIN") || user.getCompany().getId().equals(companyId)) {
             Company company = companyRepo.findById(companyId)
                     .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-            return inventoryRepo.findByCompanyAndIsReorderContaining(company,"True");
+            return inventoryRepo.findActiveByIsReorder(company.getId(), "True");
         } else {
             throw new AccessDeniedException("Unauthorized access");
         }
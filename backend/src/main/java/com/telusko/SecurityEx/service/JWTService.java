@@ -1,56 +1,155 @@
 package com.telusko.SecurityEx.service;
 
+import java.security.Key;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
 @Service
 public class JWTService {
 
-    private String secretKey =  "";
-    private int sessionDurationInMinute = 30;
+    private static final Logger log = LoggerFactory.getLogger(JWTService.class);
 
-    public JWTService(){
-        try{
-            KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGen.generateKey();
-            secretKey = Base64.getEncoder().encodeToString(sk.getEncoded());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+    public static final String COMPANY_CLAIM = "cid";
+    public static final String PLAN_CLAIM = "plan";
+
+    // kid -> key; every node must be configured with the same set so tokens survive restarts and scale-out
+    private final Map<String, SecretKey> signingKeys = new HashMap<>();
+    private final String activeKeyId;
+    private final long accessTokenMillis;
+    private final long refreshTokenMillis;
+    private final JwtParser parser;
+
+    public JWTService(@Value("${jwt.keys:}") String keys,
+                      @Value("${jwt.active-key-id:}") String activeKeyId,
+                      @Value("${jwt.access-token-minutes:15}") long accessTokenMinutes,
+                      @Value("${jwt.refresh-token-days:7}") long refreshTokenDays) {
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalStateException("jwt.keys entries must look like <kid>:<base64-secret>");
+            }
+            signingKeys.put(parts[0], Keys.hmacShaKeyFor(Decoders.BASE64.decode(parts[1])));
         }
+
+        if (signingKeys.isEmpty()) {
+            // Local fallback only: tokens are invalidated on every restart and are not shared between nodes
+            log.warn("jwt.keys is not configured, generating a random signing key for this instance");
+            signingKeys.put("local", generateKey());
+            activeKeyId = "local";
+        } else if (activeKeyId.isBlank()) {
+            throw new IllegalStateException("jwt.active-key-id must be set when jwt.keys is configured");
+        } else if (!signingKeys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("jwt.active-key-id '" + activeKeyId + "' is not present in jwt.keys");
+        }
+
+        this.activeKeyId = activeKeyId;
+        this.accessTokenMillis = 60L * 1000 * accessTokenMinutes; //1 min = 60*1000 milliseconds
+        this.refreshTokenMillis = 24L * 60 * 60 * 1000 * refreshTokenDays;
+        // The parser is thread-safe, so it is built once instead of on every request
+        this.parser = Jwts.parser()
+                .keyLocator(header -> locateKey(header instanceof ProtectedHeader protectedHeader
+                        ? protectedHeader.getKeyId() : null))
+                .build();
+    }
+
+    public String generateToken(String username, String role) {
+        return generateToken(username, role, null, null);
     }
 
-    public String generateToken(String username,String role) {
+    /** Company id and plan let per-tenant rate limiting run without a lookup; they refresh with the token. **/
+    public String generateToken(String username, String role, Long companyId, String plan) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role",role);
+        claims.put("role", role);
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN);
+        if (companyId != null) {
+            claims.put(COMPANY_CLAIM, companyId);
+        }
+        if (plan != null) {
+            claims.put(PLAN_CLAIM, plan);
+        }
+        return buildToken(username, claims, accessTokenMillis);
+    }
+
+    public String generateRefreshToken(String username) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN);
+        return buildToken(username, claims, refreshTokenMillis);
+    }
+
+    private String buildToken(String username, Map<String, Object> claims, long validityMillis) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .header()
+                .keyId(activeKeyId)
+                .and()
                 .claims()
                 .add(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(username)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 60L*1000*sessionDurationInMinute)) //1 min = 60*1000 milliseconds
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + validityMillis))
                 .and()
-                .signWith(getKey())
+                .signWith(signingKeys.get(activeKeyId))
                 .compact();
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Key locateKey(String keyId) {
+        // Tokens issued before key ids were introduced carry no kid
+        SecretKey key = signingKeys.get(keyId == null ? activeKeyId : keyId);
+        if (key == null) {
+            throw new JwtException("Unknown signing key id: " + keyId);
+        }
+        return key;
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            return KeyGenerator.getInstance("HmacSHA256").generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Verifies signature and expiry and returns the claims. Throws JwtException for any invalid token. **/
+    public Claims parseToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        // Tokens without a type predate refresh tokens and are access tokens
+        Object type = claims.get(TOKEN_TYPE_CLAIM);
+        return type == null || ACCESS_TOKEN.equals(type);
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM));
     }
 
     public String extractUsername(String token) {
@@ -59,29 +158,13 @@ public class JWTService {
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUsername(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        final Claims claims = parseToken(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
 }
@@ -0,0 +1,206 @@
+package com.telusko.SecurityEx.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.telusko.SecurityEx.dto.CompanyStockSummaryDto;
+import com.telusko.SecurityEx.dto.LocationDto;
+import com.telusko.SecurityEx.dto.LocationStockDto;
+import com.telusko.SecurityEx.dto.StockLevelDto;
+import com.telusko.SecurityEx.dto.StockTransferDto;
+import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.model.Inventory;
+import com.telusko.SecurityEx.model.Location;
+import com.telusko.SecurityEx.model.StockLevel;
+import com.telusko.SecurityEx.model.StockTransfer;
+import com.telusko.SecurityEx.repo.InventoryRepo;
+import com.telusko.SecurityEx.repo.LocationRepo;
+import com.telusko.SecurityEx.repo.LocationRepo.CompanyStockView;
+import com.telusko.SecurityEx.repo.StockLevelRepo;
+import com.telusko.SecurityEx.repo.StockTransferRepo;
+
+import io.micrometer.observation.annotation.Observed;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Observed
+public class LocationService {
+
+    public static final String STOCK_LEVEL_CHANGED = "StockLevelChanged";
+    public static final String STOCK_TRANSFERRED = "StockTransferred";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private LocationRepo locationRepo;
+
+    @Autowired
+    private StockLevelRepo stockLevelRepo;
+
+    @Autowired
+    private StockTransferRepo stockTransferRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional
+    public Location addLocation(Long companyId, LocationDto locationDto) {
+        companyAccessService.checkCompanyAccess(companyId);
+        if (locationDto.getName() == null || locationDto.getName().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Location name is required");
+        }
+        if (locationRepo.existsByCompanyIdAndName(companyId, locationDto.getName())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Location name is already taken");
+        }
+        Location location = new Location();
+        location.setCompanyId(companyId);
+        location.setName(locationDto.getName());
+        location.setCapacity(locationDto.getCapacity() == null ? 0 : locationDto.getCapacity());
+        return locationRepo.save(location);
+    }
+
+    /** Stock and capacity utilization per location, read from the rollups. **/
+    @Transactional(readOnly = true)
+    public List<LocationStockDto> getLocationStock(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        return locationRepo.findStockByCompanyId(companyId).stream()
+                .map(view -> new LocationStockDto(view.getId(), view.getName(), view.getCapacity(),
+                        view.getTotalQuantity(), view.getSkuCount(), utilization(view.getTotalQuantity(), view.getCapacity())))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public CompanyStockSummaryDto getStockSummary(Long companyId) {
+        companyAccessService.checkCompanyAccess(companyId);
+        CompanyStockView view = locationRepo.findStockSummaryByCompanyId(companyId);
+        return new CompanyStockSummaryDto(view.getLocations(), view.getTotalCapacity(), view.getTotalQuantity(),
+                view.getSkuLocations(), utilization(view.getTotalQuantity(), view.getTotalCapacity()));
+    }
+
+    /** Keyset-paged stock of one location: pass the last inventoryId of a page to get the next one. **/
+    @Transactional(readOnly = true)
+    public List<StockLevel> getStockLevels(Long locationId, Long afterInventoryId, int limit) {
+        Location location = getAccessibleLocation(locationId);
+        return stockLevelRepo.findByLocationIdAndInventoryIdGreaterThanOrderByInventoryId(location.getId(),
+                afterInventoryId == null ? 0L : afterInventoryId, Limit.of(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Sets the counted quantity of an item at a location. The item's qtyInStock (opening + receipts - issues)
+     * stays the total: locations hold a breakdown of it, so a count may only be raised while the item's
+     * locations together hold no more than that. Transfers move stock between locations and leave it alone.
+     */
+    @Transactional
+    public StockLevel setStockLevel(Long locationId, StockLevelDto stockLevelDto) {
+        Location location = getAccessibleLocation(locationId);
+        if (stockLevelDto.getQuantity() == null || stockLevelDto.getQuantity() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be zero or more");
+        }
+        // Locked, so an issue booked on the item at the same time checks against this count and not the old one
+        Inventory inventory = inventoryRepo.findByIdForUpdate(stockLevelDto.getInventoryId())
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        checkSameCompany(inventory, location.getCompanyId());
+        InventoryService.checkActive(inventory);
+        // Lowering a count is always allowed, so data placed beyond the total before this check can be fixed
+        int current = stockLevelRepo.findById(new StockLevel.Key(inventory.getId(), locationId))
+                .map(StockLevel::getQuantity).orElse(0);
+        if (stockLevelDto.getQuantity() > current && stockLevelRepo.sumQuantityOutside(inventory.getId(), locationId)
+                + stockLevelDto.getQuantity() > inventory.getQtyInStock()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Locations would hold more than the item's stock");
+        }
+
+        stockLevelRepo.upsertQuantity(stockLevelDto.getInventoryId(), locationId, location.getCompanyId(),
+                stockLevelDto.getQuantity());
+        outboxService.publish(InventoryService.INVENTORY_AGGREGATE, stockLevelDto.getInventoryId(), STOCK_LEVEL_CHANGED,
+                Map.of("inventoryId", stockLevelDto.getInventoryId(), "locationId", locationId,
+                        "companyId", location.getCompanyId(), "quantity", stockLevelDto.getQuantity()));
+        return new StockLevel(stockLevelDto.getInventoryId(), locationId, location.getCompanyId(), stockLevelDto.getQuantity());
+    }
+
+    @Transactional
+    public StockTransfer transferStock(StockTransferDto transferDto) {
+        if (transferDto.getQuantity() == null || transferDto.getQuantity() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+        }
+        if (transferDto.getFromLocationId() == null || transferDto.getFromLocationId().equals(transferDto.getToLocationId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Source and destination must differ");
+        }
+        Location from = getAccessibleLocation(transferDto.getFromLocationId());
+        Location to = getAccessibleLocation(transferDto.getToLocationId());
+        if (!from.getCompanyId().equals(to.getCompanyId())) {
+            throw new AccessDeniedException("Unauthorized access");
+        }
+        Long inventoryId = transferDto.getInventoryId();
+        checkSameCompany(inventoryId, from.getCompanyId());
+
+        // Before any lock is taken: rows created later would lock their rollup out of location order
+        stockLevelRepo.ensureExists(inventoryId, from.getCompanyId(), new Long[] {from.getId(), to.getId()});
+        List<StockLevel> levels = stockLevelRepo.findByInventoryIdAndLocationIdInOrderByLocationId(inventoryId,
+                List.of(from.getId(), to.getId()));
+        StockLevel source = levels.stream().filter(level -> level.getLocationId().equals(from.getId())).findFirst()
+                .orElse(null);
+        if (source == null || source.getQuantity() < transferDto.getQuantity()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock at the source location");
+        }
+        // Changed in location order, so the flushed updates (and the rollup rows they lock) follow the same order
+        for (StockLevel level : levels) {
+            int delta = level == source ? -transferDto.getQuantity() : transferDto.getQuantity();
+            level.setQuantity(level.getQuantity() + delta);
+        }
+
+        StockTransfer transfer = new StockTransfer();
+        transfer.setCompanyId(from.getCompanyId());
+        transfer.setInventoryId(inventoryId);
+        transfer.setFromLocationId(from.getId());
+        transfer.setToLocationId(to.getId());
+        transfer.setQuantity(transferDto.getQuantity());
+        transfer.setCreatedBy(SecurityContextHolder.getContext().getAuthentication().getName());
+        transfer.setCreatedAt(Instant.now());
+        stockTransferRepo.save(transfer);
+
+        outboxService.publish(InventoryService.INVENTORY_AGGREGATE, inventoryId, STOCK_TRANSFERRED,
+                Map.of("inventoryId", inventoryId, "companyId", from.getCompanyId(), "fromLocationId", from.getId(),
+                        "toLocationId", to.getId(), "quantity", transferDto.getQuantity()));
+        return transfer;
+    }
+
+    private static Double utilization(Long quantity, Number capacity) {
+        if (capacity == null || capacity.longValue() <= 0) {
+            return null;
+        }
+        return quantity.doubleValue() / capacity.doubleValue();
+    }
+
+    private Location getAccessibleLocation(Long locationId) {
+        Location location = locationRepo.findById(locationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Location not found"));
+        companyAccessService.checkCompanyAccess(location.getCompanyId());
+        return location;
+    }
+
+    private void checkSameCompany(Long inventoryId, Long companyId) {
+        checkSameCompany(inventoryRepo.findById(inventoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found")), companyId);
+    }
+
+    private static void checkSameCompany(Inventory inventory, Long companyId) {
+        if (!inventory.getCompany().getId().equals(companyId)) {
+            throw new AccessDeniedException("Unauthorized access");
+        }
+    }
+}
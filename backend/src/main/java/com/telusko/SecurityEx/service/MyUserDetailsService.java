@@ -1,5 +1,7 @@
 package com.telusko.SecurityEx.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,9 +11,14 @@ import org.springframework.stereotype.Service;
 import com.telusko.SecurityEx.model.Users;
 import com.telusko.SecurityEx.repo.UserRepo;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed
 public class MyUserDetailsService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(MyUserDetailsService.class);
+
     @Autowired
     private UserRepo userRepo;
 
@@ -20,7 +27,7 @@ public class MyUserDetailsService implements UserDetailsService {
         Users user = userRepo.findByUsername(username);
         
         if(user == null){
-            System.out.println("User Not Found");
+            log.debug("User not found: {}", username);
             throw new UsernameNotFoundException("User Not Found");
         } 
 
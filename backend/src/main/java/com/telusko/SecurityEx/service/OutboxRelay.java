@@ -0,0 +1,171 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telusko.SecurityEx.model.OutboxEvent;
+import com.telusko.SecurityEx.repo.OutboxEventRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Drains outbox_event in batches and hands each event to every OutboxSubscriber. Events are split into
+ * shards by aggregate id; a node relays a shard only while holding its advisory lock, so events of one
+ * aggregate are never dispatched concurrently or out of order, while nodes share the shards between them.
+ * An event is deleted in the same transaction that dispatched it, so a crash means redelivery, not loss.
+ * Each event is dispatched in a savepoint: a failing subscriber, SQL error or rollback-only mark undoes
+ * that event's writes only, and the failure is counted (and the event parked once max-attempts is hit)
+ * while the rest of the batch still commits. A parked event keeps holding back the later events of its
+ * aggregate until it is deleted or put back by resetting failed_at.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.outbox", name = {"enabled", "relay.enabled"}, havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // First key of the two-int advisory lock, so shard locks don't collide with other advisory lock users
+    private static final int SHARD_LOCK_CLASS = 0x0B0C;
+
+    @Autowired
+    private OutboxEventRepo outboxEventRepo;
+
+    @Autowired
+    private ObjectProvider<OutboxSubscriber> subscribers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.outbox.shards:8}")
+    private int shards;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate savepoint;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        savepoint = new TransactionTemplate(transactionManager);
+        savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relay() {
+        for (int shard = 0; shard < shards; shard++) {
+            int current = shard;
+            Boolean more;
+            do {
+                more = transactionTemplate.execute(status -> drainShard(current));
+            } while (Boolean.TRUE.equals(more));
+        }
+    }
+
+    /** Returns true when the batch was full and fully dispatched, i.e. the shard may have more waiting. **/
+    private boolean drainShard(int shard) {
+        if (!outboxEventRepo.tryLockShard(SHARD_LOCK_CLASS, shard)) {
+            return false; // Another node is relaying this shard
+        }
+        List<OutboxEvent> batch = outboxEventRepo.lockPendingBatch(shards, shard, PageRequest.of(0, batchSize));
+        List<Long> dispatched = new ArrayList<>(batch.size());
+        Set<String> blocked = new HashSet<>();
+
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            // Later events of an aggregate wait until its failed event goes through
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            Exception failure = dispatch(event);
+            if (failure == null) {
+                dispatched.add(event.getId());
+                meterRegistry.timer("outbox.dispatch.lag").record(Duration.between(event.getCreatedAt(), Instant.now()));
+            } else {
+                blocked.add(aggregate);
+                recordFailure(event, failure);
+            }
+        }
+
+        outboxEventRepo.deleteAllByIdInBatch(dispatched);
+        meterRegistry.counter("outbox.events", "outcome", "dispatched").increment(dispatched.size());
+        return batch.size() == batchSize && blocked.isEmpty();
+    }
+
+    /** Hands the event to the subscribers in a savepoint; returns the failure, after rolling back to it. **/
+    private Exception dispatch(OutboxEvent event) {
+        Exception failure;
+        try {
+            failure = savepoint.execute(status -> {
+                try {
+                    for (OutboxSubscriber subscriber : subscribers.orderedStream().toList()) {
+                        if (subscriber.supports(event)) {
+                            subscriber.handle(event);
+                        }
+                    }
+                    // Inside the savepoint, so a failing write is undone with the rest of the event
+                    entityManager.flush();
+                    return null;
+                } catch (Exception e) {
+                    status.setRollbackOnly();
+                    return e;
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. a rollback-only mark left by a subscriber's own transaction, or a failed release
+            failure = e;
+        }
+        if (failure != null) {
+            // The savepoint rolled the SQL back; drop what the subscribers left unflushed as well
+            entityManager.clear();
+        }
+        return failure;
+    }
+
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        String message = String.valueOf(e.getMessage());
+        String lastError = message.length() > 1000 ? message.substring(0, 1000) : message;
+        Instant failedAt = attempts >= maxAttempts ? Instant.now() : null;
+        outboxEventRepo.recordFailure(event.getId(), attempts, lastError, failedAt);
+        if (failedAt != null) {
+            meterRegistry.counter("outbox.events", "outcome", "dead").increment();
+            log.error("Giving up on outbox event {} ({} {}) after {} attempts", event.getId(),
+                    event.getEventType(), event.getAggregateId(), attempts, e);
+        } else {
+            meterRegistry.counter("outbox.events", "outcome", "failed").increment();
+            log.warn("Outbox event {} ({} {}) failed, attempt {}: {}", event.getId(), event.getEventType(),
+                    event.getAggregateId(), attempts, e.getMessage());
+        }
+    }
+}
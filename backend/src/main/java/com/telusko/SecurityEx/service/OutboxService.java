@@ -0,0 +1,55 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telusko.SecurityEx.model.OutboxEvent;
+import com.telusko.SecurityEx.repo.OutboxEventRepo;
+
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepo outboxEventRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Off until an OutboxSubscriber is deployed: without one, every write would pay for an insert and an
+    // aggregate lock only for the relay to delete the event
+    @Value("${app.outbox.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Records an event in the caller's transaction, so it exists if and only if the change it describes commits.
+     * The aggregate's lock is taken before the event gets its id and held until commit, so the events of one
+     * aggregate commit in id order, the order OutboxRelay dispatches them in, even when two transactions
+     * change it at once. Does nothing unless app.outbox.enabled is set.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        if (!enabled) {
+            return;
+        }
+        outboxEventRepo.lockAggregate(((long) aggregateType.hashCode() << 32) ^ aggregateId);
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        event.setCreatedAt(Instant.now());
+        outboxEventRepo.save(event);
+    }
+}
@@ -0,0 +1,18 @@
+package com.telusko.SecurityEx.service;
+
+import com.telusko.SecurityEx.model.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events, registered as a bean. Delivery is at least once and in id order
+ * per aggregate, so handlers must be idempotent. They run inside the relay's transaction, in a savepoint
+ * per event: throwing rolls back the event's writes and makes it (and later events of the same aggregate)
+ * retry, and writes that must survive a retry belong in a REQUIRES_NEW transaction.
+ */
+public interface OutboxSubscriber {
+
+    default boolean supports(OutboxEvent event) {
+        return true;
+    }
+
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,160 @@
+package com.telusko.SecurityEx.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telusko.SecurityEx.repo.RevokedTokenRepo;
+import com.telusko.SecurityEx.repo.RevokedTokenRepo.RevokedToken;
+
+/**
+ * Revoked token ids (jti) that have not expired yet. The revoked_token table is the shared record, so a
+ * revocation holds on every node and across restarts; each node keeps a local copy that it syncs every
+ * sync-interval-ms. Lookups first hit a Bloom filter, so the common "not revoked" answer costs a few bit
+ * reads and never touches the exact set.
+ *
+ * isRevoked answers from the local copy, so an access token revoked on another node keeps working there
+ * until the next sync. Refresh tokens don't rely on it: revoke is an insert that only one caller wins,
+ * which makes each refresh token single-use cluster-wide.
+ */
+@Service
+public class TokenRevocationList {
+
+    // jti -> expiry in epoch millis; entries are dropped once the token would have expired anyway
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final RevokedTokenRepo revokedTokenRepo;
+    private final int bloomBits;
+    private volatile BloomFilter bloom;
+    // Transaction id below which every revocation has been pulled in; the first sync loads them all
+    private volatile long syncedBelow;
+
+    public TokenRevocationList(RevokedTokenRepo revokedTokenRepo,
+                               @Value("${jwt.revocation.bloom-bits:1048576}") int bloomBits) {
+        this.revokedTokenRepo = revokedTokenRepo;
+        this.bloomBits = bloomBits;
+        this.bloom = new BloomFilter(bloomBits);
+    }
+
+    /** Revokes the token on every node. False if it was revoked already, here or elsewhere. **/
+    public boolean revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+        boolean inserted = revokedTokenRepo.insert(tokenId, Instant.ofEpochMilli(expiresAtMillis));
+        remember(tokenId, expiresAtMillis);
+        return inserted;
+    }
+
+    /** Adds the id to this node's copy only; revoke and the sync go through here. **/
+    public void remember(String tokenId, long expiresAtMillis) {
+        revoked.put(tokenId, expiresAtMillis);
+        bloom.add(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloom.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Pulls in the ids other nodes revoked since the last sync. Rows are tracked by inserting transaction,
+     * not time, so one that commits late is picked up however late: its transaction was still running at
+     * the horizon taken here, so it is at or above it and is read again next time.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:1000}")
+    public void sync() {
+        // Taken before the read, whose later snapshot then sees every row below it
+        long horizon = revokedTokenRepo.finishedBelow();
+        for (RevokedToken token : revokedTokenRepo.findRevokedSince(syncedBelow)) {
+            remember(token.tokenId(), token.expiresAt().toEpochMilli());
+        }
+        syncedBelow = horizon;
+    }
+
+    /** Drops expired ids and rebuilds the filter so false positives don't accumulate. **/
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(bloomBits);
+        revoked.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+        // A revoke racing with the swap may have landed in the old filter only
+        revoked.keySet().forEach(rebuilt::add);
+
+        // Every node runs this; the deletes of the others find nothing left
+        revokedTokenRepo.purgeExpired();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    static final class BloomFilter {
+
+        private static final int HASHES = 4;
+
+        private final AtomicLongArray words;
+        private final int mask;
+
+        BloomFilter(int bits) {
+            int size = Integer.highestOneBit(Math.max(bits, 64));
+            this.words = new AtomicLongArray(size >>> 6);
+            this.mask = size - 1;
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long bitMask = 1L << bit;
+                int index = bit >>> 6;
+                long current;
+                do {
+                    current = words.get(index);
+                    if ((current & bitMask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(index, current, current | bitMask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            // 64-bit FNV-1a followed by a murmur3 finalizer
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93e10ad2a7fL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -15,12 +15,16 @@ import com.telusko.SecurityEx.model.Company;
 import com.telusko.SecurityEx.model.Users;
 import com.telusko.SecurityEx.repo.UserRepo;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.transaction.Transactional;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@Observed
 public class UserService {
 
     @Autowired
@@ -33,6 +37,9 @@ public class UserService {
 
     @Autowired
     private JWTService jwtService;
+
+    @Autowired
+    private TokenRevocationList revocationList;
     
     @Transactional
     public ResponseEntity<?> register(RegistrationDto registrationDto) {
@@ -70,11 +77,7 @@ public class UserService {
 
         if(authentication.isAuthenticated()) {
             Users users = userRepo.findByUsername(user.getUsername());
-            String role = users.getRole();
-            String token = jwtService.generateToken(user.getUsername(),role);
-            Map<String, String> response = new HashMap<>();
-            response.put("token", token); // Return the token inside a map as JSON
-            return response;
+            return issueTokens(users);
         }
 
         // Optionally, return an error message
@@ -83,5 +86,55 @@ public class UserService {
         return errorResponse;
     }
 
+    /** Exchanges a refresh token for a new token pair without a password check. The old refresh token is revoked. **/
+    public Map<String, String> refresh(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            claims = null;
+        }
+
+        if (claims != null && jwtService.isRefreshToken(claims) && !revocationList.isRevoked(claims.getId())) {
+            // Re-read the user so deleted accounts and role changes take effect on renewal
+            Users users = userRepo.findByUsername(claims.getSubject());
+            // Only one caller, on any node, wins the revoke, so a replayed refresh token gets nothing
+            if (users != null && revocationList.revoke(claims.getId(), claims.getExpiration().getTime())) {
+                return issueTokens(users);
+            }
+        }
+
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("message", "Invalid refresh token");
+        return errorResponse;
+    }
+
+    /** Revokes the current access token and, when given, the refresh token of the same user. **/
+    public void logout(Claims accessClaims, String refreshToken) {
+        if (accessClaims != null) {
+            revocationList.revoke(accessClaims.getId(), accessClaims.getExpiration().getTime());
+        }
+        if (refreshToken != null) {
+            try {
+                Claims claims = jwtService.parseToken(refreshToken);
+                if (jwtService.isRefreshToken(claims)
+                        && (accessClaims == null || claims.getSubject().equals(accessClaims.getSubject()))) {
+                    revocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already invalid, nothing to revoke
+            }
+        }
+    }
+
+    private Map<String, String> issueTokens(Users users) {
+        Map<String, String> response = new HashMap<>();
+        Company company = users.getCompany();
+        response.put("token", jwtService.generateToken(users.getUsername(), users.getRole(),
+                company == null ? null : company.getId(), company == null ? null : company.getPlan())); // Return the token inside a map as JSON
+        response.put("refreshToken", jwtService.generateRefreshToken(users.getUsername()));
+        return response;
+    }
+
 
 }
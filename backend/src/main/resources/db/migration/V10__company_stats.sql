@@ -0,0 +1,88 @@
+-- Per-company rollup behind the admin directory (CompanyRepo.findDirectory), maintained by the
+-- statement-level triggers below like location_stock in V7, so listing 50 companies reads 50 rows here
+-- instead of counting every inventory and employee row of those tenants.
+CREATE TABLE IF NOT EXISTS company_stats (
+    company_id        bigint  PRIMARY KEY REFERENCES company (id) ON DELETE CASCADE,
+    inventory_count   bigint  NOT NULL DEFAULT 0,
+    employee_count    bigint  NOT NULL DEFAULT 0,
+    -- numeric, so adding and later subtracting the same float values cancels exactly
+    total_stock_value numeric NOT NULL DEFAULT 0
+);
+
+-- Transition tables only exist for the event that fired, hence one branch per operation (see V7)
+CREATE OR REPLACE FUNCTION inventory_company_stats() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO company_stats AS s (company_id, inventory_count, total_stock_value)
+        SELECT company_id, count(*), sum(COALESCE(stock_value, 0)::numeric)
+          FROM new_rows
+         GROUP BY company_id
+         ORDER BY company_id
+        ON CONFLICT (company_id) DO UPDATE
+           SET inventory_count = s.inventory_count + EXCLUDED.inventory_count,
+               total_stock_value = s.total_stock_value + EXCLUDED.total_stock_value;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        -- Plain update: on the company's own deletion its rollup row may already be gone
+        UPDATE company_stats s
+           SET inventory_count = s.inventory_count - d.items,
+               total_stock_value = s.total_stock_value - d.value
+          FROM (SELECT company_id, count(*) AS items, sum(COALESCE(stock_value, 0)::numeric) AS value
+                  FROM old_rows GROUP BY company_id) d
+         WHERE s.company_id = d.company_id;
+        RETURN NULL;
+    END IF;
+
+    -- UPDATE: only the stock value moves
+    UPDATE company_stats s
+       SET total_stock_value = s.total_stock_value + d.value
+      FROM (SELECT company_id, sum(value) AS value
+              FROM (SELECT company_id, COALESCE(stock_value, 0)::numeric AS value FROM new_rows
+                    UNION ALL
+                    SELECT company_id, -COALESCE(stock_value, 0)::numeric FROM old_rows) delta
+             GROUP BY company_id
+            HAVING sum(value) <> 0) d
+     WHERE s.company_id = d.company_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION employee_company_stats() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO company_stats AS s (company_id, employee_count)
+        SELECT company_id, count(*) FROM new_rows GROUP BY company_id ORDER BY company_id
+        ON CONFLICT (company_id) DO UPDATE SET employee_count = s.employee_count + EXCLUDED.employee_count;
+    ELSE
+        UPDATE company_stats s
+           SET employee_count = s.employee_count - d.people
+          FROM (SELECT company_id, count(*) AS people FROM old_rows GROUP BY company_id) d
+         WHERE s.company_id = d.company_id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Salary or name edits don't change employee rollups, so employees need no update trigger
+CREATE TRIGGER trg_inventory_company_stats_insert AFTER INSERT ON inventory
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION inventory_company_stats();
+CREATE TRIGGER trg_inventory_company_stats_update AFTER UPDATE ON inventory
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION inventory_company_stats();
+CREATE TRIGGER trg_inventory_company_stats_delete AFTER DELETE ON inventory
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION inventory_company_stats();
+CREATE TRIGGER trg_employee_company_stats_insert AFTER INSERT ON employee
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION employee_company_stats();
+CREATE TRIGGER trg_employee_company_stats_delete AFTER DELETE ON employee
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION employee_company_stats();
+
+-- Backfill. Creating the triggers locked inventory and employee against writes until this migration
+-- commits, so no change can fall between the backfill and the triggers.
+INSERT INTO company_stats (company_id, inventory_count, employee_count, total_stock_value)
+SELECT c.id,
+       (SELECT count(*) FROM inventory i WHERE i.company_id = c.id),
+       (SELECT count(*) FROM employee e WHERE e.company_id = c.id),
+       (SELECT COALESCE(sum(COALESCE(i.stock_value, 0)::numeric), 0) FROM inventory i WHERE i.company_id = c.id)
+  FROM company c
+ON CONFLICT (company_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- CompanyRepo.findDirectory / searchDirectory. Built ${concurrently} like V3.
+
+-- Default sort (name, then id as tie-break): the first page is read in index order and stops at the limit
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_company_name_id ON company (company_name, id);
+
+-- "Name contains" search is an ILIKE '%term%', which only a trigram index can serve
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_company_name_trgm ON company USING gin (company_name gin_trgm_ops);
@@ -0,0 +1,11 @@
+-- EmployeeService.getEmployeePage and getEmployeeStats. Built ${concurrently} like V3.
+
+-- Dept / dept + grade filters, and the stats grouping: salary is included so the stats are read from the
+-- index alone, already in group order
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_employee_company_dept_grade ON employee (company_id, dept, grade) INCLUDE (salary);
+
+-- Default sort (name, then id as tie-break), read in index order up to the page
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_employee_company_name ON employee (company_id, name, id);
+
+-- Case-insensitive "name contains" search, a lower(name) LIKE '%term%'
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_employee_name_trgm ON employee USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,15 @@
+-- Idempotency-Key claims and the responses they produced (app.idempotency.persistent), shared by every node.
+-- Logged, unlike rate_limit_bucket: losing these after a crash would let retries write twice.
+-- status_code is NULL while the claiming request runs; locked_until lets another node take over a claim
+-- whose owner died.
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    idempotency_key VARCHAR(512) PRIMARY KEY,
+    fingerprint     BYTEA NOT NULL,
+    status_code     INT,
+    content_type    VARCHAR(255),
+    body            BYTEA,
+    locked_until    TIMESTAMPTZ NOT NULL,
+    expires_at      TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_idempotency_key_expires ON idempotency_key (expires_at);
@@ -0,0 +1,53 @@
+-- Who changed what and when, written in batches by AuditWriter. Range-partitioned by month on changed_at,
+-- so a month is written to one small partition, queries bounded in time touch only their months, and
+-- retention is a DROP TABLE of old partitions instead of a bulk delete.
+-- No foreign keys: the trail has to outlive the rows and companies it describes.
+CREATE TABLE IF NOT EXISTS audit_log (
+    id          bigserial,
+    changed_at  timestamptz  NOT NULL,
+    company_id  bigint,
+    entity_type varchar(32)  NOT NULL,
+    entity_id   bigint       NOT NULL,
+    action      varchar(32)  NOT NULL,
+    username    varchar(255),
+    -- field -> [old, new]
+    changes     jsonb        NOT NULL,
+    -- The partition key has to be part of every unique constraint
+    PRIMARY KEY (id, changed_at)
+) PARTITION BY RANGE (changed_at);
+
+-- Created on the parent, so every partition gets its own local index; both serve the paged history queries
+CREATE INDEX IF NOT EXISTS ix_audit_log_entity ON audit_log (company_id, entity_type, entity_id, changed_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_audit_log_user ON audit_log (company_id, username, changed_at DESC, id DESC);
+
+-- Catches rows outside the prepared months (clock skew, a writer that fell far behind)
+CREATE TABLE IF NOT EXISTS audit_log_default PARTITION OF audit_log DEFAULT;
+
+-- Creates the partitions of the current month and the next p_months_ahead months, if missing.
+-- Called by AuditWriter at startup and daily, so rows normally never land in the default partition.
+CREATE OR REPLACE FUNCTION audit_log_ensure_partitions(p_months_ahead int) RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start date;
+    created     int := 0;
+    part        text;
+BEGIN
+    FOR i IN 0 .. p_months_ahead LOOP
+        month_start := (date_trunc('month', now()) + make_interval(months => i))::date;
+        part := 'audit_log_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(part) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                               part, month_start, (month_start + interval '1 month')::date);
+                created := created + 1;
+            EXCEPTION WHEN check_violation THEN
+                -- The default partition already holds rows of that month; they have to be moved by hand
+                RAISE WARNING 'audit_log_default has rows for %, partition % not created', month_start, part;
+            END;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+SELECT audit_log_ensure_partitions(3);
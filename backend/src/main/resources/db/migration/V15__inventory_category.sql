@@ -0,0 +1,27 @@
+-- Categories of a company's items (supplier, product line, ...) and item membership, many to many.
+-- Membership is keyed by category first, so "the items of category X" - what bulk repricing reads -
+-- is one range of the primary key; the second index answers "the categories of item Y".
+
+CREATE TABLE IF NOT EXISTS category (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_id bigint       NOT NULL REFERENCES company (id) ON DELETE CASCADE,
+    name       varchar(255) NOT NULL
+);
+
+-- Unique name per company, and covering for CategoryRepo.findSummaryByCompanyId
+CREATE UNIQUE INDEX IF NOT EXISTS ux_category_company_name ON category (company_id, name) INCLUDE (id);
+-- Target of inventory_category's composite key, which keeps an item and its category in the same company
+ALTER TABLE category ADD CONSTRAINT ux_category_id_company UNIQUE (id, company_id);
+
+CREATE TABLE IF NOT EXISTS inventory_category (
+    category_id  bigint NOT NULL,
+    inventory_id bigint NOT NULL,
+    company_id   bigint NOT NULL,
+    PRIMARY KEY (category_id, inventory_id),
+    -- inventory (id, company_id) is unique since V7 (or is the primary key once partitioned)
+    FOREIGN KEY (inventory_id, company_id) REFERENCES inventory (id, company_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id, company_id) REFERENCES category (id, company_id) ON DELETE CASCADE
+);
+
+-- Also serves the cascade when items are deleted
+CREATE INDEX IF NOT EXISTS ix_inventory_category_inventory ON inventory_category (inventory_id) INCLUDE (category_id);
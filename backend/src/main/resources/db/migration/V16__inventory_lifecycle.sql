@@ -0,0 +1,21 @@
+-- Inventory lifecycle. Deleting an item discontinues it; InventoryArchiver later moves discontinued items
+-- that are past app.archive.after into compressed segment files and deletes their rows, so the table
+-- holds active and recently discontinued items only. ARCHIVED is never stored here: an archived item
+-- exists in its segment file alone until it is restored.
+--
+-- Constant defaults, so on Postgres 11+ neither column rewrites the table.
+
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS status varchar(16) NOT NULL DEFAULT 'ACTIVE';
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS status_changed_at timestamptz NOT NULL DEFAULT now();
+
+-- NOT VALID skips the scan of existing rows, which all hold the default; partitioned tables only take
+-- the constraint validated
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'inventory'::regclass) <> 'p' THEN
+        ALTER TABLE inventory ADD CONSTRAINT ck_inventory_status CHECK (status IN ('ACTIVE', 'DISCONTINUED')) NOT VALID;
+    ELSE
+        ALTER TABLE inventory ADD CONSTRAINT ck_inventory_status CHECK (status IN ('ACTIVE', 'DISCONTINUED'));
+    END IF;
+END;
+$$;
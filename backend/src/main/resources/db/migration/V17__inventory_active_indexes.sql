@@ -0,0 +1,20 @@
+-- Partial indexes for the hot inventory queries, which only read active items (InventoryRepo.findActive*).
+-- Those queries carry status = 'ACTIVE' as a literal rather than a parameter, so the planner can match
+-- these indexes in generic plans too. Discontinued rows stay out of them, and archived rows leave the
+-- table altogether. Built ${concurrently} like V3.
+
+-- findActiveByCompanyId and the dashboard's first items, in id order
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_active ON inventory (company_id, id)
+    WHERE status = 'ACTIVE';
+
+-- Out-of-stock and reorder lists, replacing the V3 indexes on all rows
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_qty_active ON inventory (company_id, qty_in_stock)
+    WHERE status = 'ACTIVE';
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_reorder_active ON inventory (company_id, is_reorder)
+    WHERE status = 'ACTIVE';
+DROP INDEX ${concurrently} IF EXISTS ix_inventory_company_qty;
+DROP INDEX ${concurrently} IF EXISTS ix_inventory_company_reorder;
+
+-- InventoryArchiver's scan for items discontinued before the cutoff
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_discontinued ON inventory (status_changed_at)
+    WHERE status = 'DISCONTINUED';
@@ -0,0 +1,11 @@
+-- Revoked token ids (jti) shared by every node (TokenRevocationList): /logout and refresh-token rotation
+-- insert here, and each node pulls rows revoked since its last sync into its local Bloom filter and set.
+-- A row is only useful until the token would have expired anyway, and is purged after expires_at.
+CREATE TABLE IF NOT EXISTS revoked_token (
+    token_id   VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX IF NOT EXISTS ix_revoked_token_revoked_at ON revoked_token (revoked_at);
+CREATE INDEX IF NOT EXISTS ix_revoked_token_expires_at ON revoked_token (expires_at);
@@ -0,0 +1,54 @@
+-- company_stats counts and values active items only, as the inventory lists and dashboard sections show
+-- them since V16: discontinuing an item (an UPDATE of status) now takes it out of the rollup, and
+-- reactivating or restoring it puts it back. Same statement-level trigger as V10, filtered on status.
+
+CREATE OR REPLACE FUNCTION inventory_company_stats() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO company_stats AS s (company_id, inventory_count, total_stock_value)
+        SELECT company_id, count(*) FILTER (WHERE status = 'ACTIVE'),
+               COALESCE(sum(COALESCE(stock_value, 0)::numeric) FILTER (WHERE status = 'ACTIVE'), 0)
+          FROM new_rows
+         GROUP BY company_id
+         ORDER BY company_id
+        ON CONFLICT (company_id) DO UPDATE
+           SET inventory_count = s.inventory_count + EXCLUDED.inventory_count,
+               total_stock_value = s.total_stock_value + EXCLUDED.total_stock_value;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        -- Plain update: on the company's own deletion its rollup row may already be gone
+        UPDATE company_stats s
+           SET inventory_count = s.inventory_count - d.items,
+               total_stock_value = s.total_stock_value - d.value
+          FROM (SELECT company_id, count(*) AS items, sum(COALESCE(stock_value, 0)::numeric) AS value
+                  FROM old_rows WHERE status = 'ACTIVE' GROUP BY company_id) d
+         WHERE s.company_id = d.company_id;
+        RETURN NULL;
+    END IF;
+
+    -- UPDATE: the stock value moves, and a status change moves the item in or out of the counts
+    UPDATE company_stats s
+       SET inventory_count = s.inventory_count + d.items,
+           total_stock_value = s.total_stock_value + d.value
+      FROM (SELECT company_id, sum(items) AS items, sum(value) AS value
+              FROM (SELECT company_id, 1 AS items, COALESCE(stock_value, 0)::numeric AS value
+                      FROM new_rows WHERE status = 'ACTIVE'
+                    UNION ALL
+                    SELECT company_id, -1, -COALESCE(stock_value, 0)::numeric
+                      FROM old_rows WHERE status = 'ACTIVE') delta
+             GROUP BY company_id
+            HAVING sum(items) <> 0 OR sum(value) <> 0) d
+     WHERE s.company_id = d.company_id;
+    RETURN NULL;
+END;
+$$;
+
+-- Recount under a lock that keeps inventory writes out until this migration commits, as V10's backfill
+LOCK TABLE inventory IN SHARE MODE;
+
+UPDATE company_stats s
+   SET inventory_count = (SELECT count(*) FROM inventory i WHERE i.company_id = s.company_id AND i.status = 'ACTIVE'),
+       total_stock_value = (SELECT COALESCE(sum(COALESCE(i.stock_value, 0)::numeric), 0) FROM inventory i
+                             WHERE i.company_id = s.company_id AND i.status = 'ACTIVE');
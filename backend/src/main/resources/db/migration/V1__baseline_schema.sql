@@ -0,0 +1,44 @@
+-- Schema as previously produced by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+    id       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username varchar(255),
+    password varchar(255),
+    role     varchar(255)
+);
+
+CREATE TABLE company (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_name varchar(255),
+    capacity     varchar(255),
+    location     varchar(255),
+    user_id      bigint NOT NULL UNIQUE REFERENCES users (id)
+);
+
+CREATE TABLE inventory (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_name  varchar(255),
+    description   varchar(255),
+    qty_in_stock  integer,
+    price         float(53) NOT NULL,
+    stock_value   float(53),
+    reorder_point integer,
+    opening_stock integer,
+    receipts      integer,
+    issues        integer,
+    closing_stock integer,
+    minimum_stock integer,
+    buffer_stock  integer,
+    is_reorder    varchar(255),
+    company_id    bigint NOT NULL REFERENCES company (id)
+);
+
+CREATE TABLE employee (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    grade      varchar(255),
+    name       varchar(255),
+    dept       varchar(255),
+    salary     float(53) NOT NULL,
+    company_id bigint NOT NULL REFERENCES company (id)
+);
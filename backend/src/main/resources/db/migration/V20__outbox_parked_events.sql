@@ -0,0 +1,6 @@
+-- A parked event (failed_at set once max-attempts is reached) keeps holding back the later events of its
+-- aggregate, so subscribers never see them out of order; they are relayed once the parked event is
+-- deleted or put back (failed_at reset). OutboxEventRepo.lockPendingBatch checks for one per candidate
+-- event. Parked events are few, so this partial index stays small.
+CREATE INDEX IF NOT EXISTS ix_outbox_event_parked ON outbox_event (aggregate_type, aggregate_id, id)
+    WHERE failed_at IS NOT NULL;
@@ -0,0 +1,8 @@
+-- Nodes sync revoked_token by the id of the transaction that inserted each row rather than by revoked_at:
+-- a revocation can commit well after its revoked_at, behind any fixed overlap window. Every transaction
+-- below the xmin of a sync's snapshot has finished, so the next sync starts from that xmin and re-reads
+-- only the few rows at or above it (TokenRevocationList.sync).
+ALTER TABLE revoked_token ADD COLUMN IF NOT EXISTS xact_id xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX IF NOT EXISTS ix_revoked_token_xact_id ON revoked_token (xact_id);
+DROP INDEX IF EXISTS ix_revoked_token_revoked_at;
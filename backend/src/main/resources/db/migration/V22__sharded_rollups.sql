@@ -0,0 +1,154 @@
+-- company_stats (V10, V19) and location_stock (V7) held one row per company and per location, which every
+-- write of that tenant or location updated from its trigger: concurrent writers queued on that one row
+-- lock until each of them committed. Each rollup is now split into slots. A trigger adds its delta to the
+-- slot of its own connection, so transactions running side by side (on different connections of the
+-- pool) update different rows. Readers go through the company_totals and location_totals views, which
+-- sum the slots: at most 8 rows per company or location, read through the primary key.
+
+CREATE OR REPLACE FUNCTION rollup_slot() RETURNS smallint LANGUAGE sql STABLE PARALLEL SAFE AS $$
+    SELECT (pg_backend_pid() % 8)::smallint
+$$;
+
+-- Existing totals become slot 0
+ALTER TABLE company_stats ADD COLUMN IF NOT EXISTS slot smallint NOT NULL DEFAULT 0;
+ALTER TABLE company_stats DROP CONSTRAINT company_stats_pkey;
+ALTER TABLE company_stats ADD PRIMARY KEY (company_id, slot);
+
+ALTER TABLE location_stock ADD COLUMN IF NOT EXISTS slot smallint NOT NULL DEFAULT 0;
+ALTER TABLE location_stock DROP CONSTRAINT location_stock_pkey;
+ALTER TABLE location_stock ADD PRIMARY KEY (location_id, slot);
+
+-- A filter on company_id is pushed below the grouping, so the dashboard header reads that company's slots
+-- only; the admin directory, which pages over every company, sums the whole (small) table as it read it before
+CREATE OR REPLACE VIEW company_totals AS
+SELECT company_id,
+       sum(inventory_count)::bigint AS inventory_count,
+       sum(employee_count)::bigint AS employee_count,
+       sum(total_stock_value) AS total_stock_value
+  FROM company_stats
+ GROUP BY company_id;
+
+-- Grouped by company too (one per location), so a company's locations are found through ix_location_stock_company
+CREATE OR REPLACE VIEW location_totals AS
+SELECT location_id,
+       company_id,
+       sum(total_quantity)::bigint AS total_quantity,
+       sum(sku_count)::integer AS sku_count
+  FROM location_stock
+ GROUP BY location_id, company_id;
+
+-- Every branch is now an upsert into this connection's slot, which may not exist yet. Deltas of deleted
+-- and updated rows are joined to their parent first: on a cascading delete of the company (or location)
+-- the parent is already gone and so are its slots, and nothing must be inserted for it.
+CREATE OR REPLACE FUNCTION inventory_company_stats() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO company_stats AS s (company_id, slot, inventory_count, total_stock_value)
+        SELECT company_id, rollup_slot(), count(*) FILTER (WHERE status = 'ACTIVE'),
+               COALESCE(sum(COALESCE(stock_value, 0)::numeric) FILTER (WHERE status = 'ACTIVE'), 0)
+          FROM new_rows
+         GROUP BY company_id
+         ORDER BY company_id
+        ON CONFLICT (company_id, slot) DO UPDATE
+           SET inventory_count = s.inventory_count + EXCLUDED.inventory_count,
+               total_stock_value = s.total_stock_value + EXCLUDED.total_stock_value;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO company_stats AS s (company_id, slot, inventory_count, total_stock_value)
+        SELECT d.company_id, rollup_slot(), -d.items, -d.value
+          FROM (SELECT company_id, count(*) AS items, sum(COALESCE(stock_value, 0)::numeric) AS value
+                  FROM old_rows WHERE status = 'ACTIVE' GROUP BY company_id) d
+          JOIN company c ON c.id = d.company_id
+         ORDER BY d.company_id
+        ON CONFLICT (company_id, slot) DO UPDATE
+           SET inventory_count = s.inventory_count + EXCLUDED.inventory_count,
+               total_stock_value = s.total_stock_value + EXCLUDED.total_stock_value;
+        RETURN NULL;
+    END IF;
+
+    -- UPDATE: the stock value moves, and a status change moves the item in or out of the counts
+    INSERT INTO company_stats AS s (company_id, slot, inventory_count, total_stock_value)
+    SELECT d.company_id, rollup_slot(), d.items, d.value
+      FROM (SELECT company_id, sum(items) AS items, sum(value) AS value
+              FROM (SELECT company_id, 1 AS items, COALESCE(stock_value, 0)::numeric AS value
+                      FROM new_rows WHERE status = 'ACTIVE'
+                    UNION ALL
+                    SELECT company_id, -1, -COALESCE(stock_value, 0)::numeric
+                      FROM old_rows WHERE status = 'ACTIVE') delta
+             GROUP BY company_id
+            HAVING sum(items) <> 0 OR sum(value) <> 0) d
+      JOIN company c ON c.id = d.company_id
+     ORDER BY d.company_id
+    ON CONFLICT (company_id, slot) DO UPDATE
+       SET inventory_count = s.inventory_count + EXCLUDED.inventory_count,
+           total_stock_value = s.total_stock_value + EXCLUDED.total_stock_value;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION employee_company_stats() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO company_stats AS s (company_id, slot, employee_count)
+        SELECT company_id, rollup_slot(), count(*) FROM new_rows GROUP BY company_id ORDER BY company_id
+        ON CONFLICT (company_id, slot) DO UPDATE SET employee_count = s.employee_count + EXCLUDED.employee_count;
+    ELSE
+        INSERT INTO company_stats AS s (company_id, slot, employee_count)
+        SELECT d.company_id, rollup_slot(), -d.people
+          FROM (SELECT company_id, count(*) AS people FROM old_rows GROUP BY company_id) d
+          JOIN company c ON c.id = d.company_id
+         ORDER BY d.company_id
+        ON CONFLICT (company_id, slot) DO UPDATE SET employee_count = s.employee_count + EXCLUDED.employee_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Still applied in location order, as in V7
+CREATE OR REPLACE FUNCTION stock_level_rollup() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO location_stock AS s (location_id, slot, company_id, total_quantity, sku_count)
+        SELECT d.location_id, rollup_slot(), d.company_id, -d.quantity, -d.skus
+          FROM (SELECT location_id, min(company_id) AS company_id, sum(quantity) AS quantity,
+                       count(*) FILTER (WHERE quantity > 0) AS skus
+                  FROM old_rows GROUP BY location_id) d
+          JOIN location l ON l.id = d.location_id
+         ORDER BY d.location_id
+        ON CONFLICT (location_id, slot) DO UPDATE
+           SET total_quantity = s.total_quantity + EXCLUDED.total_quantity,
+               sku_count = s.sku_count + EXCLUDED.sku_count;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO location_stock AS s (location_id, slot, company_id, total_quantity, sku_count)
+        SELECT location_id, rollup_slot(), min(company_id), sum(quantity), count(*) FILTER (WHERE quantity > 0)
+          FROM new_rows
+         GROUP BY location_id
+         ORDER BY location_id
+        ON CONFLICT (location_id, slot) DO UPDATE
+           SET total_quantity = s.total_quantity + EXCLUDED.total_quantity,
+               sku_count = s.sku_count + EXCLUDED.sku_count;
+        RETURN NULL;
+    END IF;
+
+    -- UPDATE: new values minus old values, per location
+    INSERT INTO location_stock AS s (location_id, slot, company_id, total_quantity, sku_count)
+    SELECT d.location_id, rollup_slot(), d.company_id, d.quantity, d.skus
+      FROM (SELECT location_id, min(company_id) AS company_id, sum(quantity) AS quantity, sum(skus) AS skus
+              FROM (SELECT location_id, company_id, quantity, (quantity > 0)::int AS skus FROM new_rows
+                    UNION ALL
+                    SELECT location_id, company_id, -quantity, -((quantity > 0)::int) FROM old_rows) delta
+             GROUP BY location_id
+            HAVING sum(quantity) <> 0 OR sum(skus) <> 0) d
+      JOIN location l ON l.id = d.location_id
+     ORDER BY d.location_id
+    ON CONFLICT (location_id, slot) DO UPDATE
+       SET total_quantity = s.total_quantity + EXCLUDED.total_quantity,
+           sku_count = s.sku_count + EXCLUDED.sku_count;
+    RETURN NULL;
+END;
+$$;
@@ -0,0 +1,2 @@
+-- Trigram operator class for the "product name contains" search (pg_trgm is a trusted extension since PG 13)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
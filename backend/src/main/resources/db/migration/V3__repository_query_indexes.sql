@@ -0,0 +1,18 @@
+-- One index per repository query shape. ${concurrently} is CONCURRENTLY by default so live tables are
+-- not write-locked while the indexes build; Flyway then runs this script outside a transaction.
+-- The partitioned profile sets it empty because partitioned parents cannot be indexed concurrently.
+
+-- UserRepo.findByUsername / existsByUsername, on every login and authenticated request
+CREATE UNIQUE INDEX ${concurrently} IF NOT EXISTS ux_users_username ON users (username);
+
+-- InventoryRepo.findByCompany and findByCompanyAndQtyInStock (out-of-stock list)
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_qty ON inventory (company_id, qty_in_stock);
+
+-- InventoryRepo.findByCompanyAndIsReorder (reorder list)
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_reorder ON inventory (company_id, is_reorder);
+
+-- InventoryRepo.findByCompanyAndProductNameContaining, a LIKE '%term%' that a b-tree cannot serve
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_product_name_trgm ON inventory USING gin (product_name gin_trgm_ops);
+
+-- EmployeeRepo.findByCompany
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_employee_company ON employee (company_id);
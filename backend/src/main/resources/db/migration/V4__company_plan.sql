@@ -0,0 +1,2 @@
+-- Subscription plan of each tenant; selects the app.rate-limit.plans.<plan> limits and travels in the access token
+ALTER TABLE company ADD COLUMN IF NOT EXISTS plan VARCHAR(32) NOT NULL DEFAULT 'standard';
@@ -0,0 +1,30 @@
+-- Shared token buckets for app.rate-limit.store=jdbc, used when several nodes must enforce one limit.
+-- Unlogged: bucket state is disposable, so it skips the WAL and is simply empty after a crash.
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_bucket (
+    bucket_key VARCHAR(128) PRIMARY KEY,
+    tokens     DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+-- Refills the bucket, takes p_cost tokens if available and returns 0, otherwise returns the milliseconds
+-- until p_cost tokens will be available. The upsert's row lock serializes concurrent callers per key.
+CREATE OR REPLACE FUNCTION rate_limit_take(p_key VARCHAR, p_rate DOUBLE PRECISION, p_burst DOUBLE PRECISION,
+                                           p_cost DOUBLE PRECISION)
+RETURNS BIGINT LANGUAGE plpgsql AS $$
+DECLARE
+    v_tokens DOUBLE PRECISION;
+BEGIN
+    INSERT INTO rate_limit_bucket AS b (bucket_key, tokens, updated_at)
+    VALUES (p_key, p_burst, clock_timestamp())
+    ON CONFLICT (bucket_key) DO UPDATE
+        SET tokens = LEAST(p_burst, b.tokens + EXTRACT(EPOCH FROM clock_timestamp() - b.updated_at) * p_rate),
+            updated_at = clock_timestamp()
+    RETURNING tokens INTO v_tokens;
+
+    IF v_tokens >= p_cost THEN
+        UPDATE rate_limit_bucket SET tokens = tokens - p_cost WHERE bucket_key = p_key;
+        RETURN 0;
+    END IF;
+    RETURN CEIL((p_cost - v_tokens) / p_rate * 1000);
+END;
+$$;
@@ -0,0 +1,17 @@
+-- Transactional outbox: events are inserted in the transaction that makes the change they describe and
+-- deleted by OutboxRelay once every subscriber has handled them.
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id             BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(64)  NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    event_type     VARCHAR(64)  NOT NULL,
+    payload        JSONB        NOT NULL,
+    created_at     TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    attempts       INT          NOT NULL DEFAULT 0,
+    last_error     VARCHAR(1000),
+    -- Set once max-attempts is reached; such events stay for inspection and are no longer relayed
+    failed_at      TIMESTAMPTZ
+);
+
+-- OutboxEventRepo.lockPendingBatch walks pending events in id order
+CREATE INDEX IF NOT EXISTS ix_outbox_event_pending ON outbox_event (id) WHERE failed_at IS NULL;
@@ -0,0 +1,108 @@
+-- Stock locations (warehouses, stores) of a company, per-location quantities and transfers between them.
+
+CREATE TABLE IF NOT EXISTS location (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_id bigint       NOT NULL REFERENCES company (id) ON DELETE CASCADE,
+    name       varchar(255) NOT NULL,
+    capacity   integer      NOT NULL DEFAULT 0  -- in stock units
+);
+
+-- Unique name per company, and covering for LocationRepo.findStockByCompanyId (index-only scan)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_location_company_name ON location (company_id, name) INCLUDE (id, capacity);
+-- Target of stock_level's composite key, which keeps an item and its location in the same company
+ALTER TABLE location ADD CONSTRAINT ux_location_id_company UNIQUE (id, company_id);
+
+-- Same for inventory; once partitioned, (id, company_id) already is its primary key
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'inventory'::regclass) <> 'p' THEN
+        ALTER TABLE inventory ADD CONSTRAINT ux_inventory_id_company UNIQUE (id, company_id);
+    END IF;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS stock_level (
+    inventory_id bigint  NOT NULL,
+    location_id  bigint  NOT NULL,
+    company_id   bigint  NOT NULL,
+    quantity     integer NOT NULL DEFAULT 0 CHECK (quantity >= 0),
+    PRIMARY KEY (inventory_id, location_id),
+    FOREIGN KEY (inventory_id, company_id) REFERENCES inventory (id, company_id) ON DELETE CASCADE,
+    FOREIGN KEY (location_id, company_id) REFERENCES location (id, company_id) ON DELETE CASCADE
+);
+
+-- StockLevelRepo keyset pages over one location, answered from the index alone
+CREATE INDEX IF NOT EXISTS ix_stock_level_location ON stock_level (location_id, inventory_id) INCLUDE (quantity);
+
+-- Per-location rollup, maintained by the triggers below in the transaction that changes stock_level.
+-- Company totals sum these rows (one per location) instead of scanning stock_level.
+CREATE TABLE IF NOT EXISTS location_stock (
+    location_id    bigint  PRIMARY KEY REFERENCES location (id) ON DELETE CASCADE,
+    company_id     bigint  NOT NULL,
+    total_quantity bigint  NOT NULL DEFAULT 0,
+    sku_count      integer NOT NULL DEFAULT 0  -- items with quantity > 0
+);
+-- Only the never-updated company_id is indexed, so rollup updates stay HOT
+CREATE INDEX IF NOT EXISTS ix_location_stock_company ON location_stock (company_id);
+
+-- Statement-level, so a bulk load of N rows costs one rollup update per location rather than N.
+-- Rows are applied in location order, which keeps concurrent transfers from deadlocking on the rollups.
+CREATE OR REPLACE FUNCTION stock_level_rollup() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        -- Plain update: on a cascading location delete the rollup row is already gone
+        UPDATE location_stock s
+           SET total_quantity = s.total_quantity - d.quantity,
+               sku_count = s.sku_count - d.skus
+          FROM (SELECT location_id, sum(quantity) AS quantity, count(*) FILTER (WHERE quantity > 0) AS skus
+                  FROM old_rows GROUP BY location_id) d
+         WHERE s.location_id = d.location_id;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO location_stock AS s (location_id, company_id, total_quantity, sku_count)
+        SELECT location_id, min(company_id), sum(quantity), count(*) FILTER (WHERE quantity > 0)
+          FROM new_rows
+         GROUP BY location_id
+         ORDER BY location_id
+        ON CONFLICT (location_id) DO UPDATE
+           SET total_quantity = s.total_quantity + EXCLUDED.total_quantity,
+               sku_count = s.sku_count + EXCLUDED.sku_count;
+        RETURN NULL;
+    END IF;
+
+    -- UPDATE: new values minus old values, per location
+    INSERT INTO location_stock AS s (location_id, company_id, total_quantity, sku_count)
+    SELECT location_id, min(company_id), sum(quantity), sum(skus)
+      FROM (SELECT location_id, company_id, quantity, (quantity > 0)::int AS skus FROM new_rows
+            UNION ALL
+            SELECT location_id, company_id, -quantity, -((quantity > 0)::int) FROM old_rows) delta
+     GROUP BY location_id
+    HAVING sum(quantity) <> 0 OR sum(skus) <> 0
+     ORDER BY location_id
+    ON CONFLICT (location_id) DO UPDATE
+       SET total_quantity = s.total_quantity + EXCLUDED.total_quantity,
+           sku_count = s.sku_count + EXCLUDED.sku_count;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_stock_level_rollup_insert AFTER INSERT ON stock_level
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION stock_level_rollup();
+CREATE TRIGGER trg_stock_level_rollup_update AFTER UPDATE ON stock_level
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION stock_level_rollup();
+CREATE TRIGGER trg_stock_level_rollup_delete AFTER DELETE ON stock_level
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION stock_level_rollup();
+
+CREATE TABLE IF NOT EXISTS stock_transfer (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_id       bigint       NOT NULL REFERENCES company (id) ON DELETE CASCADE,
+    inventory_id     bigint       NOT NULL,
+    from_location_id bigint       NOT NULL,
+    to_location_id   bigint       NOT NULL,
+    quantity         integer      NOT NULL CHECK (quantity > 0),
+    created_by       varchar(255),
+    created_at       timestamptz  NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS ix_stock_transfer_company_created ON stock_transfer (company_id, created_at);
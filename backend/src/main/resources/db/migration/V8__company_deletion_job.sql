@@ -0,0 +1,19 @@
+-- Tenant deletion runs as a background job (CompanyDeletionService). The row is the job's checkpoint:
+-- phase and last_id say where the next batch starts, so a restarted node resumes instead of starting over.
+CREATE TABLE IF NOT EXISTS company_deletion_job (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    company_id   bigint       NOT NULL,  -- no foreign key: the job outlives the company
+    status       varchar(16)  NOT NULL,  -- PENDING, RUNNING, COMPLETED, FAILED
+    phase        varchar(32)  NOT NULL,  -- child table being deleted
+    last_id      bigint       NOT NULL DEFAULT 0,  -- keyset cursor within the phase
+    deleted_rows bigint       NOT NULL DEFAULT 0,
+    requested_by varchar(255),
+    error        varchar(1000),
+    created_at   timestamptz  NOT NULL DEFAULT now(),
+    updated_at   timestamptz  NOT NULL DEFAULT now(),  -- heartbeat; a RUNNING job left stale is reclaimed
+    completed_at timestamptz
+);
+
+-- At most one unfinished job per company, so a repeated DELETE returns the running job
+CREATE UNIQUE INDEX IF NOT EXISTS ux_company_deletion_job_active ON company_deletion_job (company_id)
+    WHERE status IN ('PENDING', 'RUNNING');
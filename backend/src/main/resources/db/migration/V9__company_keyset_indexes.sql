@@ -0,0 +1,11 @@
+-- (company_id, id) lets CompanyDeletionJobRepo walk a company's rows in id order from a cursor, so each
+-- deletion batch reads only the rows it deletes instead of sorting every remaining row of the company.
+-- Built ${concurrently} like V3, for the same reason.
+
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_inventory_company_id ON inventory (company_id, id);
+
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_employee_company_id ON employee (company_id, id);
+-- EmployeeRepo.findByCompany is served by the prefix of the index above
+DROP INDEX ${concurrently} IF EXISTS ix_employee_company;
+
+CREATE INDEX ${concurrently} IF NOT EXISTS ix_stock_transfer_company_id ON stock_transfer (company_id, id);
@@ -0,0 +1,59 @@
+-- Converts the tenant tables into tables hash-partitioned by company_id. Only part of the migration chain
+-- with the "partitioned" profile (spring.flyway.locations adds classpath:db/partitioned).
+--
+-- The swap takes an exclusive lock on each table; on an existing database run it in a maintenance window.
+-- The original table is renamed to <table>_unpartitioned and dropped once its rows are copied and counted.
+-- Postgres prunes partitions for "company_id = ?", which is what every findByCompany* query sends.
+
+CREATE OR REPLACE FUNCTION partition_by_company(parent text, partitions int) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    old_table text := parent || '_unpartitioned';
+    id_seq    text := parent || '_partitioned_id_seq';
+    i         int;
+    copied    bigint;
+    original  bigint;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = parent::regclass) = 'p' THEN
+        RAISE NOTICE '% is already partitioned', parent;
+        RETURN;
+    END IF;
+
+    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', parent);
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, old_table);
+
+    -- Identity columns are not supported on partitioned tables before Postgres 17, so ids come from a plain sequence
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY HASH (company_id)', parent, old_table);
+    EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', id_seq, parent);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', parent, id_seq);
+    -- The partition key has to be part of every unique constraint
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, company_id)', parent);
+    EXECUTE format('ALTER TABLE %I ADD FOREIGN KEY (company_id) REFERENCES company (id)', parent);
+
+    FOR i IN 0 .. partitions - 1 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       parent || '_p' || i, parent, partitions, i);
+    END LOOP;
+
+    -- Created on the parent, so every partition gets its own local index
+    EXECUTE format('CREATE INDEX ON %I (company_id)', parent);
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', parent, old_table);
+    GET DIAGNOSTICS copied = ROW_COUNT;
+    EXECUTE format('SELECT count(*) FROM %I', old_table) INTO original;
+    IF copied <> original THEN
+        RAISE EXCEPTION 'copied % of % rows into %', copied, original, parent;
+    END IF;
+    -- Without CASCADE: anything still pointing at the old table (a view, a foreign key) fails the migration
+    -- instead of being dropped with it
+    EXECUTE format('DROP TABLE %I', old_table);
+    EXECUTE format('SELECT setval(%L, COALESCE((SELECT max(id) FROM %I), 0) + 1, false)', id_seq, parent);
+    EXECUTE format('ANALYZE %I', parent);
+END;
+$$;
+
+SELECT partition_by_company('inventory', ${partitions});
+SELECT partition_by_company('employee', ${partitions});
+
+-- Ledger-style tables keyed by company_id are converted the same way in their own migration:
+--   SELECT partition_by_company('<table>', ${partitions});
@@ -0,0 +1,104 @@
+-- Partitions inventory and employee on a database that was migrated without the "partitioned" profile.
+-- V1_1 only runs on a fresh database; on one already past V1 Flyway ignores it (see
+-- application-partitioned.properties) and this migration does the conversion instead. On a database that
+-- V1_1 converted, the tables are already partitioned and nothing happens.
+--
+-- Everything later migrations attached to a table is carried over: check constraints, indexes, triggers
+-- (the company_stats rollups) and the foreign keys of other tables that reference it. Rows are copied
+-- before the triggers exist, so the rollups are not counted twice. The whole conversion runs in this
+-- migration's transaction under an exclusive lock on the table: run it in a maintenance window.
+
+CREATE OR REPLACE FUNCTION repartition_by_company(parent text, partitions int) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    old_table   text := parent || '_unpartitioned';
+    id_seq      text := parent || '_partitioned_id_seq';
+    checks      text[];
+    indexes     text[];
+    triggers    text[];
+    referencing text[];
+    fk          record;
+    statement   text;
+    copied      bigint;
+    original    bigint;
+    i           int;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = parent::regclass) = 'p' THEN
+        RAISE NOTICE '% is already partitioned', parent;
+        RETURN;
+    END IF;
+
+    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', parent);
+
+    -- Definitions are read while they still name the table, so they apply unchanged to its replacement
+    SELECT array_agg(format('ALTER TABLE %I ADD CONSTRAINT %I %s', parent, conname,
+                            replace(pg_get_constraintdef(oid), ' NOT VALID', '')))
+      INTO checks
+      FROM pg_constraint WHERE conrelid = parent::regclass AND contype = 'c';
+    -- Indexes behind constraints (the primary key, ux_inventory_id_company) are covered by the new primary key
+    SELECT array_agg(pg_get_indexdef(x.indexrelid))
+      INTO indexes
+      FROM pg_index x
+     WHERE x.indrelid = parent::regclass
+       AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = x.indexrelid);
+    SELECT array_agg(pg_get_triggerdef(oid))
+      INTO triggers
+      FROM pg_trigger WHERE tgrelid = parent::regclass AND NOT tgisinternal;
+    SELECT array_agg(format('ALTER TABLE %s ADD CONSTRAINT %I %s', conrelid::regclass, conname,
+                            pg_get_constraintdef(oid)))
+      INTO referencing
+      FROM pg_constraint WHERE confrelid = parent::regclass AND contype = 'f';
+
+    -- Dropped first, or they would follow the rename and keep the old table from being dropped
+    FOR fk IN SELECT conrelid::regclass AS child, conname FROM pg_constraint
+               WHERE confrelid = parent::regclass AND contype = 'f' LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.child, fk.conname);
+    END LOOP;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, old_table);
+
+    -- As in V1_1: no identity column on a partitioned table before Postgres 17, and the partition key in
+    -- every unique constraint
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY HASH (company_id)', parent, old_table);
+    EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', id_seq, parent);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', parent, id_seq);
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, company_id)', parent);
+    EXECUTE format('ALTER TABLE %I ADD FOREIGN KEY (company_id) REFERENCES company (id)', parent);
+    FOREACH statement IN ARRAY COALESCE(checks, '{}') LOOP
+        EXECUTE statement;
+    END LOOP;
+
+    FOR i IN 0 .. partitions - 1 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       parent || '_p' || i, parent, partitions, i);
+    END LOOP;
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', parent, old_table);
+    GET DIAGNOSTICS copied = ROW_COUNT;
+    EXECUTE format('SELECT count(*) FROM %I', old_table) INTO original;
+    IF copied <> original THEN
+        RAISE EXCEPTION 'copied % of % rows into %', copied, original, parent;
+    END IF;
+    EXECUTE format('SELECT setval(%L, COALESCE((SELECT max(id) FROM %I), 0) + 1, false)', id_seq, parent);
+
+    -- Its indexes and triggers go with it, which frees their names for the new table
+    EXECUTE format('DROP TABLE %I', old_table);
+
+    -- Built once the rows are in, on the parent so that every partition gets its own
+    FOREACH statement IN ARRAY COALESCE(indexes, '{}') LOOP
+        EXECUTE statement;
+    END LOOP;
+    FOREACH statement IN ARRAY COALESCE(triggers, '{}') LOOP
+        EXECUTE statement;
+    END LOOP;
+    -- (id, company_id), the primary key, is what stock_level and inventory_category reference
+    FOREACH statement IN ARRAY COALESCE(referencing, '{}') LOOP
+        EXECUTE statement;
+    END LOOP;
+
+    EXECUTE format('ANALYZE %I', parent);
+END;
+$$;
+
+SELECT repartition_by_company('inventory', ${partitions});
+SELECT repartition_by_company('employee', ${partitions});
@@ -0,0 +1,32 @@
+-- Per-partition maintenance for the hash-partitioned tenant tables. Every statement touches one
+-- partition at a time, so locks and I/O stay bounded by the partition size instead of the whole table.
+--
+--   psql -d finaldb -v parent=inventory -f partition_maintenance.sql
+
+\if :{?parent}
+\else
+\set parent inventory
+\endif
+
+-- Partition sizes and dead tuples, largest first
+SELECT c.relname                                  AS partition,
+       pg_size_pretty(pg_total_relation_size(c.oid)) AS total_size,
+       s.n_live_tup,
+       s.n_dead_tup,
+       s.last_autovacuum
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid
+WHERE i.inhparent = :'parent'::regclass
+ORDER BY pg_total_relation_size(c.oid) DESC;
+
+-- VACUUM and REINDEX CONCURRENTLY cannot run inside a function or transaction block, hence \gexec
+SELECT format('VACUUM (ANALYZE) %s', i.inhrelid::regclass)
+FROM pg_inherits i
+WHERE i.inhparent = :'parent'::regclass
+\gexec
+
+SELECT format('REINDEX TABLE CONCURRENTLY %s', i.inhrelid::regclass)
+FROM pg_inherits i
+WHERE i.inhparent = :'parent'::regclass
+\gexec
@@ -0,0 +1,64 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Completed responses on one node: an entry past its ttl is no longer served and is purged, the oldest
+ * entries make room past max-entries, and a key stored again keeps its newer entry when the older one is
+ * evicted from the front of the queue.
+ */
+class IdempotencyCacheTests {
+
+    @Test
+    void expiredEntryIsNotServedAndIsPurged() throws InterruptedException {
+        IdempotencyCache cache = new IdempotencyCache(10, TimeUnit.MILLISECONDS.toNanos(50));
+        IdempotentResponse response = response("created");
+        cache.put("user:a", response);
+
+        assertSame(response, cache.get("user:a"));
+
+        Thread.sleep(80);
+
+        assertNull(cache.get("user:a"));
+        cache.purgeExpired();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void oldestEntriesMakeRoomPastMaxEntries() {
+        IdempotencyCache cache = new IdempotencyCache(2, TimeUnit.HOURS.toNanos(1));
+        cache.put("user:a", response("a"));
+        cache.put("user:b", response("b"));
+        cache.put("user:c", response("c"));
+
+        assertNull(cache.get("user:a"));
+        assertEquals("b", new String(cache.get("user:b").body()));
+        assertEquals("c", new String(cache.get("user:c").body()));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void keyStoredAgainKeepsItsNewerEntry() {
+        IdempotencyCache cache = new IdempotencyCache(2, TimeUnit.HOURS.toNanos(1));
+        cache.put("user:a", response("first"));
+        cache.put("user:b", response("b"));
+        IdempotentResponse again = response("second");
+        cache.put("user:a", again);
+        // Evicts the first entry of a, which no longer maps, and then b
+        cache.put("user:c", response("c"));
+
+        assertSame(again, cache.get("user:a"));
+        assertNull(cache.get("user:b"));
+        assertEquals(2, cache.size());
+    }
+
+    private static IdempotentResponse response(String body) {
+        return new IdempotentResponse(new byte[] {1}, 201, "application/json", body.getBytes());
+    }
+}
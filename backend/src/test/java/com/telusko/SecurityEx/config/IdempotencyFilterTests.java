@@ -0,0 +1,172 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Idempotency-Key on POST /inventories/{companyId}: a retry replays the stored response without adding a
+ * second item, duplicates sent while the first is still running wait for it and the item is created once,
+ * a key reused for a different body gets 422, and a body past max-body-bytes gets 413 unread.
+ */
+@Testcontainers
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "app.idempotency.max-body-bytes=1024")
+class IdempotencyFilterTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Long companyId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            Long userId = jdbc.queryForObject(
+                    "INSERT INTO users (username, password, role) VALUES ('idempotent-user', 'x', 'USER') RETURNING id",
+                    Long.class);
+            companyId = jdbc.queryForObject(
+                    "INSERT INTO company (company_name, user_id) VALUES ('Idempotent Co', ?) RETURNING id", Long.class,
+                    userId);
+        }
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() throws Exception {
+        MockHttpServletRequestBuilder request = addItem("replay-1", "replayed item");
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String replayed = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(body, replayed);
+        assertEquals(1, items("replayed item"));
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        double executed = outcome("executed");
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (Connection blocker = dataSource.getConnection()) {
+            blocker.setAutoCommit(false);
+            try (Statement statement = blocker.createStatement()) {
+                // Holds the first request at its insert while the duplicates arrive
+                statement.execute("LOCK TABLE inventory IN SHARE MODE");
+            }
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(
+                        () -> mockMvc.perform(addItem("concurrent-1", "concurrent item")).andReturn().getResponse()));
+            }
+            Thread.sleep(500);
+            blocker.rollback();
+        }
+
+        Set<String> bodies = responses.stream().map(future -> {
+            try {
+                MockHttpServletResponse response = future.get(30, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatus());
+                return response.getContentAsString();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).collect(Collectors.toSet());
+        executor.shutdown();
+
+        assertEquals(1, items("concurrent item"));
+        assertEquals(executed + 1, outcome("executed"));
+        // Every duplicate got the response of the one execution
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    void keyReusedForADifferentBodyIsRejected() throws Exception {
+        mockMvc.perform(addItem("reused-1", "first body"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(addItem("reused-1", "second body"))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(0, items("second body"));
+    }
+
+    @Test
+    void bodyPastTheLimitIsRejectedUnread() throws Exception {
+        mockMvc.perform(addItem("large-1", "x".repeat(2048)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertEquals(0, items("x".repeat(2048)));
+    }
+
+    private MockHttpServletRequestBuilder addItem(String key, String productName) {
+        return post("/inventories/{companyId}", companyId)
+                .header("Authorization", "Bearer " + jwtService.generateToken("idempotent-user", "USER", companyId, null))
+                .header(IdempotencyFilter.KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productName\": \"" + productName + "\", \"price\": 5, \"minimumStock\": 1, \"bufferStock\": 1}");
+    }
+
+    private int items(String productName) {
+        return jdbc.queryForObject("SELECT count(*) FROM inventory WHERE company_id = ? AND product_name = ?",
+                Integer.class, companyId, productName);
+    }
+
+    private double outcome(String outcome) {
+        Counter counter = meterRegistry.find("http.server.requests.idempotent").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Token buckets on one node: a full bucket admits its burst and then asks the caller to come back after
+ * the refill of the missing tokens, refills at the configured rate without going past the burst, and
+ * admits a request heavier than the whole bucket once it is full.
+ */
+class InMemoryRateLimitStoreTests {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+
+    @Test
+    void burstIsAdmittedThenTheRestWaitsForTheRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryConsume("company:1", 1, 3, 1));
+        }
+        // One token at one per second
+        long retryAfter = store.tryConsume("company:1", 1, 3, 1);
+        assertTrue(retryAfter > 900 && retryAfter <= 1000, "retry after " + retryAfter);
+        // Two tokens are missing for a request of weight 2
+        retryAfter = store.tryConsume("company:1", 1, 3, 2);
+        assertTrue(retryAfter > 1900 && retryAfter <= 2000, "retry after " + retryAfter);
+        // Other keys have buckets of their own
+        assertEquals(0, store.tryConsume("company:2", 1, 3, 3));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void rejectedRequestsCostNothing() {
+        assertEquals(0, store.tryConsume("user:a", 0.001, 4, 3));
+        assertTrue(store.tryConsume("user:a", 0.001, 4, 2) > 0);
+        // The failed weight-2 request left the last token in place
+        assertEquals(0, store.tryConsume("user:a", 0.001, 4, 1));
+        assertTrue(store.tryConsume("user:a", 0.001, 4, 1) > 0);
+    }
+
+    @Test
+    void bucketRefillsAtTheRateUpToTheBurst() throws InterruptedException {
+        assertEquals(0, store.tryConsume("user:b", 100, 2, 2));
+        assertTrue(store.tryConsume("user:b", 100, 2, 1) > 0);
+
+        // 100 tokens per second: far more than the burst after 50ms, but the bucket holds only 2
+        Thread.sleep(50);
+
+        assertEquals(0, store.tryConsume("user:b", 100, 2, 1));
+        assertEquals(0, store.tryConsume("user:b", 100, 2, 1));
+        assertTrue(store.tryConsume("user:b", 100, 2, 1) > 0);
+    }
+
+    @Test
+    void requestHeavierThanTheBurstPassesOnAFullBucket() {
+        // Charged the whole bucket rather than rejected forever
+        assertEquals(0, store.tryConsume("company:3", 1, 4, 10));
+        long retryAfter = store.tryConsume("company:3", 1, 4, 10);
+        // ...and waits for the whole bucket to refill next time
+        assertTrue(retryAfter > 3900 && retryAfter <= 4000, "retry after " + retryAfter);
+        assertTrue(store.tryConsume("company:3", 1, 4, 1) > 0);
+    }
+}
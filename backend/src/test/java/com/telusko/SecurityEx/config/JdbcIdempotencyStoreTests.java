@@ -0,0 +1,102 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Claims in the idempotency_key table, with one store per simulated node: a claimed key is in progress for
+ * the others and then replays its response, a released or expired key is claimed again, and a claim whose
+ * node stopped renewing it is taken over at lock-timeout while a renewed one is not.
+ */
+@Testcontainers
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Each statement commits on its own, as in the filter; inside a test transaction now() would never move
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcIdempotencyStoreTests {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void claimedKeyIsInProgressElsewhereThenReplaysItsResponse() {
+        JdbcIdempotencyStore node = store(Duration.ofSeconds(30));
+        JdbcIdempotencyStore other = store(Duration.ofSeconds(30));
+
+        assertTrue(node.claim("user:replayed", FINGERPRINT, TTL).claimed());
+        assertTrue(other.claim("user:replayed", FINGERPRINT, TTL).inProgress());
+
+        node.complete("user:replayed", new IdempotentResponse(FINGERPRINT, 201, "application/json", "{}".getBytes()));
+
+        IdempotentResponse stored = other.claim("user:replayed", FINGERPRINT, TTL).response();
+        assertEquals(201, stored.status());
+        assertEquals("application/json", stored.contentType());
+        assertArrayEquals(FINGERPRINT, stored.fingerprint());
+        assertArrayEquals("{}".getBytes(), stored.body());
+    }
+
+    @Test
+    void releasedKeyIsClaimedAgain() {
+        JdbcIdempotencyStore node = store(Duration.ofSeconds(30));
+        node.claim("user:released", FINGERPRINT, TTL);
+
+        node.release("user:released");
+
+        assertTrue(store(Duration.ofSeconds(30)).claim("user:released", FINGERPRINT, TTL).claimed());
+    }
+
+    @Test
+    void expiredResponseIsClaimedAgain() throws InterruptedException {
+        JdbcIdempotencyStore node = store(Duration.ofSeconds(30));
+        node.claim("user:expired", FINGERPRINT, Duration.ofMillis(50));
+        node.complete("user:expired", new IdempotentResponse(FINGERPRINT, 200, null, new byte[0]));
+
+        Thread.sleep(100);
+
+        assertTrue(node.claim("user:expired", FINGERPRINT, TTL).claimed());
+    }
+
+    @Test
+    void onlyTheClaimThatStoppedBeingRenewedIsTakenOver() throws InterruptedException {
+        Duration lockTimeout = Duration.ofSeconds(1);
+        JdbcIdempotencyStore live = store(lockTimeout);
+        JdbcIdempotencyStore dead = store(lockTimeout);
+        live.claim("user:renewed", FINGERPRINT, TTL);
+        dead.claim("user:abandoned", FINGERPRINT, TTL);
+
+        // Past half the lock-timeout the live node renews; the dead one never does
+        Thread.sleep(600);
+        live.renewLocks();
+        Thread.sleep(600);
+
+        JdbcIdempotencyStore other = store(lockTimeout);
+        assertTrue(other.claim("user:renewed", FINGERPRINT, TTL).inProgress());
+        assertTrue(other.claim("user:abandoned", FINGERPRINT, TTL).claimed());
+    }
+
+    private JdbcIdempotencyStore store(Duration lockTimeout) {
+        return new JdbcIdempotencyStore(jdbc, lockTimeout);
+    }
+}
@@ -0,0 +1,21 @@
+package com.telusko.SecurityEx.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails the test when the last request it made through MockMvc ran more than {@code value} SQL
+ * statements. Only statements inside the request filter's scope count, so fixture setup and the test's
+ * own JdbcTemplate calls are not charged; counting restarts with every request, so give each endpoint
+ * its own test method.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    int value();
+}
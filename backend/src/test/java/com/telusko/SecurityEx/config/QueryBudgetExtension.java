@@ -0,0 +1,33 @@
+package com.telusko.SecurityEx.config;
+
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import com.telusko.SecurityEx.config.SqlStatementCounter.RequestSqlStats;
+
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlStatementCounter.clear();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .orElseThrow();
+        RequestSqlStats stats = SqlStatementCounter.stats();
+        if (stats.getCount() > budget.value()) {
+            String statements = stats.getStatements().entrySet().stream()
+                    .map(e -> e.getValue() + "x " + e.getKey())
+                    .collect(Collectors.joining("\n  ", "\n  ", ""));
+            throw new AssertionError("Expected at most " + budget.value() + " SQL statements but "
+                    + stats.getCount() + " ran; call sites " + stats.getCallSites() + statements);
+        }
+    }
+}
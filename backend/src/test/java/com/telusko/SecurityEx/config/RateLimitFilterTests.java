@@ -0,0 +1,150 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The filter in front of a real endpoint, with a plan whose buckets barely refill during a test: the
+ * request past the company's or the user's burst gets 429 with Retry-After in whole seconds, and the
+ * rejection is counted with its reason and plan. A user's rejected retries leave the company's tokens to
+ * its other users.
+ */
+@Testcontainers
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.plans.tight.company-requests-per-second=0.1",
+        "app.rate-limit.plans.tight.company-burst=2",
+        "app.rate-limit.plans.tight.user-requests-per-second=100",
+        "app.rate-limit.plans.tight.user-burst=100",
+        "app.rate-limit.plans.tight-user.company-requests-per-second=100",
+        "app.rate-limit.plans.tight-user.company-burst=100",
+        "app.rate-limit.plans.tight-user.user-requests-per-second=0.5",
+        "app.rate-limit.plans.tight-user.user-burst=1",
+        "app.rate-limit.plans.shared.company-requests-per-second=0.1",
+        "app.rate-limit.plans.shared.company-burst=3",
+        "app.rate-limit.plans.shared.user-requests-per-second=0.1",
+        "app.rate-limit.plans.shared.user-burst=1"})
+class RateLimitFilterTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Long companyId;
+    private static Long otherCompanyId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            companyId = company("limited-user");
+            otherCompanyId = company("limited-other");
+        }
+    }
+
+    @Test
+    void requestPastTheCompanyBurstIsRejected() throws Exception {
+        // Each test has a company and user of its own, so its buckets start full
+        String token = "Bearer " + jwtService.generateToken("limited-user", "USER", companyId, "tight");
+        double before = rejected("company_rate", "tight");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/companies/user-company-id").header("Authorization", token))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(companyId.toString()));
+        }
+        MvcResult rejected = mockMvc.perform(get("/companies/user-company-id").header("Authorization", token))
+                .andExpect(status().isTooManyRequests())
+                .andReturn();
+
+        // One token at 0.1 per second, rounded up to whole seconds
+        int retryAfter = Integer.parseInt(rejected.getResponse().getHeader("Retry-After"));
+        assertTrue(retryAfter >= 9 && retryAfter <= 10, "Retry-After " + retryAfter);
+        assertEquals(before + 1, rejected("company_rate", "tight"));
+    }
+
+    @Test
+    void requestPastTheUserBurstIsRejected() throws Exception {
+        String token = "Bearer " + jwtService.generateToken("limited-other", "USER", otherCompanyId, "tight-user");
+        double before = rejected("user_rate", "tight-user");
+
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(content().string(otherCompanyId.toString()));
+        MvcResult rejected = mockMvc.perform(get("/companies/user-company-id").header("Authorization", token))
+                .andExpect(status().isTooManyRequests())
+                .andReturn();
+
+        int retryAfter = Integer.parseInt(rejected.getResponse().getHeader("Retry-After"));
+        assertTrue(retryAfter >= 1 && retryAfter <= 2, "Retry-After " + retryAfter);
+        assertEquals(before + 1, rejected("user_rate", "tight-user"));
+    }
+
+    @Test
+    void userRejectedRetriesDoNotSpendTheCompanysTokens() throws Exception {
+        Long sharedCompanyId = company("shared-user");
+        String first = "Bearer " + jwtService.generateToken("shared-user", "USER", sharedCompanyId, "shared");
+        String second = "Bearer " + jwtService.generateToken("shared-colleague", "USER", sharedCompanyId, "shared");
+
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", first))
+                .andExpect(status().isOk());
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/companies/user-company-id").header("Authorization", first))
+                    .andExpect(status().isTooManyRequests());
+        }
+
+        // Two of the company's three tokens are left for its other user. The colleague has no users row, so
+        // it calls a path rejected by argument binding (400) rather than one that looks the user up
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/companies/{companyId}", "not-a-number").header("Authorization", second))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private Long company(String username) {
+        Long userId = jdbc.queryForObject(
+                "INSERT INTO users (username, password, role) VALUES (?, 'x', 'USER') RETURNING id", Long.class,
+                username);
+        return jdbc.queryForObject("INSERT INTO company (company_name, user_id) VALUES (?, ?) RETURNING id",
+                Long.class, username + " Co", userId);
+    }
+
+    private double rejected(String reason, String plan) {
+        Counter counter = meterRegistry.find("http.server.requests.rejected").tags("reason", reason, "plan", plan)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
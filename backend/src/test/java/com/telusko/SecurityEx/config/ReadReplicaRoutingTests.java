@@ -0,0 +1,173 @@
+package com.telusko.SecurityEx.config;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+/**
+ * Read routing against two containers: the replica is a stand-in, migrated on its own and never fed by the
+ * primary, so every read shows where it was served from. Read-only transactions go to the replica, a
+ * replica out of the lag budget falls back to the primary, and after a company's write its reads (the
+ * dashboard's, on worker threads) stay on the primary until the replica is measured past that write.
+ */
+@Testcontainers
+@AutoConfigureMockMvc
+@SpringBootTest
+class ReadReplicaRoutingTests {
+
+    private static final long READER = 9101;
+    private static final long WRITER = 9102;
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static boolean seeded;
+
+    @DynamicPropertySource
+    static void routing(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.datasource.routing.enabled", () -> "true");
+        registry.add("app.datasource.routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("app.datasource.routing.replicas[0].username", replica::getUsername);
+        registry.add("app.datasource.routing.replicas[0].password", replica::getPassword);
+        // Measured by the tests only, after the scheduler's first run at startup
+        registry.add("app.datasource.routing.lag-check-interval-ms", () -> "3600000");
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .placeholders(Map.of("concurrently", "CONCURRENTLY"))
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private RoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private JWTService jwtService;
+
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(
+            new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+
+    @BeforeEach
+    void seed() {
+        if (!seeded) {
+            // The same companies on both servers; each has an item only the other server has
+            for (JdbcTemplate db : new JdbcTemplate[] { jdbc, replicaJdbc }) {
+                company(db, READER, "routing-reader");
+                company(db, WRITER, "routing-writer");
+            }
+            item(jdbc, READER, "on the primary");
+            item(replicaJdbc, READER, "on the replica");
+            seeded = true;
+        }
+    }
+
+    @AfterEach
+    void measure() {
+        lagMonitor.checkLag();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() throws Exception {
+        mockMvc.perform(get("/companies/dashboard").header("Authorization", token("routing-reader", READER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(hasItem("on the replica")))
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(not(hasItem("on the primary"))));
+    }
+
+    @Test
+    void replicaOutOfTheLagBudgetFallsBackToThePrimary() throws Exception {
+        routingDataSource.setReplicaLag("replica-0", false, Long.MIN_VALUE);
+
+        mockMvc.perform(get("/companies/dashboard").header("Authorization", token("routing-reader", READER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(hasItem("on the primary")));
+
+        // The stand-in is not in recovery, so it measures as caught up and is back in rotation
+        lagMonitor.checkLag();
+
+        mockMvc.perform(get("/companies/dashboard").header("Authorization", token("routing-reader", READER)))
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(hasItem("on the replica")));
+    }
+
+    @Test
+    void companyReadsItsWriteFromThePrimaryUntilTheReplicaReplaysIt() throws Exception {
+        String token = token("routing-writer", WRITER);
+        mockMvc.perform(post("/inventories/{companyId}", WRITER).header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"just written\",\"price\":2,\"minimumStock\":0,\"bufferStock\":0}"))
+                .andExpect(status().isOk());
+
+        // The dashboard's sections run on worker threads; they still resolve the writer's company
+        mockMvc.perform(get("/companies/dashboard").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(hasItem("just written")));
+
+        // Measured after the write: the replica counts as having replayed it, and the stand-in never will
+        Thread.sleep(5);
+        lagMonitor.checkLag();
+
+        mockMvc.perform(get("/companies/dashboard").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inventories.items[*].productName").value(not(hasItem("just written"))));
+    }
+
+    private static void company(JdbcTemplate db, long id, String username) {
+        db.update("INSERT INTO users (id, username, password, role) VALUES (?, ?, 'x', 'USER')", id, username);
+        db.update("INSERT INTO company (id, company_name, user_id) VALUES (?, ?, ?)", id, username + " Co", id);
+    }
+
+    private static void item(JdbcTemplate db, long companyId, String productName) {
+        db.update("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                VALUES (?, 5, 2, 10, 0, 0, 0, 0, 5, 0, 0, 'False', ?)""", productName, companyId);
+    }
+
+    private String token(String username, long companyId) {
+        return "Bearer " + jwtService.generateToken(username, "USER", companyId, null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.telusko.SecurityEx.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.telusko.SecurityEx.config.SqlStatementCounter.RequestSqlStats;
+import com.telusko.SecurityEx.exception.SqlBudgetExceededException;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+/** Statements count, and the FAIL budget applies, only inside a request scope, wherever a snapshot of it runs. **/
+class SqlStatementCounterTests {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter(true, 2);
+
+    @AfterEach
+    void clear() {
+        SqlStatementCounter.clear();
+    }
+
+    @Test
+    void countsOnlyInsideTheScope() {
+        execute("SELECT 1");
+        RequestSqlStats stats = SqlStatementCounter.begin();
+        execute("SELECT 2");
+        execute("SELECT 2");
+        SqlStatementCounter.end();
+        execute("SELECT 3");
+
+        assertEquals(2, stats.getCount());
+        assertEquals(2, SqlStatementCounter.current());
+        assertEquals(Map.of("SELECT 2", 2), stats.getStatements());
+    }
+
+    @Test
+    void failsOverTheBudgetInsideTheScopeOnly() {
+        SqlStatementCounter.begin();
+        execute("SELECT 1");
+        execute("SELECT 1");
+        assertThrows(SqlBudgetExceededException.class, () -> execute("SELECT 1"));
+        SqlStatementCounter.end();
+
+        // A scheduler thread never opens a scope: however many statements it runs, none is refused
+        for (int i = 0; i < 100; i++) {
+            execute("SELECT 1");
+        }
+    }
+
+    @Test
+    void eachScopeStartsFromZero() {
+        SqlStatementCounter.begin();
+        execute("SELECT 1");
+        execute("SELECT 1");
+        SqlStatementCounter.end();
+
+        RequestSqlStats next = SqlStatementCounter.begin();
+        execute("SELECT 1");
+        SqlStatementCounter.end();
+
+        assertEquals(1, next.getCount());
+    }
+
+    @Test
+    void snapshotCarriesTheScopeToAnotherThread() throws Exception {
+        RequestSqlStats stats = SqlStatementCounter.begin();
+        execute("SELECT 1");
+        Runnable query = ContextSnapshotFactory.builder().build().captureAll().wrap(() -> execute("SELECT 2"));
+        Thread worker = new Thread(query);
+        worker.start();
+        worker.join();
+        SqlStatementCounter.end();
+
+        assertEquals(2, stats.getCount());
+        assertEquals(Map.of("SELECT 1", 1, "SELECT 2", 1), stats.getStatements());
+    }
+
+    @Test
+    void statsAreEmptyWithoutAScope() {
+        execute("SELECT 1");
+
+        assertEquals(0, SqlStatementCounter.stats().getCount());
+    }
+
+    private void execute(String sql) {
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        ExecutionInfo info = new ExecutionInfo();
+        counter.beforeQuery(info, queries);
+        counter.afterQuery(info, queries);
+    }
+}
@@ -0,0 +1,123 @@
+package com.telusko.SecurityEx.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.service.JWTService;
+
+/**
+ * The dashboard endpoints: only the company's own user (or an admin) sees it, each section is cut at its
+ * limit and says whether there is more, and reads still blocked at timeout-ms answer 503.
+ */
+@Testcontainers
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "app.dashboard.timeout-ms=1000")
+class CompanyDashboardTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Long companyId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            companyId = company("dashboard-user");
+            company("dashboard-other");
+            jdbc.update("INSERT INTO users (username, password, role) VALUES ('dashboard-admin', 'x', 'ADMIN')");
+            // Five items, two of them out of stock
+            for (int i = 0; i < 5; i++) {
+                jdbc.update("""
+                        INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                               receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                        VALUES (?, ?, 2, 0, 0, 0, 0, 0, 0, 0, 0, 'False', ?)""", "item " + i, i < 2 ? 0 : 5, companyId);
+            }
+        }
+    }
+
+    @Test
+    void onlyTheCompanysUserOrAnAdminSeesIt() throws Exception {
+        mockMvc.perform(get("/companies/{companyId}/dashboard", companyId).header("Authorization", token("dashboard-user", "USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.company.id").value(companyId))
+                .andExpect(jsonPath("$.ownerUsername").value("dashboard-user"));
+        mockMvc.perform(get("/companies/{companyId}/dashboard", companyId).header("Authorization", token("dashboard-other", "USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/companies/{companyId}/dashboard", companyId).header("Authorization", token("dashboard-admin", "ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/companies/{companyId}/dashboard", companyId))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void sectionsAreCutAtTheirLimit() throws Exception {
+        mockMvc.perform(get("/companies/dashboard").param("inventoryLimit", "3").param("outOfStockLimit", "2")
+                        .param("reorderLimit", "0").header("Authorization", token("dashboard-user", "USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.company.id").value(companyId))
+                .andExpect(jsonPath("$.inventories.items.length()").value(3))
+                .andExpect(jsonPath("$.inventories.hasMore").value(true))
+                // Exactly the limit: the extra row read finds nothing more
+                .andExpect(jsonPath("$.outOfStock.items.length()").value(2))
+                .andExpect(jsonPath("$.outOfStock.hasMore").value(false))
+                .andExpect(jsonPath("$.reorder.items.length()").value(0));
+    }
+
+    @Test
+    void readsBlockedPastTheTimeoutAnswer503() throws Exception {
+        try (Connection blocker = dataSource.getConnection()) {
+            blocker.setAutoCommit(false);
+            try (Statement statement = blocker.createStatement()) {
+                // The sections' reads wait on this lock; the header and authorization don't read inventory
+                statement.execute("LOCK TABLE inventory IN ACCESS EXCLUSIVE MODE");
+            }
+            mockMvc.perform(get("/companies/{companyId}/dashboard", companyId)
+                            .header("Authorization", token("dashboard-user", "USER")))
+                    .andExpect(status().isServiceUnavailable());
+            blocker.rollback();
+        }
+    }
+
+    private Long company(String username) {
+        Long userId = jdbc.queryForObject(
+                "INSERT INTO users (username, password, role) VALUES (?, 'x', 'USER') RETURNING id", Long.class,
+                username);
+        return jdbc.queryForObject("INSERT INTO company (company_name, user_id) VALUES (?, ?) RETURNING id",
+                Long.class, username + " Co", userId);
+    }
+
+    private String token(String username, String role) {
+        return "Bearer " + jwtService.generateToken(username, role);
+    }
+}
@@ -0,0 +1,186 @@
+package com.telusko.SecurityEx.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.config.IdempotencyFilter;
+import com.telusko.SecurityEx.config.QueryBudget;
+import com.telusko.SecurityEx.config.SqlStatementCounter;
+import com.telusko.SecurityEx.config.SqlStatementCounter.RequestSqlStats;
+import com.telusko.SecurityEx.service.JWTService;
+
+/** Statement budgets per endpoint, with enough rows seeded that a per-row query would blow them. **/
+@Testcontainers
+@AutoConfigureMockMvc
+// With the outbox on, so that writes are measured with their outbox insert
+@SpringBootTest(properties = {"app.sql.budget.enabled=true", "app.outbox.enabled=true"})
+class EndpointQueryBudgetTests {
+
+    private static final int ROWS = 25;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Long companyId;
+    private static Long inventoryId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    private String token;
+    private String adminToken;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            Long userId = jdbc.queryForObject(
+                    "INSERT INTO users (username, password, role) VALUES ('budget-user', 'x', 'USER') RETURNING id", Long.class);
+            companyId = jdbc.queryForObject(
+                    "INSERT INTO company (company_name, user_id) VALUES ('Budget Co', ?) RETURNING id", Long.class, userId);
+            jdbc.update("INSERT INTO users (username, password, role) VALUES ('budget-admin', 'x', 'ADMIN')");
+            for (int i = 0; i < ROWS; i++) {
+                inventoryId = jdbc.queryForObject("""
+                        INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                               receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                        VALUES (?, ?, 10, 0, 10, 0, 0, 0, 0, 5, 5, 'True', ?) RETURNING id""",
+                        Long.class, "item " + i, i % 3, companyId);
+                jdbc.update("INSERT INTO employee (name, dept, grade, salary, company_id) VALUES (?, 'Ops', 'B', 1000, ?)",
+                        "employee " + i, companyId);
+            }
+        }
+        token = "Bearer " + jwtService.generateToken("budget-user", "USER");
+        adminToken = "Bearer " + jwtService.generateToken("budget-admin", "ADMIN");
+    }
+
+    @Test
+    @QueryBudget(5)
+    void listInventories() throws Exception {
+        mockMvc.perform(get("/inventories/{companyId}", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void searchInventories() throws Exception {
+        mockMvc.perform(get("/inventories/{companyId}/search", companyId).param("productName", "item")
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void outOfStockInventories() throws Exception {
+        mockMvc.perform(get("/inventories/{companyId}/out-of-stock", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void reorderInventories() throws Exception {
+        mockMvc.perform(get("/inventories/{companyId}/reorder-point", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    // Includes the outbox insert that records the change
+    @QueryBudget(7)
+    void updateInventory() throws Exception {
+        mockMvc.perform(put("/inventories/{inventoryId}", inventoryId).header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"receipts\": 5, \"issues\": 1}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    // No @QueryBudget: the first request and the checks below run SQL; only the replay itself must run none
+    void retriedAddInventory() throws Exception {
+        MockHttpServletRequestBuilder request = post("/inventories/{companyId}", companyId).header("Authorization", token)
+                .header(IdempotencyFilter.KEY_HEADER, "scan-42")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productName\": \"retried item\", \"price\": 5, \"minimumStock\": 1, \"bufferStock\": 1}");
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().string(body));
+        // The SQL filter opened a fresh scope as the replay came in, so this is the replay alone: answered from
+        // this node's IdempotencyCache, without claiming or reading the idempotency_key row
+        RequestSqlStats replay = SqlStatementCounter.stats();
+        assertEquals(0, replay.getCount(), () -> "Replay ran " + replay.getStatements());
+
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM inventory WHERE product_name = 'retried item'",
+                Integer.class));
+        assertEquals(200, jdbc.queryForObject(
+                "SELECT status_code FROM idempotency_key WHERE idempotency_key = 'budget-user:scan-42'", Integer.class));
+    }
+
+    @Test
+    @QueryBudget(5)
+    void listEmployees() throws Exception {
+        mockMvc.perform(get("/employees/{companyId}", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void employeePage() throws Exception {
+        mockMvc.perform(get("/employees/{companyId}/page", companyId).param("q", "employee").param("dept", "Ops")
+                        .param("sort", "salary").header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void employeeStats() throws Exception {
+        mockMvc.perform(get("/employees/{companyId}/stats", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    // Authorization, the header and three sections, each one statement on its own virtual thread; those
+    // threads run in the request's SQL scope, so all of them are charged here
+    @QueryBudget(7)
+    void companyDashboard() throws Exception {
+        mockMvc.perform(get("/companies/{companyId}/dashboard", companyId).header("Authorization", token))
+                .andExpect(status().isOk());
+        RequestSqlStats dashboard = SqlStatementCounter.stats();
+        assertTrue(dashboard.getCount() >= 4, () -> "Dashboard ran " + dashboard.getStatements());
+    }
+
+    @Test
+    // The page and its count come from the company_stats rollup, not from the tenants' rows
+    @QueryBudget(5)
+    void companyDirectory() throws Exception {
+        mockMvc.perform(get("/companies/directory").param("sort", "inventoryCount").param("direction", "desc")
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,166 @@
+package com.telusko.SecurityEx.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.model.Company;
+import com.telusko.SecurityEx.model.Users;
+import com.telusko.SecurityEx.repo.InventoryRepo.RepriceView;
+
+/**
+ * The bulk repricing statements (InventoryRepo's target CTEs plus REPRICE_TAIL) against the migrated
+ * schema: which rows change, the summed values, the audit rows and the company_stats trigger.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InventoryRepoRepriceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Long companyId;
+    private Long otherCompanyId;
+
+    @BeforeEach
+    void setUp() {
+        companyId = company("reprice-user");
+        otherCompanyId = company("reprice-other");
+    }
+
+    @Test
+    void adjustItemPricesUpdatesOnlyChangedRowsAndSumsTheirValue() {
+        long stocked = item(companyId, 10, 2);   // 10 -> 11, value 20 -> 22
+        long free = item(companyId, 0, 5);       // 0 stays 0: matched, not updated
+        long empty = item(companyId, 5, 0);      // 5 -> 5.5, value stays 0
+        long foreign = item(otherCompanyId, 10, 1);
+
+        RepriceView view = inventoryRepo.adjustItemPrices(companyId, new Long[] { stocked, free, empty, foreign },
+                1.1, 0, "tester", true);
+
+        assertThat(view.getMatched()).isEqualTo(3);
+        assertThat(view.getUpdated()).isEqualTo(2);
+        // Only the updated rows are summed; free's zero value and foreign are left out
+        assertThat(view.getChangedValueBefore()).isEqualTo(20.0);
+        assertThat(view.getChangedValueAfter()).isEqualTo(22.0);
+        assertThat(priceAndValue(stocked)).containsExactly(11.0, 22.0);
+        assertThat(priceAndValue(empty)).containsExactly(5.5, 0.0);
+        assertThat(priceAndValue(foreign)).containsExactly(10.0, 10.0);
+        assertThat(jdbc.queryForList("""
+                SELECT entity_id FROM audit_log WHERE company_id = ? AND username = 'tester' ORDER BY entity_id""",
+                Long.class, companyId)).containsExactly(stocked, empty);
+        assertThat(stockValue(companyId)).isEqualTo(22.0);
+    }
+
+    @Test
+    void adjustedPricesAreRoundedToCentsAndNeverNegative() {
+        long rounded = item(companyId, 9.99, 1);
+        long floored = item(companyId, 3, 1);
+
+        inventoryRepo.adjustItemPrices(companyId, new Long[] { rounded }, 1.015, 0, "tester", false);
+        inventoryRepo.adjustItemPrices(companyId, new Long[] { floored }, 1, -5, "tester", false);
+
+        // 9.99 * 1.015 = 10.13985
+        assertThat(priceAndValue(rounded)).containsExactly(10.14, 10.14);
+        assertThat(priceAndValue(floored)).containsExactly(0.0, 0.0);
+    }
+
+    @Test
+    void setItemPricesSkipsOtherCompaniesAndUnchangedPrices() {
+        long changed = item(companyId, 4, 3);
+        long same = item(companyId, 7, 2);
+        long foreign = item(otherCompanyId, 4, 3);
+
+        RepriceView view = inventoryRepo.setItemPrices(companyId, new Long[] { changed, same, foreign, -1L },
+                new Double[] { 6.0, 7.0, 6.0, 1.0 }, "tester", false);
+
+        assertThat(view.getMatched()).isEqualTo(2);
+        assertThat(view.getUpdated()).isEqualTo(1);
+        assertThat(view.getChangedValueBefore()).isEqualTo(12.0);
+        assertThat(view.getChangedValueAfter()).isEqualTo(18.0);
+        assertThat(priceAndValue(foreign)).containsExactly(4.0, 12.0);
+        // audit off: no rows written by the statement
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM audit_log WHERE company_id = ?", Long.class, companyId))
+                .isZero();
+        assertThat(stockValue(companyId)).isEqualTo(18.0 + 14.0);
+    }
+
+    @Test
+    void discontinuedItemsKeepTheirPrice() {
+        long active = item(companyId, 10, 1);
+        long discontinued = item(companyId, 10, 1);
+        jdbc.update("UPDATE inventory SET status = 'DISCONTINUED' WHERE id = ?", discontinued);
+
+        RepriceView view = inventoryRepo.adjustItemPrices(companyId, new Long[] { active, discontinued }, 2, 0,
+                "tester", false);
+
+        assertThat(view.getMatched()).isEqualTo(1);
+        assertThat(priceAndValue(active)).containsExactly(20.0, 20.0);
+        assertThat(priceAndValue(discontinued)).containsExactly(10.0, 10.0);
+    }
+
+    @Test
+    void repricingNothingReturnsZeroes() {
+        RepriceView view = inventoryRepo.setItemPrices(companyId, new Long[] { -1L }, new Double[] { 1.0 }, "tester",
+                true);
+
+        assertThat(view.getMatched()).isZero();
+        assertThat(view.getUpdated()).isZero();
+        assertThat(view.getChangedValueBefore()).isZero();
+        assertThat(view.getChangedValueAfter()).isZero();
+    }
+
+    private Long company(String username) {
+        Users user = new Users();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("USER");
+        Company company = new Company();
+        company.setCompanyName(username + " Co");
+        company.setUser(user);
+        user.setCompany(company);
+        userRepo.saveAndFlush(user);
+        return company.getId();
+    }
+
+    private long item(Long companyId, double price, int closingStock) {
+        return jdbc.queryForObject("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                VALUES ('priced item', ?, ?, ?, 0, ?, 0, 0, ?, 0, 0, 'False', ?) RETURNING id""",
+                Long.class, closingStock, price, price * closingStock, closingStock, closingStock, companyId);
+    }
+
+    private List<Double> priceAndValue(long id) {
+        Map<String, Object> row = jdbc.queryForMap("SELECT price, stock_value FROM inventory WHERE id = ?", id);
+        return List.of(((Number) row.get("price")).doubleValue(), ((Number) row.get("stock_value")).doubleValue());
+    }
+
+    private double stockValue(Long companyId) {
+        return jdbc.queryForObject("SELECT total_stock_value FROM company_totals WHERE company_id = ?", Double.class,
+                companyId);
+    }
+}
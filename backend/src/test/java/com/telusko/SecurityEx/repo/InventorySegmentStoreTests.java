@@ -0,0 +1,121 @@
+package com.telusko.SecurityEx.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * The segment format on a temporary directory, with blocks of three items so that every append spans
+ * several blocks: lookups and pages across blocks and months, the latest copy of a re-archived item, and
+ * a torn index entry left by a crash.
+ */
+class InventorySegmentStoreTests {
+
+    private static final long COMPANY = 7;
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+
+    @TempDir
+    Path dir;
+
+    private InventorySegmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InventorySegmentStore(JsonMapper.builder().findAndAddModules().build(), dir, 3);
+    }
+
+    @Test
+    void findsAndListsItemsAcrossBlocksAndMonths() {
+        // Appended out of order: the store sorts each append by id before cutting it into blocks
+        store.append(COMPANY, MARCH, items(8, 1, 5, 3, 2, 9, 4));
+        store.append(COMPANY, APRIL, items(20, 21));
+
+        assertEquals(List.of(MARCH, APRIL), store.months(COMPANY));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 8L, 9L), ids(store.list(COMPANY, MARCH, 0, 100)));
+        // A page cut inside the second block, and the next page after its last id
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(store.list(COMPANY, MARCH, 0, 4)));
+        assertEquals(List.of(5L, 8L, 9L), ids(store.list(COMPANY, MARCH, 4, 4)));
+        assertEquals(List.of(), store.list(COMPANY, MARCH, 9, 4));
+        assertEquals(List.of(20L, 21L), ids(store.list(COMPANY, APRIL, 0, 100)));
+
+        assertEquals("item 9", store.find(COMPANY, 9).orElseThrow().productName());
+        assertEquals(Optional.of(21L), store.find(COMPANY, 21).map(ArchivedInventory::id));
+        assertTrue(store.find(COMPANY, 6).isEmpty());
+        assertTrue(store.find(COMPANY + 1, 1).isEmpty());
+        assertEquals(List.of(), store.months(COMPANY + 1));
+    }
+
+    @Test
+    void reArchivedItemReturnsItsLatestCopy() {
+        store.append(COMPANY, MARCH, items(1, 2, 3, 4));
+        // Restored, changed and archived again: once within the month, once in a later one
+        store.append(COMPANY, MARCH, List.of(item(2, "second copy")));
+        store.append(COMPANY, APRIL, List.of(item(3, "april copy")));
+
+        assertEquals("second copy", store.find(COMPANY, 2).orElseThrow().productName());
+        assertEquals("april copy", store.find(COMPANY, 3).orElseThrow().productName());
+        List<ArchivedInventory> march = store.list(COMPANY, MARCH, 0, 100);
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(march));
+        assertEquals("second copy", march.get(1).productName());
+        assertEquals("item 3", march.get(2).productName());
+    }
+
+    @Test
+    void tornIndexEntryIsIgnoredAndCutOffByTheNextAppend() throws IOException {
+        store.append(COMPANY, MARCH, items(1, 2, 3, 4));
+        Path index = dir.resolve(Long.toString(COMPANY)).resolve(MARCH + ".idx");
+        long intact = Files.size(index);
+        // A crash in the middle of writing an entry leaves part of it behind
+        Files.write(index, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(store.list(COMPANY, MARCH, 0, 100)));
+
+        store.append(COMPANY, MARCH, items(5, 6));
+
+        assertEquals(intact + 32, Files.size(index));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids(store.list(COMPANY, MARCH, 0, 100)));
+        assertEquals("item 6", store.find(COMPANY, 6).orElseThrow().productName());
+    }
+
+    @Test
+    void deleteCompanyRemovesEverySegment() {
+        store.append(COMPANY, MARCH, items(1));
+        store.append(COMPANY, APRIL, items(2));
+
+        store.deleteCompany(COMPANY);
+
+        assertEquals(List.of(), store.months(COMPANY));
+        assertTrue(store.find(COMPANY, 1).isEmpty());
+        assertTrue(Files.notExists(dir.resolve(Long.toString(COMPANY))));
+    }
+
+    private static List<ArchivedInventory> items(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> item(id, "item " + id)).toList();
+    }
+
+    private static ArchivedInventory item(long id, String productName) {
+        Instant discontinuedAt = Instant.parse("2024-03-15T10:00:00Z");
+        return new ArchivedInventory(id, COMPANY, productName, null, 0, 2.5, 0.0, 0, 0, 0, 0, 0, 0, 0, "False",
+                discontinuedAt, discontinuedAt.plusSeconds(3600), List.of(id * 10));
+    }
+
+    private static List<Long> ids(List<ArchivedInventory> items) {
+        return items.stream().map(ArchivedInventory::id).toList();
+    }
+}
@@ -0,0 +1,166 @@
+package com.telusko.SecurityEx.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.model.Company;
+import com.telusko.SecurityEx.model.Users;
+
+/**
+ * Runs the Flyway migrations against a real Postgres, captures the SQL each repository query sends
+ * and asserts that its plan is served by an index. Sequential scans are disabled for the EXPLAIN so
+ * the assertion does not depend on table sizes: a seq scan only survives when no index applies.
+ */
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.telusko.SecurityEx.repo.RepositoryIndexUsageTests$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepositoryIndexUsageTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private InventoryRepo inventoryRepo;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    private Company company;
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setUsername("explain-user");
+        user.setPassword("x");
+        user.setRole("USER");
+        company = new Company();
+        company.setCompanyName("Explain Co");
+        company.setUser(user);
+        user.setCompany(company);
+        userRepo.save(user);
+        CapturingInspector.statements.clear();
+    }
+
+    @Test
+    void findByUsernameUsesIndex() throws Exception {
+        userRepo.findByUsername("explain-user");
+        assertIndexScan("users");
+    }
+
+    @Test
+    void existsByUsernameUsesIndex() throws Exception {
+        userRepo.existsByUsername("explain-user");
+        assertIndexScan("users");
+    }
+
+    @Test
+    void inventoryFindActiveUsesPartialIndex() throws Exception {
+        inventoryRepo.findActiveByCompanyId(company.getId());
+        assertThat(assertIndexScan("inventory")).contains("ix_inventory_company_active");
+    }
+
+    @Test
+    void inventorySearchByProductNameUsesIndex() throws Exception {
+        inventoryRepo.searchActiveByProductName(company.getId(), "%widget%");
+        assertIndexScan("inventory");
+    }
+
+    @Test
+    void inventoryOutOfStockUsesPartialIndex() throws Exception {
+        inventoryRepo.findActiveByQtyInStock(company.getId(), 0);
+        assertThat(assertIndexScan("inventory")).contains("ix_inventory_company_qty_active");
+    }
+
+    @Test
+    void inventoryReorderUsesPartialIndex() throws Exception {
+        inventoryRepo.findActiveByIsReorder(company.getId(), "True");
+        assertThat(assertIndexScan("inventory")).contains("ix_inventory_company_reorder_active");
+    }
+
+    @Test
+    void inventoryDashboardSectionUsesPartialIndex() throws Exception {
+        inventoryRepo.findFirstActive(company.getId(), 21);
+        assertThat(assertIndexScan("inventory")).contains("ix_inventory_company_active");
+    }
+
+    @Test
+    void employeeFindByCompanyUsesIndex() throws Exception {
+        employeeRepo.findByCompany(company);
+        assertIndexScan("employee");
+    }
+
+    private String assertIndexScan(String table) throws Exception {
+        String sql = CapturingInspector.statements.stream()
+                .filter(statement -> statement.toLowerCase().startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No select was captured"));
+        String plan = explain(sql);
+        assertThat(plan).as("plan for %s", sql).doesNotContain("Seq Scan on " + table).contains("Index");
+        return plan;
+    }
+
+    private String explain(String sql) throws Exception {
+        // JDBC placeholders become $n so EXPLAIN (GENERIC_PLAN) can plan without bound values
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            try (ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            statement.execute("RESET enable_seqscan");
+        }
+        return plan.toString();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * The ring on one thread (full, wraparound) and under many producers with the single consumer AuditWriter
+ * runs: every accepted item is drained exactly once and in each producer's order, and a full ring
+ * accepts exactly its capacity however many threads race for the last slots.
+ */
+class AuditRingBufferTests {
+
+    private static final int PRODUCERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + 1);
+
+    @AfterEach
+    void stopThreads() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<Long>(12));
+        assertEquals(16, new AuditRingBuffer<Long>(16).capacity());
+    }
+
+    @Test
+    void offerReturnsFalseWhenFullUntilDrained() {
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(4);
+        for (long i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4L));
+        assertEquals(4, ring.size());
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(2, ring.drainTo(drained, 2));
+        assertTrue(ring.offer(4L));
+        assertTrue(ring.offer(5L));
+        assertFalse(ring.offer(6L));
+
+        assertEquals(4, ring.drainTo(drained, 10));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), drained);
+        assertEquals(0, ring.size());
+        assertEquals(0, ring.drainTo(drained, 10));
+    }
+
+    @Test
+    void wrapsAroundManyTimesInOrder() {
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(8);
+        List<Long> drained = new ArrayList<>();
+        long next = 0;
+        // Uneven batches, so the head and tail cross the end of the array at every offset
+        for (int lap = 0; lap < 10_000; lap++) {
+            int batch = 1 + lap % 8;
+            for (int i = 0; i < batch; i++) {
+                assertTrue(ring.offer(next++));
+            }
+            assertEquals(batch, ring.size());
+            ring.drainTo(drained, lap % 3 == 0 ? batch : Integer.MAX_VALUE);
+        }
+        assertEquals(LongStream.range(0, next).boxed().toList(), drained);
+    }
+
+    @Test
+    @Timeout(60)
+    void manyProducersLoseAndDuplicateNothing() throws Exception {
+        int perProducer = 200_000;
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers.add(executor.submit(() -> {
+                start.await();
+                long rejected = 0;
+                for (long seq = 0; seq < perProducer; seq++) {
+                    // Producer in the high bits, its own sequence in the low ones
+                    while (!ring.offer(producer << 32 | seq)) {
+                        rejected++;
+                        Thread.onSpinWait();
+                    }
+                }
+                return rejected;
+            }));
+        }
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Future<long[]> consumer = executor.submit(() -> {
+            long[] nextSeq = new long[PRODUCERS];
+            List<Long> batch = new ArrayList<>();
+            while (producing.get() || ring.size() > 0) {
+                batch.clear();
+                if (ring.drainTo(batch, 256) == 0) {
+                    Thread.onSpinWait();
+                }
+                for (long item : batch) {
+                    int producer = (int) (item >>> 32);
+                    long seq = item & 0xFFFF_FFFFL;
+                    // A gap is a lost item, a repeat or step back a duplicate or reordering
+                    assertEquals(nextSeq[producer], seq, "producer " + producer);
+                    nextSeq[producer]++;
+                }
+            }
+            return nextSeq;
+        });
+
+        start.countDown();
+        for (Future<Long> producer : producers) {
+            producer.get(60, TimeUnit.SECONDS);
+        }
+        producing.set(false);
+        long[] received = consumer.get(60, TimeUnit.SECONDS);
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(perProducer, received[p], "producer " + p);
+        }
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    @Timeout(60)
+    void racingProducersFillExactlyTheCapacity() throws Exception {
+        int capacity = 1024;
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(capacity);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers.add(executor.submit(() -> {
+                start.await();
+                List<Long> accepted = new ArrayList<>();
+                // Together they offer twice the capacity, with no consumer running
+                for (long seq = 0; seq < capacity * 2 / PRODUCERS; seq++) {
+                    long item = producer << 32 | seq;
+                    if (ring.offer(item)) {
+                        accepted.add(item);
+                    }
+                }
+                return accepted;
+            }));
+        }
+        start.countDown();
+        Set<Long> accepted = new HashSet<>();
+        for (Future<List<Long>> producer : producers) {
+            accepted.addAll(producer.get(60, TimeUnit.SECONDS));
+        }
+
+        assertEquals(capacity, accepted.size());
+        assertFalse(ring.offer(-1L));
+        List<Long> drained = new ArrayList<>();
+        assertEquals(capacity, ring.drainTo(drained, Integer.MAX_VALUE));
+        assertEquals(accepted, new HashSet<>(drained));
+        assertEquals(capacity, drained.size());
+    }
+}
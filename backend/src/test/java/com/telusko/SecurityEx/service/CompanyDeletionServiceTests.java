@@ -0,0 +1,182 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deletion jobs with batches of two. A test-only trigger logs each deleted item with its transaction, so
+ * the tests see the batches themselves: a job walks every table and then drops the company, a stale job
+ * is taken over (a live one is not) and carries on from its persisted cursor, and rows found behind the
+ * cursors at the end send the job round again instead of being lost.
+ */
+@Testcontainers
+@SpringBootTest(properties = {"app.company-deletion.batch-size=2",
+        // Run by the tests only; the scheduler's first run finds no job
+        "app.company-deletion.poll-interval-ms=3600000"})
+class CompanyDeletionServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static boolean logging;
+
+    @Autowired
+    private CompanyDeletionService deletionService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void logDeletedItems() {
+        if (!logging) {
+            jdbc.execute("CREATE TABLE deleted_inventory (seq bigint GENERATED ALWAYS AS IDENTITY, id bigint, "
+                    + "xact_id xid8 NOT NULL DEFAULT pg_current_xact_id())");
+            jdbc.execute("""
+                    CREATE FUNCTION log_deleted_inventory() RETURNS trigger LANGUAGE plpgsql AS $$
+                    BEGIN
+                        INSERT INTO deleted_inventory (id) VALUES (OLD.id);
+                        RETURN NULL;
+                    END;
+                    $$""");
+            jdbc.execute("CREATE TRIGGER trg_log_deleted_inventory AFTER DELETE ON inventory "
+                    + "FOR EACH ROW EXECUTE FUNCTION log_deleted_inventory()");
+            logging = true;
+        }
+    }
+
+    @Test
+    void jobDeletesEveryTableInBatchesThenTheCompany() {
+        Map<String, Long> company = company("deleted-user");
+        long companyId = company.get("company");
+        List<Long> items = items(companyId, 5);
+        IntStream.range(0, 3).forEach(i -> jdbc.update(
+                "INSERT INTO employee (name, dept, grade, salary, company_id) VALUES ('e', 'Ops', 'B', 1, ?)", companyId));
+        long location = jdbc.queryForObject(
+                "INSERT INTO location (company_id, name) VALUES (?, 'Depot') RETURNING id", Long.class, companyId);
+        jdbc.update("INSERT INTO stock_level (inventory_id, location_id, company_id, quantity) VALUES (?, ?, ?, 3)",
+                items.get(0), location, companyId);
+        jdbc.update("""
+                INSERT INTO stock_transfer (company_id, inventory_id, from_location_id, to_location_id, quantity)
+                VALUES (?, ?, ?, ?, 1)""", companyId, items.get(0), location, location);
+        long jobId = job(companyId, "PENDING", "INVENTORY", 0, 0, false);
+
+        deletionService.runJobs();
+
+        assertEquals(List.of(ids(items.get(0), items.get(1)), ids(items.get(2), items.get(3)), ids(items.get(4))),
+                batches(items));
+        assertEquals("COMPLETED", status(jobId));
+        // 5 items, 3 employees, the transfer, the location, the company and its user
+        assertEquals(12L, jdbc.queryForObject("SELECT deleted_rows FROM company_deletion_job WHERE id = ?", Long.class, jobId));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM company WHERE id = ?", Integer.class, companyId));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM users WHERE id = ?", Integer.class, company.get("user")));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM employee WHERE company_id = ?", Integer.class, companyId));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM stock_level WHERE company_id = ?", Integer.class, companyId));
+    }
+
+    @Test
+    void staleJobIsTakenOverAndResumesFromItsCursor() {
+        long companyId = company("stale-user").get("company");
+        List<Long> items = items(companyId, 4);
+        // Its node deleted the first batch, recorded it and died
+        jdbc.update("DELETE FROM inventory WHERE id = ANY(?)", (Object) new Long[] { items.get(0), items.get(1) });
+        long jobId = job(companyId, "RUNNING", "INVENTORY", items.get(1), 2, false);
+        double inventoryRows = counted("INVENTORY");
+
+        // Heartbeat still fresh: its node may be running it
+        deletionService.runJobs();
+
+        assertEquals("RUNNING", status(jobId));
+        assertEquals(2, jdbc.queryForObject("SELECT count(*) FROM inventory WHERE company_id = ?", Integer.class, companyId));
+
+        jdbc.update("UPDATE company_deletion_job SET updated_at = now() - interval '1 hour' WHERE id = ?", jobId);
+        deletionService.runJobs();
+
+        assertEquals("COMPLETED", status(jobId));
+        assertEquals(List.of(ids(items.get(2), items.get(3))), batches(items.subList(2, 4)));
+        assertEquals(inventoryRows + 2, counted("INVENTORY"));
+        // Counted on from the persisted total: 2 before, 2 items, the company and its user
+        assertEquals(6L, jdbc.queryForObject("SELECT deleted_rows FROM company_deletion_job WHERE id = ?", Long.class, jobId));
+    }
+
+    @Test
+    void rowsBehindTheCursorSendTheJobRoundAgain() {
+        long companyId = company("gained-user").get("company");
+        List<Long> items = items(companyId, 3);
+        // The cursor is past the first two, as if they had been added after their batch ran
+        long jobId = job(companyId, "RUNNING", "INVENTORY", items.get(1), 0, true);
+
+        deletionService.runJobs();
+
+        // From the cursor first; the final check finds the other two and the job deletes them from the start
+        assertEquals(List.of(ids(items.get(2)), ids(items.get(0), items.get(1))), batches(items));
+        assertEquals("COMPLETED", status(jobId));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM company WHERE id = ?", Integer.class, companyId));
+    }
+
+    private Map<String, Long> company(String username) {
+        Long userId = jdbc.queryForObject(
+                "INSERT INTO users (username, password, role) VALUES (?, 'x', 'USER') RETURNING id", Long.class,
+                username);
+        Long companyId = jdbc.queryForObject(
+                "INSERT INTO company (company_name, user_id) VALUES (?, ?) RETURNING id", Long.class,
+                username + " Co", userId);
+        return Map.of("user", userId, "company", companyId);
+    }
+
+    private List<Long> items(long companyId, int count) {
+        return IntStream.range(0, count).mapToObj(i -> jdbc.queryForObject("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                VALUES ('doomed item', 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 'False', ?) RETURNING id""", Long.class, companyId))
+                .toList();
+    }
+
+    private long job(long companyId, String status, String phase, long lastId, long deletedRows, boolean stale) {
+        return jdbc.queryForObject("""
+                INSERT INTO company_deletion_job (company_id, status, phase, last_id, deleted_rows, updated_at)
+                VALUES (?, ?, ?, ?, ?, now() - CASE WHEN ? THEN interval '1 hour' ELSE interval '0' END)
+                RETURNING id""", Long.class, companyId, status, phase, lastId, deletedRows, stale);
+    }
+
+    private String status(long jobId) {
+        return jdbc.queryForObject("SELECT status FROM company_deletion_job WHERE id = ?", String.class, jobId);
+    }
+
+    /** The given items as deleted, one comma-separated entry per transaction, in the order they ran. **/
+    private List<String> batches(List<Long> items) {
+        return jdbc.queryForList("""
+                SELECT string_agg(id::text, ',' ORDER BY id) FROM deleted_inventory
+                WHERE id = ANY(?) GROUP BY xact_id ORDER BY min(seq)""", String.class,
+                (Object) items.toArray(Long[]::new));
+    }
+
+    private static String ids(Long... ids) {
+        return String.join(",", Arrays.stream(ids).map(String::valueOf).toList());
+    }
+
+    private double counted(String phase) {
+        Counter counter = meterRegistry.find("company.deletion.rows").tag("phase", phase).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,361 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.telusko.SecurityEx.dto.AbcAnalysisDto;
+import com.telusko.SecurityEx.dto.AnalyticsGroupDto;
+import com.telusko.SecurityEx.dto.AnalyticsItemDto;
+import com.telusko.SecurityEx.dto.SlowMoversDto;
+import com.telusko.SecurityEx.dto.ValuationDto;
+import com.telusko.SecurityEx.repo.InventoryColumns;
+
+/**
+ * The analyses on hand-built columns: class and band boundaries, ties, empty and all-zero input, and a
+ * ranking large enough to be split into several sort tasks.
+ */
+class InventoryAnalyticsTests {
+
+    private static final double DELTA = 1e-9;
+
+    private static ForkJoinPool pool;
+    private static InventoryAnalytics analytics;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+        analytics = new InventoryAnalytics(pool);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void abcOfNoItemsIsEmpty() {
+        AbcAnalysisDto result = analytics.abc(columns(), InventoryAnalytics.AbcBasis.VALUE, 0.8, 0.95, null, 0, 10);
+
+        assertEquals(0, result.getTotalItems());
+        assertEquals(0, result.getTotalValue(), DELTA);
+        assertEquals(List.of("A", "B", "C"), result.getClasses().stream().map(AnalyticsGroupDto::getKey).toList());
+        result.getClasses().forEach(group -> {
+            assertEquals(0, group.getItems());
+            assertEquals(0, group.getItemShare(), DELTA);
+            assertEquals(0, group.getValueShare(), DELTA);
+        });
+        assertTrue(result.getItems().isEmpty());
+    }
+
+    @Test
+    void abcClassEndsAtTheItemThatReachesTheThreshold() {
+        // Cumulative shares 50%, 80%, 95%, 100%: item 2 reaches 80% exactly, item 3 reaches 95% exactly
+        InventoryColumns columns = columns(item(1).value(50), item(2).value(30), item(3).value(15), item(4).value(5));
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.8, 0.95, null, 0, 10);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(result.getItems()));
+        assertEquals(List.of("A", "A", "B", "C"), classes(result));
+        assertEquals(List.of(1, 2, 3, 4), result.getItems().stream().map(AnalyticsItemDto::getRank).toList());
+        assertEquals(0.5, result.getItems().get(0).getCumulativeShare().doubleValue(), DELTA);
+        assertEquals(1.0, result.getItems().get(3).getCumulativeShare().doubleValue(), DELTA);
+        assertGroup(result.getClasses().get(0), "A", 2, 80, 100, 4);
+        assertGroup(result.getClasses().get(1), "B", 1, 15, 100, 4);
+        assertGroup(result.getClasses().get(2), "C", 1, 5, 100, 4);
+    }
+
+    @Test
+    void abcIncludesTheItemCrossingTheThreshold() {
+        InventoryColumns columns = columns(item(1).value(50), item(2).value(30), item(3).value(15), item(4).value(5));
+
+        // 60% falls inside item 2, 50% is reached by item 1 on its own
+        assertEquals(List.of("A", "A", "B", "C"), classes(analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE,
+                0.6, 0.9, null, 0, 10)));
+        assertEquals(List.of("A", "B", "B", "C"), classes(analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE,
+                0.5, 0.9, null, 0, 10)));
+    }
+
+    @Test
+    void abcZeroValueItemsFallPastTheLastThreshold() {
+        InventoryColumns columns = columns(item(1).value(60), item(2).value(40), item(3).value(0));
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.5, 1.0, null, 0, 10);
+
+        // The zero-value item adds nothing to the total, so it falls past even the 100% line
+        assertEquals(List.of("A", "B", "C"), classes(result));
+        assertEquals(1, result.getClasses().get(1).getItems());
+        assertEquals(0, result.getClasses().get(2).getValue(), DELTA);
+    }
+
+    @Test
+    void abcTiesRankInIdOrder() {
+        InventoryColumns columns = columns(item(1).value(10), item(2).value(20), item(3).value(10), item(4).value(20),
+                item(5).value(10));
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.5, 0.8, null, 0, 10);
+
+        assertEquals(List.of(2L, 4L, 1L, 3L, 5L), ids(result.getItems()));
+    }
+
+    @Test
+    void abcOfZeroTotalPutsEverythingInC() {
+        InventoryColumns columns = columns(item(1), item(2), item(3));
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.8, 0.95, null, 0, 10);
+
+        assertEquals(List.of("C", "C", "C"), classes(result));
+        assertEquals(List.of(1L, 2L, 3L), ids(result.getItems()));
+        result.getItems().forEach(item -> assertEquals(0, item.getCumulativeShare().doubleValue(), DELTA));
+        assertEquals(1.0, result.getClasses().get(2).getItemShare(), DELTA);
+        assertEquals(0, result.getClasses().get(2).getValueShare(), DELTA);
+    }
+
+    @Test
+    void abcByUsageRanksIssuesTimesPriceAndIgnoresNegativeAndNaN() {
+        InventoryColumns columns = columns(
+                item(1).price(2).issues(10),           // 20
+                item(2).price(100).issues(1),          // 100
+                item(3).price(Double.NaN).issues(50),  // NaN, counted as 0
+                item(4).price(-5).issues(3),           // negative, counted as 0
+                item(5).price(1).issues(30));          // 30
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.USAGE, 0.6, 0.9, null, 0, 10);
+
+        assertEquals("USAGE", result.getBasis());
+        assertEquals(150, result.getTotalValue(), DELTA);
+        assertEquals(List.of(2L, 5L, 1L, 3L, 4L), ids(result.getItems()));
+        assertEquals(List.of(100.0, 30.0, 20.0, 0.0, 0.0),
+                result.getItems().stream().map(AnalyticsItemDto::getMetric).toList());
+    }
+
+    @Test
+    void abcClassFilterPagesWithinTheClass() {
+        // Total 55: item 3 takes the cumulative value past 40% (22), item 6 past 80% (44)
+        InventoryColumns columns = columns(IntStream.rangeClosed(1, 10)
+                .mapToObj(id -> item(id).value(11 - id))
+                .toArray(ItemBuilder[]::new));
+
+        AbcAnalysisDto b = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.4, 0.8, "B", 0, 10);
+        AbcAnalysisDto bPage = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.4, 0.8, "B", 1, 1);
+        AbcAnalysisDto pastEnd = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.4, 0.8, "B", 10, 10);
+
+        assertEquals(List.of(4L, 5L, 6L), ids(b.getItems()));
+        assertEquals(List.of(5L), ids(bPage.getItems()));
+        assertEquals(5, bPage.getItems().get(0).getRank());
+        assertTrue(pastEnd.getItems().isEmpty());
+        // The class summaries do not depend on the filter
+        assertEquals(b.getClasses(), pastEnd.getClasses());
+    }
+
+    @Test
+    void abcOfManyItemsMatchesASequentialRanking() {
+        Random random = new Random(42);
+        int n = 50_000; // several sort, sum and prefix tasks
+        ItemBuilder[] items = new ItemBuilder[n];
+        for (int i = 0; i < n; i++) {
+            // Few distinct values, so most comparisons are ties across task boundaries
+            items[i] = item(i + 1).value(random.nextInt(20)).qty(random.nextInt(5));
+        }
+        InventoryColumns columns = columns(items);
+
+        AbcAnalysisDto result = analytics.abc(columns, InventoryAnalytics.AbcBasis.VALUE, 0.5, 0.8, null, 0, n);
+
+        long[] expected = IntStream.range(0, n).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -columns.stockValue()[i]).thenComparingInt(i -> i))
+                .mapToLong(i -> columns.ids()[i])
+                .toArray();
+        assertArrayEquals(expected, result.getItems().stream().mapToLong(AnalyticsItemDto::getId).toArray());
+        double total = IntStream.range(0, n).mapToDouble(i -> columns.stockValue()[i]).sum();
+        assertEquals(total, result.getTotalValue(), DELTA);
+        assertEquals(n, result.getClasses().stream().mapToLong(AnalyticsGroupDto::getItems).sum());
+        assertEquals(IntStream.of(columns.qtyInStock()).sum(),
+                result.getClasses().stream().mapToDouble(AnalyticsGroupDto::getQuantity).sum(), DELTA);
+        double previous = 0;
+        for (AnalyticsItemDto item : result.getItems()) {
+            assertTrue(item.getCumulativeShare() >= previous);
+            previous = item.getCumulativeShare();
+        }
+        assertEquals(1.0, previous, DELTA);
+    }
+
+    @Test
+    void slowMoversOfNoItemsIsEmpty() {
+        SlowMoversDto result = analytics.slowMovers(columns(), 3, 10);
+
+        assertEquals(0, result.getItems());
+        assertEquals(0, result.getTiedUpValue(), DELTA);
+        assertEquals(0, result.getValueShare(), DELTA);
+        assertEquals(0, result.getDeadStockItems());
+        assertTrue(result.getTopItems().isEmpty());
+    }
+
+    @Test
+    void slowMoversAreDeadStockAndItemsCoveringMoreThanMaxCover() {
+        InventoryColumns columns = columns(
+                item(1).qty(10).issues(0).value(100),  // dead stock
+                item(2).qty(30).issues(10).value(50),  // cover 3, exactly the limit: not slow
+                item(3).qty(31).issues(10).value(70),  // cover 3.1
+                item(4).qty(0).issues(0).value(0),     // nothing on hand
+                item(5).qty(5).issues(-1).value(30),   // returns only, counted as nothing issued
+                item(6).qty(1).issues(100).value(50)); // fast
+
+        SlowMoversDto result = analytics.slowMovers(columns, 3, 10);
+
+        assertEquals(3, result.getItems());
+        assertEquals(List.of(1L, 3L, 5L), ids(result.getTopItems()));
+        assertEquals(200, result.getTiedUpValue(), DELTA);
+        assertEquals(200.0 / 300, result.getValueShare(), DELTA);
+        assertEquals(2, result.getDeadStockItems());
+        assertEquals(130, result.getDeadStockValue(), DELTA);
+        assertNull(result.getTopItems().get(0).getCover());
+        assertEquals(3.1, result.getTopItems().get(1).getCover().doubleValue(), DELTA);
+    }
+
+    @Test
+    void slowMoversListsTiesInIdOrderUpToTheLimit() {
+        InventoryColumns columns = columns(item(1).qty(1).value(5), item(2).qty(1).value(9), item(3).qty(1).value(5),
+                item(4).qty(1).value(5));
+
+        SlowMoversDto result = analytics.slowMovers(columns, 0, 3);
+
+        assertEquals(4, result.getItems());
+        assertEquals(List.of(2L, 1L, 3L), ids(result.getTopItems()));
+        assertEquals(List.of(1, 2, 3), result.getTopItems().stream().map(AnalyticsItemDto::getRank).toList());
+    }
+
+    @Test
+    void valuationOfNoItemsHasEmptyGroups() {
+        ValuationDto result = analytics.valuation(columns());
+
+        assertEquals(0, result.getTotalItems());
+        assertEquals(0, result.getTotalQuantity());
+        assertEquals(0, result.getTotalValue(), DELTA);
+        assertEquals(3, result.getByStockStatus().size());
+        assertEquals(6, result.getByPriceBand().size());
+        result.getByPriceBand().forEach(band -> assertEquals(0, band.getItems()));
+    }
+
+    @Test
+    void valuationStatusBoundaries() {
+        InventoryColumns columns = columns(
+                item(1).qty(0).reorderPoint(5),
+                item(2).qty(-2).reorderPoint(0).value(-10),
+                item(3).qty(4).reorderPoint(5).value(40),
+                item(4).qty(5).reorderPoint(5).value(50),
+                item(5).qty(7).reorderPoint(0).value(70));
+
+        ValuationDto result = analytics.valuation(columns);
+
+        assertEquals(List.of("OUT_OF_STOCK", "BELOW_REORDER_POINT", "IN_STOCK"),
+                result.getByStockStatus().stream().map(AnalyticsGroupDto::getKey).toList());
+        assertEquals(List.of(2L, 1L, 2L), result.getByStockStatus().stream().map(AnalyticsGroupDto::getItems).toList());
+        assertEquals(14, result.getTotalQuantity());
+        assertEquals(150, result.getTotalValue(), DELTA);
+        assertEquals(120, result.getByStockStatus().get(2).getValue(), DELTA);
+        assertEquals(0.8, result.getByStockStatus().get(2).getValueShare(), DELTA);
+        assertEquals(0.4, result.getByStockStatus().get(0).getItemShare(), DELTA);
+    }
+
+    @Test
+    void valuationPriceBandBoundaries() {
+        double[] prices = { Double.NaN, -1, 0, 0.99, 1, 9.99, 10, 99.99, 100, 999.99, 1000, 9999.99, 10000, 1e9 };
+        ItemBuilder[] items = new ItemBuilder[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            items[i] = item(i + 1).price(prices[i]).qty(1).value(1);
+        }
+
+        ValuationDto result = analytics.valuation(columns(items));
+
+        assertEquals(List.of("<1", "1-10", "10-100", "100-1000", "1000-10000", ">=10000"),
+                result.getByPriceBand().stream().map(AnalyticsGroupDto::getKey).toList());
+        assertEquals(List.of(4L, 2L, 2L, 2L, 2L, 2L),
+                result.getByPriceBand().stream().map(AnalyticsGroupDto::getItems).toList());
+        assertEquals(prices.length, result.getTotalItems());
+    }
+
+    private static void assertGroup(AnalyticsGroupDto group, String key, long items, double value, double total,
+                                    long allItems) {
+        assertEquals(key, group.getKey());
+        assertEquals(items, group.getItems());
+        assertEquals(value, group.getValue(), DELTA);
+        assertEquals(value / total, group.getValueShare(), DELTA);
+        assertEquals((double) items / allItems, group.getItemShare(), DELTA);
+    }
+
+    private static List<Long> ids(List<AnalyticsItemDto> items) {
+        return items.stream().map(AnalyticsItemDto::getId).toList();
+    }
+
+    private static List<String> classes(AbcAnalysisDto result) {
+        return result.getItems().stream().map(AnalyticsItemDto::getAbcClass).toList();
+    }
+
+    private static ItemBuilder item(long id) {
+        return new ItemBuilder(id);
+    }
+
+    private static InventoryColumns columns(ItemBuilder... items) {
+        int n = items.length;
+        InventoryColumns columns = new InventoryColumns(n, new long[n], new double[n], new int[n], new double[n],
+                new int[n], new int[n]);
+        for (int i = 0; i < n; i++) {
+            columns.ids()[i] = items[i].id;
+            columns.price()[i] = items[i].price;
+            columns.qtyInStock()[i] = items[i].qty;
+            columns.stockValue()[i] = items[i].value;
+            columns.issues()[i] = items[i].issues;
+            columns.reorderPoint()[i] = items[i].reorderPoint;
+        }
+        return columns;
+    }
+
+    private static final class ItemBuilder {
+        private final long id;
+        private double price;
+        private int qty;
+        private double value;
+        private int issues;
+        private int reorderPoint;
+
+        ItemBuilder(long id) {
+            this.id = id;
+        }
+
+        ItemBuilder price(double price) {
+            this.price = price;
+            return this;
+        }
+
+        ItemBuilder qty(int qty) {
+            this.qty = qty;
+            return this;
+        }
+
+        ItemBuilder value(double value) {
+            this.value = value;
+            return this;
+        }
+
+        ItemBuilder issues(int issues) {
+            this.issues = issues;
+            return this;
+        }
+
+        ItemBuilder reorderPoint(int reorderPoint) {
+            this.reorderPoint = reorderPoint;
+            return this;
+        }
+    }
+}
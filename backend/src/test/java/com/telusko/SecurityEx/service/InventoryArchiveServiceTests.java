@@ -0,0 +1,137 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.exception.ResourceNotFoundException;
+import com.telusko.SecurityEx.repo.ArchivedInventory;
+
+/**
+ * Archives discontinued items into segments of two-item blocks, restores one and pages through the month
+ * around it: the restored item is back as active with its categories, and gone from the archive listing
+ * without cutting a page short.
+ */
+@Testcontainers
+@SpringBootTest(properties = {"app.archive.after=PT0S", "app.archive.block-size=2"})
+@WithMockUser(username = "archive-user")
+class InventoryArchiveServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("app.archive.dir", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private InventoryArchiver archiver;
+
+    @Autowired
+    private InventoryArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private static Long companyId;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            Long userId = jdbc.queryForObject(
+                    "INSERT INTO users (username, password, role) VALUES ('archive-user', 'x', 'USER') RETURNING id",
+                    Long.class);
+            companyId = jdbc.queryForObject(
+                    "INSERT INTO company (company_name, user_id) VALUES ('Archive Co', ?) RETURNING id", Long.class,
+                    userId);
+        }
+    }
+
+    @Test
+    void restoredItemLeavesTheArchiveListing() {
+        long categoryId = jdbc.queryForObject(
+                "INSERT INTO category (company_id, name) VALUES (?, 'Spares') RETURNING id", Long.class, companyId);
+        long first = discontinued("2024-03-05");
+        long second = discontinued("2024-03-10");
+        long third = discontinued("2024-03-20");
+        long april = discontinued("2024-04-02");
+        long active = jdbc.queryForObject("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                VALUES ('still sold', 0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 'False', ?) RETURNING id""", Long.class, companyId);
+        jdbc.update("INSERT INTO inventory_category (category_id, inventory_id, company_id) VALUES (?, ?, ?)",
+                categoryId, second, companyId);
+
+        archiver.archive();
+
+        assertEquals(List.of(active), jdbc.queryForList("SELECT id FROM inventory WHERE id = ANY(?)", Long.class,
+                (Object) new Long[] { first, second, third, april, active }));
+        assertEquals(List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 4)), archiveService.getArchiveMonths(companyId));
+        assertEquals(List.of(first, second, third), ids(archiveService.getArchivedItems(companyId, "2024-03", null, 10)));
+        assertEquals(List.of(april), ids(archiveService.getArchivedItems(companyId, "2024-04", null, 10)));
+
+        archiveService.restore(companyId, second);
+
+        assertEquals("ACTIVE", jdbc.queryForObject("SELECT status FROM inventory WHERE id = ?", String.class, second));
+        assertEquals(List.of(categoryId), jdbc.queryForList(
+                "SELECT category_id FROM inventory_category WHERE inventory_id = ?", Long.class, second));
+        // Pages of one: the page after first skips the restored item instead of coming back empty
+        assertEquals(List.of(first), ids(archiveService.getArchivedItems(companyId, "2024-03", null, 1)));
+        assertEquals(List.of(third), ids(archiveService.getArchivedItems(companyId, "2024-03", first, 1)));
+        assertEquals(List.of(), archiveService.getArchivedItems(companyId, "2024-03", third, 1));
+        assertThrows(ResourceNotFoundException.class, () -> archiveService.getArchivedItem(companyId, second));
+        assertEquals(third, archiveService.getArchivedItem(companyId, third).id());
+
+        ResponseStatusException again = assertThrows(ResponseStatusException.class,
+                () -> archiveService.restore(companyId, second));
+        assertEquals(HttpStatus.CONFLICT, again.getStatusCode());
+    }
+
+    @Test
+    void itemsWithStockLeftStayInTheTable() {
+        long stocked = discontinued("2024-03-05");
+        jdbc.update("UPDATE inventory SET closing_stock = 3 WHERE id = ?", stocked);
+
+        archiver.archive();
+
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM inventory WHERE id = ?", Integer.class, stocked));
+        assertThrows(ResourceNotFoundException.class, () -> archiveService.getArchivedItem(companyId, stocked));
+    }
+
+    private long discontinued(String day) {
+        return jdbc.queryForObject("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id,
+                                       status, status_changed_at)
+                VALUES ('old item', 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 'False', ?, 'DISCONTINUED', CAST(? AS timestamptz))
+                RETURNING id""", Long.class, companyId, day + "T12:00:00Z");
+    }
+
+    private static List<Long> ids(List<ArchivedInventory> items) {
+        return items.stream().map(ArchivedInventory::id).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Key rotation and token types: a token is verified with the key its kid names, is rejected once that key
+ * is retired or when the kid is unknown, and access and refresh tokens are told apart by their type claim.
+ */
+class JWTServiceTests {
+
+    private static final String OLD_SECRET = secret('o');
+    private static final String NEW_SECRET = secret('n');
+
+    @Test
+    void tokenSignedWithAnOlderKeyIsAcceptedUntilTheKeyIsRetired() {
+        String token = new JWTService("old:" + OLD_SECRET, "old", 15, 7).generateToken("alice", "USER");
+
+        // Rotated: new tokens are signed with the new key, the old one still verifies
+        JWTService rotated = new JWTService("old:" + OLD_SECRET + ",new:" + NEW_SECRET, "new", 15, 7);
+        assertEquals("alice", rotated.parseToken(token).getSubject());
+        assertEquals("alice", rotated.parseToken(rotated.generateToken("alice", "USER")).getSubject());
+
+        JWTService retired = new JWTService("new:" + NEW_SECRET, "new", 15, 7);
+        assertThrows(JwtException.class, () -> retired.parseToken(token));
+    }
+
+    @Test
+    void tokenWithAnUnknownKeyIdIsRejected() {
+        JWTService jwtService = new JWTService("old:" + OLD_SECRET, "old", 15, 7);
+        // Signed with a configured secret, but naming a key the service doesn't have
+        String token = Jwts.builder()
+                .header().keyId("other").and()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OLD_SECRET)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(token));
+    }
+
+    @Test
+    void accessAndRefreshTokensAreToldApart() {
+        JWTService jwtService = new JWTService("old:" + OLD_SECRET, "old", 15, 7);
+
+        Claims access = jwtService.parseToken(jwtService.generateToken("alice", "USER", 3L, "premium"));
+        Claims refresh = jwtService.parseToken(jwtService.generateRefreshToken("alice"));
+
+        assertTrue(jwtService.isAccessToken(access));
+        assertFalse(jwtService.isRefreshToken(access));
+        assertTrue(jwtService.isRefreshToken(refresh));
+        assertFalse(jwtService.isAccessToken(refresh));
+        assertEquals(3L, access.get(JWTService.COMPANY_CLAIM, Long.class));
+        // Refresh tokens carry no role, so they could not authorize a request even if they were accepted
+        assertNull(refresh.get("role"));
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,145 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.dto.InventoryDto;
+import com.telusko.SecurityEx.dto.LocationDto;
+import com.telusko.SecurityEx.dto.StockLevelDto;
+import com.telusko.SecurityEx.dto.StockTransferDto;
+
+/**
+ * An item's qtyInStock against its location counts: counts can't be raised past the item's stock, issues
+ * can't take the stock below what the locations hold, and transfers move stock without touching either.
+ * A discontinued item takes neither edits nor counts until it is reactivated.
+ */
+@Testcontainers
+@SpringBootTest
+@WithMockUser(username = "location-user")
+class LocationServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private static Long companyId;
+
+    private Long itemId;
+    private Long warehouse;
+    private Long store;
+
+    @BeforeEach
+    void seed() {
+        if (companyId == null) {
+            Long userId = jdbc.queryForObject(
+                    "INSERT INTO users (username, password, role) VALUES ('location-user', 'x', 'USER') RETURNING id",
+                    Long.class);
+            companyId = jdbc.queryForObject(
+                    "INSERT INTO company (company_name, user_id) VALUES ('Location Co', ?) RETURNING id", Long.class,
+                    userId);
+        }
+        itemId = jdbc.queryForObject("""
+                INSERT INTO inventory (product_name, qty_in_stock, price, stock_value, reorder_point, opening_stock,
+                                       receipts, issues, closing_stock, minimum_stock, buffer_stock, is_reorder, company_id)
+                VALUES ('counted item', 10, 1, 10, 0, 10, 0, 0, 10, 0, 0, 'False', ?) RETURNING id""",
+                Long.class, companyId);
+        warehouse = locationService.addLocation(companyId, new LocationDto("Warehouse " + itemId, 100)).getId();
+        store = locationService.addLocation(companyId, new LocationDto("Store " + itemId, 100)).getId();
+    }
+
+    @Test
+    void countsCannotExceedTheItemsStock() {
+        locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 6));
+        locationService.setStockLevel(store, new StockLevelDto(itemId, 4));
+
+        ResponseStatusException tooMany = assertThrows(ResponseStatusException.class,
+                () -> locationService.setStockLevel(store, new StockLevelDto(itemId, 5)));
+        assertEquals(HttpStatus.CONFLICT, tooMany.getStatusCode());
+
+        // Lowering a count is always fine; it frees stock for the other location
+        locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 5));
+        locationService.setStockLevel(store, new StockLevelDto(itemId, 5));
+        assertEquals(10, placed());
+    }
+
+    @Test
+    void issuesCannotTakeTheStockBelowWhatLocationsHold() {
+        locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 7));
+
+        ResponseStatusException belowPlaced = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.updateInventory(itemId, issues(4)));
+        assertEquals(HttpStatus.CONFLICT, belowPlaced.getStatusCode());
+        assertEquals(10, jdbc.queryForObject("SELECT qty_in_stock FROM inventory WHERE id = ?", Integer.class, itemId));
+
+        assertEquals(7, inventoryService.updateInventory(itemId, issues(3)).getQtyInStock());
+    }
+
+    @Test
+    void transfersKeepTheTotal() {
+        locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 10));
+
+        locationService.transferStock(new StockTransferDto(itemId, warehouse, store, 4));
+
+        assertEquals(6, quantity(warehouse));
+        assertEquals(4, quantity(store));
+        assertEquals(10, jdbc.queryForObject("SELECT qty_in_stock FROM inventory WHERE id = ?", Integer.class, itemId));
+    }
+
+    @Test
+    void discontinuedItemIsNotChangedUntilReactivated() {
+        inventoryService.deleteInventory(itemId);
+
+        ResponseStatusException edited = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.updateInventory(itemId, issues(1)));
+        assertEquals(HttpStatus.CONFLICT, edited.getStatusCode());
+        ResponseStatusException counted = assertThrows(ResponseStatusException.class,
+                () -> locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 2)));
+        assertEquals(HttpStatus.CONFLICT, counted.getStatusCode());
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM stock_level WHERE inventory_id = ?", Integer.class,
+                itemId));
+
+        inventoryService.reactivateInventory(itemId);
+
+        assertEquals(9, inventoryService.updateInventory(itemId, issues(1)).getQtyInStock());
+        locationService.setStockLevel(warehouse, new StockLevelDto(itemId, 2));
+        assertEquals(2, quantity(warehouse));
+    }
+
+    private static InventoryDto issues(int issues) {
+        InventoryDto dto = new InventoryDto();
+        dto.setIssues(issues);
+        return dto;
+    }
+
+    private int quantity(Long locationId) {
+        return jdbc.queryForObject("SELECT quantity FROM stock_level WHERE inventory_id = ? AND location_id = ?",
+                Integer.class, itemId, locationId);
+    }
+
+    private int placed() {
+        return jdbc.queryForObject("SELECT sum(quantity) FROM stock_level WHERE inventory_id = ?", Integer.class,
+                itemId);
+    }
+}
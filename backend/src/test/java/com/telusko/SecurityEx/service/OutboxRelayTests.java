@@ -0,0 +1,209 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.telusko.SecurityEx.model.OutboxEvent;
+
+/**
+ * Relays events through a recording subscriber: order per aggregate, also when two transactions publish
+ * for one aggregate at once, and a poison event that aborts the Postgres transaction with an SQL error,
+ * which must cost neither the rest of the batch nor its shard, only its aggregate until it is put back.
+ */
+@Testcontainers
+@SpringBootTest(properties = {"app.outbox.enabled=true", "app.outbox.shards=1", "app.outbox.max-attempts=2",
+        // Relayed by the tests only; the scheduler's first run finds an empty table
+        "app.outbox.poll-interval-ms=3600000"})
+class OutboxRelayTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TestConfiguration
+    static class SubscriberConfig {
+
+        @Bean
+        RecordingSubscriber recordingSubscriber(JdbcTemplate jdbc) {
+            return new RecordingSubscriber(jdbc);
+        }
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+        final Set<Long> poison = ConcurrentHashMap.newKeySet();
+        private final JdbcTemplate jdbc;
+
+        RecordingSubscriber(JdbcTemplate jdbc) {
+            this.jdbc = jdbc;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (poison.contains(event.getId())) {
+                // Aborts the transaction on the server, as any failed statement does in Postgres
+                jdbc.queryForObject("SELECT 1 / 0", Integer.class);
+            }
+            handled.add(event.getId());
+        }
+    }
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void clear() {
+        jdbc.update("DELETE FROM outbox_event");
+        subscriber.handled.clear();
+        subscriber.poison.clear();
+    }
+
+    @Test
+    void dispatchesEachAggregateInIdOrderAndDeletesWhatWasHandled() {
+        long a1 = insertEvent(1);
+        long b1 = insertEvent(2);
+        long a2 = insertEvent(1);
+        long b2 = insertEvent(2);
+        long a3 = insertEvent(1);
+
+        relay.relay();
+
+        assertEquals(List.of(a1, a2, a3), handledOf(a1, a2, a3));
+        assertEquals(List.of(b1, b2), handledOf(b1, b2));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM outbox_event", Integer.class));
+    }
+
+    @Test
+    void poisonEventBlocksOnlyItsAggregateUntilPutBack() {
+        long poisoned = insertEvent(10);
+        long sameAggregate = insertEvent(10);
+        long otherAggregate = insertEvent(11);
+        subscriber.poison.add(poisoned);
+
+        relay.relay();
+
+        // The SQL error was rolled back to the event's savepoint, so the batch still committed
+        assertEquals(List.of(otherAggregate), subscriber.handled);
+        Map<String, Object> failed = event(poisoned);
+        assertEquals(1, failed.get("attempts"));
+        assertNotNull(failed.get("last_error"));
+        assertNull(failed.get("failed_at"));
+        assertEquals(0, event(sameAggregate).get("attempts"));
+
+        relay.relay();
+
+        // max-attempts reached: parked, and still holding back the rest of its aggregate
+        assertEquals(2, event(poisoned).get("attempts"));
+        assertNotNull(event(poisoned).get("failed_at"));
+        assertEquals(List.of(otherAggregate), subscriber.handled);
+
+        relay.relay();
+
+        assertEquals(List.of(otherAggregate), subscriber.handled);
+        assertEquals(List.of(poisoned, sameAggregate),
+                jdbc.queryForList("SELECT id FROM outbox_event ORDER BY id", Long.class));
+
+        // Put back once the subscriber is fixed: the parked event goes first, then the one it held back
+        subscriber.poison.clear();
+        jdbc.update("UPDATE outbox_event SET failed_at = NULL, attempts = 0 WHERE id = ?", poisoned);
+        relay.relay();
+
+        assertEquals(List.of(otherAggregate, poisoned, sameAggregate), subscriber.handled);
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM outbox_event", Integer.class));
+    }
+
+    @Test
+    void concurrentPublishersOfAnAggregateCommitInIdOrder() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                outboxService.publish("Test", 20L, "First", Map.of());
+                firstPublished.countDown();
+                await(releaseFirst);
+            }));
+            assertTrue(firstPublished.await(10, TimeUnit.SECONDS));
+            Future<?> second = executor.submit(() -> transaction.executeWithoutResult(
+                    status -> outboxService.publish("Test", 20L, "Second", Map.of())));
+
+            // The second publisher waits for the aggregate's lock, so it can't take an id and commit first
+            assertThrows(TimeoutException.class, () -> second.get(300, TimeUnit.MILLISECONDS));
+            releaseFirst.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            releaseFirst.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of("First", "Second"),
+                jdbc.queryForList("SELECT event_type FROM outbox_event WHERE aggregate_id = 20 ORDER BY id", String.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long insertEvent(long aggregateId) {
+        return jdbc.queryForObject("""
+                INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload)
+                VALUES ('Test', ?, 'TestEvent', '{}') RETURNING id""", Long.class, aggregateId);
+    }
+
+    private Map<String, Object> event(long id) {
+        return jdbc.queryForMap("SELECT attempts, last_error, failed_at FROM outbox_event WHERE id = ?", id);
+    }
+
+    private List<Long> handledOf(Long... ids) {
+        List<Long> of = List.of(ids);
+        return subscriber.handled.stream().filter(of::contains).toList();
+    }
+}
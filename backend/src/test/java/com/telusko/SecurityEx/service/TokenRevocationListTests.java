@@ -0,0 +1,128 @@
+package com.telusko.SecurityEx.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Tokens at the API: a refresh token is no credential and an access token can't be refreshed, and a jti
+ * revoked through revoked_token by another node is rejected here once this node has synced, even when the
+ * revoking transaction commits long after its revoked_at.
+ */
+@Testcontainers
+@AutoConfigureMockMvc
+@SpringBootTest
+class TokenRevocationListTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static boolean seeded;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void seed() {
+        if (!seeded) {
+            Long userId = jdbc.queryForObject(
+                    "INSERT INTO users (username, password, role) VALUES ('token-user', 'x', 'USER') RETURNING id",
+                    Long.class);
+            jdbc.update("INSERT INTO company (company_name, user_id) VALUES ('Token Co', ?)", userId);
+            seeded = true;
+        }
+    }
+
+    @Test
+    void tokensOnlyWorkForTheirOwnPurpose() throws Exception {
+        String access = jwtService.generateToken("token-user", "USER");
+        String refresh = jwtService.generateRefreshToken("token-user");
+
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", "Bearer " + access))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", "Bearer " + refresh))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(refresh(access))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(refresh(refresh))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenRevokedByAnotherNodeIsRejectedAfterSync() throws Exception {
+        String access = jwtService.generateToken("token-user", "USER");
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", "Bearer " + access))
+                .andExpect(status().isOk());
+
+        // What /logout on another node leaves behind: the row only, not this node's copy
+        Claims claims = jwtService.parseToken(access);
+        jdbc.update("INSERT INTO revoked_token (token_id, expires_at) VALUES (?, ?)", claims.getId(),
+                claims.getExpiration());
+        revocationList.sync();
+
+        mockMvc.perform(get("/companies/user-company-id").header("Authorization", "Bearer " + access))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revocationCommittedLateIsStillSynced() throws Exception {
+        String tokenId = UUID.randomUUID().toString();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            // Stamped an hour before it becomes visible, far beyond any overlap a time-based sync could use
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO revoked_token (token_id, expires_at, revoked_at)
+                    VALUES (?, now() + interval '1 hour', now() - interval '1 hour')""")) {
+                insert.setString(1, tokenId);
+                insert.executeUpdate();
+            }
+            revocationList.sync();
+            connection.commit();
+        }
+
+        revocationList.sync();
+
+        assertTrue(revocationList.isRevoked(tokenId));
+    }
+
+    private static MockHttpServletRequestBuilder refresh(String token) {
+        return post("/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"" + token + "\"}");
+    }
+}
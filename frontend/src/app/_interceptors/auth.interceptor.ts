@@ -1,5 +1,6 @@
-import { HttpInterceptorFn } from '@angular/common/http';
+import { HttpErrorResponse, HttpInterceptorFn } from '@angular/common/http';
 import { inject } from '@angular/core';
+import { catchError, switchMap, throwError } from 'rxjs';
 import { AuthService } from '../_services/auth/auth.service';
 
 export const authInterceptor: HttpInterceptorFn = (req, next) => {
@@ -26,5 +27,19 @@ export const authInterceptor: HttpInterceptorFn = (req, next) => {
     console.log(`Token attached for request to ${req.url}`);
   }
 
-  return next(authReq);
+  return next(authReq).pipe(
+    catchError((error: HttpErrorResponse) => {
+      // The access token is short-lived: renew it once with the refresh token and replay the request
+      if (error.status !== 401 || shouldSkipAuth || !authService.getRefreshToken()) {
+        return throwError(() => error);
+      }
+      return authService.refresh().pipe(
+        switchMap((response: any) => next(req.clone({
+          setHeaders: {
+            Authorization: `Bearer ${response.token}`
+          }
+        })))
+      );
+    })
+  );
 };
@@ -5,6 +5,7 @@ import { environment } from '../../../environments/environment';
 import { tap } from 'rxjs/internal/operators/tap';
 import { catchError } from 'rxjs/internal/operators/catchError';
 import { throwError } from 'rxjs/internal/observable/throwError';
+import { Observable } from 'rxjs';
 
 @Injectable({
   providedIn: 'root'
@@ -33,6 +34,7 @@ export class AuthService {
         // Assuming the response contains the JWT token and the role
         const token = response.token; // Token is returned as part of the response
         this.setToken(token); // Store the token in local storage
+        this.setRefreshToken(response.refreshToken);
         const userRole = this.getUserRole(); // Get the user role from the token
 
         console.log("Role: "+userRole); 
@@ -49,9 +51,25 @@ export class AuthService {
     );
   }
 
-  // Log out the user by removing the token
+  // Exchange the refresh token for a new token pair without asking for the password again
+  refresh(): Observable<any> {
+    return this.http.post(`${this.apiUrl}/refresh`, { refreshToken: this.getRefreshToken() }, {
+      headers: { 'No-Auth': 'True' }
+    }).pipe(
+      tap((response: any) => {
+        this.setToken(response.token);
+        this.setRefreshToken(response.refreshToken);
+      })
+    );
+  }
+
+  // Log out the user by revoking and removing the tokens
   logout() {
+    if (this.getToken()) {
+      this.http.post(`${this.apiUrl}/logout`, { refreshToken: this.getRefreshToken() }).subscribe({ error: () => {} });
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     this.router.navigate(['/home']);
   }
 
@@ -83,4 +101,12 @@ export class AuthService {
   setToken(token: string) {
     localStorage.setItem('token', token);
   }
+
+  getRefreshToken(): string | null {
+    return localStorage.getItem('refreshToken');
+  }
+
+  setRefreshToken(refreshToken: string) {
+    localStorage.setItem('refreshToken', refreshToken);
+  }
 }
@@ -1,9 +1,10 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { environment } from '../../../environments/environment';
 import { Observable } from 'rxjs';
 import { Company } from '../../models/company';
 import { User } from '../../models/user';
+import { CompanyDashboard } from '../../models/dashboard';
 
 @Injectable({ providedIn: 'root' })
 export class CompanyService {
@@ -23,6 +24,16 @@ export class CompanyService {
     return this.http.get<Company>(`${environment.apiUrl}/companies/${companyId}`);
   }
 
+  // Company details and the first items of each inventory list in one request; no companyId means the user's own
+  getDashboard(companyId?: number, limit: number = 20): Observable<CompanyDashboard> {
+    const params = new HttpParams()
+      .set('inventoryLimit', limit)
+      .set('outOfStockLimit', limit)
+      .set('reorderLimit', limit);
+    const path = companyId ? `${companyId}/dashboard` : 'dashboard';
+    return this.http.get<CompanyDashboard>(`${environment.apiUrl}/companies/${path}`, { params });
+  }
+
   updateCompany(companyId: number, company: Company): Observable<Company> {
     return this.http.put<Company>(`${environment.apiUrl}/companies/${companyId}`,company);
   }
@@ -66,55 +66,44 @@ export class InventoryListComponent {
     if (companyId) {
       this.companyId = companyId;
       this.fetchInventoriesByCompanyId(companyId);
-    } else {
-      this.fetchInventories();
     }
-  }
-
-  private fetchInventoriesByCompanyId(companyId: number): void {
-    this.inventoryService.getInventory(companyId).subscribe({
-      next: (data) => {
-        this.inventories = data;
-        this.filteredInventories = [...this.inventories];  // initialize filtered list
+    // Company header (and, without a route id, the user's own company id) from the dashboard, with no items
+    this.companyService.getDashboard(companyId || undefined, 0).subscribe({
+      next: (dashboard) => {
+        this.companyDetails = dashboard.company;
+        if (!companyId) {
+          this.companyId = dashboard.company.id;
+          this.fetchInventoriesByCompanyId(this.companyId);
+        }
       },
       error: (error) => {
-        console.error('Error fetching inventory list', error);
+        console.error('Error fetching company details', error);
         if (error.status === 401) { 
           this.router.navigate(['/forbidden']); 
         } else {
-          this.errorMessage = 'Failed to load inventory details. Please try again.';
+          this.errorMessage = 'Could not retrieve company or inventory information. Please try again.';
         }
       },
     });
+  }
 
-    this.companyService.getCompanyDetails(companyId).subscribe({
-      next: (company) => {
-        this.companyDetails = company;
+  private fetchInventoriesByCompanyId(companyId: number): void {
+    this.inventoryService.getInventory(companyId).subscribe({
+      next: (data) => {
+        this.inventories = data;
+        this.filteredInventories = [...this.inventories];  // initialize filtered list
       },
       error: (error) => {
-        console.error('Error fetching company details', error);
+        console.error('Error fetching inventory list', error);
         if (error.status === 401) { 
           this.router.navigate(['/forbidden']); 
         } else {
-          this.errorMessage = 'Failed to load company details. Please try again.';
+          this.errorMessage = 'Failed to load inventory details. Please try again.';
         }
       },
     });
   }
 
-  private fetchInventories(): void {
-    this.companyService.getUserCompanyId().subscribe({
-      next: (companyId) => {
-        this.companyId = companyId;
-        this.fetchInventoriesByCompanyId(companyId);
-      },
-      error: (error) => {
-        console.error('Error fetching company ID', error);
-        this.errorMessage = 'Could not retrieve company or inventory information. Please try again.';
-      },
-    });
-  }
-
   /* MODALS */
 
   //EDIT
@@ -2,7 +2,7 @@ import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { CompanyService } from '../../../_services/company/company.service';
 import { RouterModule } from '@angular/router';
-import { Company } from '../../../models/company';
+import { CompanyDashboard } from '../../../models/dashboard';
 
 
 @Component({
@@ -13,33 +13,23 @@ import { Company } from '../../../models/company';
   styleUrls: ['./user-dashboard.component.css'],
 })
 export class UserDashboardComponent implements OnInit {
-  companyDetails: Company | null = null;
+  dashboard: CompanyDashboard | null = null;
   errorMessage: string = '';
 
   constructor(private companyService: CompanyService) {}
 
   ngOnInit(): void {
-    this.fetchCompanyDetails();
+    this.fetchDashboard();
   }
 
-  private fetchCompanyDetails(): void {
-    // Step 1: Fetch companyId for the authenticated user
-    this.companyService.getUserCompanyId().subscribe({
-      next: (companyId) => {
-        // Step 2: Fetch company details with the obtained companyId
-        this.companyService.getCompanyDetails(companyId).subscribe({
-          next: (company) => {
-            this.companyDetails = company;
-          },
-          error: (error) => {
-            console.error('Error fetching company details', error);
-            this.errorMessage =
-              'Failed to load company details. Please try again.';
-          },
-        });
+  private fetchDashboard(): void {
+    // One request for the user's company and its stock alerts
+    this.companyService.getDashboard().subscribe({
+      next: (dashboard) => {
+        this.dashboard = dashboard;
       },
       error: (error) => {
-        console.error('Error fetching company ID', error);
+        console.error('Error fetching company dashboard', error);
         this.errorMessage =
           'Could not retrieve company information. Please try again.';
       },
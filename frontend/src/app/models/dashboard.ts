@@ -0,0 +1,23 @@
+import { Inventory } from "./inventory";
+
+export interface DashboardSection {
+    items: Inventory[];
+    hasMore: boolean;     // more items than the requested limit
+}
+
+export interface CompanyDashboard {
+    company: {
+        id: number;
+        companyName: string;
+        capacity: string;
+        location: string;
+        plan: string;
+        inventoryCount: number;
+        employeeCount: number;
+        totalStockValue: number;
+    };
+    ownerUsername: string;
+    inventories: DashboardSection;
+    outOfStock: DashboardSection;
+    reorder: DashboardSection;
+}
@@ -16,4 +16,5 @@ export interface Inventory {
     minimumStock: number; // The minimum threshold to avoid stockouts
     bufferStock: number;
     isReorder: string;
+    status?: 'ACTIVE' | 'DISCONTINUED';  // deleting an item discontinues it; it is archived later
 }